@@ -0,0 +1,12 @@
+package com.kintai.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定期実行ジョブ設定
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,20 +1,48 @@
 package com.kintai.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.concurrent.Callable;
+
 /**
  * Web設定クラス
  * SPA ルーティングのためのフォワード設定を追加
+ * 非同期応答（StreamingResponseBody など）のタイムアウトをエンドポイントごとに指定できるようにする
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    /**
+     * 非同期応答のタイムアウト（ミリ秒、Long）を指定するリクエスト属性
+     * 応答時間の長いエンドポイントはハンドラー内でこの属性を設定する（未設定の場合は既定のタイムアウト）。
+     */
+    public static final String ASYNC_TIMEOUT_ATTRIBUTE = WebConfig.class.getName() + ".asyncTimeout";
+
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
         // /history/YYYYMM 直リンクを SPA の index.html にフォワード
         registry.addViewController("/history/{yyyymm:\\d{6}}")
                 .setViewName("forward:/index.html");
     }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // 非同期処理の開始前に呼ばれるため、ここで設定したタイムアウトが開始時に適用される
+                if (request instanceof AsyncWebRequest asyncRequest
+                        && request.getAttribute(ASYNC_TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long timeout) {
+                    asyncRequest.setTimeout(timeout);
+                }
+            }
+        });
+    }
 }
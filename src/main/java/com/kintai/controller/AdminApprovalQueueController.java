@@ -0,0 +1,194 @@
+package com.kintai.controller;
+
+import com.kintai.dto.ApprovalQueuePage;
+import com.kintai.dto.BulkDecisionResult;
+import com.kintai.dto.BulkDecisionTarget;
+import com.kintai.event.RequestCategory;
+import com.kintai.exception.AttendanceException;
+import com.kintai.service.ApprovalQueueService;
+import com.kintai.service.BulkApprovalService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 管理者向け 承認キュー・一括承認API（全申請種別の承認待ちをカーソルでページング）
+ */
+@RestController
+@RequestMapping("/api/admin/approvals")
+public class AdminApprovalQueueController {
+
+    @Autowired
+    private ApprovalQueueService approvalQueueService;
+
+    @Autowired
+    private BulkApprovalService bulkApprovalService;
+
+    /**
+     * 承認キューの1ページを取得する
+     * @param types 申請種別（ADJUSTMENT, WORK_PATTERN, LEAVE, HOLIDAY。未指定時は全種別）
+     * @param cursor 前ページの nextCursor
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<Map<String, Object>> getQueue(@RequestParam(required = false) List<String> types,
+                                                        @RequestParam(defaultValue = "PENDING") String status,
+                                                        @RequestParam(required = false) Long employeeId,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int limit) {
+        try {
+            Set<RequestCategory> categories = EnumSet.noneOf(RequestCategory.class);
+            if (types != null) {
+                for (String type : types) {
+                    categories.add(RequestCategory.valueOf(type.trim().toUpperCase()));
+                }
+            }
+            ApprovalQueuePage page = approvalQueueService.findQueue(categories, status, employeeId, from, to, cursor, limit);
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("data", page.items());
+            body.put("nextCursor", page.nextCursor());
+            body.put("hasMore", page.hasMore());
+            return ResponseEntity.ok(body);
+        } catch (AttendanceException e) {
+            return badRequest(e.getErrorCode(), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return badRequest(AttendanceException.INVALID_REQUEST, "申請種別が不正です");
+        }
+    }
+
+    /**
+     * 申請をまとめて承認・却下する（申請種別の混在可）
+     * 申請ごとの結果を返し、一部の申請が失敗しても他の申請は処理する。
+     */
+    @PostMapping("/bulk-decision")
+    public ResponseEntity<Map<String, Object>> decideBulk(@RequestBody BulkDecisionRequest request) {
+        try {
+            List<BulkDecisionTarget> targets = new ArrayList<>();
+            if (request.getItems() != null) {
+                for (BulkDecisionRequest.Item item : request.getItems()) {
+                    if (item == null || item.getType() == null) {
+                        throw new IllegalArgumentException("申請種別が不正です");
+                    }
+                    targets.add(new BulkDecisionTarget(RequestCategory.valueOf(item.getType().trim().toUpperCase()),
+                            item.getRequestId()));
+                }
+            }
+            Long approverId = Optional.ofNullable(request.getApproverId()).orElseGet(this::resolveApproverId);
+            List<BulkDecisionResult> results = bulkApprovalService.decide(targets, request.isApproved(),
+                    approverId, request.getComment());
+
+            long succeeded = results.stream().filter(BulkDecisionResult::success).count();
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("message", String.format("%d件中%d件を%sしました", results.size(), succeeded,
+                    request.isApproved() ? "承認" : "却下"));
+            body.put("data", results);
+            body.put("total", results.size());
+            body.put("succeeded", succeeded);
+            body.put("failed", results.size() - succeeded);
+            return ResponseEntity.ok(body);
+        } catch (AttendanceException e) {
+            return badRequest(e.getErrorCode(), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return badRequest(AttendanceException.INVALID_REQUEST, "申請種別が不正です");
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> badRequest(String errorCode, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", false);
+        body.put("errorCode", errorCode);
+        body.put("message", message);
+        return ResponseEntity.badRequest().body(body);
+    }
+
+    private Long resolveApproverId() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof com.kintai.entity.UserAccount userAccount) {
+                return userAccount.getEmployeeId();
+            }
+        } catch (Exception ignored) {
+        }
+        return null;
+    }
+
+    public static class BulkDecisionRequest {
+        private boolean approved;
+        private Long approverId;
+        private String comment;
+        private List<Item> items;
+
+        public boolean isApproved() {
+            return approved;
+        }
+
+        public void setApproved(boolean approved) {
+            this.approved = approved;
+        }
+
+        public Long getApproverId() {
+            return approverId;
+        }
+
+        public void setApproverId(Long approverId) {
+            this.approverId = approverId;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public void setComment(String comment) {
+            this.comment = comment;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public void setItems(List<Item> items) {
+            this.items = items;
+        }
+
+        public static class Item {
+            private String type;
+            private Long requestId;
+
+            public String getType() {
+                return type;
+            }
+
+            public void setType(String type) {
+                this.type = type;
+            }
+
+            public Long getRequestId() {
+                return requestId;
+            }
+
+            public void setRequestId(Long requestId) {
+                this.requestId = requestId;
+            }
+        }
+    }
+}
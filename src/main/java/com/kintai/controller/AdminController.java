@@ -1,14 +1,29 @@
 package com.kintai.controller;
 
+import com.kintai.config.WebConfig;
+import com.kintai.dto.EmployeeSummary;
 import com.kintai.entity.Employee;
+import com.kintai.exception.AttendanceException;
 import com.kintai.service.AdminService;
+import com.kintai.service.AttendanceMatrixService;
+import com.kintai.service.AttendanceReportBundleService;
+import com.kintai.service.MonthCloseService;
+import com.kintai.service.PayrollExportService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +38,21 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
     
+    @Autowired
+    private MonthCloseService monthCloseService;
+    
+    @Autowired
+    private AttendanceMatrixService attendanceMatrixService;
+    
+    @Autowired
+    private AttendanceReportBundleService attendanceReportBundleService;
+    
+    @Autowired
+    private PayrollExportService payrollExportService;
+
+    @Value("${kintai.report.bundle-timeout-ms:1800000}")
+    private long bundleTimeoutMillis;
+    
     /**
      * 全社員一覧取得API
      * @return 社員一覧
@@ -74,6 +104,161 @@ public class AdminController {
         }
     }
     
+    /**
+     * 全社の月次締めAPI（全従業員の対象月の勤怠を確定する）
+     * async=true の場合はジョブIDを返し、進捗は /attendance/close-month/jobs/{jobId} で参照する
+     * @param request 締めリクエスト
+     * @return 締め結果
+     */
+    @PostMapping("/attendance/close-month")
+    public ResponseEntity<Map<String, Object>> closeMonth(@RequestBody MonthCloseRequest request) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(request.getYearMonth());
+        } catch (DateTimeException | NullPointerException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "対象年月はyyyy-MM形式で指定してください");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            if (request.isAsync()) {
+                response.put("message", "月次締めを開始しました");
+                response.put("data", monthCloseService.submitCloseMonth(yearMonth));
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
+            response.put("message", "月次締めが完了しました");
+            response.put("data", monthCloseService.closeMonth(yearMonth));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "月次締め処理中にエラーが発生しました: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    /**
+     * 月次締めジョブの進捗API
+     * @param jobId ジョブID
+     * @return ジョブの進捗
+     */
+    @GetMapping("/attendance/close-month/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> closeMonthJobStatus(@PathVariable String jobId) {
+        return monthCloseService.findJob(jobId)
+                .map(job -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("data", job);
+                    return ResponseEntity.ok(response);
+                })
+                .orElseGet(() -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", false);
+                    response.put("message", "月次締めジョブが見つかりません");
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                });
+    }
+    
+    /**
+     * 全社の月次勤怠マトリクスAPI（従業員 × 日の状況コードと実働・残業分数）
+     * @param yearMonth 対象年月（yyyy-MM）
+     * @param activeOnly 在籍者のみに絞る場合 true
+     * @param employeeCodePrefix 社員コードの前方一致で絞り込む場合に指定
+     * @return 月次勤怠マトリクス
+     */
+    @GetMapping("/attendance/matrix")
+    public ResponseEntity<Map<String, Object>> getAttendanceMatrix(@RequestParam String yearMonth,
+                                                                   @RequestParam(defaultValue = "true") boolean activeOnly,
+                                                                   @RequestParam(required = false) String employeeCodePrefix) {
+        YearMonth target;
+        try {
+            target = YearMonth.parse(yearMonth);
+        } catch (DateTimeException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "対象年月はyyyy-MM形式で指定してください");
+            return ResponseEntity.badRequest().body(response);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", attendanceMatrixService.buildMatrix(target, activeOnly, employeeCodePrefix));
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 全社の月次勤怠レポートPDF一括ダウンロードAPI（ZIP）
+     * PDFは並列に生成し、生成が終わったものから順に応答へ書き出す。
+     * @param yearMonth 対象年月（yyyy-MM）
+     * @param activeOnly 在籍者のみに絞る場合 true
+     * @param employeeCodePrefix 社員コードの前方一致で絞り込む場合に指定
+     * @return 従業員ごとのPDFをまとめたZIPファイル
+     */
+    @GetMapping("/attendance/report-bundle")
+    public ResponseEntity<StreamingResponseBody> downloadAttendanceReportBundle(@RequestParam String yearMonth,
+                                                                                @RequestParam(defaultValue = "true") boolean activeOnly,
+                                                                                @RequestParam(required = false) String employeeCodePrefix,
+                                                                                HttpServletRequest request) {
+        YearMonth target;
+        try {
+            target = YearMonth.parse(yearMonth);
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // 対象者の確定は書き出し開始前に行う（対象者がいない場合は404）
+        List<EmployeeSummary> targets = attendanceReportBundleService.findTargets(target, activeOnly, employeeCodePrefix);
+        if (targets.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", String.format("attendance_reports_%s.zip", target));
+        
+        // 全社分の生成は既定の非同期タイムアウトに収まらないため、専用のタイムアウトを指定する
+        request.setAttribute(WebConfig.ASYNC_TIMEOUT_ATTRIBUTE, bundleTimeoutMillis);
+        StreamingResponseBody body = outputStream -> attendanceReportBundleService.writeBundle(target, targets, outputStream);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * 給与計算向け勤怠データ出力API（CSV/TSV）
+     * 勤怠記録をDBから1行ずつ読みながら応答へ書き出す。
+     * @param from 出力期間の開始日（yyyy-MM-dd）
+     * @param to 出力期間の終了日（yyyy-MM-dd）
+     * @param format csv または tsv
+     * @param encoding UTF-8 または Shift_JIS
+     * @param activeOnly 在籍者のみに絞る場合 true
+     * @param employeeCodePrefix 社員コードの前方一致で絞り込む場合に指定
+     * @return 勤怠データファイル
+     */
+    @GetMapping("/attendance/payroll-export")
+    public ResponseEntity<StreamingResponseBody> exportPayrollAttendance(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "UTF-8") String encoding,
+            @RequestParam(defaultValue = "false") boolean activeOnly,
+            @RequestParam(required = false) String employeeCodePrefix) {
+        PayrollExportService.ExportRequest request;
+        try {
+            request = payrollExportService.prepare(from, to, employeeCodePrefix, activeOnly, format, encoding);
+        } catch (AttendanceException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(
+                request.format().getContentType() + ";charset=" + request.charset().name()));
+        headers.setContentDispositionFormData("attachment",
+                String.format("attendance_%s_%s.%s", from, to, request.format().getExtension()));
+        
+        StreamingResponseBody body = outputStream -> payrollExportService.export(request, outputStream);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
     /**
      * CSRFトークン取得API
      * @param request HTTPリクエスト
@@ -109,4 +294,28 @@ public class AdminController {
         }
     }
     
+    /**
+     * 月次締めリクエスト内部クラス
+     */
+    public static class MonthCloseRequest {
+        private String yearMonth;
+        private boolean async;
+        
+        public String getYearMonth() {
+            return yearMonth;
+        }
+        
+        public void setYearMonth(String yearMonth) {
+            this.yearMonth = yearMonth;
+        }
+        
+        public boolean isAsync() {
+            return async;
+        }
+        
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+    }
+    
 }
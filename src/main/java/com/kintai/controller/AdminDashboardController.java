@@ -1,12 +1,20 @@
 package com.kintai.controller;
 
 import com.kintai.dto.AdminDashboardSummary;
+import com.kintai.dto.PresenceEntry;
+import com.kintai.exception.AttendanceException;
 import com.kintai.service.AdminDashboardService;
+import com.kintai.service.AdminEventStreamService;
+import com.kintai.service.AttendancePresenceIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -18,6 +26,12 @@ public class AdminDashboardController {
     @Autowired
     private AdminDashboardService adminDashboardService;
 
+    @Autowired
+    private AdminEventStreamService adminEventStreamService;
+
+    @Autowired
+    private AttendancePresenceIndex attendancePresenceIndex;
+
     @GetMapping("/summary")
     public ResponseEntity<Map<String, Object>> getSummary() {
         AdminDashboardSummary summary = adminDashboardService.getSummary();
@@ -26,4 +40,39 @@ public class AdminDashboardController {
         body.put("data", summary);
         return ResponseEntity.ok(body);
     }
+
+    /**
+     * 当日の在席状況（出勤中・退勤済み・休暇・未出勤・遅刻）を取得する
+     * @param status 状況で絞り込む場合に指定（WORKING, FINISHED, ON_LEAVE, DAY_OFF, NOT_CLOCKED_IN）
+     * @param late 遅刻者のみに絞る場合 true
+     */
+    @GetMapping("/presence")
+    public ResponseEntity<Map<String, Object>> getPresence(@RequestParam(required = false) String status,
+                                                           @RequestParam(defaultValue = "false") boolean late) {
+        PresenceEntry.Status filter;
+        try {
+            filter = status == null || status.isBlank() ? null : PresenceEntry.Status.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("errorCode", AttendanceException.INVALID_REQUEST);
+            body.put("message", "在席状況の指定が不正です");
+            return ResponseEntity.badRequest().body(body);
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("summary", attendancePresenceIndex.getSummary());
+        body.put("data", attendancePresenceIndex.list(filter, late));
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * 承認待ち件数・申請の更新・在席状況の変化をSSEで配信する
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents() {
+        return adminEventStreamService.subscribe()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
 }
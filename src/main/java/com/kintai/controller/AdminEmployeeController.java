@@ -1,25 +1,37 @@
 package com.kintai.controller;
 
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.kintai.dto.EmployeeImportResult;
+import com.kintai.dto.EmployeeImportRow;
+import com.kintai.dto.EmployeeSummary;
 import com.kintai.entity.Employee;
-import com.kintai.entity.AttendanceRecord;
-import com.kintai.entity.AdjustmentRequest;
-import com.kintai.entity.LeaveRequest;
+import com.kintai.exception.AttendanceException;
 import com.kintai.repository.EmployeeRepository;
 import com.kintai.entity.UserAccount;
 import com.kintai.repository.UserAccountRepository;
-import com.kintai.repository.AttendanceRecordRepository;
-import com.kintai.repository.AdjustmentRequestRepository;
-import com.kintai.repository.LeaveRequestRepository;
 import com.kintai.service.AuthService;
+import com.kintai.service.EmployeeCodeAllocator;
+import com.kintai.service.EmployeeMaintenanceService;
+import com.kintai.service.EmployeeOnboardingService;
+import com.kintai.service.EmployeeSearchIndex;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 管理者向け 社員管理API
@@ -35,13 +47,20 @@ public class AdminEmployeeController {
     @Autowired
     private UserAccountRepository userAccountRepository;
     @Autowired
-    private AttendanceRecordRepository attendanceRecordRepository;
+    private AuthService authService;
     @Autowired
-    private AdjustmentRequestRepository adjustmentRequestRepository;
+    private EmployeeSearchIndex employeeSearchIndex;
     @Autowired
-    private LeaveRequestRepository leaveRequestRepository;
+    private EmployeeCodeAllocator employeeCodeAllocator;
     @Autowired
-    private AuthService authService;
+    private EmployeeOnboardingService employeeOnboardingService;
+    @Autowired
+    private EmployeeMaintenanceService employeeMaintenanceService;
+
+    /** 一覧で並び替えに使用できる項目 */
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("employeeId", "employeeCode", "lastName", "lastKana", "hireDate", "retirementDate", "isActive");
+    private static final int MAX_PAGE_SIZE = 200;
 
     @Autowired
     private com.kintai.service.LeaveRequestService leaveRequestService;
@@ -55,18 +74,65 @@ public class AdminEmployeeController {
         return ResponseEntity.ok(body);
     }
 
+    /**
+     * 社員一覧（ページング・並び替え）
+     * @param sort 並び替え項目（employeeCode, lastKana, hireDate など）
+     * @param active 在籍状態で絞り込む場合に指定
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> pageEmployees(@RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "50") int size,
+                                                             @RequestParam(defaultValue = "employeeCode") String sort,
+                                                             @RequestParam(defaultValue = "asc") String direction,
+                                                             @RequestParam(required = false) Boolean active) {
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("message", "並び替え項目が不正です: " + sort);
+            return ResponseEntity.badRequest().body(body);
+        }
+        Sort.Direction dir = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // 同順位の並びを安定させるため社員IDを第2キーにする
+        Sort order = Sort.by(dir, sort).and(Sort.by(Sort.Direction.ASC, "employeeId"));
+        Page<EmployeeSummary> result = employeeRepository.findSummaries(active,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), order));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("content", result.getContent());
+        data.put("page", result.getNumber());
+        data.put("size", result.getSize());
+        data.put("totalElements", result.getTotalElements());
+        data.put("totalPages", result.getTotalPages());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("data", data);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * 社員検索（入力補完用）: 社員コード・氏名・ふりがなの前方一致/部分一致
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchEmployees(@RequestParam("q") String query,
+                                                               @RequestParam(defaultValue = "20") int limit,
+                                                               @RequestParam(defaultValue = "false") boolean activeOnly) {
+        List<EmployeeSummary> result = employeeSearchIndex.search(query, activeOnly, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("data", result);
+        return ResponseEntity.ok(body);
+    }
+
     /**
      * 次の社員番号を取得
      */
     @GetMapping("/next-number")
     public ResponseEntity<Map<String, Object>> getNextEmployeeNumber() {
         try {
-            String nextCode = generateEmployeeCode();
-            // EMPプレフィックスを除去して番号のみを取得（ゼロパディングも除去）
-            String nextNumber = nextCode.replace("EMP", "");
-            // ゼロパディングを除去（"005" -> "5"）
-            nextNumber = String.valueOf(Integer.parseInt(nextNumber));
-            
+            // 採番シーケンスの次の番号（ゼロパディングなし。"EMP005" -> "5"）
+            String nextNumber = String.valueOf(employeeCodeAllocator.peekNextNumber());
+
             Map<String, Object> body = new HashMap<>();
             body.put("success", true);
             body.put("nextNumber", nextNumber);
@@ -80,6 +146,44 @@ public class AdminEmployeeController {
         }
     }
 
+    /**
+     * 社員の一括登録（CSV または JSON配列）
+     * CSVは1行目にヘッダー（lastName, firstName, birthday, hireDate, password）が必要。
+     * 入力エラーの行は登録せず、行ごとの結果として返す。
+     */
+    @PostMapping(value = "/bulk-import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> bulkImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          InputStream input) {
+        try {
+            Iterator<EmployeeImportRow> rows = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)
+                    ? employeeOnboardingService.readJson(input)
+                    : employeeOnboardingService.readCsv(input);
+            List<EmployeeImportResult> results = employeeOnboardingService.importEmployees(rows);
+            long succeeded = results.stream().filter(EmployeeImportResult::success).count();
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("message", succeeded + "件の社員を登録しました");
+            body.put("total", results.size());
+            body.put("succeeded", succeeded);
+            body.put("failed", results.size() - succeeded);
+            body.put("data", results);
+            return ResponseEntity.ok(body);
+        } catch (AttendanceException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("errorCode", e.getErrorCode());
+            body.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        } catch (UncheckedIOException | RuntimeJsonMappingException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("errorCode", AttendanceException.INVALID_REQUEST);
+            body.put("message", "入力の読み込みに失敗しました: " + e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        }
+    }
+
     /**
      * 社員追加（同時にログインアカウント作成）
      * 指定がない項目は自動補完するため、最低限 username と password があれば作成可能。
@@ -119,7 +223,7 @@ public class AdminEmployeeController {
             // ユーザー名の重複チェックは不要（自動生成のため）
 
             // 社員コードを自動生成（EMP + 3桁番号）
-            String employeeCode = generateEmployeeCode();
+            String employeeCode = employeeCodeAllocator.allocate();
             System.out.println("生成された社員コード: " + employeeCode);
             
             // ユーザー名はemp + 番号の形式（既存データと一貫性を保つ）
@@ -127,7 +231,7 @@ public class AdminEmployeeController {
             String numberPart = employeeCode.substring(3); // "001" -> "1"
             String username = "emp" + Integer.parseInt(numberPart);
             
-            // 社員コードの重複チェックは既にgenerateEmployeeCode内で実施済み
+            // 社員コードの重複チェックは採番時に実施済み
 
             // 社員作成
             System.out.println("社員作成開始...");
@@ -164,6 +268,9 @@ public class AdminEmployeeController {
             clearNewEmployeeData(emp.getEmployeeId());
             System.out.println("新規社員の勤怠データをクリアしました: EmployeeID=" + emp.getEmployeeId());
 
+            // 休暇残数レコードを入社時に作成（残数照会時には作成しない）
+            leaveRequestService.initializeBalances(emp);
+
             Map<String, Object> body = new HashMap<>();
             body.put("success", true);
             body.put("message", "新規社員のアカウントを作成しました");
@@ -181,39 +288,14 @@ public class AdminEmployeeController {
         }
     }
 
-    private String generateEmployeeCode() {
-        // 社員コードを「EMP」で固定し、番号を自動採番（既存データと一貫性を保つ）
-        String baseCode = "EMP";
-        
-        // 重複チェックとカウンター付加（1からスタート）
-        int counter = 1;
-        String employeeCode;
-        do {
-            // 3桁のゼロパディングで統一（EMP001, EMP002, ...）
-            employeeCode = baseCode + String.format("%03d", counter);
-            counter++;
-        } while (employeeRepository.findByEmployeeCode(employeeCode).isPresent());
-        
-        return employeeCode;
-    }
-
     /**
      * 新規社員の勤怠データをクリアする
      * @param employeeId 社員ID
      */
     private void clearNewEmployeeData(Long employeeId) {
         try {
-            // 勤怠記録を削除
-            List<AttendanceRecord> attendanceRecords = attendanceRecordRepository.findByEmployeeIdOrderByAttendanceDateDesc(employeeId);
-            attendanceRecordRepository.deleteAll(attendanceRecords);
-            
-            // 打刻修正申請を削除
-            List<AdjustmentRequest> adjustmentRequests = adjustmentRequestRepository.findByEmployeeIdOrderByCreatedAtDesc(employeeId);
-            adjustmentRequestRepository.deleteAll(adjustmentRequests);
-            
-            // 休暇申請を削除
-            List<LeaveRequest> leaveRequests = leaveRequestRepository.findByEmployeeIdOrderByCreatedAtDesc(employeeId);
-            leaveRequestRepository.deleteAll(leaveRequests);
+            // 勤怠記録・打刻修正申請・休暇申請を一括削除
+            employeeMaintenanceService.purgeAttendanceData(List.of(employeeId));
             
             System.out.println("新規社員の勤怠データをクリア完了: EmployeeID=" + employeeId);
         } catch (Exception e) {
@@ -230,7 +312,6 @@ public class AdminEmployeeController {
         return employeeRepository.findById(employeeId)
                 .map(emp -> {
                     boolean isActive = req.isActive != null ? req.isActive : Boolean.TRUE;
-                    emp.setIsActive(isActive);
                     // 退職処理の場合、退職日を設定（必須）
                     if (!isActive) {
                         if (req.retirementDate == null || req.retirementDate.isBlank()) {
@@ -239,37 +320,38 @@ public class AdminEmployeeController {
                             body.put("message", "退職日は必須です");
                             return ResponseEntity.badRequest().body(body);
                         }
+                        java.time.LocalDate retirementDate;
                         try {
-                            emp.setRetirementDate(java.time.LocalDate.parse(req.retirementDate));
+                            retirementDate = java.time.LocalDate.parse(req.retirementDate);
                         } catch (Exception e) {
                             Map<String, Object> body = new HashMap<>();
                             body.put("success", false);
                             body.put("message", "退職日の形式が正しくありません");
                             return ResponseEntity.badRequest().body(body);
                         }
-                    } else if (isActive) {
-                        // 復職処理の場合、退職日をクリア
-                        emp.setRetirementDate(null);
+                        // 在籍フラグ・退職日・アカウント無効化・全休暇残数の0日リセットを一括で実行
+                        employeeMaintenanceService.retire(List.of(employeeId), retirementDate);
+                        Map<String, Object> body = new HashMap<>();
+                        body.put("success", true);
+                        body.put("message", "退職処理が完了しました");
+                        return ResponseEntity.ok(body);
                     }
+
+                    // 復職処理の場合、退職日をクリア
+                    emp.setIsActive(true);
+                    emp.setRetirementDate(null);
                     employeeRepository.save(emp);
                     
                     // UserAccountのenabledフラグも更新
                     userAccountRepository.findByEmployeeId(employeeId)
                             .ifPresent(userAccount -> {
-                                userAccount.setEnabled(isActive);
+                                userAccount.setEnabled(true);
                                 userAccountRepository.save(userAccount);
                             });
-                    // 退職(非アクティブ化)時は全休暇残数を0日にリセット
-                    if (!isActive) {
-                        try {
-                            leaveRequestService.resetAllLeaveBalancesToZero(employeeId);
-                        } catch (Exception ignored) {
-                        }
-                    }
                     
                     Map<String, Object> body = new HashMap<>();
                     body.put("success", true);
-                    body.put("message", isActive ? "復職処理が完了しました" : "退職処理が完了しました");
+                    body.put("message", "復職処理が完了しました");
                     return ResponseEntity.ok(body);
                 })
                 .orElseGet(() -> {
@@ -280,6 +362,64 @@ public class AdminEmployeeController {
                 });
     }
 
+    /**
+     * 複数従業員の一括退職処理（組織変更など）
+     * async=true の場合はジョブIDを返し、進捗は /retire-batch/jobs/{jobId} で参照する
+     */
+    @PostMapping("/retire-batch")
+    public ResponseEntity<Map<String, Object>> retireBatch(@RequestBody BatchRetirementRequest req) {
+        try {
+            java.time.LocalDate retirementDate = req.retirementDate == null || req.retirementDate.isBlank()
+                    ? null : java.time.LocalDate.parse(req.retirementDate);
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            if (req.async) {
+                body.put("message", "退職処理を開始しました");
+                body.put("data", employeeMaintenanceService.submitRetire(req.employeeIds, retirementDate));
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+            }
+            body.put("message", "退職処理が完了しました");
+            body.put("data", employeeMaintenanceService.retire(req.employeeIds, retirementDate));
+            return ResponseEntity.ok(body);
+        } catch (java.time.format.DateTimeParseException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("message", "退職日の形式が正しくありません");
+            return ResponseEntity.badRequest().body(body);
+        } catch (AttendanceException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("errorCode", e.getErrorCode());
+            body.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        } catch (Exception e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("message", "退職処理中にエラーが発生しました: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+        }
+    }
+
+    /**
+     * 一括退職処理ジョブの進捗
+     */
+    @GetMapping("/retire-batch/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> retireBatchJobStatus(@PathVariable String jobId) {
+        return employeeMaintenanceService.findJob(jobId)
+                .map(job -> {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("success", true);
+                    body.put("data", job);
+                    return ResponseEntity.ok(body);
+                })
+                .orElseGet(() -> {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("success", false);
+                    body.put("message", "退職処理ジョブが見つかりません");
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+                });
+    }
+
     /**
      * 互換: 旧退職処理エンドポイント
      */
@@ -335,6 +475,13 @@ public class AdminEmployeeController {
         public String retirementDate; // YYYY-MM-DD
     }
 
+    /** 一括退職処理用DTO */
+    public static class BatchRetirementRequest {
+        public List<Long> employeeIds;
+        public String retirementDate; // YYYY-MM-DD
+        public boolean async;
+    }
+
     /** 追加用DTO */
     public static class AddEmployeeRequest {
         public String employeeCode;
@@ -1,17 +1,24 @@
 package com.kintai.controller;
 
+import com.kintai.dto.LeaveBalanceView;
 import com.kintai.dto.LeaveRequestDto;
+import com.kintai.entity.AbsenceDay;
 import com.kintai.entity.LeaveRequest;
 import com.kintai.entity.LeaveStatus;
 import com.kintai.entity.LeaveType;
 import com.kintai.exception.VacationException;
 import com.kintai.repository.EmployeeRepository;
 import com.kintai.repository.LeaveRequestRepository;
+import com.kintai.service.AbsenceIndexService;
+import com.kintai.service.LeaveGrantBatchService;
+import com.kintai.service.LeaveLedgerService;
 import com.kintai.service.LeaveRequestService;
+import com.kintai.service.PaidLeaveAnniversaryGrantService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -36,6 +43,18 @@ public class AdminLeaveController {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private LeaveGrantBatchService leaveGrantBatchService;
+
+    @Autowired
+    private PaidLeaveAnniversaryGrantService paidLeaveAnniversaryGrantService;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private AbsenceIndexService absenceIndexService;
+
     // adjustPaidLeave エンドポイントは廃止（有休調整機能の廃止により）
 
     @PostMapping("/requests/{leaveRequestId}/decision")
@@ -100,6 +119,31 @@ public class AdminLeaveController {
         return ResponseEntity.ok(body);
     }
 
+    /**
+     * 複数従業員の休暇残数サマリー（管理者用）
+     */
+    @GetMapping("/remaining")
+    public ResponseEntity<Map<String, Object>> remainingSummaries(@RequestParam("employeeIds") List<Long> employeeIds) {
+        Map<Long, Map<LeaveType, LeaveBalanceView>> summaries = leaveRequestService.getRemainingLeaveSummaries(employeeIds);
+        Map<String, Object> values = new LinkedHashMap<>();
+        summaries.forEach((employeeId, summary) -> {
+            Map<String, Object> perType = new LinkedHashMap<>();
+            summary.forEach((type, view) -> {
+                Map<String, BigDecimal> entry = new LinkedHashMap<>();
+                entry.put("remaining", view.getRemaining());
+                entry.put("pending", view.getPending());
+                entry.put("available", view.getAvailable());
+                perType.put(type.name(), entry);
+            });
+            values.put(String.valueOf(employeeId), perType);
+        });
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("data", values);
+        body.put("count", values.size());
+        return ResponseEntity.ok(body);
+    }
+
     @PostMapping("/grants")
     public ResponseEntity<Map<String, Object>> grantLeave(@Valid @RequestBody GrantRequest request) {
         try {
@@ -119,32 +163,41 @@ public class AdminLeaveController {
                 throw new VacationException(VacationException.INVALID_REQUEST, "特別休暇の日付を指定してください");
             }
 
-            List<Long> targetEmployees = resolveTargetEmployees(request);
-            if (targetEmployees.isEmpty()) {
-                throw new VacationException(VacationException.INVALID_REQUEST, "付与対象の従業員が見つかりません");
-            }
-
             // 有休の場合は grantedOn が必須（NOT NULL 制約のため）
             if (leaveType == LeaveType.PAID_LEAVE && grantedOn == null) {
                 grantedOn = LocalDate.now();
             }
 
-            // 全ての休暇種別で同じ処理を行う
-            for (Long employeeId : targetEmployees) {
-                leaveRequestService.applyGrant(
-                        employeeId,
-                        leaveType,
-                        days,
-                        grantedOn,
-                        expiresAt,
-                        approverId
-                );
+            // 全社付与の非同期実行: ジョブIDを返し、進捗は /grants/jobs/{jobId} で参照する
+            if (request.getScope() == GrantScope.ALL && request.isAsync()) {
+                LeaveGrantBatchService.GrantJob job = leaveGrantBatchService.submitGrantToAllActive(
+                        leaveType, days, grantedOn, expiresAt, approverId);
+                Map<String, Object> body = new HashMap<>();
+                body.put("success", true);
+                body.put("message", "休暇付与を開始しました");
+                body.put("data", job);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+            }
+
+            LeaveGrantBatchService.GrantJob job;
+            if (request.getScope() == GrantScope.ALL) {
+                job = leaveGrantBatchService.grantToAllActive(leaveType, days, grantedOn, expiresAt, approverId);
+            } else {
+                List<Long> targetEmployees = resolveTargetEmployees(request);
+                if (targetEmployees.isEmpty()) {
+                    throw new VacationException(VacationException.INVALID_REQUEST, "付与対象の従業員が見つかりません");
+                }
+                job = leaveGrantBatchService.grantToEmployees(targetEmployees, leaveType, days, grantedOn, expiresAt, approverId);
+            }
+            if (job.getProcessed() == 0) {
+                throw new VacationException(VacationException.INVALID_REQUEST, "付与対象の従業員が見つかりません");
             }
 
             Map<String, Object> body = new HashMap<>();
             body.put("success", true);
             body.put("message", "休暇を付与しました");
-            body.put("distributedCount", targetEmployees.size());
+            body.put("distributedCount", job.getProcessed());
+            body.put("jobId", job.getJobId());
             return ResponseEntity.ok(body);
         } catch (VacationException e) {
             Map<String, Object> body = new HashMap<>();
@@ -160,6 +213,126 @@ public class AdminLeaveController {
         }
     }
 
+    /**
+     * 一括付与ジョブの進捗
+     */
+    @GetMapping("/grants/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> grantJobStatus(@PathVariable String jobId) {
+        return leaveGrantBatchService.findJob(jobId)
+                .map(job -> {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("success", true);
+                    body.put("data", job);
+                    return ResponseEntity.ok(body);
+                })
+                .orElseGet(() -> {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("success", false);
+                    body.put("message", "付与ジョブが見つかりません");
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+                });
+    }
+
+    /**
+     * 入社記念日による有休付与を指定日付で実行する（定期ジョブの手動再実行用、本日以前の日付のみ）
+     */
+    @PostMapping("/grants/anniversary")
+    public ResponseEntity<Map<String, Object>> grantAnniversary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate runDate = date != null ? date : LocalDate.now();
+        int granted;
+        try {
+            granted = paidLeaveAnniversaryGrantService.grantOn(runDate);
+        } catch (VacationException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("errorCode", e.getErrorCode());
+            body.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("message", "入社記念日の有休付与を実行しました");
+        body.put("grantDate", runDate);
+        body.put("processed", granted);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * 休暇台帳: 指定日終了時点の残数と直近の記帳
+     */
+    @GetMapping("/ledger/{employeeId}")
+    public ResponseEntity<Map<String, Object>> ledger(@PathVariable Long employeeId,
+                                                      @RequestParam(defaultValue = "PAID_LEAVE") LeaveType leaveType,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        LocalDate asOf = date != null ? date : LocalDate.now();
+        Map<String, Object> data = new HashMap<>();
+        data.put("employeeId", employeeId);
+        data.put("leaveType", leaveType);
+        data.put("date", asOf);
+        data.put("balance", leaveLedgerService.balanceAt(employeeId, leaveType, asOf).orElse(null));
+        data.put("entries", leaveLedgerService.recentEntries(employeeId, leaveType, Math.max(1, Math.min(limit, 500))));
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("data", data);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * チーム不在照会: 期間内に休暇・カスタム休日で不在となる従業員を日付ごとに返す
+     * @param employeeIds 対象従業員（省略時は全従業員）
+     */
+    @GetMapping("/absences")
+    public ResponseEntity<Map<String, Object>> absences(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam(required = false) List<Long> employeeIds) {
+        try {
+            List<AbsenceDay> absences = absenceIndexService.findAbsences(employeeIds, from, to);
+            Map<LocalDate, List<Map<String, Object>>> byDate = new TreeMap<>();
+            for (AbsenceDay absence : absences) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("employeeId", absence.getEmployeeId());
+                item.put("absenceType", absence.getAbsenceType());
+                item.put("timeUnit", absence.getTimeUnit());
+                item.put("sourceType", absence.getSourceType());
+                item.put("sourceId", absence.getSourceId());
+                byDate.computeIfAbsent(absence.getAbsenceDate(), key -> new ArrayList<>()).add(item);
+            }
+            Map<String, Object> data = new HashMap<>();
+            data.put("from", from);
+            data.put("to", to);
+            data.put("total", absences.size());
+            data.put("byDate", byDate);
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("data", data);
+            return ResponseEntity.ok(body);
+        } catch (VacationException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("errorCode", e.getErrorCode());
+            body.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        }
+    }
+
+    /**
+     * 不在日インデックスを承認済み休暇とカスタム休日から再構築する
+     */
+    @PostMapping("/absences/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildAbsences() {
+        int count = absenceIndexService.rebuild();
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("message", "不在日インデックスを再構築しました");
+        body.put("data", Map.of("absenceDays", count));
+        return ResponseEntity.ok(body);
+    }
+
     private Long resolveApproverId() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -172,13 +345,6 @@ public class AdminLeaveController {
     }
 
     private List<Long> resolveTargetEmployees(GrantRequest request) {
-        if (request.getScope() == GrantScope.ALL) {
-            return employeeRepository.findAll()
-                    .stream()
-                    .filter(employee -> employee.getIsActive() != null && employee.getIsActive())
-                    .map(com.kintai.entity.Employee::getEmployeeId)
-                    .collect(Collectors.toList());
-        }
         if (request.getEmployeeIds() == null) {
             return Collections.emptyList();
         }
@@ -233,6 +399,7 @@ public class AdminLeaveController {
         @NotNull(message = "付与対象を指定してください")
         private GrantScope scope;
         private List<Long> employeeIds;
+        private boolean async;
 
         public String getLeaveType() {
             return leaveType;
@@ -282,6 +449,14 @@ public class AdminLeaveController {
             this.employeeIds = employeeIds;
         }
 
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
 
     }
 
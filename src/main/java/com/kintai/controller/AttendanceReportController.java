@@ -1,12 +1,16 @@
 package com.kintai.controller;
 
 import com.kintai.service.AttendanceReportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -18,18 +22,25 @@ import java.time.format.DateTimeParseException;
 @RequestMapping("/api/attendance")
 @CrossOrigin(origins = "*")
 public class AttendanceReportController {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceReportController.class);
     
     @Autowired
     private AttendanceReportService attendanceReportService;
+
+    @Value("${kintai.report.max-pdf-bytes:16777216}")
+    private int maxPdfBytes;
     
     /**
      * 勤怠レポートPDFを生成・ダウンロード
+     * キャッシュ済みのPDFはそのまま返し、それ以外は上限付きのバッファへ生成してから応答へ書き出す。
+     * 生成に失敗した場合は200を確定させる前に500を返す。
      * @param employeeId 従業員ID
      * @param yearMonth 年月（yyyy-MM形式）
      * @return PDFファイル
      */
     @GetMapping("/report/{employeeId}/{yearMonth}")
-    public ResponseEntity<byte[]> generateAttendanceReport(
+    public ResponseEntity<StreamingResponseBody> generateAttendanceReport(
             @PathVariable Long employeeId,
             @PathVariable String yearMonth) {
         
@@ -37,17 +48,24 @@ public class AttendanceReportController {
             // 年月フォーマットの検証
             validateYearMonthFormat(yearMonth);
             
-            // PDF生成
-            byte[] pdfBytes = attendanceReportService.generateAttendanceReportPdf(employeeId, yearMonth);
+            // 出力準備（従業員の存在確認を含むため、書き出し開始前に行う）
+            AttendanceReportService.PreparedReport report = attendanceReportService.prepareReport(employeeId, yearMonth);
             
-            // レスポンスヘッダーを設定
+            // 応答を確定させる前に生成を終える（書き出し中の失敗で200のまま壊れたPDFを返さないため）
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", 
                 String.format("attendance_%d_%s.pdf", employeeId, yearMonth));
-            headers.setContentLength(pdfBytes.length);
-            
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            StreamingResponseBody body;
+            if (report.isCached()) {
+                headers.setContentLength(report.getCachedPdf().length);
+                body = outputStream -> attendanceReportService.writeReport(report, outputStream);
+            } else {
+                byte[] pdf = attendanceReportService.renderReport(report, maxPdfBytes);
+                headers.setContentLength(pdf.length);
+                body = outputStream -> outputStream.write(pdf);
+            }
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
             
         } catch (IllegalArgumentException e) {
             // 従業員が見つからない場合
@@ -56,7 +74,8 @@ public class AttendanceReportController {
             // 年月フォーマットが不正な場合
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
-            // その他のエラー
+            // その他のエラー（PDF生成の失敗を含む）
+            log.error("勤怠レポートPDFの生成に失敗しました: employeeId={}, yearMonth={}", employeeId, yearMonth, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
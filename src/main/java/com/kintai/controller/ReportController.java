@@ -2,69 +2,136 @@ package com.kintai.controller;
 
 import com.kintai.dto.ReportGenerateRequest;
 import com.kintai.dto.ReportGenerateResponse;
+import com.kintai.exception.AttendanceException;
+import com.kintai.service.ReportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * レポート生成コントローラー
+ * 生成は非同期ジョブとして受け付け、状況の参照と生成結果のダウンロードは別のAPIで行う。
  */
 @RestController
 @RequestMapping("/api/reports")
 @CrossOrigin(origins = "*")
 public class ReportController {
 
+    @Autowired
+    private ReportJobService reportJobService;
+
     /**
-     * 勤怠レポートPDFを生成
-     * 現在はFastAPI連携を廃止しているため、未実装として応答する。
+     * 勤怠レポートの生成ジョブを投入
+     * 従業員1名の場合はPDF、複数名の場合は従業員ごとのPDFをまとめたZIPを生成する。
      *
      * @param request レポート生成リクエスト
-     * @return 生成状況レスポンス
+     * @return ジョブID（状況は /api/reports/jobs/{jobId}、完了後は pdfUrl からダウンロード）
      */
     @PostMapping("/generate")
     public ResponseEntity<ReportGenerateResponse> generateReport(@RequestBody ReportGenerateRequest request) {
         try {
-            // リクエストの検証
-            validateRequest(request);
-            // FastAPI連携を廃止したため、現在はPDF生成を行わない
-            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
-                .body(ReportGenerateResponse.failure("PDF生成機能は現在利用できません"));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest()
-                .body(ReportGenerateResponse.failure("リクエストが無効です: " + e.getMessage()));
+            if (request == null) {
+                throw new AttendanceException(AttendanceException.INVALID_REQUEST, "リクエストがnullです");
+            }
+            ReportJobService.ReportJob job = reportJobService.submit(request.resolveEmployeeIds(),
+                    request.getYearMonth(), request.getFormat(), request.getPriority());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ReportGenerateResponse.accepted(job.getJobId(), job.getStatus().name(), "レポート生成を受け付けました"));
+        } catch (AttendanceException e) {
+            return ResponseEntity.status(statusOf(e))
+                .body(ReportGenerateResponse.failure(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ReportGenerateResponse.failure("PDF生成処理中にエラーが発生しました: " + e.getMessage()));
         }
     }
-    
+
     /**
-     * リクエストを検証
-     * @param request リクエスト
-     * @throws IllegalArgumentException 検証エラーの場合
+     * 生成ジョブの状況を取得
+     * @param jobId ジョブID
+     * @return ジョブの状況（完了時は pdfUrl にダウンロードURL）
      */
-    private void validateRequest(ReportGenerateRequest request) {
-        if (request == null) {
-            throw new IllegalArgumentException("リクエストがnullです");
-        }
-        
-        if (request.getEmployeeId() == null || request.getEmployeeId() <= 0) {
-            throw new IllegalArgumentException("従業員IDが無効です");
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        try {
+            return reportJobService.findJob(jobId)
+                    .map(job -> {
+                        Map<String, Object> body = new HashMap<>();
+                        body.put("success", true);
+                        body.put("status", job.getStatus().name());
+                        body.put("pdfUrl", job.getDownloadUrl());
+                        body.put("message", job.getMessage());
+                        body.put("data", job);
+                        return ResponseEntity.ok(body);
+                    })
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(failure(null, "レポート生成ジョブが見つかりません")));
+        } catch (AttendanceException e) {
+            return ResponseEntity.status(statusOf(e)).body(failure(e.getErrorCode(), e.getMessage()));
         }
-        
-        if (request.getYearMonth() == null || request.getYearMonth().trim().isEmpty()) {
-            throw new IllegalArgumentException("年月が指定されていません");
+    }
+
+    /**
+     * 生成結果をダウンロード
+     * @param jobId ジョブID
+     * @return PDFまたはZIPファイル（未完了の場合は409）
+     */
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable String jobId) {
+        try {
+            return reportJobService.findJob(jobId)
+                    .map(job -> {
+                        if (job.getStatus() != ReportJobService.ReportJob.Status.COMPLETED) {
+                            return ResponseEntity.status(HttpStatus.CONFLICT).<StreamingResponseBody>build();
+                        }
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.setContentType(MediaType.parseMediaType(job.getFormat().getContentType()));
+                        headers.setContentDispositionFormData("attachment", job.getFileName());
+                        StreamingResponseBody body = outputStream -> reportJobService.writeResult(job, outputStream);
+                        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+                    })
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (AttendanceException e) {
+            return ResponseEntity.status(statusOf(e)).build();
         }
-        
-        // 年月フォーマットの検証
+    }
+
+    /**
+     * 生成ジョブの統計（待ち件数・待ち時間・生成時間・キャッシュ）を取得
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-            formatter.parse(request.getYearMonth());
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("年月フォーマットが不正です。yyyy-MM形式で入力してください。");
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("data", reportJobService.metrics());
+            return ResponseEntity.ok(body);
+        } catch (AttendanceException e) {
+            return ResponseEntity.status(statusOf(e)).body(failure(e.getErrorCode(), e.getMessage()));
+        }
+    }
+
+    private static HttpStatus statusOf(AttendanceException e) {
+        return switch (e.getErrorCode()) {
+            case AttendanceException.ACCESS_DENIED -> HttpStatus.FORBIDDEN;
+            case AttendanceException.QUEUE_FULL -> HttpStatus.TOO_MANY_REQUESTS;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+    }
+
+    private static Map<String, Object> failure(String errorCode, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", false);
+        if (errorCode != null) {
+            body.put("errorCode", errorCode);
         }
+        body.put("message", message);
+        return body;
     }
 }
@@ -0,0 +1,40 @@
+package com.kintai.dto;
+
+import com.kintai.event.RequestCategory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 承認キューの1件（申請種別をまたいだ一覧表示用）
+ * @param type 申請内の区分（休暇種別・休日出勤/振替など。区分のない申請は null）
+ * @param startDate 対象期間の開始日
+ * @param endDate 対象期間の終了日
+ */
+public record ApprovalQueueItem(RequestCategory category,
+                                Long requestId,
+                                Long employeeId,
+                                String status,
+                                String type,
+                                LocalDate startDate,
+                                LocalDate endDate,
+                                LocalDateTime createdAt) {
+
+    /**
+     * JPQLのコンストラクタ式用（列挙型のステータス・区分を名前に変換する）
+     */
+    public ApprovalQueueItem(RequestCategory category, Long requestId, Long employeeId, Enum<?> status, Enum<?> type,
+                             LocalDate startDate, LocalDate endDate, LocalDateTime createdAt) {
+        this(category, requestId, employeeId, status != null ? status.name() : null, type != null ? type.name() : null,
+                startDate, endDate, createdAt);
+    }
+
+    /**
+     * JPQLのコンストラクタ式用（区分のない申請）
+     */
+    public ApprovalQueueItem(RequestCategory category, Long requestId, Long employeeId, Enum<?> status,
+                             LocalDate startDate, LocalDate endDate, LocalDateTime createdAt) {
+        this(category, requestId, employeeId, status != null ? status.name() : null, null,
+                startDate, endDate, createdAt);
+    }
+}
@@ -0,0 +1,10 @@
+package com.kintai.dto;
+
+import java.util.List;
+
+/**
+ * 承認キューの1ページ
+ * @param nextCursor 続きを取得するためのカーソル（最終ページの場合は null）
+ */
+public record ApprovalQueuePage(List<ApprovalQueueItem> items, String nextCursor, boolean hasMore) {
+}
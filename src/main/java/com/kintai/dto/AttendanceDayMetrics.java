@@ -0,0 +1,22 @@
+package com.kintai.dto;
+
+import com.kintai.entity.AttendanceStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 勤怠記録1日分の集計用の列（月次マトリクスの範囲検索で使用）
+ */
+public record AttendanceDayMetrics(Long attendanceId,
+                                   Long employeeId,
+                                   LocalDate attendanceDate,
+                                   LocalDateTime clockInTime,
+                                   LocalDateTime clockOutTime,
+                                   Integer breakMinutes,
+                                   Integer lateMinutes,
+                                   Integer earlyLeaveMinutes,
+                                   Integer overtimeMinutes,
+                                   Integer nightShiftMinutes,
+                                   AttendanceStatus attendanceStatus) {
+}
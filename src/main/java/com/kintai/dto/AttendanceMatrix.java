@@ -0,0 +1,46 @@
+package com.kintai.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 全社の月次勤怠マトリクス（従業員 × 日）
+ * 各従業員の日ごとの状況を1日1文字の固定長文字列で表す（codes の n 文字目が n 日）。
+ * @param calendar 暦の営業日（W）・休日（H）を1日1文字で表した文字列
+ * @param legend 状況コードの説明
+ */
+public record AttendanceMatrix(String yearMonth,
+                               int days,
+                               String calendar,
+                               Map<Character, String> legend,
+                               List<Row> rows) {
+
+    /**
+     * 従業員1人分の行
+     * @param codes 日ごとの状況コード（長さは月の日数）
+     * @param workingMinutes 日ごとの実働分数
+     * @param overtimeMinutes 日ごとの残業分数
+     */
+    public record Row(Long employeeId,
+                      String employeeCode,
+                      String lastName,
+                      String firstName,
+                      String codes,
+                      int[] workingMinutes,
+                      int[] overtimeMinutes,
+                      Totals totals) {
+    }
+
+    /**
+     * 従業員1人分の月合計
+     */
+    public record Totals(int workDays,
+                         int leaveDays,
+                         int absentDays,
+                         int lateCount,
+                         int earlyLeaveCount,
+                         int workingMinutes,
+                         int overtimeMinutes,
+                         int nightShiftMinutes) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.kintai.dto;
+
+import com.kintai.event.RequestCategory;
+
+/**
+ * 一括承認・却下の申請ごとの結果
+ * @param errorCode 失敗時のエラーコード（成功時は null）
+ */
+public record BulkDecisionResult(RequestCategory category,
+                                 Long requestId,
+                                 Long employeeId,
+                                 boolean success,
+                                 String errorCode,
+                                 String message) {
+
+    public static BulkDecisionResult succeeded(BulkDecisionTarget target, Long employeeId) {
+        return new BulkDecisionResult(target.category(), target.requestId(), employeeId, true, null, null);
+    }
+
+    public static BulkDecisionResult failed(BulkDecisionTarget target, Long employeeId, String errorCode, String message) {
+        return new BulkDecisionResult(target.category(), target.requestId(), employeeId, false, errorCode, message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.kintai.dto;
+
+import com.kintai.event.RequestCategory;
+
+/**
+ * 一括承認・却下の対象申請
+ */
+public record BulkDecisionTarget(RequestCategory category, Long requestId) {
+}
@@ -0,0 +1,22 @@
+package com.kintai.dto;
+
+/**
+ * 社員一括登録の行ごとの結果
+ * @param errorCode 失敗時のエラーコード（成功時は null）
+ */
+public record EmployeeImportResult(int rowNumber,
+                                   boolean success,
+                                   Long employeeId,
+                                   String employeeCode,
+                                   String username,
+                                   String errorCode,
+                                   String message) {
+
+    public static EmployeeImportResult succeeded(int rowNumber, Long employeeId, String employeeCode, String username) {
+        return new EmployeeImportResult(rowNumber, true, employeeId, employeeCode, username, null, null);
+    }
+
+    public static EmployeeImportResult failed(int rowNumber, String errorCode, String message) {
+        return new EmployeeImportResult(rowNumber, false, null, null, null, errorCode, message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.kintai.dto;
+
+/**
+ * 社員一括登録の入力1行（日付は yyyy-MM-dd 形式の文字列のまま受け取り、登録時に検証する）
+ * @param rowNumber 入力内の行番号（1始まり、CSVのヘッダー行は含めない）
+ */
+public record EmployeeImportRow(int rowNumber,
+                                String lastName,
+                                String firstName,
+                                String birthday,
+                                String hireDate,
+                                String password) {
+}
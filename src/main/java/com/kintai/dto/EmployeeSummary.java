@@ -0,0 +1,17 @@
+package com.kintai.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 社員一覧・検索用の社員情報（一覧表示に必要な列のみ）
+ */
+public record EmployeeSummary(Long employeeId,
+                              String employeeCode,
+                              String lastName,
+                              String firstName,
+                              String lastKana,
+                              String firstKana,
+                              LocalDate hireDate,
+                              LocalDate retirementDate,
+                              Boolean isActive) {
+}
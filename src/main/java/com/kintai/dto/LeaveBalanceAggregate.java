@@ -0,0 +1,21 @@
+package com.kintai.dto;
+
+import com.kintai.entity.LeaveType;
+
+import java.math.BigDecimal;
+
+/**
+ * 休暇残数の集計行（従業員×休暇種別）
+ * 残数と申請中日数を1クエリでまとめて取得するための射影。
+ */
+public record LeaveBalanceAggregate(
+        Long employeeId,
+        LeaveType leaveType,
+        BigDecimal remainingDays,
+        BigDecimal pendingDays
+) {
+
+    public LeaveBalanceView toView() {
+        return new LeaveBalanceView(remainingDays, pendingDays);
+    }
+}
@@ -0,0 +1,10 @@
+package com.kintai.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 付与ごとの未消化日数（休暇台帳の集計結果）
+ */
+public record LeaveGrantRemainder(Long grantId, LocalDate grantedAt, LocalDate expiresAt, BigDecimal remaining) {
+}
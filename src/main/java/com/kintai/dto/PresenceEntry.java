@@ -0,0 +1,27 @@
+package com.kintai.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 当日の在席状況（従業員1人分）
+ * @param absenceType 休暇種別またはカスタム休日の種別（不在がない場合は null）
+ * @param late 出勤時刻が所定の始業時刻より遅い場合 true（休暇取得日は判定しない）
+ */
+public record PresenceEntry(Long employeeId,
+                            String employeeCode,
+                            String lastName,
+                            String firstName,
+                            Status status,
+                            boolean late,
+                            LocalDateTime clockInTime,
+                            LocalDateTime clockOutTime,
+                            String absenceType) {
+
+    public enum Status {
+        WORKING,        // 出勤中
+        FINISHED,       // 退勤済み
+        ON_LEAVE,       // 全日休暇
+        DAY_OFF,        // 振替休日・代休・カスタム休日
+        NOT_CLOCKED_IN  // 未出勤
+    }
+}
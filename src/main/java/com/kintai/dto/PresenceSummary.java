@@ -0,0 +1,16 @@
+package com.kintai.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 当日の在席状況の件数
+ */
+public record PresenceSummary(LocalDate date,
+                              int total,
+                              int working,
+                              int finished,
+                              int onLeave,
+                              int dayOff,
+                              int notClockedIn,
+                              int late) {
+}
@@ -0,0 +1,21 @@
+package com.kintai.dto;
+
+/**
+ * 従業員1名・1か月分の勤怠記録のデータバージョン（レポートキャッシュの照合用）
+ * 記録の追加・削除・更新（楽観ロックのバージョン加算）のいずれでも値が変わる。
+ * @param records 記録数
+ * @param versionSum 記録のバージョンの合計
+ * @param maxAttendanceId 最大の勤怠ID
+ * @param unfixed 未確定の記録数
+ */
+public record ReportDataVersion(Long records, Long versionSum, Long maxAttendanceId, Long unfixed) {
+
+    public String token() {
+        return records + "-" + versionSum + "-" + maxAttendanceId + "-" + unfixed;
+    }
+
+    /** すべての記録が確定済み（以後は勤怠記録の変更通知があるまで照合を省略できる） */
+    public boolean sealed() {
+        return records != null && records > 0 && unfixed != null && unfixed == 0;
+    }
+}
@@ -1,12 +1,21 @@
 package com.kintai.dto;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * レポート生成リクエストDTO
+ * 従業員は employeeId（1名）または employeeIds（複数名）で指定する。
  */
 public class ReportGenerateRequest {
     
     private Long employeeId;
+    private List<Long> employeeIds;
     private String yearMonth;
+    // pdf / zip（省略時は従業員数から決める）
+    private String format;
+    // HIGH / NORMAL / LOW（省略時は従業員1名なら HIGH、複数名なら LOW）
+    private String priority;
     
     // デフォルトコンストラクタ
     public ReportGenerateRequest() {
@@ -27,6 +36,28 @@ public class ReportGenerateRequest {
         this.employeeId = employeeId;
     }
     
+    public List<Long> getEmployeeIds() {
+        return employeeIds;
+    }
+    
+    public void setEmployeeIds(List<Long> employeeIds) {
+        this.employeeIds = employeeIds;
+    }
+    
+    /**
+     * 対象従業員（employeeId と employeeIds を合わせたもの）
+     */
+    public List<Long> resolveEmployeeIds() {
+        List<Long> ids = new ArrayList<>();
+        if (employeeId != null) {
+            ids.add(employeeId);
+        }
+        if (employeeIds != null) {
+            ids.addAll(employeeIds);
+        }
+        return ids;
+    }
+    
     public String getYearMonth() {
         return yearMonth;
     }
@@ -35,11 +66,30 @@ public class ReportGenerateRequest {
         this.yearMonth = yearMonth;
     }
     
+    public String getFormat() {
+        return format;
+    }
+    
+    public void setFormat(String format) {
+        this.format = format;
+    }
+    
+    public String getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+    
     @Override
     public String toString() {
         return "ReportGenerateRequest{" +
                 "employeeId=" + employeeId +
+                ", employeeIds=" + (employeeIds != null ? employeeIds.size() + "件" : "null") +
                 ", yearMonth='" + yearMonth + '\'' +
+                ", format='" + format + '\'' +
+                ", priority='" + priority + '\'' +
                 '}';
     }
 }
@@ -8,6 +8,9 @@ public class ReportGenerateResponse {
     private boolean success;
     private String pdfUrl;
     private String message;
+    // 非同期生成ジョブのIDと状況（状況は jobs/{jobId} で参照する）
+    private String jobId;
+    private String status;
 
     // デフォルトコンストラクタ
     public ReportGenerateResponse() {
@@ -27,6 +30,13 @@ public class ReportGenerateResponse {
         return new ReportGenerateResponse(false, null, message);
     }
 
+    public static ReportGenerateResponse accepted(String jobId, String status, String message) {
+        ReportGenerateResponse response = new ReportGenerateResponse(true, null, message);
+        response.setJobId(jobId);
+        response.setStatus(status);
+        return response;
+    }
+
     public boolean isSuccess() {
         return success;
     }
@@ -51,12 +61,30 @@ public class ReportGenerateResponse {
         this.message = message;
     }
 
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
     @Override
     public String toString() {
         return "ReportGenerateResponse{" +
                 "success=" + success +
                 ", pdfUrl='" + pdfUrl + '\'' +
                 ", message='" + message + '\'' +
+                ", jobId='" + jobId + '\'' +
+                ", status='" + status + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,110 @@
+package com.kintai.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 不在日インデックス
+ * 承認済み休暇（勤務日ごと）とカスタム休日（代休・振替休日）を1日1行に展開して保持し、
+ * 期間×従業員の不在照会を日付の範囲検索1回で返せるようにする。
+ */
+@Entity
+@Table(name = "absence_days",
+        indexes = {
+                @Index(name = "idx_absence_days_date_employee", columnList = "absence_date, employee_id"),
+                @Index(name = "idx_absence_days_employee_date", columnList = "employee_id, absence_date"),
+                @Index(name = "idx_absence_days_source", columnList = "source_type, source_id")
+        })
+public class AbsenceDay {
+
+    public static final String SOURCE_LEAVE_REQUEST = "LEAVE_REQUEST";
+    public static final String SOURCE_CUSTOM_HOLIDAY = "CUSTOM_HOLIDAY";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "absence_date", nullable = false)
+    private LocalDate absenceDate;
+
+    // 休暇種別（PAID_LEAVE など）またはカスタム休日の種別（代休・振替休日）
+    @Column(name = "absence_type", nullable = false, length = 32)
+    private String absenceType;
+
+    // 休暇の取得単位（カスタム休日は FULL_DAY）
+    @Enumerated(EnumType.STRING)
+    @Column(name = "time_unit", nullable = false, length = 16)
+    private LeaveTimeUnit timeUnit = LeaveTimeUnit.FULL_DAY;
+
+    @Column(name = "source_type", nullable = false, length = 32)
+    private String sourceType;
+
+    @Column(name = "source_id")
+    private Long sourceId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public AbsenceDay() {
+    }
+
+    public AbsenceDay(Long employeeId,
+                      LocalDate absenceDate,
+                      String absenceType,
+                      LeaveTimeUnit timeUnit,
+                      String sourceType,
+                      Long sourceId) {
+        this.employeeId = employeeId;
+        this.absenceDate = absenceDate;
+        this.absenceType = absenceType;
+        this.timeUnit = timeUnit == null ? LeaveTimeUnit.FULL_DAY : timeUnit;
+        this.sourceType = sourceType;
+        this.sourceId = sourceId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public LocalDate getAbsenceDate() {
+        return absenceDate;
+    }
+
+    public String getAbsenceType() {
+        return absenceType;
+    }
+
+    public LeaveTimeUnit getTimeUnit() {
+        return timeUnit;
+    }
+
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
  * 勤怠修正申請エンティティ
  */
 @Entity
-@Table(name = "adjustment_requests")
+@Table(name = "adjustment_requests",
+        indexes = {
+                @Index(name = "idx_adjustment_requests_status_created", columnList = "status, created_at, adjustment_request_id")
+        })
 public class AdjustmentRequest {
     
     @Id
@@ -8,7 +8,12 @@ import java.time.LocalDateTime;
  * 勤怠記録エンティティ
  */
 @Entity
-@Table(name = "attendance_records")
+@Table(name = "attendance_records",
+        indexes = {
+                @Index(name = "idx_attendance_records_employee_date", columnList = "employee_id, attendance_date"),
+                @Index(name = "idx_attendance_records_attendance_date", columnList = "attendance_date")
+        })
+@EntityListeners(AttendanceRecordChangeListener.class)
 public class AttendanceRecord {
     
     @Id
@@ -0,0 +1,36 @@
+package com.kintai.entity;
+
+import com.kintai.event.AttendanceRecordChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * 勤怠記録エンティティの変更を {@link AttendanceRecordChangedEvent} として通知するJPAリスナー
+ * 打刻・打刻修正・重複整理など経路によらず、在席状況インデックスとレポートキャッシュへ変更を伝える。
+ */
+public class AttendanceRecordChangeListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onStored(AttendanceRecord record) {
+        publish(record, false);
+    }
+
+    @PostRemove
+    public void onRemoved(AttendanceRecord record) {
+        publish(record, true);
+    }
+
+    private void publish(AttendanceRecord record, boolean removed) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new AttendanceRecordChangedEvent(record.getEmployeeId(), record.getAttendanceDate(),
+                    record.getClockInTime(), record.getClockOutTime(), removed));
+        }
+    }
+}
@@ -8,7 +8,11 @@ import java.time.LocalDate;
  * 従業員エンティティ
  */
 @Entity
-@Table(name = "employees")
+@Table(name = "employees",
+        indexes = {
+                @Index(name = "idx_employees_hire_month_day", columnList = "hire_month_day, employee_id")
+        })
+@EntityListeners(EmployeeChangeListener.class)
 public class Employee {
     
     @Id
@@ -37,6 +41,10 @@ public class Employee {
     
     @Column(name = "hire_date")
     private LocalDate hireDate;
+
+    // 入社日の月日（MMDD）。入社記念日による有休付与の対象抽出に使用
+    @Column(name = "hire_month_day")
+    private Integer hireMonthDay;
     
     @Column(name = "retirement_date")
     private LocalDate retirementDate;
@@ -84,11 +92,20 @@ public class Employee {
         if (updatedAt == null) {
             updatedAt = LocalDateTime.now();
         }
+        hireMonthDay = toMonthDay(hireDate);
     }
     
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        hireMonthDay = toMonthDay(hireDate);
+    }
+
+    /**
+     * 日付を月日（MMDD）の整数に変換する
+     */
+    public static Integer toMonthDay(LocalDate date) {
+        return date == null ? null : date.getMonthValue() * 100 + date.getDayOfMonth();
     }
     
     // ゲッター・セッター
@@ -149,7 +166,12 @@ public class Employee {
     public void setBirthday(LocalDate birthday) { this.birthday = birthday; }
 
     public LocalDate getHireDate() { return hireDate; }
-    public void setHireDate(LocalDate hireDate) { this.hireDate = hireDate; }
+    public void setHireDate(LocalDate hireDate) {
+        this.hireDate = hireDate;
+        this.hireMonthDay = toMonthDay(hireDate);
+    }
+
+    public Integer getHireMonthDay() { return hireMonthDay; }
 
     public LocalDate getRetirementDate() { return retirementDate; }
     public void setRetirementDate(LocalDate retirementDate) { this.retirementDate = retirementDate; }
@@ -0,0 +1,33 @@
+package com.kintai.entity;
+
+import com.kintai.event.EmployeeChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * 従業員エンティティの変更を {@link EmployeeChangedEvent} として通知するJPAリスナー
+ * 経路（社員管理画面・初期データ投入など）によらず検索インデックスを追従させる。
+ */
+public class EmployeeChangeListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Employee employee) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new EmployeeChangedEvent(employee.getEmployeeId(), false));
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Employee employee) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new EmployeeChangedEvent(employee.getEmployeeId(), true));
+        }
+    }
+}
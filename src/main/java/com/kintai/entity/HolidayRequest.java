@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
  * 休日関連申請（休日出勤/振替）
  */
 @Entity
-@Table(name = "holiday_requests")
+@Table(name = "holiday_requests",
+        indexes = {
+                @Index(name = "idx_holiday_requests_status_created", columnList = "status, created_at, id")
+        })
 public class HolidayRequest {
 
     public enum RequestType {
@@ -1,14 +1,17 @@
 package com.kintai.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * 休暇残数管理
+ * pending_days はSQLで直接加減算するため、エンティティ保存時は変更列のみ更新する。
  */
 @Entity
+@DynamicUpdate
 @Table(name = "leave_balances",
         uniqueConstraints = @UniqueConstraint(columnNames = {"employee_id", "leave_type"}))
 public class LeaveBalance {
@@ -34,6 +37,9 @@ public class LeaveBalance {
     @Column(name = "remaining_days", nullable = false, precision = 6, scale = 2)
     private BigDecimal remainingDays = BigDecimal.ZERO;
 
+    @Column(name = "pending_days", nullable = false, precision = 6, scale = 2)
+    private BigDecimal pendingDays = BigDecimal.ZERO;
+
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
@@ -106,6 +112,14 @@ public class LeaveBalance {
         this.remainingDays = remainingDays;
     }
 
+    public BigDecimal getPendingDays() {
+        return pendingDays;
+    }
+
+    public void setPendingDays(BigDecimal pendingDays) {
+        this.pendingDays = pendingDays;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
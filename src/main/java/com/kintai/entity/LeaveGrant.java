@@ -8,15 +8,22 @@ import java.time.LocalDateTime;
 
 /**
  * 休暇付与履歴
+ * 自動付与の付与元（source）は（従業員, 休暇種別, 付与日）ごとに1件のみ作成できる。手動付与の付与元は NULL。
  */
 @Entity
 @Table(name = "leave_grants",
+        uniqueConstraints = @UniqueConstraint(name = "uk_leave_grants_source",
+                columnNames = {"employee_id", "leave_type", "granted_at", "source"}),
         indexes = {
                 @Index(name = "idx_leave_grants_employee", columnList = "employee_id"),
-                @Index(name = "idx_leave_grants_type", columnList = "leave_type")
+                @Index(name = "idx_leave_grants_type", columnList = "leave_type"),
+                @Index(name = "idx_leave_grants_expires_at", columnList = "expires_at, employee_id")
         })
 public class LeaveGrant {
 
+    /** 入社記念日による有休の自動付与 */
+    public static final String SOURCE_ANNIVERSARY = "ANNIVERSARY";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
@@ -41,6 +48,9 @@ public class LeaveGrant {
     @Column(name = "granted_by")
     private Long grantedBy;
 
+    @Column(name = "source", length = 32)
+    private String source;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -125,6 +135,14 @@ public class LeaveGrant {
         this.grantedBy = grantedBy;
     }
 
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,128 @@
+package com.kintai.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 休暇台帳（追記のみ）
+ * 残数の増減を符号付き日数で記帳する。付与に紐づく増減は grant_id を持ち、付与ごとの未消化日数を求められる。
+ */
+@Entity
+@Table(name = "leave_ledger_entries",
+        indexes = {
+                @Index(name = "idx_leave_ledger_employee_type", columnList = "employee_id, leave_type, entry_id"),
+                @Index(name = "idx_leave_ledger_grant", columnList = "grant_id"),
+                @Index(name = "idx_leave_ledger_source", columnList = "source_type, source_id")
+        })
+public class LeaveLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "entry_id")
+    private Long entryId;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false, length = 32)
+    private LeaveType leaveType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 16)
+    private LeaveLedgerEntryType entryType;
+
+    // 残数への増減（付与・取得取消は正、取得・失効は負）
+    @Column(name = "days", nullable = false, precision = 6, scale = 2)
+    private BigDecimal days;
+
+    // 記帳日（残数が変化した日）
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Column(name = "grant_id")
+    private Long grantId;
+
+    @Column(name = "source_type", length = 32)
+    private String sourceType;
+
+    @Column(name = "source_id")
+    private Long sourceId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public LeaveLedgerEntry() {
+    }
+
+    public LeaveLedgerEntry(Long employeeId,
+                            LeaveType leaveType,
+                            LeaveLedgerEntryType entryType,
+                            BigDecimal days,
+                            Long grantId,
+                            String sourceType,
+                            Long sourceId) {
+        this.employeeId = employeeId;
+        this.leaveType = leaveType;
+        this.entryType = entryType;
+        this.days = days;
+        this.grantId = grantId;
+        this.sourceType = sourceType;
+        this.sourceId = sourceId;
+        this.entryDate = LocalDate.now();
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (entryDate == null) {
+            entryDate = LocalDate.now();
+        }
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public LeaveType getLeaveType() {
+        return leaveType;
+    }
+
+    public LeaveLedgerEntryType getEntryType() {
+        return entryType;
+    }
+
+    public BigDecimal getDays() {
+        return days;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public Long getGrantId() {
+        return grantId;
+    }
+
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
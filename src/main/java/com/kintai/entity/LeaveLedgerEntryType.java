@@ -0,0 +1,22 @@
+package com.kintai.entity;
+
+/**
+ * 休暇台帳の記帳種別
+ */
+public enum LeaveLedgerEntryType {
+    GRANT("付与"),
+    CONSUME("取得"),
+    RESTORE("取得取消"),
+    EXPIRE("失効"),
+    ADJUST("調整");
+
+    private final String displayName;
+
+    LeaveLedgerEntryType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,75 @@
+package com.kintai.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 休暇台帳の残数スナップショット
+ * last_entry_id までの記帳を合計した残数。任意日の残数は直近スナップショット + それ以降の記帳で求める。
+ * last_entry_id = 0 のスナップショットは台帳開始時点の残数（開始前の履歴は持たない）。
+ * （従業員, 休暇種別, last_entry_id）は一意のため、開始スナップショットは残数ごとに1件のみ。
+ */
+@Entity
+@Table(name = "leave_ledger_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_leave_ledger_snapshots_entry",
+                columnNames = {"employee_id", "leave_type", "last_entry_id"}))
+public class LeaveLedgerSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false, length = 32)
+    private LeaveType leaveType;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Column(name = "balance", nullable = false, precision = 8, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public LeaveLedgerSnapshot() {
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public LeaveType getLeaveType() {
+        return leaveType;
+    }
+
+    public LocalDate getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    public Long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
  * 休暇申請エンティティ
  */
 @Entity
-@Table(name = "leave_requests")
+@Table(name = "leave_requests",
+        indexes = {
+                @Index(name = "idx_leave_requests_status_created", columnList = "status, created_at, id")
+        })
 public class LeaveRequest {
 
     @Id
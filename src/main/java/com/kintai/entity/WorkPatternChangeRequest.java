@@ -10,7 +10,10 @@ import java.time.LocalTime;
  * 勤務時間変更申請エンティティ
  */
 @Entity
-@Table(name = "work_pattern_change_requests")
+@Table(name = "work_pattern_change_requests",
+        indexes = {
+                @Index(name = "idx_work_pattern_change_requests_status_created", columnList = "status, created_at, request_id")
+        })
 public class WorkPatternChangeRequest {
 
     public enum Status {
@@ -0,0 +1,25 @@
+package com.kintai.event;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 勤怠記録の登録・更新・削除イベント
+ * 打刻・打刻修正の承認・重複整理など経路によらず、勤怠記録エンティティのJPAリスナーから発行する（勤怠記録を更新したトランザクション内）。
+ * @param employeeId 従業員ID
+ * @param attendanceDate 勤務日
+ * @param clockInTime 変更後の出勤時刻
+ * @param clockOutTime 変更後の退勤時刻
+ * @param removed 勤怠記録が削除された場合 true
+ */
+public record AttendanceRecordChangedEvent(Long employeeId,
+                                           LocalDate attendanceDate,
+                                           LocalDateTime clockInTime,
+                                           LocalDateTime clockOutTime,
+                                           boolean removed) {
+
+    public AttendanceRecordChangedEvent(Long employeeId, LocalDate attendanceDate,
+                                        LocalDateTime clockInTime, LocalDateTime clockOutTime) {
+        this(employeeId, attendanceDate, clockInTime, clockOutTime, false);
+    }
+}
@@ -0,0 +1,9 @@
+package com.kintai.event;
+
+/**
+ * 従業員の登録・更新・削除イベント
+ * @param employeeId 従業員ID
+ * @param removed 削除された場合 true
+ */
+public record EmployeeChangedEvent(Long employeeId, boolean removed) {
+}
@@ -0,0 +1,17 @@
+package com.kintai.event;
+
+import com.kintai.entity.LeaveRequest;
+import com.kintai.entity.LeaveStatus;
+
+/**
+ * 休暇申請のステータス変更イベント
+ * 申請を更新したトランザクション内で発行する。
+ * @param request 変更後の申請
+ * @param previousStatus 変更前のステータス（新規申請の場合は null）
+ */
+public record LeaveRequestStatusChangedEvent(LeaveRequest request, LeaveStatus previousStatus) {
+
+    public LeaveStatus newStatus() {
+        return request.getStatus();
+    }
+}
@@ -0,0 +1,11 @@
+package com.kintai.event;
+
+/**
+ * 承認対象となる申請の種別
+ */
+public enum RequestCategory {
+    ADJUSTMENT,
+    WORK_PATTERN,
+    LEAVE,
+    HOLIDAY
+}
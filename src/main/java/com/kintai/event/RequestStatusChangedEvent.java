@@ -0,0 +1,26 @@
+package com.kintai.event;
+
+/**
+ * 打刻修正・勤務時間変更・休日出勤/振替申請のステータス変更イベント
+ * 申請を更新したトランザクション内で発行する（休暇申請は {@link LeaveRequestStatusChangedEvent} を使用）。
+ * @param category 申請種別
+ * @param requestId 申請ID
+ * @param employeeId 申請者の従業員ID
+ * @param previousStatus 変更前のステータス名（新規申請の場合は null）
+ * @param newStatus 変更後のステータス名（削除の場合は null）
+ */
+public record RequestStatusChangedEvent(RequestCategory category,
+                                        Long requestId,
+                                        Long employeeId,
+                                        String previousStatus,
+                                        String newStatus) {
+
+    public static final String PENDING = "PENDING";
+
+    /**
+     * 承認待ち件数の増減（+1: 承認待ちになった, -1: 承認待ちでなくなった）
+     */
+    public int pendingDelta() {
+        return (PENDING.equals(newStatus) ? 1 : 0) - (PENDING.equals(previousStatus) ? 1 : 0);
+    }
+}
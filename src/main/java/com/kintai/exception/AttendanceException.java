@@ -34,4 +34,5 @@ public class AttendanceException extends RuntimeException {
     public static final String INVALID_BREAK_VALUE = "INVALID_BREAK_VALUE";
     public static final String BREAK_NOT_EDITABLE = "BREAK_NOT_EDITABLE";
     public static final String ACCESS_DENIED = "ACCESS_DENIED";
+    public static final String QUEUE_FULL = "QUEUE_FULL";
 }
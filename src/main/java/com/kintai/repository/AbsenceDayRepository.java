@@ -0,0 +1,53 @@
+package com.kintai.repository;
+
+import com.kintai.entity.AbsenceDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AbsenceDayRepository extends JpaRepository<AbsenceDay, Long> {
+
+    /**
+     * 期間内の指定従業員の不在日
+     */
+    @Query("SELECT a FROM AbsenceDay a " +
+            "WHERE a.absenceDate BETWEEN :from AND :to " +
+            "AND a.employeeId IN :employeeIds " +
+            "ORDER BY a.absenceDate, a.employeeId")
+    List<AbsenceDay> findOverlapping(@Param("employeeIds") Collection<Long> employeeIds,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    /**
+     * 期間内の全従業員の不在日
+     */
+    @Query("SELECT a FROM AbsenceDay a " +
+            "WHERE a.absenceDate BETWEEN :from AND :to " +
+            "ORDER BY a.absenceDate, a.employeeId")
+    List<AbsenceDay> findOverlapping(@Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AbsenceDay a WHERE a.sourceType = :sourceType AND a.sourceId = :sourceId")
+    int deleteBySource(@Param("sourceType") String sourceType,
+                       @Param("sourceId") Long sourceId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AbsenceDay a WHERE a.sourceType = :sourceType " +
+            "AND a.employeeId = :employeeId AND a.absenceDate = :date")
+    int deleteBySourceAndDate(@Param("sourceType") String sourceType,
+                              @Param("employeeId") Long employeeId,
+                              @Param("date") LocalDate date);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AbsenceDay a WHERE a.sourceType = :sourceType AND a.employeeId IN :employeeIds")
+    int deleteBySourceAndEmployeeIds(@Param("sourceType") String sourceType,
+                                     @Param("employeeIds") Collection<Long> employeeIds);
+}
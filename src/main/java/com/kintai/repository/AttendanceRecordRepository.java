@@ -1,12 +1,18 @@
 package com.kintai.repository;
 
+import com.kintai.dto.AttendanceDayMetrics;
+import com.kintai.dto.ReportDataVersion;
 import com.kintai.entity.AttendanceRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -83,4 +89,78 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
      */
     @Query("SELECT ar FROM AttendanceRecord ar WHERE ar.employeeId = :employeeId AND ar.attendanceDate = :attendanceDate ORDER BY ar.attendanceId DESC")
     List<AttendanceRecord> findDuplicatesByEmployeeIdAndAttendanceDate(@Param("employeeId") Long employeeId, @Param("attendanceDate") LocalDate attendanceDate);
+
+    /**
+     * 期間内の未確定の勤怠記録を確定済みにする（月次確定）
+     * 1件ずつの更新ではなく1回のUPDATEで処理し、編集中の画面からの更新を楽観ロックで検出できるようバージョンを進める。
+     * @return 確定した件数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE AttendanceRecord ar SET ar.attendanceFixedFlag = true, ar.version = ar.version + 1, ar.updatedAt = :now " +
+            "WHERE ar.employeeId IN :employeeIds " +
+            "AND ar.attendanceDate BETWEEN :from AND :to " +
+            "AND ar.attendanceFixedFlag = false")
+    int fixRecords(@Param("employeeIds") Collection<Long> employeeIds,
+                   @Param("from") LocalDate from,
+                   @Param("to") LocalDate to,
+                   @Param("now") LocalDateTime now);
+
+    boolean existsByEmployeeIdAndAttendanceDateBetween(Long employeeId, LocalDate from, LocalDate to);
+
+    /**
+     * 期間内に未確定の勤怠記録がある従業員ID（従業員ID順、afterId より後）
+     */
+    @Query("SELECT DISTINCT ar.employeeId FROM AttendanceRecord ar " +
+            "WHERE ar.attendanceDate BETWEEN :from AND :to " +
+            "AND ar.attendanceFixedFlag = false " +
+            "AND ar.employeeId > :afterId " +
+            "ORDER BY ar.employeeId")
+    List<Long> findUnfixedEmployeeIds(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    @Query("SELECT COUNT(DISTINCT ar.employeeId) FROM AttendanceRecord ar " +
+            "WHERE ar.attendanceDate BETWEEN :from AND :to " +
+            "AND ar.attendanceFixedFlag = false")
+    long countUnfixedEmployees(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 指定日の全従業員の勤怠記録（在席状況インデックスの再構築用）
+     */
+    List<AttendanceRecord> findByAttendanceDateOrderByAttendanceIdAsc(LocalDate attendanceDate);
+
+    /**
+     * 期間内の全従業員の勤怠（集計に必要な列のみ、ID順）
+     */
+    @Query("SELECT new com.kintai.dto.AttendanceDayMetrics(ar.attendanceId, ar.employeeId, ar.attendanceDate, " +
+            "ar.clockInTime, ar.clockOutTime, ar.breakMinutes, ar.lateMinutes, ar.earlyLeaveMinutes, " +
+            "ar.overtimeMinutes, ar.nightShiftMinutes, ar.attendanceStatus) FROM AttendanceRecord ar " +
+            "WHERE ar.attendanceDate BETWEEN :from AND :to ORDER BY ar.attendanceId")
+    List<AttendanceDayMetrics> findDayMetricsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 従業員の期間内の勤怠記録のデータバージョン（レポートキャッシュの照合用）
+     */
+    @Query("SELECT new com.kintai.dto.ReportDataVersion(COUNT(ar), COALESCE(SUM(ar.version), 0L), " +
+            "COALESCE(MAX(ar.attendanceId), 0L), COALESCE(SUM(CASE WHEN ar.attendanceFixedFlag = false THEN 1L ELSE 0L END), 0L)) " +
+            "FROM AttendanceRecord ar WHERE ar.employeeId = :employeeId AND ar.attendanceDate BETWEEN :from AND :to")
+    ReportDataVersion findReportDataVersion(@Param("employeeId") Long employeeId,
+                                            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 複数従業員の期間内の勤怠記録（従業員ID・日付順、レポート一括出力用）
+     */
+    @Query("SELECT ar FROM AttendanceRecord ar WHERE ar.employeeId IN :employeeIds " +
+            "AND ar.attendanceDate BETWEEN :from AND :to ORDER BY ar.employeeId, ar.attendanceDate, ar.attendanceId")
+    List<AttendanceRecord> findByEmployeeIdsBetween(@Param("employeeIds") Collection<Long> employeeIds,
+                                                    @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 指定従業員の勤怠記録を1回のDELETEで削除する
+     * @return 削除した件数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AttendanceRecord ar WHERE ar.employeeId IN :employeeIds")
+    int deleteByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
 }
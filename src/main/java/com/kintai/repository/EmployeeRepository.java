@@ -1,9 +1,19 @@
 package com.kintai.repository;
 
+import com.kintai.dto.EmployeeSummary;
 import com.kintai.entity.Employee;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,6 +35,22 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
      * @return 従業員（存在しない場合は空）
      */
     Optional<Employee> findByEmployeeCode(String employeeCode);
+
+    boolean existsByEmployeeCode(String employeeCode);
+
+    @Query("SELECT e.employeeCode FROM Employee e WHERE e.employeeCode IN :employeeCodes")
+    List<String> findExistingEmployeeCodes(@Param("employeeCodes") Collection<String> employeeCodes);
+
+    @Query("SELECT new com.kintai.dto.EmployeeSummary(e.employeeId, e.employeeCode, e.lastName, e.firstName, " +
+            "e.lastKana, e.firstKana, e.hireDate, e.retirementDate, e.isActive) FROM Employee e " +
+            "WHERE e.employeeCode IN :employeeCodes")
+    List<EmployeeSummary> findSummariesByCodes(@Param("employeeCodes") Collection<String> employeeCodes);
+
+    /**
+     * 指定した接頭辞で始まる社員コードのみを取得（採番シーケンスの初期化用）
+     */
+    @Query("SELECT e.employeeCode FROM Employee e WHERE e.employeeCode LIKE CONCAT(:prefix, '%')")
+    List<String> findEmployeeCodesStartingWith(@Param("prefix") String prefix);
     
     
     /**
@@ -33,4 +59,41 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
      * @return 在職中の従業員（存在しない場合は空）
      */
     Optional<Employee> findByEmployeeCodeAndIsActiveTrue(String employeeCode);
+
+    /**
+     * 社員一覧（ページング・並び替え）
+     * @param active 在籍状態で絞り込む場合に指定（null の場合は全件）
+     */
+    @Query(value = "SELECT new com.kintai.dto.EmployeeSummary(e.employeeId, e.employeeCode, e.lastName, e.firstName, " +
+            "e.lastKana, e.firstKana, e.hireDate, e.retirementDate, e.isActive) FROM Employee e " +
+            "WHERE (:active IS NULL OR e.isActive = :active)",
+            countQuery = "SELECT COUNT(e) FROM Employee e WHERE (:active IS NULL OR e.isActive = :active)")
+    Page<EmployeeSummary> findSummaries(@Param("active") Boolean active, Pageable pageable);
+
+    /**
+     * 指定IDの社員情報
+     */
+    @Query("SELECT new com.kintai.dto.EmployeeSummary(e.employeeId, e.employeeCode, e.lastName, e.firstName, " +
+            "e.lastKana, e.firstKana, e.hireDate, e.retirementDate, e.isActive) FROM Employee e " +
+            "WHERE e.employeeId IN :employeeIds")
+    List<EmployeeSummary> findSummariesByIds(@Param("employeeIds") Collection<Long> employeeIds);
+
+    /**
+     * 全社員の社員情報（検索インデックスの構築用）
+     */
+    @Query("SELECT new com.kintai.dto.EmployeeSummary(e.employeeId, e.employeeCode, e.lastName, e.firstName, " +
+            "e.lastKana, e.firstKana, e.hireDate, e.retirementDate, e.isActive) FROM Employee e")
+    List<EmployeeSummary> findAllSummaries();
+
+    /**
+     * 指定従業員を1回のUPDATEで退職扱いにする（退職済みの従業員は退職日を上書きしない）
+     * エンティティの変更通知は出ないため、検索インデックス等の更新は呼び出し側で行う。
+     * @return 更新した件数（退職済みの従業員は含まない）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.isActive = false, e.retirementDate = :retirementDate, e.updatedAt = :now " +
+            "WHERE e.employeeId IN :employeeIds AND e.isActive = true")
+    int retireAll(@Param("employeeIds") Collection<Long> employeeIds,
+                  @Param("retirementDate") LocalDate retirementDate,
+                  @Param("now") LocalDateTime now);
 }
@@ -1,12 +1,21 @@
 package com.kintai.repository;
 
+import com.kintai.dto.ApprovalQueueItem;
 import com.kintai.entity.HolidayRequest;
 import com.kintai.entity.HolidayRequest.Status;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface HolidayRequestRepository extends JpaRepository<HolidayRequest, Long> {
@@ -16,5 +25,56 @@ public interface HolidayRequestRepository extends JpaRepository<HolidayRequest,
     List<HolidayRequest> findByEmployeeIdAndWorkDate(Long employeeId, LocalDate workDate);
 
     long countByStatus(Status status);
-}
 
+    /**
+     * 指定日が承認済みの振替休日・代休である従業員ID
+     * @param employeeId 絞り込む従業員（null の場合は全従業員）
+     */
+    @Query("SELECT DISTINCT r.employeeId FROM HolidayRequest r " +
+            "WHERE r.status = com.kintai.entity.HolidayRequest$Status.APPROVED " +
+            "AND (:employeeId IS NULL OR r.employeeId = :employeeId) " +
+            "AND ((r.requestType = com.kintai.entity.HolidayRequest$RequestType.TRANSFER AND r.transferHolidayDate = :date) " +
+            "OR (r.requestType = com.kintai.entity.HolidayRequest$RequestType.HOLIDAY_WORK AND r.takeComp = true AND r.compDate = :date))")
+    List<Long> findDayOffEmployeeIds(@Param("date") LocalDate date, @Param("employeeId") Long employeeId);
+
+    /**
+     * 出勤日・振替休日・代休日のいずれかが期間内にある承認済み申請（全従業員）
+     */
+    @Query("SELECT r FROM HolidayRequest r WHERE r.status = com.kintai.entity.HolidayRequest$Status.APPROVED " +
+            "AND ((r.workDate BETWEEN :from AND :to) OR (r.transferHolidayDate BETWEEN :from AND :to) " +
+            "OR (r.compDate BETWEEN :from AND :to))")
+    List<HolidayRequest> findApprovedBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 承認キュー: 作成日時の新しい順に、カーソル（作成日時, ID）より後の申請を取得する
+     * @param from 対象期間の絞り込み開始日（null の場合は指定なし）
+     * @param to 対象期間の絞り込み終了日（null の場合は指定なし）
+     */
+    @Query("SELECT new com.kintai.dto.ApprovalQueueItem(com.kintai.event.RequestCategory.HOLIDAY, r.id, r.employeeId, " +
+            "r.status, r.requestType, r.workDate, r.workDate, r.createdAt) FROM HolidayRequest r " +
+            "WHERE r.status = :status AND (:employeeId IS NULL OR r.employeeId = :employeeId) " +
+            "AND (:from IS NULL OR r.workDate >= :from) AND (:to IS NULL OR r.workDate <= :to) " +
+            "AND (r.createdAt < :cursorAt OR (r.createdAt = :cursorAt AND r.id < :cursorId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ApprovalQueueItem> findQueuePage(@Param("status") Status status,
+                                          @Param("employeeId") Long employeeId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to,
+                                          @Param("cursorAt") LocalDateTime cursorAt,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
+
+    /**
+     * 行ロックを取得して申請を読み込む（承認・却下・取消の状態遷移を個別・一括の間で直列化する）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM HolidayRequest r WHERE r.id = :id")
+    Optional<HolidayRequest> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * 行ロックを取得して申請をまとめて読み込む（ID順にロックしてデッドロックを避ける）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM HolidayRequest r WHERE r.id IN :ids ORDER BY r.id")
+    List<HolidayRequest> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+}
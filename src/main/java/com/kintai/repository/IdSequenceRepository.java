@@ -0,0 +1,22 @@
+package com.kintai.repository;
+
+import com.kintai.entity.IdSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+
+    /**
+     * 行ロックを取得してシーケンスを読み込む（ブロック予約用）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM IdSequence s WHERE s.sequenceName = :sequenceName")
+    Optional<IdSequence> findForUpdate(@Param("sequenceName") String sequenceName);
+}
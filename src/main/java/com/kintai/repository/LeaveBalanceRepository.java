@@ -1,10 +1,17 @@
 package com.kintai.repository;
 
+import com.kintai.dto.LeaveBalanceAggregate;
 import com.kintai.entity.LeaveBalance;
 import com.kintai.entity.LeaveType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +21,158 @@ public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long
     List<LeaveBalance> findByEmployeeId(Long employeeId);
 
     Optional<LeaveBalance> findByEmployeeIdAndLeaveType(Long employeeId, LeaveType leaveType);
+
+    /**
+     * 現在の残数（一括UPDATE後の値を永続化コンテキストを介さずに取得する）
+     */
+    @Query("SELECT lb.remainingDays FROM LeaveBalance lb WHERE lb.employeeId = :employeeId AND lb.leaveType = :leaveType")
+    Optional<BigDecimal> findRemainingDays(@Param("employeeId") Long employeeId,
+                                           @Param("leaveType") LeaveType leaveType);
+
+    /**
+     * 指定従業員の全休暇種別について、残数と申請中日数を1クエリで取得する
+     * @param employeeIds 従業員IDリスト
+     * @return 従業員×休暇種別ごとの集計行（残数レコードが存在するもののみ）
+     */
+    @Query("SELECT new com.kintai.dto.LeaveBalanceAggregate(lb.employeeId, lb.leaveType, lb.remainingDays, lb.pendingDays) " +
+            "FROM LeaveBalance lb " +
+            "WHERE lb.employeeId IN :employeeIds")
+    List<LeaveBalanceAggregate> aggregateByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+
+    /**
+     * 申請可能残（残数 - 申請中）が足りる場合のみ申請中日数を加算する
+     * @return 更新件数（0件の場合は残数不足）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.pendingDays = lb.pendingDays + :days " +
+            "WHERE lb.employeeId = :employeeId " +
+            "AND lb.leaveType = :leaveType " +
+            "AND lb.remainingDays - lb.pendingDays >= :days")
+    int reservePendingDays(@Param("employeeId") Long employeeId,
+                           @Param("leaveType") LeaveType leaveType,
+                           @Param("days") BigDecimal days);
+
+    /**
+     * 残数が足りる場合のみ取得済み日数を加算し、残数を減算する
+     * @return 更新件数（0件の場合は残数不足または残数レコードなし）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.usedDays = lb.usedDays + :days, " +
+            "lb.remainingDays = lb.remainingDays - :days " +
+            "WHERE lb.employeeId = :employeeId " +
+            "AND lb.leaveType = :leaveType " +
+            "AND lb.remainingDays >= :days")
+    int consumeDays(@Param("employeeId") Long employeeId,
+                    @Param("leaveType") LeaveType leaveType,
+                    @Param("days") BigDecimal days);
+
+    /**
+     * 取得済み日数を減算し（0未満にはしない）、残数を加算する
+     * @return 更新件数（0件の場合は残数レコードなし）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.usedDays = " +
+            "CASE WHEN lb.usedDays > :days THEN lb.usedDays - :days ELSE 0 END, " +
+            "lb.remainingDays = lb.remainingDays + :days " +
+            "WHERE lb.employeeId = :employeeId " +
+            "AND lb.leaveType = :leaveType")
+    int restoreDays(@Param("employeeId") Long employeeId,
+                    @Param("leaveType") LeaveType leaveType,
+                    @Param("days") BigDecimal days);
+
+    /**
+     * 付与日数を付与総数と残数に加算する（読み取り→保存で同時の消化・取消を上書きしないように）
+     * @return 更新件数（残数レコードがない従業員は対象外）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.totalDays = lb.totalDays + :days, " +
+            "lb.remainingDays = lb.remainingDays + :days, lb.updatedAt = :now " +
+            "WHERE lb.employeeId IN :employeeIds " +
+            "AND lb.leaveType = :leaveType")
+    int addGrantDays(@Param("employeeIds") Collection<Long> employeeIds,
+                     @Param("leaveType") LeaveType leaveType,
+                     @Param("days") BigDecimal days,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * 失効した日数を付与総数と残数から減算する（0未満にはしない）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET " +
+            "lb.totalDays = CASE WHEN lb.totalDays > :days THEN lb.totalDays - :days ELSE 0 END, " +
+            "lb.remainingDays = CASE WHEN lb.remainingDays > :days THEN lb.remainingDays - :days ELSE 0 END " +
+            "WHERE lb.employeeId = :employeeId " +
+            "AND lb.leaveType = :leaveType")
+    int expireDays(@Param("employeeId") Long employeeId,
+                   @Param("leaveType") LeaveType leaveType,
+                   @Param("days") BigDecimal days);
+
+    /**
+     * 申請中日数を減算する（0未満にはしない）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.pendingDays = " +
+            "CASE WHEN lb.pendingDays > :days THEN lb.pendingDays - :days ELSE 0 END " +
+            "WHERE lb.employeeId = :employeeId " +
+            "AND lb.leaveType = :leaveType")
+    int releasePendingDays(@Param("employeeId") Long employeeId,
+                           @Param("leaveType") LeaveType leaveType,
+                           @Param("days") BigDecimal days);
+
+    /**
+     * 申請中日数が申請データの合計と一致しない残数を検出する
+     */
+    @Query("SELECT lb FROM LeaveBalance lb " +
+            "WHERE lb.pendingDays <> (SELECT COALESCE(SUM(lr.days), 0) FROM LeaveRequest lr " +
+            "WHERE lr.employeeId = lb.employeeId AND lr.leaveType = lb.leaveType " +
+            "AND lr.status = com.kintai.entity.LeaveStatus.PENDING)")
+    List<LeaveBalance> findPendingDaysMismatches();
+
+    /**
+     * 申請中日数を申請データの合計で再計算する
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.pendingDays = " +
+            "(SELECT COALESCE(SUM(lr.days), 0) FROM LeaveRequest lr " +
+            "WHERE lr.employeeId = lb.employeeId AND lr.leaveType = lb.leaveType " +
+            "AND lr.status = com.kintai.entity.LeaveStatus.PENDING) " +
+            "WHERE lb.employeeId = :employeeId " +
+            "AND lb.leaveType = :leaveType")
+    int recalculatePendingDays(@Param("employeeId") Long employeeId,
+                               @Param("leaveType") LeaveType leaveType);
+
+    /**
+     * 指定従業員の全休暇種別の申請中日数を申請データの合計で再計算する（申請の一括削除後の補正用）
+     * @return 更新件数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.pendingDays = " +
+            "(SELECT COALESCE(SUM(lr.days), 0) FROM LeaveRequest lr " +
+            "WHERE lr.employeeId = lb.employeeId AND lr.leaveType = lb.leaveType " +
+            "AND lr.status = com.kintai.entity.LeaveStatus.PENDING) " +
+            "WHERE lb.employeeId IN :employeeIds")
+    int recalculatePendingDaysByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+
+    /**
+     * 残数レコードが未作成の従業員に0日の残数を作成する（退職時の一括リセット用）
+     * @return 作成した件数
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO LeaveBalance (employeeId, leaveType, totalDays, usedDays, remainingDays, pendingDays, updatedAt) " +
+            "SELECT e.employeeId, :leaveType, 0, 0, 0, 0, :now FROM Employee e " +
+            "WHERE e.employeeId IN :employeeIds " +
+            "AND NOT EXISTS (SELECT 1 FROM LeaveBalance lb WHERE lb.employeeId = e.employeeId AND lb.leaveType = :leaveType)")
+    int createZeroBalances(@Param("employeeIds") Collection<Long> employeeIds,
+                           @Param("leaveType") LeaveType leaveType,
+                           @Param("now") LocalDateTime now);
+
+    /**
+     * 指定従業員の全休暇種別の付与・取得・残日数を0にする（申請中日数は変更しない）
+     * @return 更新した件数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.totalDays = 0, lb.usedDays = 0, lb.remainingDays = 0, lb.updatedAt = :now " +
+            "WHERE lb.employeeId IN :employeeIds")
+    int resetToZero(@Param("employeeIds") Collection<Long> employeeIds,
+                    @Param("now") LocalDateTime now);
 }
@@ -2,12 +2,14 @@ package com.kintai.repository;
 
 import com.kintai.entity.LeaveGrant;
 import com.kintai.entity.LeaveType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,4 +28,29 @@ public interface LeaveGrantRepository extends JpaRepository<LeaveGrant, Long> {
             "AND (lg.expiresAt IS NULL OR lg.expiresAt >= :today)")
     List<LeaveGrant> findActiveGrants(@Param("employeeId") Long employeeId,
                                       @Param("today") LocalDate today);
+
+    /**
+     * 指定期間内に有効期限が切れた付与を持つ従業員IDを従業員ID順に取得する（キーセットページング）
+     * @param since 有効期限の下限（含む）
+     * @param today 基準日（有効期限がこの日より前のものが対象）
+     * @param afterId 前チャンクの最終従業員ID
+     */
+    @Query("SELECT DISTINCT lg.employeeId FROM LeaveGrant lg " +
+            "WHERE lg.expiresAt >= :since AND lg.expiresAt < :today " +
+            "AND lg.employeeId > :afterId " +
+            "ORDER BY lg.employeeId")
+    List<Long> findEmployeeIdsWithGrantsExpiredBetween(@Param("since") LocalDate since,
+                                                       @Param("today") LocalDate today,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    /**
+     * 指定従業員の、期間内に有効期限が切れた付与を取得する
+     */
+    @Query("SELECT lg FROM LeaveGrant lg " +
+            "WHERE lg.employeeId IN :employeeIds " +
+            "AND lg.expiresAt >= :since AND lg.expiresAt < :today")
+    List<LeaveGrant> findGrantsExpiredBetween(@Param("employeeIds") Collection<Long> employeeIds,
+                                             @Param("since") LocalDate since,
+                                             @Param("today") LocalDate today);
 }
@@ -0,0 +1,103 @@
+package com.kintai.repository;
+
+import com.kintai.dto.LeaveGrantRemainder;
+import com.kintai.entity.LeaveLedgerEntry;
+import com.kintai.entity.LeaveLedgerEntryType;
+import com.kintai.entity.LeaveType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LeaveLedgerEntryRepository extends JpaRepository<LeaveLedgerEntry, Long> {
+
+    List<LeaveLedgerEntry> findBySourceTypeAndSourceIdAndEntryType(String sourceType, Long sourceId,
+                                                                  LeaveLedgerEntryType entryType);
+
+    boolean existsByGrantIdAndEntryType(Long grantId, LeaveLedgerEntryType entryType);
+
+    List<LeaveLedgerEntry> findByEmployeeIdAndLeaveTypeOrderByEntryIdDesc(Long employeeId, LeaveType leaveType,
+                                                                         Pageable pageable);
+
+    /**
+     * スナップショット以降の記帳合計（指定日までに記帳されたもの）
+     */
+    @Query("SELECT COALESCE(SUM(e.days), 0) FROM LeaveLedgerEntry e " +
+            "WHERE e.employeeId = :employeeId AND e.leaveType = :leaveType " +
+            "AND e.entryId > :afterEntryId AND e.entryDate <= :date")
+    BigDecimal sumAfter(@Param("employeeId") Long employeeId,
+                        @Param("leaveType") LeaveType leaveType,
+                        @Param("afterEntryId") Long afterEntryId,
+                        @Param("date") LocalDate date);
+
+    /**
+     * 付与の未消化日数
+     */
+    @Query("SELECT COALESCE(SUM(e.days), 0) FROM LeaveLedgerEntry e WHERE e.grantId = :grantId")
+    BigDecimal sumByGrantId(@Param("grantId") Long grantId);
+
+    /**
+     * 付与に紐づく記帳の合計（台帳で管理している付与の未消化日数の合計。失効済みの付与は0）
+     */
+    @Query("SELECT COALESCE(SUM(e.days), 0) FROM LeaveLedgerEntry e " +
+            "WHERE e.employeeId = :employeeId AND e.leaveType = :leaveType AND e.grantId IS NOT NULL")
+    BigDecimal sumGrantLinked(@Param("employeeId") Long employeeId,
+                              @Param("leaveType") LeaveType leaveType);
+
+    /**
+     * 指定日に有効な付与の未消化日数を付与日の古い順に取得する（先入先出での消化用）
+     */
+    @Query("SELECT new com.kintai.dto.LeaveGrantRemainder(g.id, g.grantedAt, g.expiresAt, SUM(e.days)) " +
+            "FROM LeaveLedgerEntry e, LeaveGrant g " +
+            "WHERE g.id = e.grantId " +
+            "AND e.employeeId = :employeeId AND e.leaveType = :leaveType " +
+            "AND (g.expiresAt IS NULL OR g.expiresAt >= :date) " +
+            "GROUP BY g.id, g.grantedAt, g.expiresAt " +
+            "HAVING SUM(e.days) > 0 " +
+            "ORDER BY g.grantedAt ASC, g.id ASC")
+    List<LeaveGrantRemainder> findGrantRemainders(@Param("employeeId") Long employeeId,
+                                                  @Param("leaveType") LeaveType leaveType,
+                                                  @Param("date") LocalDate date);
+
+    /**
+     * 一括付与で作成された付与履歴を台帳へ記帳する（記帳済みの付与は対象外）
+     * @param createdSince 一括付与の開始時刻（これ以降に作成された付与履歴が対象）
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO LeaveLedgerEntry (employeeId, leaveType, entryType, days, entryDate, grantId, sourceType, sourceId, createdAt) " +
+            "SELECT g.employeeId, g.leaveType, com.kintai.entity.LeaveLedgerEntryType.GRANT, g.grantedDays, :today, " +
+            "g.id, 'LEAVE_GRANT', g.id, :now " +
+            "FROM LeaveGrant g " +
+            "WHERE g.employeeId IN :employeeIds AND g.leaveType = :leaveType " +
+            "AND g.grantedAt = :grantedAt AND g.createdAt >= :createdSince " +
+            "AND NOT EXISTS (SELECT 1 FROM LeaveLedgerEntry e WHERE e.grantId = g.id)")
+    int recordGrantEntries(@Param("employeeIds") Collection<Long> employeeIds,
+                           @Param("leaveType") LeaveType leaveType,
+                           @Param("grantedAt") LocalDate grantedAt,
+                           @Param("createdSince") LocalDateTime createdSince,
+                           @Param("today") LocalDate today,
+                           @Param("now") LocalDateTime now);
+
+    /**
+     * 退職による残数の取り消しを台帳へ記帳する（残数が0でない残数レコードが対象）
+     * 残数を0にリセットする前に呼び出すこと。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO LeaveLedgerEntry (employeeId, leaveType, entryType, days, entryDate, grantId, sourceType, sourceId, createdAt) " +
+            "SELECT lb.employeeId, lb.leaveType, com.kintai.entity.LeaveLedgerEntryType.ADJUST, -lb.remainingDays, :today, " +
+            "NULL, 'RETIREMENT', lb.employeeId, :now " +
+            "FROM LeaveBalance lb " +
+            "WHERE lb.employeeId IN :employeeIds AND lb.remainingDays <> 0")
+    int recordRetirementEntries(@Param("employeeIds") Collection<Long> employeeIds,
+                                @Param("today") LocalDate today,
+                                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,52 @@
+package com.kintai.repository;
+
+import com.kintai.entity.LeaveLedgerSnapshot;
+import com.kintai.entity.LeaveType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LeaveLedgerSnapshotRepository extends JpaRepository<LeaveLedgerSnapshot, Long> {
+
+    /**
+     * 指定日以前の最新スナップショット
+     */
+    @Query("SELECT s FROM LeaveLedgerSnapshot s " +
+            "WHERE s.employeeId = :employeeId AND s.leaveType = :leaveType AND s.snapshotDate <= :date " +
+            "ORDER BY s.lastEntryId DESC, s.snapshotId DESC")
+    List<LeaveLedgerSnapshot> findLatest(@Param("employeeId") Long employeeId,
+                                         @Param("leaveType") LeaveType leaveType,
+                                         @Param("date") LocalDate date,
+                                         Pageable pageable);
+
+    /**
+     * 最新スナップショット以降の記帳が一定件数を超えた残数について、新しいスナップショットを作成する
+     * 記帳IDは採番順とコミット順が一致しないため、committedBefore 以降に作成された記帳と、それより大きいIDの記帳は含めない
+     * （後からコミットされた小さいIDの記帳をスナップショットの位置より前に取り残さないように）。
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO LeaveLedgerSnapshot (employeeId, leaveType, snapshotDate, lastEntryId, balance, createdAt) " +
+            "SELECT s.employeeId, s.leaveType, :today, MAX(e.entryId), s.balance + SUM(e.days), :now " +
+            "FROM LeaveLedgerSnapshot s, LeaveLedgerEntry e " +
+            "WHERE e.employeeId = s.employeeId AND e.leaveType = s.leaveType " +
+            "AND e.entryId > s.lastEntryId AND e.entryDate <= :today " +
+            "AND NOT EXISTS (SELECT 1 FROM LeaveLedgerEntry e2 " +
+            "WHERE e2.employeeId = s.employeeId AND e2.leaveType = s.leaveType " +
+            "AND e2.entryId > s.lastEntryId AND e2.entryId <= e.entryId AND e2.createdAt > :committedBefore) " +
+            "AND s.snapshotId = (SELECT MAX(s2.snapshotId) FROM LeaveLedgerSnapshot s2 " +
+            "WHERE s2.employeeId = s.employeeId AND s2.leaveType = s.leaveType) " +
+            "GROUP BY s.snapshotId, s.employeeId, s.leaveType, s.balance " +
+            "HAVING COUNT(e) >= :minEntries")
+    int compact(@Param("minEntries") long minEntries,
+                @Param("today") LocalDate today,
+                @Param("committedBefore") LocalDateTime committedBefore,
+                @Param("now") LocalDateTime now);
+}
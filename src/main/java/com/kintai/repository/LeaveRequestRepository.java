@@ -1,15 +1,22 @@
 package com.kintai.repository;
 
+import com.kintai.dto.ApprovalQueueItem;
 import com.kintai.entity.LeaveRequest;
 import com.kintai.entity.LeaveStatus;
 import com.kintai.entity.LeaveType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +76,45 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
                               @Param("leaveType") LeaveType leaveType);
 
     long countByStatus(LeaveStatus status);
+
+    /**
+     * 承認キュー: 作成日時の新しい順に、カーソル（作成日時, ID）より後の申請を取得する
+     * @param from 対象期間の絞り込み開始日（null の場合は指定なし）
+     * @param to 対象期間の絞り込み終了日（null の場合は指定なし）
+     */
+    @Query("SELECT new com.kintai.dto.ApprovalQueueItem(com.kintai.event.RequestCategory.LEAVE, r.id, r.employeeId, " +
+            "r.status, r.leaveType, r.startDate, r.endDate, r.createdAt) FROM LeaveRequest r " +
+            "WHERE r.status = :status AND (:employeeId IS NULL OR r.employeeId = :employeeId) " +
+            "AND (:from IS NULL OR r.endDate >= :from) AND (:to IS NULL OR r.startDate <= :to) " +
+            "AND (r.createdAt < :cursorAt OR (r.createdAt = :cursorAt AND r.id < :cursorId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ApprovalQueueItem> findQueuePage(@Param("status") LeaveStatus status,
+                                          @Param("employeeId") Long employeeId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to,
+                                          @Param("cursorAt") LocalDateTime cursorAt,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
+
+    /**
+     * 指定従業員の休暇申請を1回のDELETEで削除する
+     * @return 削除した件数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM LeaveRequest r WHERE r.employeeId IN :employeeIds")
+    int deleteByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+
+    /**
+     * 行ロックを取得して申請を読み込む（承認・却下・取消の状態遷移を個別・一括の間で直列化する）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM LeaveRequest r WHERE r.id = :id")
+    Optional<LeaveRequest> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * 行ロックを取得して申請をまとめて読み込む（ID順にロックしてデッドロックを避ける）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM LeaveRequest r WHERE r.id IN :ids ORDER BY r.id")
+    List<LeaveRequest> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -2,8 +2,13 @@ package com.kintai.repository;
 
 import com.kintai.entity.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -30,4 +35,19 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, Long>
      * @return ユーザーアカウント（存在しない場合は空）
      */
     Optional<UserAccount> findByEmployeeId(Long employeeId);
+
+    /**
+     * 指定したユーザー名のうち使用済みのものを返す（一括登録時の重複確認用）
+     */
+    @Query("SELECT u.username FROM UserAccount u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * 指定従業員のログインアカウントの有効フラグを1回のUPDATEで切り替える
+     * @return 更新した件数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserAccount u SET u.enabled = :enabled WHERE u.employeeId IN :employeeIds")
+    int updateEnabledByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds,
+                                   @Param("enabled") boolean enabled);
 }
@@ -1,13 +1,20 @@
 package com.kintai.repository;
 
+import com.kintai.dto.ApprovalQueueItem;
 import com.kintai.entity.WorkPatternChangeRequest;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WorkPatternChangeRequestRepository extends JpaRepository<WorkPatternChangeRequest, Long> {
@@ -29,6 +36,43 @@ public interface WorkPatternChangeRequestRepository extends JpaRepository<WorkPa
     List<WorkPatternChangeRequest> findApprovedRequestsForDate(@Param("employeeId") Long employeeId,
                                                                @Param("date") LocalDate date);
 
+    @Query("""
+            SELECT r FROM WorkPatternChangeRequest r
+            WHERE r.employeeId = :employeeId
+              AND r.status = com.kintai.entity.WorkPatternChangeRequest$Status.APPROVED
+              AND r.startDate <= :endDate
+              AND r.endDate >= :startDate
+            ORDER BY r.startDate DESC, r.requestId DESC
+            """)
+    List<WorkPatternChangeRequest> findApprovedRequestsOverlapping(@Param("employeeId") Long employeeId,
+                                                                   @Param("startDate") LocalDate startDate,
+                                                                   @Param("endDate") LocalDate endDate);
+
+    /**
+     * 指定日に適用される全従業員の承認済みパターン（従業員ごとに開始日の新しい順）
+     */
+    @Query("""
+            SELECT r FROM WorkPatternChangeRequest r
+            WHERE r.status = com.kintai.entity.WorkPatternChangeRequest$Status.APPROVED
+              AND r.startDate <= :date
+              AND r.endDate >= :date
+            ORDER BY r.employeeId ASC, r.startDate DESC, r.requestId DESC
+            """)
+    List<WorkPatternChangeRequest> findAllApprovedRequestsForDate(@Param("date") LocalDate date);
+
+    /**
+     * 期間に重なる全従業員の承認済みパターン（従業員ごとに開始日の新しい順）
+     */
+    @Query("""
+            SELECT r FROM WorkPatternChangeRequest r
+            WHERE r.status = com.kintai.entity.WorkPatternChangeRequest$Status.APPROVED
+              AND r.startDate <= :endDate
+              AND r.endDate >= :startDate
+            ORDER BY r.employeeId ASC, r.startDate DESC, r.requestId DESC
+            """)
+    List<WorkPatternChangeRequest> findAllApprovedRequestsOverlapping(@Param("startDate") LocalDate startDate,
+                                                                      @Param("endDate") LocalDate endDate);
+
     @Query("""
             SELECT r FROM WorkPatternChangeRequest r
             WHERE r.employeeId = :employeeId
@@ -50,4 +94,37 @@ public interface WorkPatternChangeRequestRepository extends JpaRepository<WorkPa
     boolean existsActiveOverlap(@Param("employeeId") Long employeeId,
                                 @Param("startDate") LocalDate startDate,
                                 @Param("endDate") LocalDate endDate);
+
+    /**
+     * 承認キュー: 作成日時の新しい順に、カーソル（作成日時, ID）より後の申請を取得する
+     * @param from 対象期間の絞り込み開始日（null の場合は指定なし）
+     * @param to 対象期間の絞り込み終了日（null の場合は指定なし）
+     */
+    @Query("SELECT new com.kintai.dto.ApprovalQueueItem(com.kintai.event.RequestCategory.WORK_PATTERN, r.requestId, r.employeeId, " +
+            "r.status, r.startDate, r.endDate, r.createdAt) FROM WorkPatternChangeRequest r " +
+            "WHERE r.status = :status AND (:employeeId IS NULL OR r.employeeId = :employeeId) " +
+            "AND (:from IS NULL OR r.endDate >= :from) AND (:to IS NULL OR r.startDate <= :to) " +
+            "AND (r.createdAt < :cursorAt OR (r.createdAt = :cursorAt AND r.requestId < :cursorId)) " +
+            "ORDER BY r.createdAt DESC, r.requestId DESC")
+    List<ApprovalQueueItem> findQueuePage(@Param("status") WorkPatternChangeRequest.Status status,
+                                          @Param("employeeId") Long employeeId,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to,
+                                          @Param("cursorAt") LocalDateTime cursorAt,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
+
+    /**
+     * 行ロックを取得して申請を読み込む（承認・却下・取消の状態遷移を個別・一括の間で直列化する）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM WorkPatternChangeRequest r WHERE r.requestId = :id")
+    Optional<WorkPatternChangeRequest> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * 行ロックを取得して申請をまとめて読み込む（ID順にロックしてデッドロックを避ける）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM WorkPatternChangeRequest r WHERE r.requestId IN :ids ORDER BY r.requestId")
+    List<WorkPatternChangeRequest> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,204 @@
+package com.kintai.service;
+
+import com.kintai.entity.AbsenceDay;
+import com.kintai.entity.CustomHoliday;
+import com.kintai.entity.LeaveRequest;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.WorkPatternChangeRequest;
+import com.kintai.event.LeaveRequestStatusChangedEvent;
+import com.kintai.exception.VacationException;
+import com.kintai.repository.AbsenceDayRepository;
+import com.kintai.repository.CustomHolidayRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不在日インデックスの維持と照会
+ * 休暇の承認・取消とカスタム休日の登録・削除に合わせて absence_days を更新し、
+ * 「期間 [from, to] に不在の従業員」を日付の範囲検索で返す。
+ */
+@Service
+@Transactional
+public class AbsenceIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(AbsenceIndexService.class);
+
+    /** 1回の照会で指定できる最大日数 */
+    static final int MAX_RANGE_DAYS = 93;
+
+    /** IN句に渡す従業員IDの最大件数（超える場合は分割して照会する） */
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    /** 再構築時に1回の saveAll で保存する不在日の件数 */
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private AbsenceDayRepository absenceDayRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private CustomHolidayRepository customHolidayRepository;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private WorkPatternChangeRequestService workPatternChangeRequestService;
+
+    /**
+     * 休暇申請のステータス変更に合わせてインデックスを更新する（申請と同じトランザクション内で実行）
+     */
+    @EventListener
+    public void onLeaveRequestStatusChanged(LeaveRequestStatusChangedEvent event) {
+        LeaveRequest request = event.request();
+        if (event.newStatus() == LeaveStatus.APPROVED) {
+            indexLeave(request);
+        } else if (event.previousStatus() == LeaveStatus.APPROVED) {
+            absenceDayRepository.deleteBySource(AbsenceDay.SOURCE_LEAVE_REQUEST, request.getId());
+        }
+    }
+
+    public void indexCustomHoliday(CustomHoliday holiday) {
+        absenceDayRepository.save(customHolidayDay(holiday));
+    }
+
+    public void removeCustomHoliday(Long employeeId, LocalDate date) {
+        absenceDayRepository.deleteBySourceAndDate(AbsenceDay.SOURCE_CUSTOM_HOLIDAY, employeeId, date);
+    }
+
+    /**
+     * 指定従業員の休暇由来の不在日を削除する（休暇申請を一括DELETEした場合など、ステータス変更イベントが出ないとき用）
+     */
+    public void removeLeaves(Collection<Long> employeeIds) {
+        absenceDayRepository.deleteBySourceAndEmployeeIds(AbsenceDay.SOURCE_LEAVE_REQUEST, employeeIds);
+    }
+
+    /**
+     * 期間内に不在の日を返す
+     * @param employeeIds 対象従業員（null または空の場合は全従業員）
+     */
+    @Transactional(readOnly = true)
+    public List<AbsenceDay> findAbsences(Collection<Long> employeeIds, LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new VacationException(VacationException.INVALID_DATE_RANGE, "照会期間の日付が不正です");
+        }
+        if (ChronoUnit.DAYS.between(from, to) + 1 > MAX_RANGE_DAYS) {
+            throw new VacationException(VacationException.INVALID_DATE_RANGE,
+                    "照会期間は" + MAX_RANGE_DAYS + "日以内で指定してください");
+        }
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return absenceDayRepository.findOverlapping(from, to);
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(employeeIds));
+        if (ids.size() <= ID_CHUNK_SIZE) {
+            return absenceDayRepository.findOverlapping(ids, from, to);
+        }
+        List<AbsenceDay> result = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += ID_CHUNK_SIZE) {
+            result.addAll(absenceDayRepository.findOverlapping(
+                    ids.subList(i, Math.min(i + ID_CHUNK_SIZE, ids.size())), from, to));
+        }
+        return result;
+    }
+
+    /**
+     * インデックスを承認済み休暇とカスタム休日から作り直す
+     * 全件削除してから作り直すため申請ごとの削除は行わず、勤務パターンは対象期間分をまとめて取得し、
+     * 不在日はチャンク単位の saveAll で保存する。
+     * @return 作成した不在日の件数
+     */
+    public int rebuild() {
+        absenceDayRepository.deleteAllInBatch();
+        List<LeaveRequest> approved = leaveRequestRepository.findByStatusOrderByCreatedAtDesc(LeaveStatus.APPROVED);
+        List<LeaveRequest> fullDays = approved.stream()
+                .filter(request -> request.getTimeUnit() == LeaveTimeUnit.FULL_DAY)
+                .toList();
+        Map<Long, Map<LocalDate, WorkPatternChangeRequest>> patterns = fullDays.isEmpty() ? Map.of()
+                : workPatternChangeRequestService.findAllApplicablePatterns(
+                        fullDays.stream().map(LeaveRequest::getStartDate).min(Comparator.naturalOrder()).orElseThrow(),
+                        fullDays.stream().map(LeaveRequest::getEndDate).max(Comparator.naturalOrder()).orElseThrow());
+
+        List<AbsenceDay> chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+        int count = 0;
+        for (LeaveRequest request : approved) {
+            List<LocalDate> dates = request.getTimeUnit() == LeaveTimeUnit.FULL_DAY
+                    ? leaveRequestService.resolveWorkingDates(request.getStartDate(), request.getEndDate(),
+                            patterns.getOrDefault(request.getEmployeeId(), Map.of()))
+                    : List.of(request.getStartDate());
+            for (LocalDate date : dates) {
+                chunk.add(leaveDay(request, date));
+                count += flushIfFull(chunk);
+            }
+        }
+        for (CustomHoliday holiday : customHolidayRepository.findAll()) {
+            chunk.add(customHolidayDay(holiday));
+            count += flushIfFull(chunk);
+        }
+        absenceDayRepository.saveAll(chunk);
+        count += chunk.size();
+        log.info("[AbsenceIndex] rebuilt {} absence days", count);
+        return count;
+    }
+
+    /**
+     * 起動時にインデックスが空であれば作り直す（導入前のデータの取り込み）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (absenceDayRepository.count() == 0
+                && (leaveRequestRepository.countByStatus(LeaveStatus.APPROVED) > 0
+                || customHolidayRepository.count() > 0)) {
+            rebuild();
+        }
+    }
+
+    private void indexLeave(LeaveRequest request) {
+        absenceDayRepository.deleteBySource(AbsenceDay.SOURCE_LEAVE_REQUEST, request.getId());
+        List<LocalDate> dates = request.getTimeUnit() == LeaveTimeUnit.FULL_DAY
+                ? leaveRequestService.resolveWorkingDates(request.getEmployeeId(), request.getStartDate(), request.getEndDate())
+                : List.of(request.getStartDate());
+        List<AbsenceDay> days = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            days.add(leaveDay(request, date));
+        }
+        absenceDayRepository.saveAll(days);
+    }
+
+    private int flushIfFull(List<AbsenceDay> chunk) {
+        if (chunk.size() < REBUILD_CHUNK_SIZE) {
+            return 0;
+        }
+        absenceDayRepository.saveAll(chunk);
+        int saved = chunk.size();
+        chunk.clear();
+        return saved;
+    }
+
+    private static AbsenceDay leaveDay(LeaveRequest request, LocalDate date) {
+        return new AbsenceDay(request.getEmployeeId(), date, request.getLeaveType().name(),
+                request.getTimeUnit(), AbsenceDay.SOURCE_LEAVE_REQUEST, request.getId());
+    }
+
+    private static AbsenceDay customHolidayDay(CustomHoliday holiday) {
+        return new AbsenceDay(holiday.getEmployeeId(), holiday.getHolidayDate(),
+                holiday.getHolidayType(), LeaveTimeUnit.FULL_DAY, AbsenceDay.SOURCE_CUSTOM_HOLIDAY, holiday.getId());
+    }
+}
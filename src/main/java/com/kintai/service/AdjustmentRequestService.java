@@ -3,19 +3,29 @@ package com.kintai.service;
 import com.kintai.dto.AdjustmentRequestDto;
 import com.kintai.entity.AdjustmentRequest;
 import com.kintai.entity.AttendanceRecord;
+import com.kintai.event.RequestCategory;
+import com.kintai.event.RequestStatusChangedEvent;
 import com.kintai.exception.AttendanceException;
 import com.kintai.repository.AdjustmentRequestRepository;
 import com.kintai.repository.AttendanceRecordRepository;
 import com.kintai.repository.EmployeeRepository;
 import com.kintai.util.TimeCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 勤怠修正申請サービス
@@ -39,6 +49,9 @@ public class AdjustmentRequestService {
     @Autowired
     private WorkPatternChangeRequestService workPatternChangeRequestService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * 修正申請を作成
      * @param requestDto 修正申請DTO
@@ -117,7 +130,9 @@ public class AdjustmentRequestService {
             adjustmentRequest.setOriginalBreakMinutes(originalBreak);
         }
 
-        return adjustmentRequestRepository.save(adjustmentRequest);
+        AdjustmentRequest saved = adjustmentRequestRepository.save(adjustmentRequest);
+        publishStatusChanged(saved, null);
+        return saved;
     }
     
     /**
@@ -127,7 +142,7 @@ public class AdjustmentRequestService {
      */
     public AdjustmentRequest approveAdjustmentRequest(Long adjustmentRequestId, Long approverEmployeeId) {
         // 1. 修正申請を取得
-        AdjustmentRequest adjustmentRequest = adjustmentRequestRepository.findById(adjustmentRequestId)
+        AdjustmentRequest adjustmentRequest = adjustmentRequestRepository.findByIdForUpdate(adjustmentRequestId)
                 .orElseThrow(() -> new AttendanceException("ADJUSTMENT_REQUEST_NOT_FOUND", "修正申請が見つかりません: " + adjustmentRequestId));
         
         // 2. 申請中かチェック
@@ -140,46 +155,13 @@ public class AdjustmentRequestService {
                 .findByEmployeeIdAndAttendanceDate(adjustmentRequest.getEmployeeId(), adjustmentRequest.getTargetDate())
                 .orElse(new AttendanceRecord(adjustmentRequest.getEmployeeId(), adjustmentRequest.getTargetDate()));
 
-        // 3-1. 承認時点の勤怠を原本として保持（既存データがない場合はnullのまま）
-        if (adjustmentRequest.getOriginalClockIn() == null && adjustmentRequest.getOriginalClockOut() == null) {
-            adjustmentRequest.setOriginalClockIn(attendanceRecord.getClockInTime());
-            adjustmentRequest.setOriginalClockOut(attendanceRecord.getClockOutTime());
-        }
-        
-        // 4. 勤怠記録を更新
-        attendanceRecord.setClockInTime(adjustmentRequest.getNewClockIn());
-        attendanceRecord.setClockOutTime(adjustmentRequest.getNewClockOut());
-        int sanitizedBreak = timeCalculator.resolveBreakMinutes(
-                adjustmentRequest.getNewClockIn(),
-                adjustmentRequest.getNewClockOut(),
-                adjustmentRequest.getNewBreakMinutes()
-        );
-        attendanceRecord.setBreakMinutes(sanitizedBreak);
-        adjustmentRequest.setNewBreakMinutes(sanitizedBreak);
-        
-        // 5. 遅刻・早退・残業・深夜を再計算
-        timeCalculator.calculateAttendanceMetrics(attendanceRecord);
-        if (workPatternChangeRequestService != null) {
-            workPatternChangeRequestService.applyPatternMetrics(attendanceRecord);
-            int late = attendanceRecord.getLateMinutes() == null ? 0 : attendanceRecord.getLateMinutes();
-            int early = attendanceRecord.getEarlyLeaveMinutes() == null ? 0 : attendanceRecord.getEarlyLeaveMinutes();
-            int overtime = attendanceRecord.getOvertimeMinutes() == null ? 0 : attendanceRecord.getOvertimeMinutes();
-            int night = attendanceRecord.getNightShiftMinutes() == null ? 0 : attendanceRecord.getNightShiftMinutes();
-            attendanceRecord.setAttendanceStatus(
-                    workPatternChangeRequestService.resolveAttendanceStatus(late, early, overtime, night)
-            );
-        }
-        timeCalculator.normalizeMetrics(attendanceRecord);
-
-        // 6. 勤怠記録を保存
+        // 4. 修正内容を反映して保存
+        applyApproval(adjustmentRequest, attendanceRecord, approverEmployeeId);
         attendanceRecordRepository.save(attendanceRecord);
-        
-        // 7. 修正申請の状態を承認に更新
-        adjustmentRequest.setStatus(AdjustmentRequest.AdjustmentStatus.APPROVED);
-        adjustmentRequest.setApprovedByEmployeeId(approverEmployeeId);
-        adjustmentRequest.setApprovedAt(LocalDateTime.now());
-        
-        return adjustmentRequestRepository.save(adjustmentRequest);
+
+        AdjustmentRequest saved = adjustmentRequestRepository.save(adjustmentRequest);
+        publishStatusChanged(saved, AdjustmentRequest.AdjustmentStatus.PENDING);
+        return saved;
     }
     
     /**
@@ -189,7 +171,7 @@ public class AdjustmentRequestService {
      */
     public AdjustmentRequest rejectAdjustmentRequest(Long adjustmentRequestId, Long approverEmployeeId, String comment) {
         // 1. 修正申請を取得
-        AdjustmentRequest adjustmentRequest = adjustmentRequestRepository.findById(adjustmentRequestId)
+        AdjustmentRequest adjustmentRequest = adjustmentRequestRepository.findByIdForUpdate(adjustmentRequestId)
                 .orElseThrow(() -> new AttendanceException("ADJUSTMENT_REQUEST_NOT_FOUND", "修正申請が見つかりません: " + adjustmentRequestId));
         
         // 2. 申請中かチェック
@@ -207,7 +189,9 @@ public class AdjustmentRequestService {
         adjustmentRequest.setRejectedByEmployeeId(approverEmployeeId);
         adjustmentRequest.setRejectedAt(LocalDateTime.now());
        
-        return adjustmentRequestRepository.save(adjustmentRequest);
+        AdjustmentRequest saved = adjustmentRequestRepository.save(adjustmentRequest);
+        publishStatusChanged(saved, AdjustmentRequest.AdjustmentStatus.PENDING);
+        return saved;
     }
 
     /**
@@ -217,7 +201,7 @@ public class AdjustmentRequestService {
      * @return 取消後の修正申請
      */
     public AdjustmentRequest cancelAdjustmentRequest(Long adjustmentRequestId, Long employeeId) {
-        AdjustmentRequest adjustmentRequest = adjustmentRequestRepository.findById(adjustmentRequestId)
+        AdjustmentRequest adjustmentRequest = adjustmentRequestRepository.findByIdForUpdate(adjustmentRequestId)
                 .orElseThrow(() -> new AttendanceException(AttendanceException.REQUEST_NOT_FOUND,
                         "修正申請が見つかりません: " + adjustmentRequestId));
 
@@ -230,8 +214,10 @@ public class AdjustmentRequestService {
             throw new AttendanceException(AttendanceException.REQUEST_NOT_CANCELLABLE, "取消できない状態です");
         }
 
+        AdjustmentRequest.AdjustmentStatus previous = adjustmentRequest.getStatus();
+
         // 承認済みを取消する場合は勤怠を元に戻す
-        if (adjustmentRequest.getStatus() == AdjustmentRequest.AdjustmentStatus.APPROVED) {
+        if (previous == AdjustmentRequest.AdjustmentStatus.APPROVED) {
             attendanceRecordRepository.findByEmployeeIdAndAttendanceDate(adjustmentRequest.getEmployeeId(), adjustmentRequest.getTargetDate())
                     .ifPresent(record -> {
                         LocalDateTime revertClockIn = adjustmentRequest.getOriginalClockIn();
@@ -266,7 +252,9 @@ public class AdjustmentRequestService {
         adjustmentRequest.setRejectedAt(null);
         adjustmentRequest.setRejectionComment(null);
 
-        return adjustmentRequestRepository.save(adjustmentRequest);
+        AdjustmentRequest saved = adjustmentRequestRepository.save(adjustmentRequest);
+        publishStatusChanged(saved, previous);
+        return saved;
     }
     
     /**
@@ -319,5 +307,110 @@ public class AdjustmentRequestService {
         
         // 削除実行
         adjustmentRequestRepository.delete(adjustmentRequest);
+        eventPublisher.publishEvent(new RequestStatusChangedEvent(RequestCategory.ADJUSTMENT,
+                adjustmentRequest.getAdjustmentRequestId(), adjustmentRequest.getEmployeeId(),
+                adjustmentRequest.getStatus().name(), null));
+    }
+
+    /**
+     * 申請中の修正申請をまとめて承認・却下する（一括承認用、状態の確認は呼び出し側）
+     * 勤怠記録は従業員ごとに対象期間を1回で取得し、再計算後にまとめて保存する。
+     * @param requests 申請中の修正申請（作成日時の古い順）
+     */
+    public void decideBatch(List<AdjustmentRequest> requests, boolean approve, Long approverEmployeeId, String comment) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        if (approve) {
+            Map<Long, List<AdjustmentRequest>> byEmployee = requests.stream()
+                    .collect(Collectors.groupingBy(AdjustmentRequest::getEmployeeId, LinkedHashMap::new, Collectors.toList()));
+            List<AttendanceRecord> touched = new ArrayList<>();
+            byEmployee.forEach((employeeId, employeeRequests) -> {
+                Map<LocalDate, AttendanceRecord> records = loadLatestRecords(employeeId, employeeRequests);
+                for (AdjustmentRequest request : employeeRequests) {
+                    AttendanceRecord record = records.computeIfAbsent(request.getTargetDate(),
+                            date -> new AttendanceRecord(employeeId, date));
+                    applyApproval(request, record, approverEmployeeId);
+                }
+                touched.addAll(records.values());
+            });
+            attendanceRecordRepository.saveAll(touched);
+        } else {
+            LocalDateTime now = LocalDateTime.now();
+            for (AdjustmentRequest request : requests) {
+                request.setStatus(AdjustmentRequest.AdjustmentStatus.REJECTED);
+                request.setRejectionComment(comment.trim());
+                request.setRejectedByEmployeeId(approverEmployeeId);
+                request.setRejectedAt(now);
+            }
+        }
+        adjustmentRequestRepository.saveAll(requests);
+        requests.forEach(request -> publishStatusChanged(request, AdjustmentRequest.AdjustmentStatus.PENDING));
+    }
+
+    /**
+     * 対象日の勤怠記録（同日に複数ある場合は最新の1件）を期間指定の1クエリで取得する
+     */
+    private Map<LocalDate, AttendanceRecord> loadLatestRecords(Long employeeId, List<AdjustmentRequest> requests) {
+        Set<LocalDate> dates = requests.stream().map(AdjustmentRequest::getTargetDate).collect(Collectors.toSet());
+        LocalDate from = Collections.min(dates);
+        LocalDate to = Collections.max(dates);
+        Map<LocalDate, AttendanceRecord> latest = new HashMap<>();
+        for (AttendanceRecord record : attendanceRecordRepository
+                .findByEmployeeIdAndAttendanceDateBetweenOrderByAttendanceDateDesc(employeeId, from, to)) {
+            if (dates.contains(record.getAttendanceDate())) {
+                latest.merge(record.getAttendanceDate(), record,
+                        (current, candidate) -> candidate.getAttendanceId() > current.getAttendanceId() ? candidate : current);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * 修正内容を勤怠記録へ反映し、遅刻・早退・残業・深夜を再計算して申請を承認済みにする（保存は呼び出し側）
+     */
+    private void applyApproval(AdjustmentRequest adjustmentRequest, AttendanceRecord attendanceRecord, Long approverEmployeeId) {
+        // 1. 承認時点の勤怠を原本として保持（既存データがない場合はnullのまま）
+        if (adjustmentRequest.getOriginalClockIn() == null && adjustmentRequest.getOriginalClockOut() == null) {
+            adjustmentRequest.setOriginalClockIn(attendanceRecord.getClockInTime());
+            adjustmentRequest.setOriginalClockOut(attendanceRecord.getClockOutTime());
+        }
+        
+        // 2. 勤怠記録を更新
+        attendanceRecord.setClockInTime(adjustmentRequest.getNewClockIn());
+        attendanceRecord.setClockOutTime(adjustmentRequest.getNewClockOut());
+        int sanitizedBreak = timeCalculator.resolveBreakMinutes(
+                adjustmentRequest.getNewClockIn(),
+                adjustmentRequest.getNewClockOut(),
+                adjustmentRequest.getNewBreakMinutes()
+        );
+        attendanceRecord.setBreakMinutes(sanitizedBreak);
+        adjustmentRequest.setNewBreakMinutes(sanitizedBreak);
+        
+        // 3. 遅刻・早退・残業・深夜を再計算
+        timeCalculator.calculateAttendanceMetrics(attendanceRecord);
+        if (workPatternChangeRequestService != null) {
+            workPatternChangeRequestService.applyPatternMetrics(attendanceRecord);
+            int late = attendanceRecord.getLateMinutes() == null ? 0 : attendanceRecord.getLateMinutes();
+            int early = attendanceRecord.getEarlyLeaveMinutes() == null ? 0 : attendanceRecord.getEarlyLeaveMinutes();
+            int overtime = attendanceRecord.getOvertimeMinutes() == null ? 0 : attendanceRecord.getOvertimeMinutes();
+            int night = attendanceRecord.getNightShiftMinutes() == null ? 0 : attendanceRecord.getNightShiftMinutes();
+            attendanceRecord.setAttendanceStatus(
+                    workPatternChangeRequestService.resolveAttendanceStatus(late, early, overtime, night)
+            );
+        }
+        timeCalculator.normalizeMetrics(attendanceRecord);
+
+        // 4. 修正申請の状態を承認に更新
+        adjustmentRequest.setStatus(AdjustmentRequest.AdjustmentStatus.APPROVED);
+        adjustmentRequest.setApprovedByEmployeeId(approverEmployeeId);
+        adjustmentRequest.setApprovedAt(LocalDateTime.now());
+
+    }
+
+    private void publishStatusChanged(AdjustmentRequest request, AdjustmentRequest.AdjustmentStatus previous) {
+        eventPublisher.publishEvent(new RequestStatusChangedEvent(RequestCategory.ADJUSTMENT,
+                request.getAdjustmentRequestId(), request.getEmployeeId(),
+                previous != null ? previous.name() : null, request.getStatus().name()));
     }
 }
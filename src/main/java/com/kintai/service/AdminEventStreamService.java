@@ -0,0 +1,249 @@
+package com.kintai.service;
+
+import com.kintai.dto.AdminDashboardSummary;
+import com.kintai.dto.PresenceEntry;
+import com.kintai.dto.PresenceSummary;
+import com.kintai.entity.LeaveRequest;
+import com.kintai.event.LeaveRequestStatusChangedEvent;
+import com.kintai.event.RequestCategory;
+import com.kintai.event.RequestStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 管理者画面向けのSSE配信
+ * 申請のステータス変更（コミット後）を接続中の全クライアントへ配信し、承認待ち件数の変化と申請の更新を通知する。
+ * 在席状況インデックスの変化（出退勤・休暇など）も同じ接続で配信する。
+ * 接続ごとのスレッドは持たず、非同期レスポンスへの書き込みを少数の送信スレッドで行う。
+ * 各接続は上限付きのバッファを持ち、溢れた場合は未送信分を破棄して再取得（resync）を促すイベントのみを送る。
+ */
+@Service
+public class AdminEventStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminEventStreamService.class);
+
+    static final String EVENT_COUNTS = "counts";
+    static final String EVENT_REQUEST = "request";
+    static final String EVENT_RESYNC = "resync";
+    static final String EVENT_PRESENCE = "presence";
+
+    private final Map<Long, Client> clients = new ConcurrentHashMap<>();
+    /** 予約済みの接続枠（登録前に確保し、登録解除時に1度だけ返却する） */
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong clientSequence = new AtomicLong();
+    private final ExecutorService sender;
+
+    @Autowired
+    private AdminDashboardService adminDashboardService;
+
+    @Value("${kintai.admin-events.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${kintai.admin-events.max-connections:500}")
+    private int maxConnections;
+
+    @Value("${kintai.admin-events.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${kintai.admin-events.reconnect-ms:5000}")
+    private long reconnectMillis;
+
+    public AdminEventStreamService(@Value("${kintai.admin-events.sender-threads:2}") int senderThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "admin-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 接続を登録し、現在の承認待ち件数を最初のイベントとして送る
+     * @return 接続数が上限に達している場合は空
+     */
+    public Optional<SseEmitter> subscribe() {
+        if (!reserveConnection()) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Client client = new Client(clientSequence.incrementAndGet(), emitter, bufferSize);
+        emitter.onCompletion(() -> unregister(client));
+        emitter.onTimeout(() -> unregister(client));
+        emitter.onError(error -> unregister(client));
+        clients.put(client.id, client);
+
+        enqueue(client, SseEmitter.event().reconnectTime(reconnectMillis)
+                .name(EVENT_COUNTS).data(adminDashboardService.getSummary()).build());
+        return Optional.of(emitter);
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(10)
+    public void onRequestStatusChanged(RequestStatusChangedEvent event) {
+        broadcastChange(event.category(), event.requestId(), event.employeeId(),
+                event.previousStatus(), event.newStatus(), event.pendingDelta());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(10)
+    public void onLeaveRequestStatusChanged(LeaveRequestStatusChangedEvent event) {
+        LeaveRequest request = event.request();
+        String previous = event.previousStatus() != null ? event.previousStatus().name() : null;
+        String current = event.newStatus() != null ? event.newStatus().name() : null;
+        int delta = (RequestStatusChangedEvent.PENDING.equals(current) ? 1 : 0)
+                - (RequestStatusChangedEvent.PENDING.equals(previous) ? 1 : 0);
+        broadcastChange(RequestCategory.LEAVE, request.getId(), request.getEmployeeId(), previous, current, delta);
+    }
+
+    /**
+     * 在席状況の変化を配信する
+     * @param entry 変化した従業員の在席状況（null の場合はインデックス全体が作り直されたことを示す）
+     */
+    public void broadcastPresence(PresenceEntry entry, PresenceSummary summary) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        Map<String, Object> change = new LinkedHashMap<>();
+        change.put("entry", entry);
+        change.put("summary", summary);
+        broadcast(SseEmitter.event().name(EVENT_PRESENCE).data(change).build());
+    }
+
+    /**
+     * 接続維持のためのハートビート（コメント行）を送る
+     */
+    @Scheduled(fixedDelayString = "${kintai.admin-events.heartbeat-ms:25000}")
+    public void sendHeartbeat() {
+        if (!clients.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        clients.values().forEach(client -> client.emitter.complete());
+        clients.clear();
+        connections.set(0);
+        sender.shutdownNow();
+    }
+
+    /**
+     * 接続枠を確保する（上限の確認と確保を不可分に行い、同時接続で上限を超えないようにする）
+     */
+    private boolean reserveConnection() {
+        int current;
+        do {
+            current = connections.get();
+            if (current >= maxConnections) {
+                return false;
+            }
+        } while (!connections.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void unregister(Client client) {
+        if (clients.remove(client.id) != null) {
+            connections.decrementAndGet();
+        }
+    }
+
+    private void broadcastChange(RequestCategory category, Long requestId, Long employeeId,
+                                 String previousStatus, String newStatus, int pendingDelta) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        Map<String, Object> change = new LinkedHashMap<>();
+        change.put("category", category);
+        change.put("requestId", requestId);
+        change.put("employeeId", employeeId);
+        change.put("previousStatus", previousStatus);
+        change.put("newStatus", newStatus);
+        change.put("pendingDelta", pendingDelta);
+        broadcast(SseEmitter.event().name(EVENT_REQUEST).data(change).build());
+        if (pendingDelta != 0) {
+            AdminDashboardSummary summary = adminDashboardService.getSummary();
+            broadcast(SseEmitter.event().name(EVENT_COUNTS).data(summary).build());
+        }
+    }
+
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        clients.values().forEach(client -> enqueue(client, event));
+    }
+
+    private void enqueue(Client client, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        if (!client.buffer.offer(event)) {
+            // 送信が追いつかない接続は未送信分を破棄し、再取得を促す
+            client.buffer.clear();
+            client.buffer.offer(SseEmitter.event().name(EVENT_RESYNC).data("overflow").build());
+        }
+        schedule(client);
+    }
+
+    private void schedule(Client client) {
+        if (client.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(client));
+            } catch (RuntimeException e) {
+                client.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Client client) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            while ((event = client.buffer.poll()) != null) {
+                client.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("[AdminEventStream] client {} disconnected: {}", client.id, e.getMessage());
+            unregister(client);
+            client.buffer.clear();
+            return;
+        } finally {
+            client.draining.set(false);
+        }
+        if (!client.buffer.isEmpty()) {
+            schedule(client);
+        }
+    }
+
+    private static final class Client {
+        private final long id;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Client(long id, SseEmitter emitter, int bufferSize) {
+            this.id = id;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        }
+    }
+}
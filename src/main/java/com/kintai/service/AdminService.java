@@ -1,6 +1,5 @@
 package com.kintai.service;
 
-import com.kintai.entity.AttendanceRecord;
 import com.kintai.entity.Employee;
 import com.kintai.repository.AttendanceRecordRepository;
 import com.kintai.repository.EmployeeRepository;
@@ -8,6 +7,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
@@ -39,23 +41,15 @@ public class AdminService {
      */
     public boolean approveAttendance(Long employeeId, String yearMonth) {
         try {
-            // 該当月の勤怠記録を取得
+            // 該当月の未確定の勤怠記録を1回のUPDATEで確定する
             String[] parts = yearMonth.split("-");
-            int year = Integer.parseInt(parts[0]);
-            int month = Integer.parseInt(parts[1]);
-            List<AttendanceRecord> records = attendanceRecordRepository.findByEmployeeAndMonth(employeeId, year, month);
+            YearMonth month = YearMonth.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.atEndOfMonth();
+            int fixed = attendanceRecordRepository.fixRecords(List.of(employeeId), from, to, LocalDateTime.now());
             
-            if (records.isEmpty()) {
-                return false;
-            }
-            
-            // 勤怠記録を承認済みに更新
-            for (AttendanceRecord record : records) {
-                record.setAttendanceFixedFlag(true);
-            }
-            attendanceRecordRepository.saveAll(records);
-            
-            return true;
+            // 確定済みのみの月は承認済みとして扱い、勤怠記録がない月は失敗とする
+            return fixed > 0 || attendanceRecordRepository.existsByEmployeeIdAndAttendanceDateBetween(employeeId, from, to);
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -0,0 +1,177 @@
+package com.kintai.service;
+
+import com.kintai.dto.ApprovalQueueItem;
+import com.kintai.dto.ApprovalQueuePage;
+import com.kintai.entity.AdjustmentRequest;
+import com.kintai.entity.HolidayRequest;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.WorkPatternChangeRequest;
+import com.kintai.event.RequestCategory;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AdjustmentRequestRepository;
+import com.kintai.repository.HolidayRequestRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import com.kintai.repository.WorkPatternChangeRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 承認キュー（申請種別をまたいだ承認待ち一覧）
+ * 各申請テーブルからカーソル（作成日時, 種別, ID）より後の行を最大 limit+1 件ずつ取得し、作成日時の新しい順に併合する。
+ * OFFSET を使わないため、承認待ちが多い月末でもページの深さによらず一定の件数だけを読む。
+ */
+@Service
+@Transactional(readOnly = true)
+public class ApprovalQueueService {
+
+    public static final int MAX_LIMIT = 200;
+
+    /** カーソル未指定時の起点（すべての申請より後の日時） */
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final Comparator<ApprovalQueueItem> ORDER = Comparator
+            .comparing(ApprovalQueueItem::createdAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(item -> item.category().ordinal())
+            .thenComparing(ApprovalQueueItem::requestId)
+            .reversed();
+
+    @Autowired
+    private AdjustmentRequestRepository adjustmentRequestRepository;
+
+    @Autowired
+    private WorkPatternChangeRequestRepository workPatternChangeRequestRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private HolidayRequestRepository holidayRequestRepository;
+
+    /**
+     * 承認キューの1ページを取得する
+     * @param categories 対象の申請種別（null または空の場合は全種別）
+     * @param status ステータス名（PENDING など）。その申請種別に存在しないステータスの場合は対象外
+     * @param employeeId 申請者で絞り込む場合に指定
+     * @param from 対象期間の絞り込み開始日
+     * @param to 対象期間の絞り込み終了日
+     * @param cursor 前ページの nextCursor（先頭ページは null）
+     * @param limit 1ページの件数（1〜{@value #MAX_LIMIT}）
+     */
+    public ApprovalQueuePage findQueue(Collection<RequestCategory> categories,
+                                       String status,
+                                       Long employeeId,
+                                       LocalDate from,
+                                       LocalDate to,
+                                       String cursor,
+                                       int limit) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "対象期間の日付が不正です");
+        }
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        Set<RequestCategory> targets = categories == null || categories.isEmpty()
+                ? EnumSet.allOf(RequestCategory.class)
+                : EnumSet.copyOf(categories);
+        Cursor position = cursor == null || cursor.isBlank() ? null : Cursor.decode(cursor);
+        String statusName = status == null || status.isBlank() ? "PENDING" : status.trim().toUpperCase();
+        Pageable page = PageRequest.of(0, size + 1);
+
+        List<ApprovalQueueItem> merged = new ArrayList<>();
+        for (RequestCategory category : targets) {
+            LocalDateTime cursorAt = position != null ? position.createdAt() : CURSOR_START;
+            long cursorId = position != null ? position.idBoundFor(category) : Long.MAX_VALUE;
+            merged.addAll(fetch(category, statusName, employeeId, from, to, cursorAt, cursorId, page));
+        }
+        merged.sort(ORDER);
+
+        boolean hasMore = merged.size() > size;
+        List<ApprovalQueueItem> items = hasMore ? List.copyOf(merged.subList(0, size)) : List.copyOf(merged);
+        String nextCursor = hasMore ? Cursor.of(items.get(items.size() - 1)).encode() : null;
+        return new ApprovalQueuePage(items, nextCursor, hasMore);
+    }
+
+    private List<ApprovalQueueItem> fetch(RequestCategory category, String status, Long employeeId,
+                                          LocalDate from, LocalDate to,
+                                          LocalDateTime cursorAt, long cursorId, Pageable page) {
+        return switch (category) {
+            case LEAVE -> {
+                LeaveStatus value = parse(LeaveStatus.class, status);
+                yield value == null ? List.of() : leaveRequestRepository.findQueuePage(
+                        value, employeeId, from, to, cursorAt, cursorId, page);
+            }
+            case ADJUSTMENT -> {
+                AdjustmentRequest.AdjustmentStatus value = parse(AdjustmentRequest.AdjustmentStatus.class, status);
+                yield value == null ? List.of() : adjustmentRequestRepository.findQueuePage(
+                        value, employeeId, from, to, cursorAt, cursorId, page);
+            }
+            case WORK_PATTERN -> {
+                WorkPatternChangeRequest.Status value = parse(WorkPatternChangeRequest.Status.class, status);
+                yield value == null ? List.of() : workPatternChangeRequestRepository.findQueuePage(
+                        value, employeeId, from, to, cursorAt, cursorId, page);
+            }
+            case HOLIDAY -> {
+                HolidayRequest.Status value = parse(HolidayRequest.Status.class, status);
+                yield value == null ? List.of() : holidayRequestRepository.findQueuePage(
+                        value, employeeId, from, to, cursorAt, cursorId, page);
+            }
+        };
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * ページ位置（最後に返した申請の 作成日時, 種別, ID）
+     */
+    private record Cursor(LocalDateTime createdAt, RequestCategory category, long requestId) {
+
+        static Cursor of(ApprovalQueueItem item) {
+            return new Cursor(item.createdAt(), item.category(), item.requestId());
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\|");
+                return new Cursor(LocalDateTime.parse(parts[0]), RequestCategory.valueOf(parts[1]), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new AttendanceException(AttendanceException.INVALID_REQUEST, "カーソルが不正です");
+            }
+        }
+
+        String encode() {
+            String raw = createdAt + "|" + category.name() + "|" + requestId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * 作成日時が同じ申請について、指定種別で返すべきIDの上限（この値未満）
+         * 並び順は 作成日時, 種別, ID の降順のため、カーソルより順位の低い種別は同時刻の全件、高い種別は0件となる。
+         */
+        long idBoundFor(RequestCategory target) {
+            int compare = Integer.compare(target.ordinal(), category.ordinal());
+            if (compare < 0) {
+                return Long.MAX_VALUE;
+            }
+            return compare == 0 ? requestId : Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.kintai.service;
+
+import com.kintai.dto.AttendanceDayMetrics;
+import com.kintai.dto.AttendanceMatrix;
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.entity.AbsenceDay;
+import com.kintai.entity.AttendanceStatus;
+import com.kintai.entity.HolidayRequest;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.WorkPatternChangeRequest;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AbsenceDayRepository;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.HolidayRequestRepository;
+import com.kintai.repository.WorkPatternChangeRequestRepository;
+import com.kintai.util.BusinessDayCalculator;
+import com.kintai.util.TimeCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 全社の月次勤怠マトリクス（従業員 × 日）の作成
+ * 勤怠は月の範囲検索1回、勤務パターン・休日出勤/振替・休暇（不在日）はそれぞれ月単位の一括検索1回で解決し、
+ * 従業員ごとの配列に展開する。勤怠記録の再計算・保存は行わず、保存済みの値をそのまま使う。
+ */
+@Service
+@Transactional(readOnly = true)
+public class AttendanceMatrixService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceMatrixService.class);
+
+    public static final char NORMAL = 'N';
+    public static final char LATE = 'L';
+    public static final char EARLY_LEAVE = 'E';
+    public static final char LATE_AND_EARLY_LEAVE = 'B';
+    public static final char OVERTIME = 'O';
+    public static final char NIGHT_SHIFT = 'S';
+    public static final char HOLIDAY_WORK = 'X';
+    public static final char CLOCK_IN_ONLY = 'I';
+    public static final char LEAVE = 'P';
+    public static final char HALF_LEAVE = 'p';
+    public static final char HOLIDAY = 'H';
+    public static final char ABSENT = 'A';
+    public static final char NOT_YET = '-';
+    public static final char NOT_EMPLOYED = '.';
+
+    private static final Map<Character, String> LEGEND = legend();
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private WorkPatternChangeRequestRepository workPatternChangeRequestRepository;
+
+    @Autowired
+    private HolidayRequestRepository holidayRequestRepository;
+
+    @Autowired
+    private AbsenceDayRepository absenceDayRepository;
+
+    @Autowired
+    private BusinessDayCalculator businessDayCalculator;
+
+    @Autowired
+    private TimeCalculator timeCalculator;
+
+    /**
+     * 月次勤怠マトリクスを作成する
+     * @param activeOnly 在籍者のみに絞る場合 true（false の場合は対象月に在籍していた退職者も含む）
+     * @param employeeCodePrefix 社員コードの前方一致で絞り込む場合に指定
+     */
+    public AttendanceMatrix buildMatrix(YearMonth yearMonth, boolean activeOnly, String employeeCodePrefix) {
+        if (yearMonth == null) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "対象年月を指定してください");
+        }
+        long startedAt = System.currentTimeMillis();
+        LocalDate from = yearMonth.atDay(1);
+        LocalDate to = yearMonth.atEndOfMonth();
+        int days = yearMonth.lengthOfMonth();
+        LocalDate today = timeCalculator.getCurrentTokyoTime().toLocalDate();
+        String prefix = employeeCodePrefix == null ? "" : employeeCodePrefix.trim();
+
+        // 暦の休日は従業員によらないため月に1回だけ判定する
+        boolean[] calendarHoliday = new boolean[days];
+        boolean[] businessDay = new boolean[days];
+        StringBuilder calendar = new StringBuilder(days);
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            calendarHoliday[i] = businessDayCalculator.isJapaneseHoliday(date);
+            businessDay[i] = businessDayCalculator.isBusinessDay(date);
+            calendar.append(businessDay[i] ? 'W' : 'H');
+        }
+
+        Map<Long, RowBuilder> rows = new LinkedHashMap<>();
+        employeeRepository.findAllSummaries().stream()
+                .filter(summary -> !activeOnly || Boolean.TRUE.equals(summary.isActive()))
+                .filter(summary -> summary.hireDate() == null || !summary.hireDate().isAfter(to))
+                .filter(summary -> summary.retirementDate() == null || !summary.retirementDate().isBefore(from))
+                .filter(summary -> prefix.isEmpty()
+                        || (summary.employeeCode() != null && summary.employeeCode().startsWith(prefix)))
+                .sorted(Comparator.comparing(EmployeeSummary::employeeCode, Comparator.nullsLast(Comparator.naturalOrder())))
+                .forEach(summary -> rows.put(summary.employeeId(), new RowBuilder(summary, days)));
+        if (rows.isEmpty()) {
+            return new AttendanceMatrix(yearMonth.toString(), days, calendar.toString(), LEGEND, List.of());
+        }
+
+        // 1. 所定の勤務日（勤務パターン → 暦）
+        Map<Long, List<WorkPatternChangeRequest>> patterns = new HashMap<>();
+        for (WorkPatternChangeRequest pattern : workPatternChangeRequestRepository.findAllApprovedRequestsOverlapping(from, to)) {
+            if (rows.containsKey(pattern.getEmployeeId())) {
+                patterns.computeIfAbsent(pattern.getEmployeeId(), key -> new ArrayList<>()).add(pattern);
+            }
+        }
+        for (RowBuilder row : rows.values()) {
+            List<WorkPatternChangeRequest> employeePatterns = patterns.getOrDefault(row.summary.employeeId(), List.of());
+            for (int i = 0; i < days; i++) {
+                LocalDate date = from.plusDays(i);
+                WorkPatternChangeRequest pattern = findPattern(employeePatterns, date);
+                row.workday[i] = pattern != null ? pattern.appliesTo(date, calendarHoliday[i]) : businessDay[i];
+            }
+        }
+
+        // 2. 休日出勤・振替・代休
+        for (HolidayRequest request : holidayRequestRepository.findApprovedBetween(from, to)) {
+            RowBuilder row = rows.get(request.getEmployeeId());
+            if (row == null) {
+                continue;
+            }
+            row.setWorkday(from, request.getWorkDate(), true);
+            if (request.getRequestType() == HolidayRequest.RequestType.TRANSFER) {
+                row.setWorkday(from, request.getTransferHolidayDate(), false);
+            } else if (Boolean.TRUE.equals(request.getTakeComp())) {
+                row.setWorkday(from, request.getCompDate(), false);
+            }
+        }
+
+        // 勤怠・休暇がない日の初期値
+        for (RowBuilder row : rows.values()) {
+            EmployeeSummary summary = row.summary;
+            for (int i = 0; i < days; i++) {
+                LocalDate date = from.plusDays(i);
+                if ((summary.hireDate() != null && date.isBefore(summary.hireDate()))
+                        || (summary.retirementDate() != null && date.isAfter(summary.retirementDate()))) {
+                    row.codes[i] = NOT_EMPLOYED;
+                } else if (!row.workday[i]) {
+                    row.codes[i] = HOLIDAY;
+                } else {
+                    row.codes[i] = date.isBefore(today) ? ABSENT : NOT_YET;
+                }
+            }
+        }
+
+        // 3. 休暇・カスタム休日
+        for (AbsenceDay absence : absenceDayRepository.findOverlapping(from, to)) {
+            RowBuilder row = rows.get(absence.getEmployeeId());
+            if (row == null) {
+                continue;
+            }
+            int i = absence.getAbsenceDate().getDayOfMonth() - 1;
+            if (row.codes[i] == NOT_EMPLOYED) {
+                continue;
+            }
+            if (AbsenceDay.SOURCE_CUSTOM_HOLIDAY.equals(absence.getSourceType())) {
+                row.codes[i] = HOLIDAY;
+            } else if (absence.getTimeUnit() == LeaveTimeUnit.FULL_DAY) {
+                row.codes[i] = LEAVE;
+            } else if (row.codes[i] != LEAVE) {
+                row.codes[i] = HALF_LEAVE;
+            }
+        }
+
+        // 4. 勤怠（同日に複数の記録がある場合はID最大を採用する）
+        for (AttendanceDayMetrics metrics : attendanceRecordRepository.findDayMetricsBetween(from, to)) {
+            RowBuilder row = rows.get(metrics.employeeId());
+            if (row != null && metrics.clockInTime() != null) {
+                row.attendance[metrics.attendanceDate().getDayOfMonth() - 1] = metrics;
+            }
+        }
+
+        List<AttendanceMatrix.Row> result = new ArrayList<>(rows.size());
+        for (RowBuilder row : rows.values()) {
+            result.add(row.build(timeCalculator));
+        }
+        log.debug("[AttendanceMatrix] {} built {} rows in {} ms", yearMonth, result.size(),
+                System.currentTimeMillis() - startedAt);
+        return new AttendanceMatrix(yearMonth.toString(), days, calendar.toString(), LEGEND, result);
+    }
+
+    private static WorkPatternChangeRequest findPattern(List<WorkPatternChangeRequest> patterns, LocalDate date) {
+        // 開始日の新しい順に並んでいるため最初に該当したものを採用する
+        for (WorkPatternChangeRequest pattern : patterns) {
+            if (!pattern.getStartDate().isAfter(date) && !pattern.getEndDate().isBefore(date)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private static Map<Character, String> legend() {
+        Map<Character, String> legend = new LinkedHashMap<>();
+        legend.put(NORMAL, "出勤（正常）");
+        legend.put(LATE, "遅刻");
+        legend.put(EARLY_LEAVE, "早退");
+        legend.put(LATE_AND_EARLY_LEAVE, "遅刻・早退");
+        legend.put(OVERTIME, "残業");
+        legend.put(NIGHT_SHIFT, "深夜勤務");
+        legend.put(HOLIDAY_WORK, "休日出勤");
+        legend.put(CLOCK_IN_ONLY, "出勤打刻のみ（退勤未打刻）");
+        legend.put(LEAVE, "休暇（全日）");
+        legend.put(HALF_LEAVE, "休暇（半日・勤怠なし）");
+        legend.put(HOLIDAY, "休日");
+        legend.put(ABSENT, "勤怠なし（勤務日）");
+        legend.put(NOT_YET, "未到来");
+        legend.put(NOT_EMPLOYED, "在籍期間外");
+        return Collections.unmodifiableMap(legend);
+    }
+
+    private static final class RowBuilder {
+        private final EmployeeSummary summary;
+        private final boolean[] workday;
+        private final char[] codes;
+        private final AttendanceDayMetrics[] attendance;
+
+        private RowBuilder(EmployeeSummary summary, int days) {
+            this.summary = summary;
+            this.workday = new boolean[days];
+            this.codes = new char[days];
+            this.attendance = new AttendanceDayMetrics[days];
+        }
+
+        private void setWorkday(LocalDate monthStart, LocalDate date, boolean value) {
+            if (date != null && date.getYear() == monthStart.getYear() && date.getMonth() == monthStart.getMonth()) {
+                workday[date.getDayOfMonth() - 1] = value;
+            }
+        }
+
+        private AttendanceMatrix.Row build(TimeCalculator timeCalculator) {
+            int days = codes.length;
+            int[] working = new int[days];
+            int[] overtime = new int[days];
+            int workDays = 0;
+            int leaveDays = 0;
+            int absentDays = 0;
+            int lateCount = 0;
+            int earlyLeaveCount = 0;
+            int workingTotal = 0;
+            int overtimeTotal = 0;
+            int nightTotal = 0;
+            for (int i = 0; i < days; i++) {
+                AttendanceDayMetrics metrics = attendance[i];
+                if (metrics != null) {
+                    boolean holidayWork = !workday[i] || codes[i] == HOLIDAY;
+                    codes[i] = resolveCode(metrics, holidayWork);
+                    working[i] = timeCalculator.calculateWorkingMinutes(metrics.clockInTime(), metrics.clockOutTime(),
+                            metrics.breakMinutes());
+                    overtime[i] = safeInt(metrics.overtimeMinutes());
+                    workDays++;
+                    if (safeInt(metrics.lateMinutes()) > 0) {
+                        lateCount++;
+                    }
+                    if (safeInt(metrics.earlyLeaveMinutes()) > 0) {
+                        earlyLeaveCount++;
+                    }
+                    workingTotal += working[i];
+                    overtimeTotal += overtime[i];
+                    nightTotal += safeInt(metrics.nightShiftMinutes());
+                } else if (codes[i] == LEAVE) {
+                    leaveDays++;
+                } else if (codes[i] == ABSENT) {
+                    absentDays++;
+                }
+            }
+            return new AttendanceMatrix.Row(summary.employeeId(), summary.employeeCode(), summary.lastName(),
+                    summary.firstName(), new String(codes), working, overtime,
+                    new AttendanceMatrix.Totals(workDays, leaveDays, absentDays, lateCount, earlyLeaveCount,
+                            workingTotal, overtimeTotal, nightTotal));
+        }
+
+        private static char resolveCode(AttendanceDayMetrics metrics, boolean holidayWork) {
+            if (metrics.clockOutTime() == null) {
+                return CLOCK_IN_ONLY;
+            }
+            if (holidayWork) {
+                return HOLIDAY_WORK;
+            }
+            AttendanceStatus status = metrics.attendanceStatus();
+            if (status == null) {
+                return NORMAL;
+            }
+            return switch (status) {
+                case LATE -> LATE;
+                case EARLY_LEAVE -> EARLY_LEAVE;
+                case LATE_AND_EARLY_LEAVE -> LATE_AND_EARLY_LEAVE;
+                case OVERTIME -> OVERTIME;
+                case NIGHT_SHIFT -> NIGHT_SHIFT;
+                case HOLIDAY -> HOLIDAY_WORK;
+                case ABSENT -> ABSENT;
+                case NORMAL -> NORMAL;
+            };
+        }
+
+        private static int safeInt(Integer value) {
+            return value != null ? value : 0;
+        }
+    }
+}
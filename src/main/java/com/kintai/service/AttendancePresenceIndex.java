@@ -0,0 +1,404 @@
+package com.kintai.service;
+
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.dto.PresenceEntry;
+import com.kintai.dto.PresenceSummary;
+import com.kintai.entity.AbsenceDay;
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.LeaveRequest;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.WorkPatternChangeRequest;
+import com.kintai.event.AttendanceRecordChangedEvent;
+import com.kintai.event.EmployeeChangedEvent;
+import com.kintai.event.LeaveRequestStatusChangedEvent;
+import com.kintai.event.RequestCategory;
+import com.kintai.event.RequestStatusChangedEvent;
+import com.kintai.repository.AbsenceDayRepository;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.HolidayRequestRepository;
+import com.kintai.repository.WorkPatternChangeRequestRepository;
+import com.kintai.util.TimeCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 当日の在席状況インデックス（メモリ内）
+ * 在籍者ごとに当日の出退勤時刻・休暇・振替休日・所定の始業時刻を保持し、状況別と遅刻者の集合で件数・一覧に答える。
+ * 出退勤打刻・打刻修正の承認・休暇/休日出勤/勤務時間変更申請のステータス変更をコミット後のイベントで反映し、
+ * 変化した従業員の状況をSSEで配信する。
+ * 起動時・毎時・日付が変わった後の最初の参照時に、当日分を日付指定の範囲検索で作り直す
+ * （イベントを経由しない更新によるずれもこの時点で補正される）。
+ */
+@Component
+public class AttendancePresenceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendancePresenceIndex.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, State> states = new HashMap<>();
+    private final Map<PresenceEntry.Status, Set<Long>> byStatus = new EnumMap<>(PresenceEntry.Status.class);
+    private final Set<Long> lateEmployees = new LinkedHashSet<>();
+    private volatile LocalDate date;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private AbsenceDayRepository absenceDayRepository;
+
+    @Autowired
+    private HolidayRequestRepository holidayRequestRepository;
+
+    @Autowired
+    private WorkPatternChangeRequestRepository workPatternChangeRequestRepository;
+
+    @Autowired
+    private TimeCalculator timeCalculator;
+
+    @Autowired
+    private AdminEventStreamService adminEventStreamService;
+
+    public AttendancePresenceIndex() {
+        for (PresenceEntry.Status status : PresenceEntry.Status.values()) {
+            byStatus.put(status, new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * 当日分のインデックスを作り直す（起動時および定期実行）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${kintai.presence.rebuild-cron:0 0 * * * *}")
+    public void rebuild() {
+        LocalDate today = today();
+        Map<Long, State> loaded = new HashMap<>();
+        for (EmployeeSummary summary : employeeRepository.findAllSummaries()) {
+            if (Boolean.TRUE.equals(summary.isActive())) {
+                loaded.put(summary.employeeId(), new State(summary));
+            }
+        }
+        // 同日に複数の記録がある場合は最新（ID最大）を採用する
+        for (AttendanceRecord record : attendanceRecordRepository.findByAttendanceDateOrderByAttendanceIdAsc(today)) {
+            State state = loaded.get(record.getEmployeeId());
+            if (state != null) {
+                state.clockInTime = record.getClockInTime();
+                state.clockOutTime = record.getClockOutTime();
+            }
+        }
+        Map<Long, List<AbsenceDay>> absences = new HashMap<>();
+        for (AbsenceDay day : absenceDayRepository.findOverlapping(today, today)) {
+            absences.computeIfAbsent(day.getEmployeeId(), key -> new ArrayList<>()).add(day);
+        }
+        absences.forEach((employeeId, days) -> {
+            State state = loaded.get(employeeId);
+            if (state != null) {
+                state.applyAbsences(days);
+            }
+        });
+        for (Long employeeId : holidayRequestRepository.findDayOffEmployeeIds(today, null)) {
+            State state = loaded.get(employeeId);
+            if (state != null) {
+                state.dayOff = true;
+            }
+        }
+        // 従業員ごとに開始日の新しいパターンが先に並ぶ
+        for (WorkPatternChangeRequest pattern : workPatternChangeRequestRepository.findAllApprovedRequestsForDate(today)) {
+            State state = loaded.get(pattern.getEmployeeId());
+            if (state != null && state.scheduledStart == null) {
+                state.scheduledStart = pattern.getStartTime();
+            }
+        }
+
+        PresenceSummary summary;
+        lock.writeLock().lock();
+        try {
+            states.clear();
+            byStatus.values().forEach(Set::clear);
+            lateEmployees.clear();
+            date = today;
+            states.putAll(loaded);
+            states.values().forEach(this::bucket);
+            summary = summaryLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[PresenceIndex] indexed {} employees for {}", loaded.size(), today);
+        adminEventStreamService.broadcastPresence(null, summary);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(20)
+    public void onAttendanceRecordChanged(AttendanceRecordChangedEvent event) {
+        // 削除は重複整理・データ削除によるもので打刻ではないため、定期的な作り直しに任せる
+        if (!event.removed() && isToday(event.attendanceDate())) {
+            update(event.employeeId(), state -> {
+                state.clockInTime = event.clockInTime();
+                state.clockOutTime = event.clockOutTime();
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(20)
+    public void onLeaveRequestStatusChanged(LeaveRequestStatusChangedEvent event) {
+        LeaveRequest request = event.request();
+        if (event.newStatus() != LeaveStatus.APPROVED && event.previousStatus() != LeaveStatus.APPROVED) {
+            return;
+        }
+        LocalDate today = currentDate();
+        if (request.getStartDate().isAfter(today) || request.getEndDate().isBefore(today)) {
+            return;
+        }
+        List<AbsenceDay> days = absenceDayRepository.findOverlapping(List.of(request.getEmployeeId()), today, today);
+        update(request.getEmployeeId(), state -> state.applyAbsences(days));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(20)
+    public void onRequestStatusChanged(RequestStatusChangedEvent event) {
+        boolean approvalChanged = "APPROVED".equals(event.newStatus()) || "APPROVED".equals(event.previousStatus());
+        if (!approvalChanged) {
+            return;
+        }
+        LocalDate today = currentDate();
+        if (event.category() == RequestCategory.HOLIDAY) {
+            boolean dayOff = !holidayRequestRepository.findDayOffEmployeeIds(today, event.employeeId()).isEmpty();
+            update(event.employeeId(), state -> state.dayOff = dayOff);
+        } else if (event.category() == RequestCategory.WORK_PATTERN) {
+            LocalTime start = workPatternChangeRequestRepository.findApprovedRequestsForDate(event.employeeId(), today)
+                    .stream().findFirst().map(WorkPatternChangeRequest::getStartTime).orElse(null);
+            update(event.employeeId(), state -> state.scheduledStart = start);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        List<EmployeeSummary> summaries = event.removed()
+                ? List.of()
+                : employeeRepository.findSummariesByIds(List.of(event.employeeId()));
+        currentDate();
+        PresenceEntry entry = null;
+        PresenceSummary summary;
+        lock.writeLock().lock();
+        try {
+            State state = states.remove(event.employeeId());
+            if (state != null) {
+                unbucket(state);
+            }
+            if (!summaries.isEmpty() && Boolean.TRUE.equals(summaries.get(0).isActive())) {
+                State updated = state != null ? state : new State(summaries.get(0));
+                updated.summary = summaries.get(0);
+                states.put(event.employeeId(), updated);
+                bucket(updated);
+                entry = updated.toEntry();
+            } else if (state == null) {
+                return;
+            }
+            summary = summaryLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        adminEventStreamService.broadcastPresence(entry, summary);
+    }
+
+    /**
+     * 当日の状況別件数
+     */
+    public PresenceSummary getSummary() {
+        currentDate();
+        lock.readLock().lock();
+        try {
+            return summaryLocked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当日の在席状況の一覧（社員コード順）
+     * @param status 状況で絞り込む場合に指定（null の場合は全状況）
+     * @param lateOnly 遅刻者のみに絞る場合 true
+     */
+    public List<PresenceEntry> list(PresenceEntry.Status status, boolean lateOnly) {
+        currentDate();
+        lock.readLock().lock();
+        try {
+            Collection<Long> ids;
+            if (status != null) {
+                ids = byStatus.get(status);
+            } else if (lateOnly) {
+                ids = lateEmployees;
+            } else {
+                ids = states.keySet();
+            }
+            List<PresenceEntry> entries = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                State state = states.get(id);
+                if (state != null && (!lateOnly || state.late)) {
+                    entries.add(state.toEntry());
+                }
+            }
+            entries.sort(Comparator.comparing(PresenceEntry::employeeCode, Comparator.nullsLast(Comparator.naturalOrder())));
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Long employeeId, Consumer<State> change) {
+        PresenceEntry entry;
+        PresenceSummary summary;
+        lock.writeLock().lock();
+        try {
+            State state = states.get(employeeId);
+            if (state == null) {
+                // 退職者・未登録の従業員は対象外
+                return;
+            }
+            unbucket(state);
+            change.accept(state);
+            bucket(state);
+            entry = state.toEntry();
+            summary = summaryLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        adminEventStreamService.broadcastPresence(entry, summary);
+    }
+
+    private void bucket(State state) {
+        state.status = state.resolveStatus();
+        state.late = state.isLate(date, timeCalculator);
+        byStatus.get(state.status).add(state.summary.employeeId());
+        if (state.late) {
+            lateEmployees.add(state.summary.employeeId());
+        }
+    }
+
+    private void unbucket(State state) {
+        if (state.status != null) {
+            byStatus.get(state.status).remove(state.summary.employeeId());
+        }
+        lateEmployees.remove(state.summary.employeeId());
+    }
+
+    private PresenceSummary summaryLocked() {
+        return new PresenceSummary(date, states.size(),
+                byStatus.get(PresenceEntry.Status.WORKING).size(),
+                byStatus.get(PresenceEntry.Status.FINISHED).size(),
+                byStatus.get(PresenceEntry.Status.ON_LEAVE).size(),
+                byStatus.get(PresenceEntry.Status.DAY_OFF).size(),
+                byStatus.get(PresenceEntry.Status.NOT_CLOCKED_IN).size(),
+                lateEmployees.size());
+    }
+
+    /**
+     * インデックスの対象日を返す（日付が変わっていれば先に作り直す）
+     */
+    private LocalDate currentDate() {
+        LocalDate today = today();
+        if (!today.equals(date)) {
+            rebuild();
+        }
+        return today;
+    }
+
+    private boolean isToday(LocalDate target) {
+        return target != null && target.equals(currentDate());
+    }
+
+    private LocalDate today() {
+        return timeCalculator.getCurrentTokyoTime().toLocalDate();
+    }
+
+    private static final class State {
+        private EmployeeSummary summary;
+        private LocalDateTime clockInTime;
+        private LocalDateTime clockOutTime;
+        private String absenceType;
+        private boolean fullDayLeave;
+        private boolean customHoliday;
+        private boolean dayOff;
+        private LocalTime scheduledStart;
+        private PresenceEntry.Status status;
+        private boolean late;
+
+        private State(EmployeeSummary summary) {
+            this.summary = summary;
+        }
+
+        private void applyAbsences(List<AbsenceDay> days) {
+            absenceType = null;
+            fullDayLeave = false;
+            customHoliday = false;
+            for (AbsenceDay day : days) {
+                if (AbsenceDay.SOURCE_CUSTOM_HOLIDAY.equals(day.getSourceType())) {
+                    customHoliday = true;
+                } else if (day.getTimeUnit() == LeaveTimeUnit.FULL_DAY) {
+                    fullDayLeave = true;
+                }
+                // 全日の不在を半日より優先して表示する
+                if (absenceType == null || day.getTimeUnit() == LeaveTimeUnit.FULL_DAY) {
+                    absenceType = day.getAbsenceType();
+                }
+            }
+        }
+
+        private PresenceEntry.Status resolveStatus() {
+            if (clockOutTime != null) {
+                return PresenceEntry.Status.FINISHED;
+            }
+            if (clockInTime != null) {
+                return PresenceEntry.Status.WORKING;
+            }
+            if (customHoliday || dayOff) {
+                return PresenceEntry.Status.DAY_OFF;
+            }
+            if (fullDayLeave) {
+                return PresenceEntry.Status.ON_LEAVE;
+            }
+            return PresenceEntry.Status.NOT_CLOCKED_IN;
+        }
+
+        private boolean isLate(LocalDate date, TimeCalculator timeCalculator) {
+            if (clockInTime == null || absenceType != null || dayOff) {
+                return false;
+            }
+            LocalTime start = scheduledStart != null ? scheduledStart : TimeCalculator.STANDARD_START_TIME;
+            return timeCalculator.calculateLateMinutes(clockInTime, date.atTime(start)) > 0;
+        }
+
+        private PresenceEntry toEntry() {
+            return new PresenceEntry(summary.employeeId(), summary.employeeCode(), summary.lastName(),
+                    summary.firstName(), status, late, clockInTime, clockOutTime, absenceType);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.kintai.service;
+
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 全社の月次勤怠レポートPDFの一括出力（ZIP）
+ * 勤怠記録は従業員をページに分けてページごとの範囲検索1回で取得し、PDFは上限付きのワークスティーリングプールで並列に生成する。
+ * 生成が終わったものから順にZIPへ書き出し、同時に保持するPDFは処理中の件数分だけにとどめる（従業員数によらずメモリ使用量は一定）。
+ */
+@Service
+public class AttendanceReportBundleService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceReportBundleService.class);
+
+    /** 生成に失敗した従業員の一覧を書き出すエントリ名 */
+    public static final String ERROR_ENTRY = "errors.txt";
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private AttendanceReportService attendanceReportService;
+
+    @Value("${kintai.report.bundle-page-size:100}")
+    private int pageSize;
+
+    private final ForkJoinPool pool;
+    private final int window;
+
+    public AttendanceReportBundleService(@Value("${kintai.report.bundle-threads:0}") int threads) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("report-bundle-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        // 処理中（生成中・書き出し待ち）のPDFはスレッド数の2倍まで
+        this.window = parallelism * 2;
+    }
+
+    /**
+     * 出力対象の従業員（社員コード順）
+     * @param activeOnly 在籍者のみに絞る場合 true（false の場合は対象月に在籍していた退職者も含む）
+     * @param employeeCodePrefix 社員コードの前方一致で絞り込む場合に指定
+     */
+    public List<EmployeeSummary> findTargets(YearMonth yearMonth, boolean activeOnly, String employeeCodePrefix) {
+        if (yearMonth == null) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "対象年月を指定してください");
+        }
+        LocalDate from = yearMonth.atDay(1);
+        LocalDate to = yearMonth.atEndOfMonth();
+        String prefix = employeeCodePrefix == null ? "" : employeeCodePrefix.trim();
+        return employeeRepository.findAllSummaries().stream()
+                .filter(summary -> !activeOnly || Boolean.TRUE.equals(summary.isActive()))
+                .filter(summary -> summary.hireDate() == null || !summary.hireDate().isAfter(to))
+                .filter(summary -> summary.retirementDate() == null || !summary.retirementDate().isBefore(from))
+                .filter(summary -> prefix.isEmpty()
+                        || (summary.employeeCode() != null && summary.employeeCode().startsWith(prefix)))
+                .sorted(Comparator.comparing(EmployeeSummary::employeeCode, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * 対象従業員の勤怠レポートPDFをZIPとして出力先へ書き込む（出力先は閉じない）
+     * エントリは生成が終わった順に並ぶ。生成に失敗した従業員は {@link #ERROR_ENTRY} に記録して処理を続ける。
+     * 書き込みに失敗した場合（クライアントの切断など）や生成中に Error が発生した場合は残りの生成を取り消して例外を投げる。
+     * @return 書き出したPDFの件数
+     */
+    public int writeBundle(YearMonth yearMonth, List<EmployeeSummary> targets, OutputStream output) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        String month = yearMonth.toString();
+        LocalDate from = yearMonth.atDay(1);
+        LocalDate to = yearMonth.atEndOfMonth();
+        int size = Math.max(1, pageSize);
+
+        ZipOutputStream zip = new ZipOutputStream(output, StandardCharsets.UTF_8);
+        // PDFは圧縮済みのため、ZIP側の圧縮は最速設定にとどめる
+        zip.setLevel(Deflater.BEST_SPEED);
+        CompletionService<RenderedReport> completion = new ExecutorCompletionService<>(pool);
+        Map<Future<RenderedReport>, EmployeeSummary> inFlight = new HashMap<>();
+        List<String> failures = new ArrayList<>();
+        int written = 0;
+        try {
+            for (int offset = 0; offset < targets.size(); offset += size) {
+                List<EmployeeSummary> page = targets.subList(offset, Math.min(offset + size, targets.size()));
+                Map<Long, List<AttendanceRecord>> recordsByEmployee = loadRecords(page, from, to);
+
+                for (EmployeeSummary summary : page) {
+                    String html = attendanceReportService.buildReportHtml(summary.employeeCode(), month,
+                            recordsByEmployee.getOrDefault(summary.employeeId(), List.of()));
+                    inFlight.put(completion.submit(() -> render(summary, month, html)), summary);
+                    if (inFlight.size() >= window) {
+                        written += writeNext(zip, completion, inFlight, failures);
+                    }
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                written += writeNext(zip, completion, inFlight, failures);
+            }
+            if (!failures.isEmpty()) {
+                zip.putNextEntry(new ZipEntry(ERROR_ENTRY));
+                zip.write(String.join("\n", failures).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("レポートの一括出力が中断されました", e);
+        } finally {
+            inFlight.keySet().forEach(future -> future.cancel(true));
+        }
+        log.info("[ReportBundle] {} wrote {} reports ({} failed) in {} ms",
+                month, written, failures.size(), System.currentTimeMillis() - startedAt);
+        return written;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Map<Long, List<AttendanceRecord>> loadRecords(List<EmployeeSummary> page, LocalDate from, LocalDate to) {
+        List<Long> employeeIds = page.stream().map(EmployeeSummary::employeeId).toList();
+        Map<Long, List<AttendanceRecord>> recordsByEmployee = new HashMap<>();
+        for (AttendanceRecord record : attendanceRecordRepository.findByEmployeeIdsBetween(employeeIds, from, to)) {
+            recordsByEmployee.computeIfAbsent(record.getEmployeeId(), id -> new ArrayList<>()).add(record);
+        }
+        return recordsByEmployee;
+    }
+
+    private RenderedReport render(EmployeeSummary summary, String month, String html) {
+        String name = String.format("attendance_%d_%s.pdf", summary.employeeId(), month);
+        try {
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream(64 * 1024);
+            attendanceReportService.writePdf(html, pdf);
+            return new RenderedReport(name, pdf, null);
+        } catch (RuntimeException e) {
+            log.warn("[ReportBundle] failed to render {}: {}", summary.employeeCode(), e.getMessage());
+            return new RenderedReport(name, null, failureLine(summary, e.getMessage()));
+        }
+    }
+
+    private int writeNext(ZipOutputStream zip, CompletionService<RenderedReport> completion,
+                          Map<Future<RenderedReport>, EmployeeSummary> inFlight, List<String> failures)
+            throws IOException, InterruptedException {
+        Future<RenderedReport> future = completion.take();
+        EmployeeSummary summary = inFlight.remove(future);
+        RenderedReport report;
+        try {
+            report = future.get();
+        } catch (ExecutionException e) {
+            // Error（OutOfMemoryError など）は続行せず一括出力を中止する。それ以外は errors.txt へ記録して続行する
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof Error error) {
+                log.error("[ReportBundle] aborting bundle: failed to render {}", summary.employeeCode(), error);
+                throw error;
+            }
+            log.warn("[ReportBundle] failed to render {}: {}", summary.employeeCode(), cause.toString());
+            failures.add(failureLine(summary, cause.toString()));
+            return 0;
+        }
+        if (report.pdf() == null) {
+            failures.add(report.error());
+            return 0;
+        }
+        zip.putNextEntry(new ZipEntry(report.name()));
+        report.pdf().writeTo(zip);
+        zip.closeEntry();
+        return 1;
+    }
+
+    private static String failureLine(EmployeeSummary summary, String message) {
+        return summary.employeeCode() + "\t" + summary.employeeId() + "\t" + message;
+    }
+
+    private record RenderedReport(String name, ByteArrayOutputStream pdf, String error) {
+    }
+}
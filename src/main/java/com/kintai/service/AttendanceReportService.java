@@ -1,7 +1,7 @@
 package com.kintai.service;
 
-import com.itextpdf.html2pdf.HtmlConverter;
 import com.kintai.dto.AttendanceReportDto;
+import com.kintai.dto.ReportDataVersion;
 import com.kintai.entity.AttendanceRecord;
 import com.kintai.entity.Employee;
 import com.kintai.repository.AttendanceRecordRepository;
@@ -10,22 +10,40 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * 勤怠レポートPDF生成サービス
+ * 生成したPDFは勤怠データのバージョンとともに {@link ReportCache} へ格納し、データが変わっていなければ再利用する。
  */
 @Service
 public class AttendanceReportService {
+
+    private static final ReportTemplate REPORT_TEMPLATE = ReportTemplate.load("report/attendance-report.html");
+    private static final ReportTemplate ROW_TEMPLATE = ReportTemplate.load("report/attendance-report-row.html");
+    private static final String NO_DATA_ROW = "<tr><td colspan='7' style='text-align: center;'>データなし</td></tr>";
     
     @Autowired
     private AttendanceRecordRepository attendanceRecordRepository;
     
     @Autowired
     private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PdfReportEngine pdfReportEngine;
+
+    @Autowired
+    private ReportCache reportCache;
     
     /**
      * 勤怠レポートPDFを生成
@@ -34,6 +52,93 @@ public class AttendanceReportService {
      * @return PDFバイト配列
      */
     public byte[] generateAttendanceReportPdf(Long employeeId, String yearMonth) {
+        return renderReport(prepareReport(employeeId, yearMonth), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 勤怠レポートの出力準備（従業員が存在しない場合は例外）
+     * キャッシュにデータバージョンの一致するPDFがあればそれを、なければ生成用のHTMLを用意する。
+     * 全記録が確定済みの月はキャッシュがあればDBを参照せずに返す。
+     * PDFを応答へ直接書き出す場合は、書き出し開始前にこのメソッドで入力を確定させる。
+     * @param employeeId 従業員ID
+     * @param yearMonth 年月（yyyy-MM形式）
+     */
+    public PreparedReport prepareReport(Long employeeId, String yearMonth) {
+        ReportCache.Key key = new ReportCache.Key(employeeId, YearMonth.parse(yearMonth));
+        byte[] sealed = reportCache.getSealed(key);
+        if (sealed != null) {
+            return new PreparedReport(key, null, false, 0, sealed, null);
+        }
+
+        long generation = reportCache.generation(employeeId);
+        Employee employee = employeeRepository.findById(employeeId)
+                .orElseThrow(() -> new IllegalArgumentException("従業員が見つかりません: " + employeeId));
+        ReportDataVersion version = attendanceRecordRepository.findReportDataVersion(employeeId,
+                key.yearMonth().atDay(1), key.yearMonth().atEndOfMonth());
+        byte[] cached = reportCache.get(key, version.token(), version.sealed());
+        if (cached != null) {
+            return new PreparedReport(key, version.token(), version.sealed(), generation, cached, null);
+        }
+        String html = generateHtml(employee.getEmployeeCode(), yearMonth, findRecords(employeeId, yearMonth));
+        return new PreparedReport(key, version.token(), version.sealed(), generation, null, html);
+    }
+
+    /**
+     * 用意したレポートを出力先へ書き込む（出力先は閉じる）
+     * 生成した場合は書き込みと同時にPDFを控え、書き込み完了後にキャッシュへ格納する。
+     */
+    public void writeReport(PreparedReport report, OutputStream outputStream) {
+        if (report.isCached()) {
+            try (OutputStream output = outputStream) {
+                output.write(report.getCachedPdf());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        ByteArrayOutputStream copy = new ByteArrayOutputStream(64 * 1024);
+        writePdf(report.html, new FilterOutputStream(outputStream) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                copy.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                copy.write(b, off, len);
+            }
+        });
+        reportCache.put(report.key, report.version, report.sealed, copy.toByteArray(), report.generation);
+    }
+
+    /**
+     * 用意したレポートを上限付きのバッファへ生成する
+     * 応答の状態を確定する前に生成を終えておくために使う（生成に失敗した場合はエラーの状態で応答できる）。
+     * 生成したPDFはバッファの内容をそのままキャッシュへ格納する（書き込みと同時に控えを取らない）。
+     * @param maxBytes バッファの上限バイト数
+     * @return 生成したPDF（キャッシュ済みの場合はキャッシュのPDF）
+     * @throws IllegalStateException PDFが上限を超えた場合
+     */
+    public byte[] renderReport(PreparedReport report, int maxBytes) {
+        if (report.isCached()) {
+            return report.getCachedPdf();
+        }
+        BoundedOutputStream buffer = new BoundedOutputStream(maxBytes);
+        writePdf(report.html, buffer);
+        byte[] pdf = buffer.toByteArray();
+        reportCache.put(report.key, report.version, report.sealed, pdf, report.generation);
+        return pdf;
+    }
+
+    /**
+     * 勤怠レポートのHTMLを生成（従業員が存在しない場合は例外）
+     * @param employeeId 従業員ID
+     * @param yearMonth 年月（yyyy-MM形式）
+     * @return HTML
+     */
+    public String buildReportHtml(Long employeeId, String yearMonth) {
         // 従業員情報を取得
         Optional<Employee> employeeOpt = employeeRepository.findById(employeeId);
         if (employeeOpt.isEmpty()) {
@@ -41,121 +146,75 @@ public class AttendanceReportService {
         }
         
         Employee employee = employeeOpt.get();
-        
-        // 勤怠記録を取得
-        String[] parts = yearMonth.split("-");
-        int year = Integer.parseInt(parts[0]);
-        int month = Integer.parseInt(parts[1]);
-        List<AttendanceRecord> records = attendanceRecordRepository.findByEmployeeAndMonth(employeeId, year, month);
-        
-        // HTMLを生成
-        String html = generateHtml(employee, yearMonth, records);
-        
-        // PDFに変換
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            HtmlConverter.convertToPdf(html, outputStream);
-            return outputStream.toByteArray();
+        return generateHtml(employee.getEmployeeCode(), yearMonth, findRecords(employeeId, yearMonth));
+    }
+
+    /**
+     * 取得済みの勤怠記録から勤怠レポートのHTMLを生成（一括出力用）
+     * @param employeeCode 社員コード
+     * @param yearMonth 年月（yyyy-MM形式）
+     * @param records 対象月の勤怠記録（日付順）
+     * @return HTML
+     */
+    String buildReportHtml(String employeeCode, String yearMonth, List<AttendanceRecord> records) {
+        return generateHtml(employeeCode, yearMonth, records);
+    }
+
+    /**
+     * HTMLをPDFに変換して出力先へ書き込む（出力先は閉じる）
+     */
+    public void writePdf(String html, OutputStream outputStream) {
+        try {
+            pdfReportEngine.render(html, outputStream);
         } catch (Exception e) {
             throw new RuntimeException("PDF生成に失敗しました", e);
         }
     }
     
     /**
-     * HTMLを生成
+     * HTMLを生成（テンプレートは起動時に分解済みのものを使う）
      */
-    private String generateHtml(Employee employee, String yearMonth, List<AttendanceRecord> records) {
-        StringBuilder html = new StringBuilder();
-        
-        // 年月をフォーマット
-        String formattedYearMonth = formatYearMonth(yearMonth);
-        
-        html.append("<!DOCTYPE html>");
-        html.append("<html>");
-        html.append("<head>");
-        html.append("<meta charset='UTF-8'>");
-        html.append("<style>");
-        html.append("body { font-family: 'Hiragino Sans', 'Yu Gothic UI', 'Meiryo UI', sans-serif; margin: 20px; }");
-        html.append(".header { text-align: center; margin-bottom: 30px; border-bottom: 2px solid #333; padding-bottom: 10px; }");
-        html.append(".company-name { font-size: 24px; font-weight: bold; margin-bottom: 10px; }");
-        html.append(".report-title { font-size: 18px; margin-bottom: 5px; }");
-        html.append(".employee-info { font-size: 14px; margin-bottom: 20px; }");
-        html.append(".table { width: 100%; border-collapse: collapse; margin-bottom: 30px; }");
-        html.append(".table th, .table td { border: 1px solid #333; padding: 8px; text-align: center; }");
-        html.append(".table th { background-color: #f0f0f0; font-weight: bold; }");
-        html.append(".footer { margin-top: 50px; display: flex; justify-content: space-between; }");
-        html.append(".approval-section { text-align: center; }");
-        html.append(".approval-box { border: 1px solid #333; width: 200px; height: 80px; margin: 0 auto; }");
-        html.append("</style>");
-        html.append("</head>");
-        html.append("<body>");
-        
-        // ヘッダー
-        html.append("<div class='header'>");
-        html.append("<div class='company-name'>KintaiSystem</div>");
-        html.append("<div class='report-title'>勤怠レポート</div>");
-        html.append("<div class='employee-info'>");
-        html.append("対象年月: ").append(formattedYearMonth).append("<br>");
-        // 社員IDの表示（employeeCodeを使用）
-        html.append("社員ID: ").append(employee.getEmployeeCode()).append("<br>");
-        html.append("社員コード: ").append(employee.getEmployeeCode());
-        html.append("</div>");
-        html.append("</div>");
-        
-        // テーブル
-        html.append("<table class='table'>");
-        html.append("<thead>");
-        html.append("<tr>");
-        html.append("<th>日付</th>");
-        html.append("<th>出勤時刻</th>");
-        html.append("<th>退勤時刻</th>");
-        html.append("<th>勤怠区分</th>");
-        html.append("<th>残業時間</th>");
-        html.append("<th>遅刻分</th>");
-        html.append("<th>早退分</th>");
-        html.append("</tr>");
-        html.append("</thead>");
-        html.append("<tbody>");
-        
+    private String generateHtml(String employeeCode, String yearMonth, List<AttendanceRecord> records) {
+        StringBuilder rows = new StringBuilder(ROW_TEMPLATE.estimatedLength() * Math.max(1, records.size()) * 2);
         if (records.isEmpty()) {
-            html.append("<tr>");
-            html.append("<td colspan='7' style='text-align: center;'>データなし</td>");
-            html.append("</tr>");
+            rows.append(NO_DATA_ROW);
         } else {
+            Map<String, String> values = new HashMap<>();
             for (AttendanceRecord record : records) {
                 AttendanceReportDto dto = new AttendanceReportDto(record, 
-                    employee.getEmployeeCode(), 
-                    employee.getEmployeeCode());
-                
-                html.append("<tr>");
-                html.append("<td>").append(dto.getAttendanceDate()).append("</td>");
-                html.append("<td>").append(dto.getClockInTime()).append("</td>");
-                html.append("<td>").append(dto.getClockOutTime()).append("</td>");
-                html.append("<td>").append(dto.getAttendanceStatus()).append("</td>");
-                html.append("<td>").append(dto.getOvertimeHours()).append("</td>");
-                html.append("<td>").append(dto.getLateMinutes()).append("</td>");
-                html.append("<td>").append(dto.getEarlyLeaveMinutes()).append("</td>");
-                html.append("</tr>");
+                    employeeCode, 
+                    employeeCode);
+                values.put("attendanceDate", dto.getAttendanceDate());
+                values.put("clockInTime", dto.getClockInTime());
+                values.put("clockOutTime", dto.getClockOutTime());
+                values.put("attendanceStatus", dto.getAttendanceStatus());
+                values.put("overtimeHours", dto.getOvertimeHours());
+                values.put("lateMinutes", dto.getLateMinutes());
+                values.put("earlyLeaveMinutes", dto.getEarlyLeaveMinutes());
+                ROW_TEMPLATE.render(rows, values);
             }
         }
-        
-        html.append("</tbody>");
-        html.append("</table>");
-        
-        // フッター
-        html.append("<div class='footer'>");
-        html.append("<div>ページ 1</div>");
-        html.append("<div class='approval-section'>");
-        html.append("<div>承認欄</div>");
-        html.append("<div class='approval-box'></div>");
-        html.append("</div>");
-        html.append("</div>");
-        
-        html.append("</body>");
-        html.append("</html>");
-        
+
+        Map<String, String> values = new HashMap<>();
+        values.put("yearMonth", formatYearMonth(yearMonth));
+        // 社員IDの表示（employeeCodeを使用）
+        values.put("employeeCode", employeeCode);
+        values.put("rows", rows.toString());
+        StringBuilder html = new StringBuilder(REPORT_TEMPLATE.estimatedLength() + rows.length() + 256);
+        REPORT_TEMPLATE.render(html, values);
         return html.toString();
     }
     
+    /**
+     * 勤怠記録を取得
+     */
+    private List<AttendanceRecord> findRecords(Long employeeId, String yearMonth) {
+        String[] parts = yearMonth.split("-");
+        int year = Integer.parseInt(parts[0]);
+        int month = Integer.parseInt(parts[1]);
+        return attendanceRecordRepository.findByEmployeeAndMonth(employeeId, year, month);
+    }
+    
     /**
      * 年月をフォーマット
      */
@@ -167,4 +226,65 @@ public class AttendanceReportService {
             return yearMonth;
         }
     }
+
+    /**
+     * 上限を超える書き込みで失敗する ByteArrayOutputStream
+     */
+    private static final class BoundedOutputStream extends ByteArrayOutputStream {
+        private final int maxBytes;
+
+        private BoundedOutputStream(int maxBytes) {
+            super(Math.min(64 * 1024, Math.max(1, maxBytes)));
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            ensureCapacity(1);
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            super.write(b, off, len);
+        }
+
+        private void ensureCapacity(int len) {
+            if ((long) count + len > maxBytes) {
+                throw new IllegalStateException("勤怠レポートPDFのサイズが上限（" + maxBytes + "バイト）を超えました");
+            }
+        }
+    }
+
+    /**
+     * 出力準備済みの勤怠レポート（キャッシュ済みのPDF、または生成用のHTML）
+     */
+    public static final class PreparedReport {
+
+        private final ReportCache.Key key;
+        private final String version;
+        private final boolean sealed;
+        private final long generation;
+        private final byte[] cachedPdf;
+        private final String html;
+
+        private PreparedReport(ReportCache.Key key, String version, boolean sealed, long generation,
+                               byte[] cachedPdf, String html) {
+            this.key = key;
+            this.version = version;
+            this.sealed = sealed;
+            this.generation = generation;
+            this.cachedPdf = cachedPdf;
+            this.html = html;
+        }
+
+        public boolean isCached() {
+            return cachedPdf != null;
+        }
+
+        public byte[] getCachedPdf() {
+            return cachedPdf;
+        }
+    }
 }
@@ -0,0 +1,284 @@
+package com.kintai.service;
+
+import com.kintai.dto.BulkDecisionResult;
+import com.kintai.dto.BulkDecisionTarget;
+import com.kintai.entity.AdjustmentRequest;
+import com.kintai.entity.HolidayRequest;
+import com.kintai.entity.LeaveRequest;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.WorkPatternChangeRequest;
+import com.kintai.event.RequestCategory;
+import com.kintai.exception.AttendanceException;
+import com.kintai.exception.VacationException;
+import com.kintai.repository.AdjustmentRequestRepository;
+import com.kintai.repository.HolidayRequestRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import com.kintai.repository.WorkPatternChangeRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 申請の一括承認・却下サービス
+ * 対象申請を従業員ごとにまとめ、複数従業員を1トランザクションで処理する。
+ * 勤怠の再計算・休暇残数の更新は各申請サービスの一括処理でまとめて行う（承認履歴は個別承認と同じく休暇申請のみ記録する）。
+ * 対象申請は行ロックを取得して読み込み直し、個別承認や別の一括処理と同じ申請を二重に処理しないようにする。
+ * 想定外のエラーでトランザクションが失敗した場合は従業員単位でやり直し、失敗した従業員の申請のみをエラーとして返す。
+ */
+@Service
+public class BulkApprovalService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkApprovalService.class);
+
+    public static final int MAX_TARGETS = 1000;
+
+    private static final int EMPLOYEES_PER_TRANSACTION = 50;
+
+    static final String INVALID_STATUS = "INVALID_STATUS";
+
+    @Autowired
+    private AdjustmentRequestRepository adjustmentRequestRepository;
+
+    @Autowired
+    private WorkPatternChangeRequestRepository workPatternChangeRequestRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private HolidayRequestRepository holidayRequestRepository;
+
+    @Autowired
+    private AdjustmentRequestService adjustmentRequestService;
+
+    @Autowired
+    private WorkPatternChangeRequestService workPatternChangeRequestService;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private HolidayRequestService holidayRequestService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 申請をまとめて承認・却下する
+     * @param targets 対象申請（重複は1件として扱う）
+     * @param approve 承認の場合 true、却下の場合 false
+     * @param comment 却下理由（却下時は必須）
+     * @return 対象申請ごとの結果（指定順）
+     */
+    public List<BulkDecisionResult> decide(Collection<BulkDecisionTarget> targets, boolean approve,
+                                           Long approverId, String comment) {
+        if (targets == null || targets.isEmpty()) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "対象の申請を指定してください");
+        }
+        if (targets.stream().anyMatch(target -> target == null || target.category() == null || target.requestId() == null)) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "申請種別と申請IDを指定してください");
+        }
+        List<BulkDecisionTarget> unique = new ArrayList<>(new LinkedHashSet<>(targets));
+        if (unique.size() > MAX_TARGETS) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST,
+                    "一度に処理できる申請は" + MAX_TARGETS + "件までです");
+        }
+        if (!approve && (comment == null || comment.trim().isEmpty())) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "却下理由は必須です");
+        }
+        long startedAt = System.currentTimeMillis();
+
+        // 1. 申請の存在と状態を確認し、承認待ちの申請を従業員ごとにまとめる（従業員ID順に処理してロック順を揃える）
+        Map<BulkDecisionTarget, BulkDecisionResult> results = new HashMap<>();
+        Map<Long, List<BulkDecisionTarget>> byEmployee = new TreeMap<>();
+        Map<RequestCategory, Map<Long, Snapshot>> snapshots = loadSnapshots(unique);
+        for (BulkDecisionTarget target : unique) {
+            Snapshot snapshot = snapshots.get(target.category()).get(target.requestId());
+            if (snapshot == null) {
+                results.put(target, BulkDecisionResult.failed(target, null,
+                        AttendanceException.REQUEST_NOT_FOUND, "申請が見つかりません"));
+            } else if (!snapshot.pending()) {
+                results.put(target, BulkDecisionResult.failed(target, snapshot.employeeId(),
+                        INVALID_STATUS, "承認待ちの申請ではありません"));
+            } else {
+                byEmployee.computeIfAbsent(snapshot.employeeId(), key -> new ArrayList<>()).add(target);
+            }
+        }
+
+        // 2. 従業員のまとまりごとに処理する
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> employeeIds = new ArrayList<>(byEmployee.keySet());
+        for (int from = 0; from < employeeIds.size(); from += EMPLOYEES_PER_TRANSACTION) {
+            List<Long> chunk = employeeIds.subList(from, Math.min(from + EMPLOYEES_PER_TRANSACTION, employeeIds.size()));
+            List<BulkDecisionTarget> chunkTargets = chunk.stream().flatMap(id -> byEmployee.get(id).stream()).toList();
+            try {
+                results.putAll(tx.execute(status -> decideInTransaction(chunkTargets, approve, approverId, comment)));
+            } catch (RuntimeException e) {
+                if (chunk.size() == 1) {
+                    markFailed(results, chunk.get(0), chunkTargets, e);
+                    continue;
+                }
+                log.warn("[BulkApproval] retrying {} employees one by one: {}", chunk.size(), e.getMessage());
+                for (Long employeeId : chunk) {
+                    List<BulkDecisionTarget> employeeTargets = byEmployee.get(employeeId);
+                    try {
+                        results.putAll(tx.execute(status -> decideInTransaction(employeeTargets, approve, approverId, comment)));
+                    } catch (RuntimeException single) {
+                        markFailed(results, employeeId, employeeTargets, single);
+                    }
+                }
+            }
+        }
+
+        List<BulkDecisionResult> ordered = unique.stream().map(results::get).toList();
+        log.info("[BulkApproval] {} {} requests ({} succeeded) for {} employees in {} ms",
+                approve ? "approved" : "rejected", ordered.size(),
+                ordered.stream().filter(BulkDecisionResult::success).count(),
+                employeeIds.size(), System.currentTimeMillis() - startedAt);
+        return ordered;
+    }
+
+    private Map<BulkDecisionTarget, BulkDecisionResult> decideInTransaction(List<BulkDecisionTarget> targets, boolean approve,
+                                                                          Long approverId, String comment) {
+        Map<RequestCategory, List<Long>> idsByCategory = new EnumMap<>(RequestCategory.class);
+        for (BulkDecisionTarget target : targets) {
+            idsByCategory.computeIfAbsent(target.category(), key -> new ArrayList<>()).add(target.requestId());
+        }
+        Map<BulkDecisionTarget, BulkDecisionResult> outcome = new HashMap<>();
+        idsByCategory.forEach((category, ids) -> {
+            switch (category) {
+                case ADJUSTMENT -> {
+                    List<AdjustmentRequest> requests = pendingOnly(category, adjustmentRequestRepository.findAllByIdForUpdate(ids),
+                            AdjustmentRequest::getAdjustmentRequestId, AdjustmentRequest::getEmployeeId,
+                            AdjustmentRequest::getCreatedAt,
+                            request -> request.getStatus() == AdjustmentRequest.AdjustmentStatus.PENDING, outcome);
+                    adjustmentRequestService.decideBatch(requests, approve, approverId, comment);
+                    succeeded(category, requests, AdjustmentRequest::getAdjustmentRequestId, AdjustmentRequest::getEmployeeId, outcome);
+                }
+                case WORK_PATTERN -> {
+                    List<WorkPatternChangeRequest> requests = pendingOnly(category, workPatternChangeRequestRepository.findAllByIdForUpdate(ids),
+                            WorkPatternChangeRequest::getRequestId, WorkPatternChangeRequest::getEmployeeId,
+                            WorkPatternChangeRequest::getCreatedAt,
+                            request -> request.getStatus() == WorkPatternChangeRequest.Status.PENDING, outcome);
+                    workPatternChangeRequestService.decideBatch(requests, approve, approverId, comment);
+                    succeeded(category, requests, WorkPatternChangeRequest::getRequestId, WorkPatternChangeRequest::getEmployeeId, outcome);
+                }
+                case LEAVE -> {
+                    List<LeaveRequest> requests = pendingOnly(category, leaveRequestRepository.findAllByIdForUpdate(ids),
+                            LeaveRequest::getId, LeaveRequest::getEmployeeId, LeaveRequest::getCreatedAt,
+                            request -> request.getStatus() == LeaveStatus.PENDING, outcome);
+                    Map<Long, VacationException> failures = leaveRequestService.decideBatch(requests,
+                            approve ? LeaveStatus.APPROVED : LeaveStatus.REJECTED, approverId, comment);
+                    for (LeaveRequest request : requests) {
+                        BulkDecisionTarget target = new BulkDecisionTarget(category, request.getId());
+                        VacationException failure = failures.get(request.getId());
+                        outcome.put(target, failure == null
+                                ? BulkDecisionResult.succeeded(target, request.getEmployeeId())
+                                : BulkDecisionResult.failed(target, request.getEmployeeId(), failure.getErrorCode(), failure.getMessage()));
+                    }
+                }
+                case HOLIDAY -> {
+                    List<HolidayRequest> requests = pendingOnly(category, holidayRequestRepository.findAllByIdForUpdate(ids),
+                            HolidayRequest::getId, HolidayRequest::getEmployeeId, HolidayRequest::getCreatedAt,
+                            request -> request.getStatus() == HolidayRequest.Status.PENDING, outcome);
+                    holidayRequestService.decideBatch(requests, approve, approverId, comment);
+                    succeeded(category, requests, HolidayRequest::getId, HolidayRequest::getEmployeeId, outcome);
+                }
+            }
+        });
+        // 事前確認後に削除された申請
+        for (BulkDecisionTarget target : targets) {
+            outcome.computeIfAbsent(target, key -> BulkDecisionResult.failed(key, null,
+                    AttendanceException.REQUEST_NOT_FOUND, "申請が見つかりません"));
+        }
+        return outcome;
+    }
+
+    /**
+     * 事前確認後に状態が変わった申請（行ロック取得までに個別承認などで処理されたもの）を除き、作成日時の古い順に並べる
+     */
+    private <T> List<T> pendingOnly(RequestCategory category, List<T> loaded,
+                                    Function<T, Long> idOf, Function<T, Long> employeeIdOf,
+                                    Function<T, LocalDateTime> createdAtOf,
+                                    Predicate<T> pending,
+                                    Map<BulkDecisionTarget, BulkDecisionResult> outcome) {
+        List<T> result = new ArrayList<>();
+        for (T request : loaded) {
+            if (pending.test(request)) {
+                result.add(request);
+            } else {
+                BulkDecisionTarget target = new BulkDecisionTarget(category, idOf.apply(request));
+                outcome.put(target, BulkDecisionResult.failed(target, employeeIdOf.apply(request),
+                        INVALID_STATUS, "承認待ちの申請ではありません"));
+            }
+        }
+        result.sort(Comparator.comparing(createdAtOf, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                .thenComparing(idOf));
+        return result;
+    }
+
+    private <T> void succeeded(RequestCategory category, List<T> requests, Function<T, Long> idOf,
+                               Function<T, Long> employeeIdOf, Map<BulkDecisionTarget, BulkDecisionResult> outcome) {
+        for (T request : requests) {
+            BulkDecisionTarget target = new BulkDecisionTarget(category, idOf.apply(request));
+            outcome.put(target, BulkDecisionResult.succeeded(target, employeeIdOf.apply(request)));
+        }
+    }
+
+    private void markFailed(Map<BulkDecisionTarget, BulkDecisionResult> results, Long employeeId,
+                            List<BulkDecisionTarget> targets, RuntimeException e) {
+        String errorCode = e instanceof AttendanceException ae ? ae.getErrorCode()
+                : e instanceof VacationException ve ? ve.getErrorCode()
+                : "INTERNAL_ERROR";
+        log.warn("[BulkApproval] employee={} failed: {}", employeeId, e.getMessage());
+        for (BulkDecisionTarget target : targets) {
+            results.put(target, BulkDecisionResult.failed(target, employeeId, errorCode, e.getMessage()));
+        }
+    }
+
+    private Map<RequestCategory, Map<Long, Snapshot>> loadSnapshots(List<BulkDecisionTarget> targets) {
+        Map<RequestCategory, List<Long>> idsByCategory = new EnumMap<>(RequestCategory.class);
+        for (RequestCategory category : RequestCategory.values()) {
+            idsByCategory.put(category, new ArrayList<>());
+        }
+        targets.forEach(target -> idsByCategory.get(target.category()).add(target.requestId()));
+
+        Map<RequestCategory, Map<Long, Snapshot>> snapshots = new EnumMap<>(RequestCategory.class);
+        idsByCategory.forEach((category, ids) -> {
+            Map<Long, Snapshot> byId = new HashMap<>();
+            if (!ids.isEmpty()) {
+                switch (category) {
+                    case ADJUSTMENT -> adjustmentRequestRepository.findAllById(ids).forEach(r -> byId.put(r.getAdjustmentRequestId(),
+                            new Snapshot(r.getEmployeeId(), r.getStatus() == AdjustmentRequest.AdjustmentStatus.PENDING)));
+                    case WORK_PATTERN -> workPatternChangeRequestRepository.findAllById(ids).forEach(r -> byId.put(r.getRequestId(),
+                            new Snapshot(r.getEmployeeId(), r.getStatus() == WorkPatternChangeRequest.Status.PENDING)));
+                    case LEAVE -> leaveRequestRepository.findAllById(ids).forEach(r -> byId.put(r.getId(),
+                            new Snapshot(r.getEmployeeId(), r.getStatus() == LeaveStatus.PENDING)));
+                    case HOLIDAY -> holidayRequestRepository.findAllById(ids).forEach(r -> byId.put(r.getId(),
+                            new Snapshot(r.getEmployeeId(), r.getStatus() == HolidayRequest.Status.PENDING)));
+                }
+            }
+            snapshots.put(category, byId);
+        });
+        return snapshots;
+    }
+
+    private record Snapshot(Long employeeId, boolean pending) {
+    }
+}
@@ -20,6 +20,9 @@ public class CustomHolidayService {
     @Autowired
     private CustomHolidayRepository repository;
 
+    @Autowired
+    private AbsenceIndexService absenceIndexService;
+
     /**
      * カスタム休日を作成
      */
@@ -31,7 +34,9 @@ public class CustomHolidayService {
         }
 
         CustomHoliday customHoliday = new CustomHoliday(employeeId, holidayDate, holidayType, description, relatedRequestId, createdBy);
-        return repository.save(customHoliday);
+        CustomHoliday saved = repository.save(customHoliday);
+        absenceIndexService.indexCustomHoliday(saved);
+        return saved;
     }
 
     /**
@@ -53,6 +58,7 @@ public class CustomHolidayService {
      */
     public void removeCustomHoliday(Long employeeId, LocalDate holidayDate) {
         repository.deleteByEmployeeIdAndHolidayDate(employeeId, holidayDate);
+        absenceIndexService.removeCustomHoliday(employeeId, holidayDate);
     }
 
     /**
@@ -0,0 +1,170 @@
+package com.kintai.service;
+
+import com.kintai.entity.IdSequence;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.IdSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 社員コード（EMP + 3桁以上の番号）の採番
+ * id_sequences テーブルから番号をブロック単位で予約し、予約済みの範囲はメモリ上で払い出す。
+ * 予約は行ロックを取った独立トランザクションで行うため、複数リクエスト・複数ノードから同時に採番しても重複しない。
+ * 予約したブロックの残りは再起動時に破棄されるため、番号に欠番が生じることがある。
+ */
+@Component
+public class EmployeeCodeAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeCodeAllocator.class);
+
+    static final String SEQUENCE_NAME = "employee_code";
+    private static final String PREFIX = "EMP";
+    private static final Pattern CODE_PATTERN = Pattern.compile("^" + PREFIX + "(\\d+)$");
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${kintai.employee.code-block-size:20}")
+    private int blockSize;
+
+    // 予約済みブロック [next, end)
+    private long next;
+    private long end;
+
+    /**
+     * 社員コードを1件払い出す
+     * 手動登録などで既に使われているコードは読み飛ばす。
+     */
+    public String allocate() {
+        while (true) {
+            String code = format(nextValue());
+            if (!employeeRepository.existsByEmployeeCode(code)) {
+                return code;
+            }
+            log.warn("[EmployeeCode] {} is already in use, skipped", code);
+        }
+    }
+
+    /**
+     * 社員コードをまとめて払い出す（一括登録用）
+     * 必要数をまとめて予約し、使用済みのコードの確認も1回の検索で行う。
+     */
+    public List<String> allocate(int count) {
+        List<String> codes = new ArrayList<>(count);
+        while (codes.size() < count) {
+            List<String> candidates = new ArrayList<>();
+            for (long value : nextValues(count - codes.size())) {
+                candidates.add(format(value));
+            }
+            Set<String> used = new HashSet<>(employeeRepository.findExistingEmployeeCodes(candidates));
+            for (String code : candidates) {
+                if (used.contains(code)) {
+                    log.warn("[EmployeeCode] {} is already in use, skipped", code);
+                } else {
+                    codes.add(code);
+                }
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * 次に払い出す予定の番号を返す（番号は消費しない）
+     * 他ノードが先に採番した場合は実際の払い出し結果と異なることがある。
+     */
+    public long peekNextNumber() {
+        synchronized (this) {
+            if (next < end) {
+                return next;
+            }
+        }
+        return idSequenceRepository.findById(SEQUENCE_NAME)
+                .map(IdSequence::getNextValue)
+                .orElseGet(this::initialValue);
+    }
+
+    private synchronized long nextValue() {
+        if (next >= end) {
+            reserveBlock(blockSize);
+        }
+        return next++;
+    }
+
+    private synchronized long[] nextValues(int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (next >= end) {
+                // 残りの必要数がブロックより多い場合はまとめて予約する
+                reserveBlock(Math.max(blockSize, count - i));
+            }
+            values[i] = next++;
+        }
+        return values;
+    }
+
+    private void reserveBlock(int requested) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int size = Math.max(1, requested);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long start = tx.execute(status -> {
+                    IdSequence sequence = idSequenceRepository.findForUpdate(SEQUENCE_NAME)
+                            .orElseGet(() -> new IdSequence(SEQUENCE_NAME, initialValue()));
+                    long first = sequence.getNextValue();
+                    sequence.setNextValue(first + size);
+                    idSequenceRepository.saveAndFlush(sequence);
+                    return first;
+                });
+                next = start;
+                end = start + size;
+                log.debug("[EmployeeCode] reserved block [{}, {})", next, end);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // 初期化が他ノードと競合した場合は作成済みの行から予約し直す
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * シーケンス未作成時の初期値（既存の社員コードの最大番号 + 1）
+     */
+    private long initialValue() {
+        long max = 0L;
+        for (String code : employeeRepository.findEmployeeCodesStartingWith(PREFIX)) {
+            Matcher matcher = CODE_PATTERN.matcher(code);
+            if (matcher.matches() && matcher.group(1).length() < 19) {
+                max = Math.max(max, Long.parseLong(matcher.group(1)));
+            }
+        }
+        return max + 1;
+    }
+
+    static String format(long number) {
+        return PREFIX + String.format("%03d", number);
+    }
+}
@@ -0,0 +1,274 @@
+package com.kintai.service;
+
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AdjustmentRequestRepository;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.LeaveBalanceRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import com.kintai.repository.UserAccountRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 従業員データの一括メンテナンス（勤怠データの削除・退職処理）
+ * 従業員ごとにエンティティを読み込んで1件ずつ削除・保存するのではなく、対象従業員をまとめたDELETE/UPDATEで処理する。
+ * 退職処理は従業員IDをチャンクに分けてチャンクごとにトランザクションを分け、進捗をジョブとして参照できるようにする。
+ */
+@Service
+public class EmployeeMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeMaintenanceService.class);
+
+    /** 1回の退職処理で指定できる最大従業員数 */
+    public static final int MAX_RETIREMENT_TARGETS = 10000;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private AdjustmentRequestRepository adjustmentRequestRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private AttendancePresenceIndex attendancePresenceIndex;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private AbsenceIndexService absenceIndexService;
+
+    @Autowired
+    private PendingRequestCounter pendingRequestCounter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Value("${kintai.employee.retirement-chunk-size:500}")
+    private int chunkSize;
+
+    // 退職処理は直列に実行する（同一従業員の残数リセットが競合しないように）
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-retirement");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 指定従業員の勤怠記録・打刻修正申請・休暇申請を削除する
+     * 休暇由来の不在日インデックス・レポートキャッシュ・承認待ち件数も合わせて更新する。
+     * @return 削除した件数の合計
+     */
+    public int purgeAttendanceData(Collection<Long> employeeIds) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return 0;
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer deleted = tx.execute(status -> {
+            int count = attendanceRecordRepository.deleteByEmployeeIds(employeeIds)
+                    + adjustmentRequestRepository.deleteByEmployeeIds(employeeIds)
+                    + leaveRequestRepository.deleteByEmployeeIds(employeeIds);
+            // 一括DELETEでは休暇申請のステータス変更通知が出ないため、不在日インデックスと申請中日数は同じトランザクションで補正する
+            absenceIndexService.removeLeaves(employeeIds);
+            leaveBalanceRepository.recalculatePendingDaysByEmployeeIds(employeeIds);
+            return count;
+        });
+        // 同様に勤怠記録・申請の変更通知も出ないため、レポートキャッシュの破棄と承認待ち件数の照合はここで行う
+        reportCache.evictEmployees(employeeIds);
+        pendingRequestCounter.reconcile();
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * 指定従業員を退職扱いにする（同期実行）
+     * 在籍フラグ・退職日の更新、ログインアカウントの無効化、全休暇残数の0日リセットを行う。
+     */
+    public RetirementJob retire(Collection<Long> employeeIds, LocalDate retirementDate) {
+        RetirementJob job = registerJob(employeeIds, retirementDate);
+        run(job);
+        return job;
+    }
+
+    /**
+     * 指定従業員を退職扱いにする（非同期実行）。進捗は {@link #findJob(String)} で参照する。
+     */
+    public RetirementJob submitRetire(Collection<Long> employeeIds, LocalDate retirementDate) {
+        RetirementJob job = registerJob(employeeIds, retirementDate);
+        executor.submit(() -> run(job));
+        return job;
+    }
+
+    public Optional<RetirementJob> findJob(String jobId) {
+        return jobRegistry.find(jobId, RetirementJob.class);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(RetirementJob job) {
+        job.status = RetirementJob.Status.RUNNING;
+        long startedAt = System.currentTimeMillis();
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            int size = Math.max(1, chunkSize);
+            for (int from = 0; from < job.employeeIds.size(); from += size) {
+                List<Long> chunk = job.employeeIds.subList(from, Math.min(from + size, job.employeeIds.size()));
+                Integer retired = tx.execute(status -> retireChunk(chunk, job.retirementDate));
+                job.retired.addAndGet(retired != null ? retired : 0);
+                job.processed.addAndGet(chunk.size());
+
+                // 一括UPDATEではエンティティの変更通知が出ないため、検索インデックスはここで更新する
+                for (EmployeeSummary summary : employeeRepository.findSummariesByIds(chunk)) {
+                    employeeSearchIndex.upsert(summary);
+                }
+                log.debug("[Retirement] job={} progress {}/{}", job.jobId, job.processed.get(), job.total);
+            }
+            job.status = RetirementJob.Status.COMPLETED;
+            log.info("[Retirement] job={} retired {} of {} employees in {} ms",
+                    job.jobId, job.retired.get(), job.total, System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            job.status = RetirementJob.Status.FAILED;
+            job.message = e.getMessage();
+            log.error("[Retirement] job={} failed after {} employees: {}", job.jobId, job.processed.get(), e.getMessage());
+            throw e;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            if (job.retired.get() > 0) {
+                attendancePresenceIndex.rebuild();
+            }
+        }
+    }
+
+    private int retireChunk(List<Long> employeeIds, LocalDate retirementDate) {
+        int retired = employeeRepository.retireAll(employeeIds, retirementDate, LocalDateTime.now());
+        userAccountRepository.updateEnabledByEmployeeIds(employeeIds, false);
+        leaveRequestService.resetLeaveBalancesToZero(employeeIds);
+        return retired;
+    }
+
+    private RetirementJob registerJob(Collection<Long> employeeIds, LocalDate retirementDate) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "対象の従業員を指定してください");
+        }
+        if (retirementDate == null) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "退職日は必須です");
+        }
+        // 重複を除いてID順に処理する（複数ジョブ間で行ロックの取得順をそろえる）
+        List<Long> targets = new ArrayList<>(new TreeSet<>(employeeIds));
+        if (targets.size() > MAX_RETIREMENT_TARGETS) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST,
+                    "1回に退職処理できるのは" + MAX_RETIREMENT_TARGETS + "名までです");
+        }
+        return jobRegistry.register(new RetirementJob(UUID.randomUUID().toString(), targets, retirementDate));
+    }
+
+    /**
+     * 退職処理ジョブの進捗
+     */
+    public static class RetirementJob implements JobRegistry.Job {
+
+        public enum Status {
+            QUEUED,
+            RUNNING,
+            COMPLETED,
+            FAILED
+        }
+
+        private final String jobId;
+        private final List<Long> employeeIds;
+        private final LocalDate retirementDate;
+        private final long total;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger retired = new AtomicInteger();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        RetirementJob(String jobId, List<Long> employeeIds, LocalDate retirementDate) {
+            this.jobId = jobId;
+            this.employeeIds = employeeIds;
+            this.retirementDate = retirementDate;
+            this.total = employeeIds.size();
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public LocalDate getRetirementDate() {
+            return retirementDate;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public int getProcessed() {
+            return processed.get();
+        }
+
+        /** 退職扱いにした従業員数（存在しない従業員IDは含まない） */
+        public int getRetired() {
+            return retired.get();
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+    }
+}
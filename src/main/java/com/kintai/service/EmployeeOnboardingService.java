@@ -0,0 +1,493 @@
+package com.kintai.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kintai.dto.EmployeeImportResult;
+import com.kintai.dto.EmployeeImportRow;
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.entity.Employee;
+import com.kintai.entity.LeaveType;
+import com.kintai.entity.UserAccount;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.UserAccountRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 社員の一括登録
+ * 入力（CSV / JSON配列）を1行ずつ読みながら検証し、チャンク単位で登録する。
+ * パスワードのハッシュ化は専用のスレッドプールで並列に行い、社員・ログインアカウント・休暇残数はJDBCの一括INSERTで作成する。
+ * チャンクの登録に失敗した場合は、そのチャンクだけを1行ずつ登録し直して失敗した行を特定する。
+ */
+@Service
+public class EmployeeOnboardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeOnboardingService.class);
+
+    /** 1回の取込で受け付ける最大行数 */
+    static final int MAX_ROWS = 10000;
+
+    public static final String INSERT_FAILED = "INSERT_FAILED";
+    public static final String TOO_MANY_ROWS = "TOO_MANY_ROWS";
+
+    private static final int MIN_PASSWORD_LENGTH = 4;
+
+    private static final String INSERT_EMPLOYEE =
+            "INSERT INTO employees (employee_code, last_name, first_name, birthday, hire_date, hire_month_day, " +
+            "is_active, paid_leave_base_days, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, TRUE, ?, ?, ?)";
+
+    private static final String INSERT_ACCOUNT =
+            "INSERT INTO user_accounts (username, password, role, employee_id, enabled) VALUES (?, ?, ?, ?, TRUE)";
+
+    private static final String INSERT_BALANCE =
+            "INSERT INTO leave_balances (employee_id, leave_type, total_days, used_days, remaining_days, pending_days, updated_at) " +
+            "VALUES (?, ?, ?, 0, ?, 0, ?)";
+
+    /** CSVヘッダーの列名（英語名・日本語名のどちらでも指定できる） */
+    private static final Map<String, String> CSV_COLUMNS = Map.of(
+            "lastname", "lastName", "姓", "lastName",
+            "firstname", "firstName", "名", "firstName",
+            "birthday", "birthday", "生年月日", "birthday",
+            "hiredate", "hireDate", "入社日", "hireDate",
+            "password", "password", "パスワード", "password");
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private EmployeeCodeAllocator employeeCodeAllocator;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private AttendancePresenceIndex attendancePresenceIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${kintai.onboarding.chunk-size:500}")
+    private int chunkSize;
+
+    // パスワードのハッシュ化（CPU負荷が高いためスレッド数と待ち行列を制限し、溢れた分は呼び出し元で実行する）
+    private final ThreadPoolExecutor hasher;
+
+    public EmployeeOnboardingService(@Value("${kintai.onboarding.hash-threads:0}") int hashThreads) {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hasher = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "onboarding-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hasher.shutdownNow();
+    }
+
+    /**
+     * 社員を一括登録する
+     * 検証エラーの行は登録せずに結果へ含め、他の行の登録は続ける。
+     * @param rows 入力行（先頭から順に読み込む）
+     * @return 行番号順の結果
+     */
+    public List<EmployeeImportResult> importEmployees(Iterator<EmployeeImportRow> rows) {
+        List<EmployeeImportResult> results = new ArrayList<>();
+        List<PreparedRow> chunk = new ArrayList<>();
+        int size = Math.max(1, chunkSize);
+        int read = 0;
+        boolean inserted = false;
+        long startedAt = System.currentTimeMillis();
+
+        while (rows.hasNext()) {
+            EmployeeImportRow row = rows.next();
+            if (++read > MAX_ROWS) {
+                results.add(EmployeeImportResult.failed(row.rowNumber(), TOO_MANY_ROWS,
+                        "1回に登録できるのは" + MAX_ROWS + "件までです。この行以降は登録していません"));
+                break;
+            }
+            try {
+                chunk.add(validate(row));
+            } catch (AttendanceException e) {
+                results.add(EmployeeImportResult.failed(row.rowNumber(), e.getErrorCode(), e.getMessage()));
+            }
+            if (chunk.size() >= size) {
+                inserted |= importChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            inserted |= importChunk(chunk, results);
+        }
+
+        // JDBCで登録した社員はエンティティの変更通知が出ないため、在席状況はまとめて作り直す
+        if (inserted) {
+            attendancePresenceIndex.rebuild();
+        }
+        results.sort(Comparator.comparingInt(EmployeeImportResult::rowNumber));
+        log.info("[Onboarding] imported {} rows in {} ms ({} failed)", results.size(),
+                System.currentTimeMillis() - startedAt, results.stream().filter(r -> !r.success()).count());
+        return results;
+    }
+
+    /**
+     * CSVを行単位で読み込む
+     * 先頭行はヘッダー（lastName, firstName, birthday, hireDate, password / 姓, 名, 生年月日, 入社日, パスワード）。
+     * 値のダブルクォート囲みに対応するが、値の中の改行には対応しない。
+     */
+    public Iterator<EmployeeImportRow> readCsv(InputStream input) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String headerLine = readLine(reader);
+        if (headerLine == null) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "CSVが空です");
+        }
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = splitCsvLine(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            String column = CSV_COLUMNS.get(header.get(i).trim().toLowerCase());
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        if (!columns.containsKey("hireDate") || !columns.containsKey("password")) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "CSVのヘッダーに入社日とパスワードの列が必要です");
+        }
+
+        return new Iterator<>() {
+            private int rowNumber;
+            private String nextLine = advance();
+
+            private String advance() {
+                String line;
+                do {
+                    line = readLine(reader);
+                } while (line != null && line.isBlank());
+                return line;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextLine != null;
+            }
+
+            @Override
+            public EmployeeImportRow next() {
+                if (nextLine == null) {
+                    throw new NoSuchElementException();
+                }
+                List<String> values = splitCsvLine(nextLine);
+                nextLine = advance();
+                return new EmployeeImportRow(++rowNumber, column(values, columns.get("lastName")),
+                        column(values, columns.get("firstName")), column(values, columns.get("birthday")),
+                        column(values, columns.get("hireDate")), column(values, columns.get("password")));
+            }
+        };
+    }
+
+    /**
+     * JSON配列（[{"lastName": ..., "firstName": ..., "birthday": ..., "hireDate": ..., "password": ...}, ...]）を要素単位で読み込む
+     */
+    public Iterator<EmployeeImportRow> readJson(InputStream input) {
+        try {
+            JsonParser parser = objectMapper.getFactory().createParser(input);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new AttendanceException(AttendanceException.INVALID_REQUEST, "JSONは配列で指定してください");
+            }
+            parser.nextToken();
+            MappingIterator<JsonRow> values = objectMapper.readerFor(JsonRow.class).readValues(parser);
+            return new Iterator<>() {
+                private int rowNumber;
+
+                @Override
+                public boolean hasNext() {
+                    return values.hasNext();
+                }
+
+                @Override
+                public EmployeeImportRow next() {
+                    JsonRow row = values.next();
+                    return new EmployeeImportRow(++rowNumber, row.lastName(), row.firstName(), row.birthday(),
+                            row.hireDate(), row.password());
+                }
+            };
+        } catch (IOException e) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "JSONの形式が正しくありません", e);
+        }
+    }
+
+    private PreparedRow validate(EmployeeImportRow row) {
+        if (row.password() == null || row.password().length() < MIN_PASSWORD_LENGTH) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST,
+                    "パスワードは" + MIN_PASSWORD_LENGTH + "文字以上で入力してください");
+        }
+        if (row.hireDate() == null || row.hireDate().isBlank()) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "入社日は必須です");
+        }
+        LocalDate hireDate = parseDate(row.hireDate(), "入社日");
+        LocalDate birthday = row.birthday() == null || row.birthday().isBlank()
+                ? null : parseDate(row.birthday(), "生年月日");
+        return new PreparedRow(row.rowNumber(), trimToNull(row.lastName()), trimToNull(row.firstName()),
+                birthday, hireDate, row.password());
+    }
+
+    /**
+     * 1チャンク分を登録する
+     * @return 1件以上登録した場合 true
+     */
+    private boolean importChunk(List<PreparedRow> chunk, List<EmployeeImportResult> results) {
+        List<CompletableFuture<String>> hashes = chunk.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> authService.encodePassword(row.password()), hasher))
+                .toList();
+        List<NewEmployee> employees = assignCodes(chunk);
+        for (int i = 0; i < employees.size(); i++) {
+            employees.get(i).passwordHash = hashes.get(i).join();
+        }
+
+        try {
+            insertAndPublish(employees, results);
+            return true;
+        } catch (RuntimeException e) {
+            if (employees.size() == 1) {
+                NewEmployee employee = employees.get(0);
+                log.warn("[Onboarding] row {} failed: {}", employee.row.rowNumber(), e.getMessage());
+                results.add(EmployeeImportResult.failed(employee.row.rowNumber(), INSERT_FAILED,
+                        "登録に失敗しました: " + e.getMessage()));
+                return false;
+            }
+            log.warn("[Onboarding] chunk of {} rows failed, retrying row by row: {}", employees.size(), e.getMessage());
+        }
+
+        boolean inserted = false;
+        for (NewEmployee employee : employees) {
+            try {
+                insertAndPublish(List.of(employee), results);
+                inserted = true;
+            } catch (RuntimeException e) {
+                log.warn("[Onboarding] row {} failed: {}", employee.row.rowNumber(), e.getMessage());
+                results.add(EmployeeImportResult.failed(employee.row.rowNumber(), INSERT_FAILED,
+                        "登録に失敗しました: " + e.getMessage()));
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * 社員コードとユーザー名（emp + 番号）を割り当てる
+     * ユーザー名が既に使われている場合は、その行だけ社員コードを採番し直す。
+     */
+    private List<NewEmployee> assignCodes(List<PreparedRow> chunk) {
+        List<String> codes = employeeCodeAllocator.allocate(chunk.size());
+        List<String> usernames = codes.stream().map(EmployeeOnboardingService::usernameFor).toList();
+        Set<String> taken = new HashSet<>(userAccountRepository.findExistingUsernames(usernames));
+
+        List<NewEmployee> employees = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String code = codes.get(i);
+            String username = usernames.get(i);
+            while (taken.contains(username) || userAccountRepository.findByUsername(username).isPresent()) {
+                log.warn("[Onboarding] username {} is already in use, reallocating", username);
+                taken.remove(username);
+                code = employeeCodeAllocator.allocate();
+                username = usernameFor(code);
+            }
+            employees.add(new NewEmployee(chunk.get(i), code, username));
+        }
+        return employees;
+    }
+
+    private void insertAndPublish(List<NewEmployee> employees, List<EmployeeImportResult> results) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Map<String, EmployeeSummary> created = tx.execute(status -> insert(employees));
+        for (NewEmployee employee : employees) {
+            EmployeeSummary summary = created.get(employee.code);
+            employeeSearchIndex.upsert(summary);
+            results.add(EmployeeImportResult.succeeded(employee.row.rowNumber(), summary.employeeId(),
+                    employee.code, employee.username));
+        }
+    }
+
+    private Map<String, EmployeeSummary> insert(List<NewEmployee> employees) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int paidLeaveBaseDays = new Employee().getPaidLeaveBaseDays();
+
+        jdbcTemplate.batchUpdate(INSERT_EMPLOYEE, employees, employees.size(), (ps, employee) -> {
+            PreparedRow row = employee.row;
+            ps.setString(1, employee.code);
+            ps.setString(2, row.lastName());
+            ps.setString(3, row.firstName());
+            if (row.birthday() != null) {
+                ps.setDate(4, Date.valueOf(row.birthday()));
+            } else {
+                ps.setNull(4, Types.DATE);
+            }
+            ps.setDate(5, Date.valueOf(row.hireDate()));
+            ps.setInt(6, Employee.toMonthDay(row.hireDate()));
+            ps.setInt(7, paidLeaveBaseDays);
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        });
+
+        Map<String, EmployeeSummary> created = new HashMap<>();
+        for (EmployeeSummary summary : employeeRepository.findSummariesByCodes(
+                employees.stream().map(employee -> employee.code).toList())) {
+            created.put(summary.employeeCode(), summary);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ACCOUNT, employees, employees.size(), (ps, employee) -> {
+            ps.setString(1, employee.username);
+            ps.setString(2, employee.passwordHash);
+            ps.setString(3, UserAccount.UserRole.EMPLOYEE.name());
+            ps.setLong(4, created.get(employee.code).employeeId());
+        });
+
+        // 休暇残数は全種別を作成する（有休は基本付与日数、その他は付与されるまで0日）
+        List<Object[]> balances = new ArrayList<>(employees.size() * LeaveType.values().length);
+        for (NewEmployee employee : employees) {
+            for (LeaveType type : LeaveType.values()) {
+                BigDecimal days = type == LeaveType.PAID_LEAVE ? BigDecimal.valueOf(paidLeaveBaseDays) : BigDecimal.ZERO;
+                balances.add(new Object[]{created.get(employee.code).employeeId(), type, days});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_BALANCE, balances, balances.size(), (ps, balance) -> {
+            ps.setLong(1, (Long) balance[0]);
+            ps.setString(2, ((LeaveType) balance[1]).name());
+            ps.setBigDecimal(3, (BigDecimal) balance[2]);
+            ps.setBigDecimal(4, (BigDecimal) balance[2]);
+            ps.setTimestamp(5, now);
+        });
+        return created;
+    }
+
+    private static String usernameFor(String employeeCode) {
+        // EMP001 -> emp1（画面からの登録と同じ形式）
+        return "emp" + Long.parseLong(employeeCode.substring(3));
+    }
+
+    private static LocalDate parseDate(String value, String label) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, label + "の形式が正しくありません（yyyy-MM-dd）");
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String column(List<String> values, Integer index) {
+        return index != null && index < values.size() ? values.get(index) : null;
+    }
+
+    static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    record JsonRow(String lastName, String firstName, String birthday, String hireDate, String password) {
+    }
+
+    private record PreparedRow(int rowNumber, String lastName, String firstName, LocalDate birthday,
+                               LocalDate hireDate, String password) {
+    }
+
+    private static final class NewEmployee {
+        private final PreparedRow row;
+        private final String code;
+        private final String username;
+        private String passwordHash;
+
+        private NewEmployee(PreparedRow row, String code, String username) {
+            this.row = row;
+            this.code = code;
+            this.username = username;
+        }
+    }
+}
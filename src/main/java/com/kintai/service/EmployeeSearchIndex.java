@@ -0,0 +1,254 @@
+package com.kintai.service;
+
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.event.EmployeeChangedEvent;
+import com.kintai.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 社員の検索インデックス（メモリ内）
+ * 社員コード・氏名（漢字）・ふりがなを正規化（全角/半角・大文字/小文字・カタカナ/ひらがなを統一）し、
+ * 1文字・2文字のn-gramから社員IDへの転置索引を作る。
+ * 検索語のn-gramの積集合で候補を絞り、部分一致を確認したうえで前方一致を優先して返す。
+ * 従業員の登録・更新・削除はコミット後のイベントで反映する。
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    /**
+     * 全社員からインデックスを作り直す（起動時）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<EmployeeSummary> summaries = employeeRepository.findAllSummaries();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+            summaries.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[EmployeeSearchIndex] indexed {} employees", summaries.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.removed()) {
+            remove(event.employeeId());
+            return;
+        }
+        List<EmployeeSummary> summaries = employeeRepository.findSummariesByIds(List.of(event.employeeId()));
+        if (summaries.isEmpty()) {
+            remove(event.employeeId());
+        } else {
+            upsert(summaries.get(0));
+        }
+    }
+
+    public void upsert(EmployeeSummary summary) {
+        lock.writeLock().lock();
+        try {
+            unindex(summary.employeeId());
+            put(summary);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long employeeId) {
+        lock.writeLock().lock();
+        try {
+            unindex(employeeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 社員コード・氏名・ふりがなで検索する
+     * @param query 検索語（1文字以上）
+     * @param activeOnly 在籍者のみに絞る場合 true
+     * @param limit 最大件数
+     * @return 前方一致を優先し、社員コード順に並べた結果
+     */
+    public List<EmployeeSummary> search(String query, boolean activeOnly, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = candidates(normalized);
+            List<Entry> matched = new ArrayList<>();
+            for (Long id : candidates) {
+                Entry entry = entries.get(id);
+                if (entry == null || (activeOnly && !Boolean.TRUE.equals(entry.summary.isActive()))) {
+                    continue;
+                }
+                if (entry.contains(normalized)) {
+                    matched.add(entry);
+                }
+            }
+            return matched.stream()
+                    .sorted(Comparator.comparing((Entry entry) -> !entry.startsWith(normalized))
+                            .thenComparing(entry -> entry.code))
+                    .limit(limit)
+                    .map(entry -> entry.summary)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> candidates(String normalized) {
+        if (normalized.length() == 1) {
+            return postings.getOrDefault(normalized, Set.of());
+        }
+        // 2-gramの転置リストを短い順に積集合をとる
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(normalized, 2)) {
+            Set<Long> list = postings.get(gram);
+            if (list == null) {
+                return Set.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void put(EmployeeSummary summary) {
+        Entry entry = new Entry(summary);
+        entries.put(summary.employeeId(), entry);
+        for (String gram : entry.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(summary.employeeId());
+        }
+    }
+
+    private void unindex(Long employeeId) {
+        Entry previous = entries.remove(employeeId);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : previous.grams()) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(employeeId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * 検索用の正規化: NFKC（半角カナ・全角英数の統一）、小文字化、カタカナ→ひらがな、空白除去
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String nfkc = Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder sb = new StringBuilder(nfkc.length());
+        for (int i = 0; i < nfkc.length(); i++) {
+            char c = nfkc.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c >= 'ァ' && c <= 'ヶ') {
+                c = (char) (c - 0x60);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static Set<String> grams(String value, int n) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + n <= value.length(); i++) {
+            grams.add(value.substring(i, i + n));
+        }
+        return grams;
+    }
+
+    private static final class Entry {
+        private final EmployeeSummary summary;
+        private final String code;
+        private final List<String> keys;
+
+        private Entry(EmployeeSummary summary) {
+            this.summary = summary;
+            this.code = summary.employeeCode() != null ? summary.employeeCode() : "";
+            List<String> values = new ArrayList<>();
+            values.add(normalize(summary.employeeCode()));
+            values.add(normalize(join(summary.lastName(), summary.firstName())));
+            values.add(normalize(join(summary.lastKana(), summary.firstKana())));
+            // 名のみでの前方一致にも対応する
+            values.add(normalize(summary.firstName()));
+            values.add(normalize(summary.firstKana()));
+            this.keys = values.stream().filter(key -> !key.isEmpty()).distinct().toList();
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String key : keys) {
+                grams.addAll(EmployeeSearchIndex.grams(key, 1));
+                grams.addAll(EmployeeSearchIndex.grams(key, 2));
+            }
+            return grams;
+        }
+
+        private boolean contains(String query) {
+            return keys.stream().anyMatch(key -> key.contains(query));
+        }
+
+        private boolean startsWith(String query) {
+            return keys.stream().anyMatch(key -> key.startsWith(query));
+        }
+
+        private static String join(String first, String second) {
+            return (first != null ? first : "") + (second != null ? second : "");
+        }
+    }
+}
@@ -4,10 +4,13 @@ import com.kintai.dto.HolidayRequestDto;
 import com.kintai.entity.HolidayRequest;
 import com.kintai.entity.HolidayRequest.RequestType;
 import com.kintai.entity.HolidayRequest.Status;
+import com.kintai.event.RequestCategory;
+import com.kintai.event.RequestStatusChangedEvent;
 import com.kintai.repository.HolidayRequestRepository;
 import com.kintai.util.BusinessDayCalculator;
 import com.kintai.entity.WorkPatternChangeRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +36,9 @@ public class HolidayRequestService {
     @Autowired
     private WorkPatternChangeRequestService workPatternChangeRequestService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public HolidayRequestDto createHolidayWork(Long employeeId, LocalDate workDate, boolean takeComp, LocalDate compDate, String reason) {
         validateHoliday(employeeId, workDate, true); // 休日のみ
         if (takeComp) {
@@ -48,6 +54,7 @@ public class HolidayRequestService {
         req.setReason(reason);
         req.setStatus(Status.PENDING);
         HolidayRequest saved = repository.save(req);
+        publishStatusChanged(saved, null);
         HolidayRequestDto dto = HolidayRequestDto.from(saved);
         dto.setMessage("休日出勤を申請しました");
         return dto;
@@ -65,6 +72,7 @@ public class HolidayRequestService {
         req.setReason(reason);
         req.setStatus(Status.PENDING);
         HolidayRequest saved = repository.save(req);
+        publishStatusChanged(saved, null);
         HolidayRequestDto dto = HolidayRequestDto.from(saved);
         dto.setMessage("振替を申請しました");
         return dto;
@@ -83,7 +91,7 @@ public class HolidayRequestService {
     }
 
     public HolidayRequestDto approve(Long id, Long approverId) {
-        HolidayRequest req = repository.findById(id).orElseThrow(() -> new IllegalArgumentException("申請が見つかりません"));
+        HolidayRequest req = repository.findByIdForUpdate(id).orElseThrow(() -> new IllegalArgumentException("申請が見つかりません"));
         if (req.getStatus() != Status.PENDING) throw new IllegalStateException("承認できない状態です");
         req.setStatus(Status.APPROVED);
         req.setApproverId(approverId);
@@ -91,6 +99,7 @@ public class HolidayRequestService {
         
         // 承認時のカレンダー表示更新処理
         updateCalendarDisplayOnApproval(saved);
+        publishStatusChanged(saved, Status.PENDING);
         
         HolidayRequestDto dto = HolidayRequestDto.from(saved);
         dto.setMessage("承認しました");
@@ -98,17 +107,38 @@ public class HolidayRequestService {
     }
 
     public HolidayRequestDto reject(Long id, Long approverId, String comment) {
-        HolidayRequest req = repository.findById(id).orElseThrow(() -> new IllegalArgumentException("申請が見つかりません"));
+        HolidayRequest req = repository.findByIdForUpdate(id).orElseThrow(() -> new IllegalArgumentException("申請が見つかりません"));
         if (req.getStatus() != Status.PENDING) throw new IllegalStateException("却下できない状態です");
         req.setStatus(Status.REJECTED);
         req.setApproverId(approverId);
         req.setRejectionComment(comment);
         HolidayRequest saved = repository.save(req);
+        publishStatusChanged(saved, Status.PENDING);
         HolidayRequestDto dto = HolidayRequestDto.from(saved);
         dto.setMessage("却下しました");
         return dto;
     }
 
+    /**
+     * 申請中の休日出勤・振替申請をまとめて承認・却下する（一括承認用、状態の確認は呼び出し側）
+     */
+    public void decideBatch(List<HolidayRequest> requests, boolean approve, Long approverId, String comment) {
+        for (HolidayRequest req : requests) {
+            req.setStatus(approve ? Status.APPROVED : Status.REJECTED);
+            req.setApproverId(approverId);
+            if (!approve) {
+                req.setRejectionComment(comment);
+            }
+        }
+        repository.saveAll(requests);
+        for (HolidayRequest req : requests) {
+            if (approve) {
+                updateCalendarDisplayOnApproval(req);
+            }
+            publishStatusChanged(req, Status.PENDING);
+        }
+    }
+
     /**
      * 承認時のカレンダー表示更新処理
      * 休日出勤・振替出勤が承認されたら、カレンダーの休日表記を削除
@@ -224,4 +254,10 @@ public class HolidayRequestService {
     public long countByStatus(Status status) {
         return repository.countByStatus(status);
     }
+
+    private void publishStatusChanged(HolidayRequest request, Status previous) {
+        eventPublisher.publishEvent(new RequestStatusChangedEvent(RequestCategory.HOLIDAY,
+                request.getId(), request.getEmployeeId(),
+                previous != null ? previous.name() : null, request.getStatus().name()));
+    }
 }
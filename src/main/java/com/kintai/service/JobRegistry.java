@@ -0,0 +1,86 @@
+package com.kintai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 非同期ジョブの共通レジストリ
+ * レポート生成・休暇の一括付与・月次締め・一括退職のジョブを登録し、進捗の参照に使う。
+ * 完了後に保持期間を過ぎたジョブは定期実行で破棄する（新しいジョブの投入がなくても破棄される）。
+ */
+@Component
+public class JobRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(JobRegistry.class);
+
+    @Value("${kintai.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * レジストリに登録するジョブ
+     */
+    public interface Job {
+
+        String getJobId();
+
+        /** 完了日時（実行中・待ち状態はnull） */
+        LocalDateTime getFinishedAt();
+
+        /** 破棄時の後始末（生成結果のファイル削除など） */
+        default void discard() {
+        }
+    }
+
+    public <J extends Job> J register(J job) {
+        jobs.put(job.getJobId(), job);
+        return job;
+    }
+
+    /**
+     * ジョブを参照する（種類が異なるジョブIDは見つからない扱い）
+     */
+    public <J extends Job> Optional<J> find(String jobId, Class<J> type) {
+        if (jobId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(jobs.get(jobId)).filter(type::isInstance).map(type::cast);
+    }
+
+    /**
+     * 完了後に保持期間を過ぎたジョブを破棄する
+     * @return 破棄した件数
+     */
+    @Scheduled(cron = "${kintai.jobs.purge-cron:0 */5 * * * *}")
+    public int purgeExpired() {
+        return purgeFinishedBefore(LocalDateTime.now().minusMinutes(retentionMinutes));
+    }
+
+    int purgeFinishedBefore(LocalDateTime threshold) {
+        int purged = 0;
+        for (Job job : jobs.values()) {
+            LocalDateTime finishedAt = job.getFinishedAt();
+            if (finishedAt != null && finishedAt.isBefore(threshold) && jobs.remove(job.getJobId(), job)) {
+                try {
+                    job.discard();
+                } catch (RuntimeException e) {
+                    log.warn("[JobRegistry] failed to discard job={}: {}", job.getJobId(), e.getMessage());
+                }
+                purged++;
+            }
+        }
+        if (purged > 0) {
+            log.debug("[JobRegistry] purged {} finished jobs", purged);
+        }
+        return purged;
+    }
+}
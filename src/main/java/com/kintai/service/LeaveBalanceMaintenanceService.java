@@ -0,0 +1,141 @@
+package com.kintai.service;
+
+import com.kintai.entity.BatchCheckpoint;
+import com.kintai.entity.LeaveBalance;
+import com.kintai.entity.LeaveGrant;
+import com.kintai.entity.LeaveType;
+import com.kintai.repository.BatchCheckpointRepository;
+import com.kintai.repository.LeaveBalanceRepository;
+import com.kintai.repository.LeaveGrantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 休暇残数の整合性維持ジョブ
+ */
+@Service
+public class LeaveBalanceMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveBalanceMaintenanceService.class);
+
+    static final String EXPIRY_SWEEP_JOB = "leave-grant-expiry-sweep";
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private LeaveGrantRepository leaveGrantRepository;
+
+    @Autowired
+    private BatchCheckpointRepository batchCheckpointRepository;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${kintai.leave.grant-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${kintai.leave.expiry-lookback-days:365}")
+    private int expiryLookbackDays;
+
+    /**
+     * 申請中日数（pending_days）を申請データの合計と照合し、ずれていれば再計算する
+     * @return 修復した残数レコード件数
+     */
+    @Scheduled(cron = "${kintai.leave.pending-verification-cron:0 30 3 * * *}")
+    @Transactional
+    public int verifyPendingDays() {
+        List<LeaveBalance> mismatches = leaveBalanceRepository.findPendingDaysMismatches();
+        for (LeaveBalance balance : mismatches) {
+            log.warn("[LeaveBalance] pending_days mismatch: employeeId={}, leaveType={}, stored={}",
+                    balance.getEmployeeId(), balance.getLeaveType(), balance.getPendingDays());
+            leaveBalanceRepository.recalculatePendingDays(balance.getEmployeeId(), balance.getLeaveType());
+        }
+        if (!mismatches.isEmpty()) {
+            log.info("[LeaveBalance] repaired pending_days for {} balances", mismatches.size());
+        }
+        return mismatches.size();
+    }
+
+    /**
+     * 有効期限が切れた付与を残数へ反映する（毎日実行）
+     * 前回実行日以降に期限切れとなった付与を持つ従業員のみを対象に、チャンク単位で付与の未消化分を失効させる。
+     * 失効済みの付与は台帳で判別でき、台帳導入前の付与は付与履歴から再計算するため、途中で失敗した場合は
+     * 完了日を進めずに終了し、次回実行時に同じ範囲を先頭から再処理する（対象は前回完了日以降に失効した付与のみ）。
+     * @return 失効を反映した残数レコード件数
+     */
+    @Scheduled(cron = "${kintai.leave.expiry-sweep-cron:0 5 0 * * *}")
+    public int sweepExpiredGrants() {
+        return sweepExpiredGrants(LocalDate.now());
+    }
+
+    int sweepExpiredGrants(LocalDate today) {
+        BatchCheckpoint checkpoint = batchCheckpointRepository.findById(EXPIRY_SWEEP_JOB)
+                .orElseGet(() -> new BatchCheckpoint(EXPIRY_SWEEP_JOB));
+        // 前回の基準日の前日から再走査する（日付境界での取りこぼし防止）
+        LocalDate since = checkpoint.getCheckpointDate() != null
+                ? checkpoint.getCheckpointDate().minusDays(1)
+                : today.minusDays(expiryLookbackDays);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long startedAt = System.currentTimeMillis();
+        int recalculated = 0;
+        long lastId = 0L;
+        while (true) {
+            List<Long> employeeIds = leaveGrantRepository.findEmployeeIdsWithGrantsExpiredBetween(
+                    since, today, lastId, PageRequest.of(0, chunkSize));
+            if (employeeIds.isEmpty()) {
+                break;
+            }
+            Integer count = tx.execute(status -> recalculateChunk(employeeIds, since, today));
+            recalculated += count != null ? count : 0;
+            lastId = employeeIds.get(employeeIds.size() - 1);
+        }
+
+        checkpoint.setCheckpointDate(today);
+        batchCheckpointRepository.save(checkpoint);
+
+        if (recalculated > 0) {
+            log.info("[LeaveBalance] expired grants swept: {} balances recalculated in {} ms (since {})",
+                    recalculated, System.currentTimeMillis() - startedAt, since);
+        }
+        return recalculated;
+    }
+
+    private int recalculateChunk(List<Long> employeeIds, LocalDate since, LocalDate today) {
+        Set<Map.Entry<Long, LeaveType>> affected = new LinkedHashSet<>();
+        Set<Map.Entry<Long, LeaveType>> legacy = new LinkedHashSet<>();
+        for (LeaveGrant grant : leaveGrantRepository.findGrantsExpiredBetween(employeeIds, since, today)) {
+            Map.Entry<Long, LeaveType> target = Map.entry(grant.getEmployeeId(), grant.getLeaveType());
+            affected.add(target);
+            // 台帳で管理している付与は未消化分のみ失効させる。台帳導入前の付与は残数を再計算する
+            if (!leaveLedgerService.expireGrant(grant)) {
+                legacy.add(target);
+            }
+        }
+        for (Map.Entry<Long, LeaveType> target : legacy) {
+            leaveRequestService.recalculateBalanceFromGrants(target.getKey(), target.getValue(), today);
+        }
+        return affected.size();
+    }
+}
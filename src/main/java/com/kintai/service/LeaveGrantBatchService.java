@@ -0,0 +1,282 @@
+package com.kintai.service;
+
+import com.kintai.entity.LeaveType;
+import com.kintai.repository.LeaveBalanceRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 休暇の一括付与サービス
+ * 対象従業員をチャンク単位に分割し、付与履歴の一括INSERTと残数の一括UPDATEで処理する。
+ * チャンクごとにトランザクションを分け、進捗をジョブとして参照できるようにする。
+ */
+@Service
+public class LeaveGrantBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveGrantBatchService.class);
+
+    private static final String SELECT_ACTIVE_EMPLOYEE_IDS =
+            "SELECT employee_id FROM employees WHERE is_active = TRUE AND employee_id > ? ORDER BY employee_id";
+
+    private static final String COUNT_ACTIVE_EMPLOYEES =
+            "SELECT COUNT(*) FROM employees WHERE is_active = TRUE";
+
+    private static final String INSERT_MISSING_BALANCES =
+            "INSERT INTO leave_balances (employee_id, leave_type, total_days, used_days, remaining_days, pending_days, updated_at) " +
+            "SELECT e.employee_id, :leaveType, %1$s, 0, %1$s, 0, :now FROM employees e " +
+            "WHERE e.employee_id IN (:employeeIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM leave_balances lb WHERE lb.employee_id = e.employee_id AND lb.leave_type = :leaveType)";
+
+    private static final String INSERT_GRANT =
+            "INSERT INTO leave_grants (employee_id, leave_type, granted_days, granted_at, expires_at, granted_by, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Value("${kintai.leave.grant-chunk-size:1000}")
+    private int chunkSize;
+
+    // 付与ジョブは直列に実行する（同一従業員への同時付与で残数更新が競合しないように）
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leave-grant-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 在籍中の全従業員へ付与する（同期実行）
+     */
+    public GrantJob grantToAllActive(LeaveType leaveType, BigDecimal days, LocalDate grantedAt,
+                                     LocalDate expiresAt, Long grantedBy) {
+        GrantJob job = registerJob(leaveType, countActiveEmployees());
+        run(job, null, days, grantedAt, expiresAt, grantedBy);
+        return job;
+    }
+
+    /**
+     * 在籍中の全従業員へ付与する（非同期実行）。進捗は {@link #findJob(String)} で参照する。
+     */
+    public GrantJob submitGrantToAllActive(LeaveType leaveType, BigDecimal days, LocalDate grantedAt,
+                                           LocalDate expiresAt, Long grantedBy) {
+        BigDecimal normalized = leaveRequestService.normalizeGrantDays(days);
+        GrantJob job = registerJob(leaveType, countActiveEmployees());
+        executor.submit(() -> run(job, null, normalized, grantedAt, expiresAt, grantedBy));
+        return job;
+    }
+
+    /**
+     * 指定従業員へ付与する（同期実行）
+     */
+    public GrantJob grantToEmployees(Collection<Long> employeeIds, LeaveType leaveType, BigDecimal days,
+                                     LocalDate grantedAt, LocalDate expiresAt, Long grantedBy) {
+        List<Long> targets = new ArrayList<>(new LinkedHashSet<>(employeeIds));
+        GrantJob job = registerJob(leaveType, targets.size());
+        run(job, targets, days, grantedAt, expiresAt, grantedBy);
+        return job;
+    }
+
+    public Optional<GrantJob> findJob(String jobId) {
+        return jobRegistry.find(jobId, GrantJob.class);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(GrantJob job, List<Long> explicitTargets, BigDecimal days, LocalDate grantedAt,
+                     LocalDate expiresAt, Long grantedBy) {
+        job.status = GrantJob.Status.RUNNING;
+        long startedAt = System.currentTimeMillis();
+        try {
+            BigDecimal normalized = leaveRequestService.normalizeGrantDays(days);
+            LocalDate grantDate = grantedAt != null ? grantedAt : LocalDate.now();
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+            if (explicitTargets != null) {
+                for (int from = 0; from < explicitTargets.size(); from += chunkSize) {
+                    List<Long> chunk = explicitTargets.subList(from, Math.min(from + chunkSize, explicitTargets.size()));
+                    tx.executeWithoutResult(status -> grantChunk(chunk, job.leaveType, normalized, grantDate, expiresAt, grantedBy));
+                    job.processed.addAndGet(chunk.size());
+                }
+            } else {
+                long lastId = 0L;
+                while (true) {
+                    final long after = lastId;
+                    List<Long> chunk = jdbcTemplate.query(con -> {
+                        var ps = con.prepareStatement(SELECT_ACTIVE_EMPLOYEE_IDS);
+                        ps.setLong(1, after);
+                        ps.setMaxRows(chunkSize);
+                        return ps;
+                    }, (rs, rowNum) -> rs.getLong(1));
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    tx.executeWithoutResult(status -> grantChunk(chunk, job.leaveType, normalized, grantDate, expiresAt, grantedBy));
+                    job.processed.addAndGet(chunk.size());
+                    lastId = chunk.get(chunk.size() - 1);
+                    log.debug("[LeaveGrant] job={} progress {}/{}", job.jobId, job.processed.get(), job.total);
+                }
+            }
+            job.status = GrantJob.Status.COMPLETED;
+            log.info("[LeaveGrant] job={} type={} granted to {} employees in {} ms",
+                    job.jobId, job.leaveType, job.processed.get(), System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            job.status = GrantJob.Status.FAILED;
+            job.message = e.getMessage();
+            log.error("[LeaveGrant] job={} failed after {} employees: {}", job.jobId, job.processed.get(), e.getMessage());
+            throw e;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void grantChunk(List<Long> employeeIds, LeaveType leaveType, BigDecimal days, LocalDate grantedAt,
+                            LocalDate expiresAt, Long grantedBy) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // 残数レコードが未作成の従業員は初期値で作成（有休は基本付与日数）
+        String initialDays = leaveType == LeaveType.PAID_LEAVE ? "e.paid_leave_base_days" : "0";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("leaveType", leaveType.name())
+                .addValue("employeeIds", employeeIds)
+                .addValue("now", now);
+        namedParameterJdbcTemplate.update(String.format(INSERT_MISSING_BALANCES, initialDays), params);
+
+        Date grantDate = Date.valueOf(grantedAt);
+        Date expiresDate = expiresAt != null ? Date.valueOf(expiresAt) : null;
+        jdbcTemplate.batchUpdate(INSERT_GRANT, employeeIds, employeeIds.size(), (ps, employeeId) -> {
+            ps.setLong(1, employeeId);
+            ps.setString(2, leaveType.name());
+            ps.setBigDecimal(3, days);
+            ps.setDate(4, grantDate);
+            ps.setDate(5, expiresDate);
+            if (grantedBy != null) {
+                ps.setLong(6, grantedBy);
+            } else {
+                ps.setNull(6, Types.BIGINT);
+            }
+            ps.setTimestamp(7, now);
+        });
+
+        // 既に期限切れの付与は履歴のみ記録し、残数には加算しない
+        if (expiresAt == null || !expiresAt.isBefore(LocalDate.now())) {
+            leaveLedgerService.open(employeeIds, leaveType);
+            leaveBalanceRepository.addGrantDays(employeeIds, leaveType, days, now.toLocalDateTime());
+            leaveLedgerService.recordBatchGrants(employeeIds, leaveType, grantedAt, now.toLocalDateTime());
+        }
+    }
+
+    private long countActiveEmployees() {
+        Long count = jdbcTemplate.queryForObject(COUNT_ACTIVE_EMPLOYEES, Long.class);
+        return count == null ? 0L : count;
+    }
+
+    private GrantJob registerJob(LeaveType leaveType, long total) {
+        return jobRegistry.register(new GrantJob(UUID.randomUUID().toString(), leaveType, total));
+    }
+
+    /**
+     * 一括付与ジョブの進捗
+     */
+    public static class GrantJob implements JobRegistry.Job {
+
+        public enum Status {
+            QUEUED,
+            RUNNING,
+            COMPLETED,
+            FAILED
+        }
+
+        private final String jobId;
+        private final LeaveType leaveType;
+        private final long total;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        GrantJob(String jobId, LeaveType leaveType, long total) {
+            this.jobId = jobId;
+            this.leaveType = leaveType;
+            this.total = total;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public LeaveType getLeaveType() {
+            return leaveType;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public int getProcessed() {
+            return processed.get();
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.kintai.service;
+
+import com.kintai.dto.LeaveGrantRemainder;
+import com.kintai.entity.LeaveGrant;
+import com.kintai.entity.LeaveLedgerEntry;
+import com.kintai.entity.LeaveLedgerEntryType;
+import com.kintai.entity.LeaveLedgerSnapshot;
+import com.kintai.entity.LeaveRequest;
+import com.kintai.entity.LeaveType;
+import com.kintai.repository.LeaveBalanceRepository;
+import com.kintai.repository.LeaveLedgerEntryRepository;
+import com.kintai.repository.LeaveLedgerSnapshotRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 休暇台帳サービス
+ * 残数の増減を追記のみの台帳に記帳し、定期的なスナップショットと合わせて任意日の残数を求める。
+ * 取得は期限のない付与に紐づかない残数（基本付与日数など）から先に消化し、足りない分を付与日の古い付与から
+ * 消化したものとして付与ごとに記帳する。失効時は付与の未消化分のみを失効させる。
+ * 台帳は残数（leave_balances）と同じトランザクションで記帳し、現在の残数は引き続き leave_balances を正とする。
+ */
+@Service
+@Transactional
+public class LeaveLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveLedgerService.class);
+
+    static final String SOURCE_LEAVE_REQUEST = "LEAVE_REQUEST";
+    static final String SOURCE_LEAVE_GRANT = "LEAVE_GRANT";
+    static final String SOURCE_RECALCULATION = "RECALCULATION";
+    static final String SOURCE_RETIREMENT = "RETIREMENT";
+
+    /** 開始残数 = 現在の残数 - 記帳済みの合計（同時に開始した記帳を二重計上しないため1文で算出する） */
+    private static final String INSERT_OPENING_SNAPSHOTS =
+            "INSERT INTO leave_ledger_snapshots (employee_id, leave_type, snapshot_date, last_entry_id, balance, created_at) " +
+            "SELECT lb.employee_id, lb.leave_type, :today, 0, " +
+            "lb.remaining_days - COALESCE((SELECT SUM(e.days) FROM leave_ledger_entries e " +
+            "WHERE e.employee_id = lb.employee_id AND e.leave_type = lb.leave_type), 0), :now " +
+            "FROM leave_balances lb " +
+            "WHERE lb.employee_id IN (:employeeIds) AND lb.leave_type = :leaveType " +
+            "AND NOT EXISTS (SELECT 1 FROM leave_ledger_snapshots s " +
+            "WHERE s.employee_id = lb.employee_id AND s.leave_type = lb.leave_type)";
+
+    @Autowired
+    private LeaveLedgerEntryRepository entryRepository;
+
+    @Autowired
+    private LeaveLedgerSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${kintai.leave.ledger-snapshot-min-entries:20}")
+    private long snapshotMinEntries;
+
+    @Value("${kintai.leave.ledger-snapshot-lag-minutes:10}")
+    private long snapshotLagMinutes;
+
+    /**
+     * 台帳未開始の残数について、変更前の残数で開始スナップショットを作成する
+     * 残数を変更する前に呼び出すこと。
+     * 同時に開始した別トランザクションと重複した場合は一意制約違反となるため、作成済みの分を除いて作成し直す
+     * （一意制約違反は文単位で取り消されるため、呼び出し元のトランザクションはそのまま続行できる）。
+     */
+    public void open(Collection<Long> employeeIds, LeaveType leaveType) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return;
+        }
+        // 同じトランザクションで保存済みの残数・記帳をJDBCの文から参照できるようにする
+        entityManager.flush();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("employeeIds", employeeIds)
+                .addValue("leaveType", leaveType.name())
+                .addValue("today", LocalDate.now())
+                .addValue("now", LocalDateTime.now());
+        try {
+            namedParameterJdbcTemplate.update(INSERT_OPENING_SNAPSHOTS, params);
+        } catch (DuplicateKeyException e) {
+            log.debug("[LeaveLedger] opening snapshot created concurrently; retrying for the rest: {}", e.getMessage());
+            namedParameterJdbcTemplate.update(INSERT_OPENING_SNAPSHOTS, params);
+        }
+    }
+
+    /**
+     * 付与を記帳する
+     */
+    public void recordGrant(LeaveGrant grant) {
+        entryRepository.save(new LeaveLedgerEntry(grant.getEmployeeId(), grant.getLeaveType(),
+                LeaveLedgerEntryType.GRANT, grant.getGrantedDays(), grant.getId(), SOURCE_LEAVE_GRANT, grant.getId()));
+    }
+
+    /**
+     * 一括付与で作成された付与履歴を記帳する
+     * @param createdSince 一括付与の開始時刻
+     */
+    public int recordBatchGrants(Collection<Long> employeeIds, LeaveType leaveType, LocalDate grantedAt,
+                                 LocalDateTime createdSince) {
+        return entryRepository.recordGrantEntries(employeeIds, leaveType, grantedAt,
+                createdSince.truncatedTo(ChronoUnit.SECONDS), LocalDate.now(), LocalDateTime.now());
+    }
+
+    /**
+     * 退職による残数の取り消しを一括で記帳する（残数を0にする前に呼び出すこと）
+     */
+    public int recordRetirements(Collection<Long> employeeIds) {
+        return entryRepository.recordRetirementEntries(employeeIds, LocalDate.now(), LocalDateTime.now());
+    }
+
+    /**
+     * 取得を記帳する（残数を減算した後に呼び出すこと）
+     */
+    public void recordConsumption(LeaveRequest request) {
+        recordConsumptions(List.of(request));
+    }
+
+    /**
+     * 同じ従業員・休暇種別の取得をまとめて記帳する（全件分の残数を減算した後に呼び出すこと）
+     * 付与に紐づかない残数（基本付与日数・台帳導入前の付与など、最も古く期限のない残数）から先に消化し、
+     * 足りない分を休暇開始日に有効な付与から付与日の古い順に消化する。
+     */
+    public void recordConsumptions(List<LeaveRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return;
+        }
+        Long employeeId = requests.get(0).getEmployeeId();
+        LeaveType leaveType = requests.get(0).getLeaveType();
+        // 減算前の残数のうち、付与に紐づく未消化日数を除いた分が付与に紐づかない残数
+        BigDecimal before = leaveBalanceRepository.findRemainingDays(employeeId, leaveType).orElse(BigDecimal.ZERO)
+                .add(requests.stream().map(LeaveRequest::getDays).reduce(BigDecimal.ZERO, BigDecimal::add));
+        BigDecimal untracked = before.subtract(entryRepository.sumGrantLinked(employeeId, leaveType)).max(BigDecimal.ZERO);
+
+        for (LeaveRequest request : requests) {
+            BigDecimal remaining = request.getDays();
+            BigDecimal fromUntracked = remaining.min(untracked);
+            if (fromUntracked.signum() > 0) {
+                entryRepository.save(new LeaveLedgerEntry(employeeId, leaveType, LeaveLedgerEntryType.CONSUME,
+                        fromUntracked.negate(), null, SOURCE_LEAVE_REQUEST, request.getId()));
+                remaining = remaining.subtract(fromUntracked);
+                untracked = untracked.subtract(fromUntracked);
+            }
+            LocalDate date = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
+            for (LeaveGrantRemainder grant : remaining.signum() > 0
+                    ? entryRepository.findGrantRemainders(employeeId, leaveType, date) : List.<LeaveGrantRemainder>of()) {
+                if (remaining.signum() <= 0) {
+                    break;
+                }
+                BigDecimal portion = remaining.min(grant.remaining());
+                entryRepository.save(new LeaveLedgerEntry(employeeId, leaveType, LeaveLedgerEntryType.CONSUME,
+                        portion.negate(), grant.grantId(), SOURCE_LEAVE_REQUEST, request.getId()));
+                remaining = remaining.subtract(portion);
+            }
+            if (remaining.signum() > 0) {
+                entryRepository.save(new LeaveLedgerEntry(employeeId, leaveType, LeaveLedgerEntryType.CONSUME,
+                        remaining.negate(), null, SOURCE_LEAVE_REQUEST, request.getId()));
+            }
+        }
+    }
+
+    /**
+     * 取得の取消を記帳する（取得時に消化した付与へ戻す）
+     * 戻し先の付与が既に失効処理済みの場合は、戻した日数をその場で失効させて残数からも除く。
+     */
+    public void recordRestoration(LeaveRequest request) {
+        List<LeaveLedgerEntry> consumed = entryRepository.findBySourceTypeAndSourceIdAndEntryType(
+                SOURCE_LEAVE_REQUEST, request.getId(), LeaveLedgerEntryType.CONSUME);
+        if (consumed.isEmpty()) {
+            // 台帳導入前の取得は付与に紐づけずに戻す
+            entryRepository.save(new LeaveLedgerEntry(request.getEmployeeId(), request.getLeaveType(),
+                    LeaveLedgerEntryType.RESTORE, request.getDays(), null, SOURCE_LEAVE_REQUEST, request.getId()));
+            return;
+        }
+        for (LeaveLedgerEntry entry : consumed) {
+            BigDecimal days = entry.getDays().negate();
+            entryRepository.save(new LeaveLedgerEntry(entry.getEmployeeId(), entry.getLeaveType(),
+                    LeaveLedgerEntryType.RESTORE, days, entry.getGrantId(), SOURCE_LEAVE_REQUEST, request.getId()));
+            if (entry.getGrantId() != null
+                    && entryRepository.existsByGrantIdAndEntryType(entry.getGrantId(), LeaveLedgerEntryType.EXPIRE)) {
+                entryRepository.save(new LeaveLedgerEntry(entry.getEmployeeId(), entry.getLeaveType(),
+                        LeaveLedgerEntryType.EXPIRE, days.negate(), entry.getGrantId(), SOURCE_LEAVE_GRANT, entry.getGrantId()));
+                leaveBalanceRepository.expireDays(entry.getEmployeeId(), entry.getLeaveType(), days);
+            }
+        }
+    }
+
+    /**
+     * 付与の未消化分を失効させ、残数から減算する
+     * @return 台帳で管理している付与の場合 true（台帳導入前の付与は false を返し、呼び出し側で再計算する）
+     */
+    public boolean expireGrant(LeaveGrant grant) {
+        if (!entryRepository.existsByGrantIdAndEntryType(grant.getId(), LeaveLedgerEntryType.GRANT)) {
+            return false;
+        }
+        if (entryRepository.existsByGrantIdAndEntryType(grant.getId(), LeaveLedgerEntryType.EXPIRE)) {
+            return true;
+        }
+        BigDecimal unconsumed = entryRepository.sumByGrantId(grant.getId()).max(BigDecimal.ZERO);
+        // 未消化0日でも失効済みの印として記帳する
+        entryRepository.save(new LeaveLedgerEntry(grant.getEmployeeId(), grant.getLeaveType(),
+                LeaveLedgerEntryType.EXPIRE, unconsumed.negate(), grant.getId(), SOURCE_LEAVE_GRANT, grant.getId()));
+        if (unconsumed.signum() > 0) {
+            leaveBalanceRepository.expireDays(grant.getEmployeeId(), grant.getLeaveType(), unconsumed);
+        }
+        return true;
+    }
+
+    /**
+     * 付与に紐づかない残数の増減（再計算・退職時のリセットなど）を記帳する
+     */
+    public void recordAdjustment(Long employeeId, LeaveType leaveType, BigDecimal delta, String sourceType) {
+        if (delta == null || delta.signum() == 0) {
+            return;
+        }
+        entryRepository.save(new LeaveLedgerEntry(employeeId, leaveType, LeaveLedgerEntryType.ADJUST,
+                delta, null, sourceType, employeeId));
+    }
+
+    /**
+     * 指定日終了時点の残数
+     * @return 台帳開始前の日付の場合は空
+     */
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> balanceAt(Long employeeId, LeaveType leaveType, LocalDate date) {
+        List<LeaveLedgerSnapshot> snapshots = snapshotRepository.findLatest(employeeId, leaveType, date, PageRequest.of(0, 1));
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+        LeaveLedgerSnapshot snapshot = snapshots.get(0);
+        BigDecimal tail = entryRepository.sumAfter(employeeId, leaveType, snapshot.getLastEntryId(), date);
+        return Optional.of(snapshot.getBalance().add(tail));
+    }
+
+    /**
+     * 直近の記帳（新しい順）
+     */
+    @Transactional(readOnly = true)
+    public List<LeaveLedgerEntry> recentEntries(Long employeeId, LeaveType leaveType, int limit) {
+        return entryRepository.findByEmployeeIdAndLeaveTypeOrderByEntryIdDesc(employeeId, leaveType,
+                PageRequest.of(0, limit));
+    }
+
+    /**
+     * 記帳が溜まった残数のスナップショットを作成する（毎日実行）
+     * 作成から一定時間が経った（コミット済みとみなせる）記帳のみをスナップショットに含める。
+     * @return 作成したスナップショット件数
+     */
+    @Scheduled(cron = "${kintai.leave.ledger-snapshot-cron:0 45 3 * * *}")
+    public int compactSnapshots() {
+        return compactSnapshots(snapshotMinEntries, LocalDateTime.now().minusMinutes(snapshotLagMinutes));
+    }
+
+    int compactSnapshots(long minEntries, LocalDateTime committedBefore) {
+        int created = snapshotRepository.compact(minEntries, LocalDate.now(), committedBefore, LocalDateTime.now());
+        if (created > 0) {
+            log.info("[LeaveLedger] created {} snapshots", created);
+        }
+        return created;
+    }
+}
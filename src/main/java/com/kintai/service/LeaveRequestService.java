@@ -1,11 +1,15 @@
 package com.kintai.service;
 
+import com.kintai.dto.LeaveBalanceAggregate;
 import com.kintai.dto.LeaveBalanceView;
 import com.kintai.dto.LeaveRequestDto;
 import com.kintai.entity.*;
+import com.kintai.event.LeaveRequestStatusChangedEvent;
 import com.kintai.exception.VacationException;
 import com.kintai.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
@@ -15,8 +19,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 import com.kintai.util.BusinessDayCalculator;
 
 /**
@@ -29,6 +37,9 @@ public class LeaveRequestService {
     private static final BigDecimal HALF_DAY = new BigDecimal("0.5");
     private static final Logger log = LoggerFactory.getLogger(LeaveRequestService.class);
 
+    private static final String INSERT_APPROVAL =
+            "INSERT INTO approvals (target_type, target_id, status, approver_id, comment, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private LeaveRequestRepository leaveRequestRepository;
 
@@ -41,6 +52,15 @@ public class LeaveRequestService {
     @Autowired
     private ApprovalRepository approvalRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
@@ -99,6 +119,7 @@ public class LeaveRequestService {
             );
 
             LeaveRequest saved = leaveRequestRepository.save(leaveRequest);
+            eventPublisher.publishEvent(new LeaveRequestStatusChangedEvent(saved, null));
 
             LeaveRequestDto.LeaveData data = toDto(saved);
             String message = "休暇申請が完了しました";
@@ -120,7 +141,7 @@ public class LeaveRequestService {
                                         Long approverId,
                                         String comment) {
         try {
-            LeaveRequest request = leaveRequestRepository.findById(leaveRequestId)
+            LeaveRequest request = leaveRequestRepository.findByIdForUpdate(leaveRequestId)
                     .orElseThrow(() -> new VacationException(VacationException.VACATION_NOT_FOUND, "申請が見つかりません"));
 
             LeaveStatus current = request.getStatus();
@@ -137,6 +158,7 @@ public class LeaveRequestService {
 
             LeaveRequest saved = leaveRequestRepository.save(request);
             recordApprovalHistory(saved, newStatus, approverId, comment);
+            eventPublisher.publishEvent(new LeaveRequestStatusChangedEvent(saved, current));
 
             LeaveRequestDto.LeaveData data = toDto(saved);
             LeaveRequestDto response = new LeaveRequestDto(true,
@@ -151,19 +173,128 @@ public class LeaveRequestService {
         }
     }
 
+    /**
+     * 申請中の休暇申請をまとめて承認・却下する（一括承認用、申請は行ロックを取得して読み込んでおくこと）
+     * 申請中でなくなっていた申請は残数を更新せずエラーとして返す。
+     * 残数は従業員・休暇種別ごとに合計日数で1回更新し、残数が足りない場合のみ申請単位で消化する。
+     * 承認履歴は個別承認と同じく、状態を変更した申請についてのみ記録する。
+     * @param requests 休暇申請（作成日時の古い順。残数不足時は古い申請から消化する）
+     * @return 状態の変更や残数不足などで処理できなかった申請IDとエラー
+     */
+    public Map<Long, VacationException> decideBatch(List<LeaveRequest> requests,
+                                                    LeaveStatus newStatus,
+                                                    Long approverId,
+                                                    String comment) {
+        if (newStatus != LeaveStatus.APPROVED && newStatus != LeaveStatus.REJECTED) {
+            throw new VacationException(VacationException.INVALID_STATUS_CHANGE, "無効なステータスです");
+        }
+        Map<Long, VacationException> failures = new HashMap<>();
+        Map<List<Object>, List<LeaveRequest>> groups = requests.stream()
+                .filter(request -> {
+                    if (request.getStatus() == LeaveStatus.PENDING) {
+                        return true;
+                    }
+                    failures.put(request.getId(), new VacationException(VacationException.INVALID_STATUS_CHANGE,
+                            "承認待ちの申請ではありません"));
+                    return false;
+                })
+                .collect(Collectors.groupingBy(request -> List.of(request.getEmployeeId(), request.getLeaveType()),
+                        LinkedHashMap::new, Collectors.toList()));
+        List<LeaveRequest> decided = new ArrayList<>();
+        for (List<LeaveRequest> group : groups.values()) {
+            Long employeeId = group.get(0).getEmployeeId();
+            LeaveType leaveType = group.get(0).getLeaveType();
+            List<LeaveRequest> accepted = newStatus == LeaveStatus.APPROVED
+                    ? consumeBalances(employeeId, leaveType, group, failures)
+                    : group;
+            if (accepted.isEmpty()) {
+                continue;
+            }
+            leaveBalanceRepository.releasePendingDays(employeeId, leaveType, sumDays(accepted));
+            for (LeaveRequest request : accepted) {
+                request.setStatus(newStatus);
+                request.setApproverId(approverId);
+                request.setRejectionComment(newStatus == LeaveStatus.REJECTED ? comment.trim() : null);
+            }
+            decided.addAll(accepted);
+        }
+        List<LeaveRequest> saved = leaveRequestRepository.saveAll(decided);
+        recordBatchApprovalHistory(saved, newStatus, approverId, comment);
+        saved.forEach(request -> eventPublisher.publishEvent(new LeaveRequestStatusChangedEvent(request, LeaveStatus.PENDING)));
+        return failures;
+    }
+
+    /**
+     * 一括承認・却下した申請の承認履歴を1回のバッチINSERTで記録する（個別承認の {@code recordApprovalHistory} と同じ内容）
+     */
+    private void recordBatchApprovalHistory(List<LeaveRequest> requests, LeaveStatus newStatus, Long approverId,
+                                            String comment) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        String trimmedComment = comment != null && !comment.trim().isEmpty() ? comment.trim() : null;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_APPROVAL, requests, requests.size(), (ps, request) -> {
+            ps.setString(1, "LEAVE_REQUEST");
+            ps.setLong(2, request.getId());
+            ps.setString(3, newStatus.name());
+            if (approverId != null) {
+                ps.setLong(4, approverId);
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setString(5, trimmedComment);
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    /**
+     * 同一従業員・休暇種別の申請の残数をまとめて消化する
+     * @return 消化できた申請
+     */
+    private List<LeaveRequest> consumeBalances(Long employeeId, LeaveType leaveType, List<LeaveRequest> group,
+                                               Map<Long, VacationException> failures) {
+        leaveLedgerService.open(List.of(employeeId), leaveType);
+        List<LeaveRequest> accepted;
+        if (leaveBalanceRepository.consumeDays(employeeId, leaveType, sumDays(group)) > 0) {
+            accepted = group;
+        } else {
+            accepted = new ArrayList<>();
+            boolean balanceExists = leaveBalanceRepository.findByEmployeeIdAndLeaveType(employeeId, leaveType).isPresent();
+            for (LeaveRequest request : group) {
+                if (balanceExists && leaveBalanceRepository.consumeDays(employeeId, leaveType, request.getDays()) > 0) {
+                    accepted.add(request);
+                } else {
+                    failures.put(request.getId(), new VacationException(VacationException.INVALID_REQUEST,
+                            balanceExists ? "残日数が不足しています" : "残数情報が見つかりません"));
+                }
+            }
+        }
+        leaveLedgerService.recordConsumptions(accepted);
+        return accepted;
+    }
+
+    private BigDecimal sumDays(List<LeaveRequest> requests) {
+        return requests.stream().map(LeaveRequest::getDays).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     /**
      * 社員による申請取消
      */
     public LeaveRequestDto cancelRequest(Long leaveRequestId, Long employeeId) {
-        LeaveRequest request = leaveRequestRepository.findByIdAndEmployeeId(leaveRequestId, employeeId)
+        LeaveRequest request = leaveRequestRepository.findByIdForUpdate(leaveRequestId)
+                .filter(found -> Objects.equals(found.getEmployeeId(), employeeId))
                 .orElseThrow(() -> new VacationException(VacationException.VACATION_NOT_FOUND, "申請が見つかりません"));
 
         if (request.getStatus() == LeaveStatus.REJECTED || request.getStatus() == LeaveStatus.CANCELLED) {
             throw new VacationException(VacationException.VACATION_NOT_CANCELLABLE, "取消できない状態です");
         }
 
-        if (request.getStatus() == LeaveStatus.APPROVED) {
+        LeaveStatus previous = request.getStatus();
+        if (previous == LeaveStatus.APPROVED) {
             restoreBalance(request);
+        } else if (previous == LeaveStatus.PENDING) {
+            releasePendingDays(request);
         }
 
         request.setStatus(LeaveStatus.CANCELLED);
@@ -172,6 +303,7 @@ public class LeaveRequestService {
 
         LeaveRequest saved = leaveRequestRepository.save(request);
         recordApprovalHistory(saved, LeaveStatus.CANCELLED, employeeId, "従業員による取消");
+        eventPublisher.publishEvent(new LeaveRequestStatusChangedEvent(saved, previous));
 
         LeaveRequestDto.LeaveData data = toDto(saved);
         LeaveRequestDto response = new LeaveRequestDto(true, "申請を取消しました", data);
@@ -184,40 +316,50 @@ public class LeaveRequestService {
         return leaveRequestRepository.findByEmployeeIdOrderByCreatedAtDesc(employeeId);
     }
 
+    @Transactional(readOnly = true)
     public Map<LeaveType, LeaveBalanceView> getRemainingLeaveSummary(Long employeeId) {
-        Map<LeaveType, LeaveBalanceView> summary = new EnumMap<>(LeaveType.class);
-        Employee employee = employeeRepository.findByEmployeeId(employeeId).orElse(null);
-        boolean isRetired = employee != null && employee.isRetired();
-        for (LeaveType type : LeaveType.values()) {
-            BigDecimal remaining;
-            // すべての休暇種別について残数レコードを確保
-            LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveType(employeeId, type)
-                    .orElse(null);
-            if (balance == null) {
-                if (isRetired) {
-                    // 退職者は自動作成せず常に0を返す
-                    remaining = BigDecimal.ZERO;
-                } else if (employee != null) {
-                    // 残数レコードが存在しない場合は作成
-                    balance = ensureBalance(employee, type);
-                    remaining = balance != null ? balance.getRemainingDays() : BigDecimal.ZERO;
-                } else {
-                    remaining = BigDecimal.ZERO;
-                }
-            } else {
-                remaining = balance.getRemainingDays();
-            }
-            LeaveBalanceView view = buildBalanceView(employeeId, type, remaining);
-            summary.put(type, view);
+        return getRemainingLeaveSummaries(List.of(employeeId)).get(employeeId);
+    }
+
+    /**
+     * 複数従業員の休暇残数サマリーを1回の集計クエリで取得する。
+     * 残数レコードが未作成の種別は初期値で補完し、読み取り経路ではレコードを作成しない。
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Map<LeaveType, LeaveBalanceView>> getRemainingLeaveSummaries(Collection<Long> employeeIds) {
+        Map<Long, Map<LeaveType, LeaveBalanceView>> summaries = new LinkedHashMap<>();
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return summaries;
         }
-        return summary;
+        for (Long employeeId : employeeIds) {
+            summaries.putIfAbsent(employeeId, new EnumMap<>(LeaveType.class));
+        }
+        for (LeaveBalanceAggregate row : leaveBalanceRepository.aggregateByEmployeeIds(summaries.keySet())) {
+            summaries.get(row.employeeId()).put(row.leaveType(), row.toView());
+        }
+
+        // 有休残数レコードが無い従業員のみ、初期付与日数を補完するために従業員情報を取得
+        List<Long> missingPaidLeave = summaries.entrySet().stream()
+                .filter(entry -> !entry.getValue().containsKey(LeaveType.PAID_LEAVE))
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, Employee> employees = new HashMap<>();
+        if (!missingPaidLeave.isEmpty()) {
+            employeeRepository.findAllById(missingPaidLeave)
+                    .forEach(employee -> employees.put(employee.getEmployeeId(), employee));
+        }
+
+        summaries.forEach((employeeId, summary) -> {
+            for (LeaveType type : LeaveType.values()) {
+                summary.computeIfAbsent(type, t -> new LeaveBalanceView(initialTotalDays(employees.get(employeeId), t), BigDecimal.ZERO));
+            }
+        });
+        return summaries;
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getRemainingLeaveDays(Long employeeId, LeaveType leaveType) {
-        Optional<LeaveBalance> balanceOpt = leaveBalanceRepository.findByEmployeeIdAndLeaveType(employeeId, leaveType);
-        BigDecimal remaining = balanceOpt.map(LeaveBalance::getRemainingDays).orElse(BigDecimal.ZERO);
-        return buildBalanceView(employeeId, leaveType, remaining).getAvailable();
+        return getRemainingLeaveSummary(employeeId).get(leaveType).getAvailable();
     }
 
     @Transactional(readOnly = true)
@@ -244,25 +386,56 @@ public class LeaveRequestService {
                            LocalDate grantedAt,
                            LocalDate expiresAt,
                            Long grantedBy) {
-        if (days == null || days.signum() == 0) {
-            throw new VacationException(VacationException.INVALID_REQUEST, "付与日数が不正です");
-        }
-        // 0.5刻みの検証（負数も可）
-        days = days.setScale(2, RoundingMode.HALF_UP);
-        if (!isHalfStep(days)) {
-            throw new VacationException(VacationException.INVALID_REQUEST, "付与日数は0.5単位で入力してください");
-        }
+        days = normalizeGrantDays(days);
         if (grantedAt == null) {
             grantedAt = LocalDate.now();
         }
         LeaveGrant grant = new LeaveGrant(employeeId, leaveType, days, grantedAt, expiresAt, grantedBy);
         leaveGrantRepository.save(grant);
 
-        LeaveBalance balance = ensureBalance(employeeRepository.findByEmployeeId(employeeId)
+        // 既に期限切れの付与は履歴のみ記録し、残数には加算しない
+        if (grant.isExpired(LocalDate.now())) {
+            return;
+        }
+
+        ensureBalance(employeeRepository.findByEmployeeId(employeeId)
                 .orElseThrow(() -> new VacationException(VacationException.EMPLOYEE_NOT_FOUND, "従業員が見つかりません")),
                 leaveType);
-        balance.addToTotal(days);
-        leaveBalanceRepository.save(balance);
+        leaveLedgerService.open(List.of(employeeId), leaveType);
+        // 残数は条件なしの加算UPDATEで更新する（同時に実行された消化・取消を上書きしないように）
+        leaveBalanceRepository.addGrantDays(List.of(employeeId), leaveType, days, LocalDateTime.now());
+        leaveLedgerService.recordGrant(grant);
+    }
+
+    /**
+     * 入社時に全休暇種別の残数レコードを作成する（既存の種別はそのまま）
+     */
+    public void initializeBalances(Employee employee) {
+        if (employee == null || employee.getEmployeeId() == null) {
+            return;
+        }
+        Set<LeaveType> existing = EnumSet.noneOf(LeaveType.class);
+        leaveBalanceRepository.findByEmployeeId(employee.getEmployeeId())
+                .forEach(balance -> existing.add(balance.getLeaveType()));
+        for (LeaveType type : LeaveType.values()) {
+            if (!existing.contains(type)) {
+                initializeBalance(employee, type);
+            }
+        }
+    }
+
+    /**
+     * 付与日数を検証し、小数2桁に正規化する（0.5刻み、負数も可）
+     */
+    BigDecimal normalizeGrantDays(BigDecimal days) {
+        if (days == null || days.signum() == 0) {
+            throw new VacationException(VacationException.INVALID_REQUEST, "付与日数が不正です");
+        }
+        BigDecimal normalized = days.setScale(2, RoundingMode.HALF_UP);
+        if (!isHalfStep(normalized)) {
+            throw new VacationException(VacationException.INVALID_REQUEST, "付与日数は0.5単位で入力してください");
+        }
+        return normalized;
     }
 
     private boolean isHalfStep(BigDecimal value) {
@@ -276,22 +449,24 @@ public class LeaveRequestService {
      * レコードが存在しない場合は0で作成する。
      */
     public void resetAllLeaveBalancesToZero(Long employeeId) {
+        resetLeaveBalancesToZero(List.of(employeeId));
+    }
+
+    /**
+     * 退職時に複数従業員の全休暇残数を0にリセットする。
+     * 従業員・休暇種別ごとの検索と保存ではなく、台帳の記帳・未作成レコードの作成・残数のリセットをそれぞれ一括で行う。
+     */
+    public void resetLeaveBalancesToZero(Collection<Long> employeeIds) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
         for (LeaveType type : LeaveType.values()) {
-            LeaveBalance balance = leaveBalanceRepository
-                    .findByEmployeeIdAndLeaveType(employeeId, type)
-                    .orElse(null);
-            if (balance == null) {
-                Employee employee = employeeRepository.findByEmployeeId(employeeId).orElse(null);
-                if (employee == null) {
-                    continue;
-                }
-                balance = new LeaveBalance(employeeId, type);
-            }
-            balance.setTotalDays(BigDecimal.ZERO);
-            balance.setUsedDays(BigDecimal.ZERO);
-            balance.setRemainingDays(BigDecimal.ZERO);
-            leaveBalanceRepository.save(balance);
+            leaveLedgerService.open(employeeIds, type);
+            leaveBalanceRepository.createZeroBalances(employeeIds, type, now);
         }
+        leaveLedgerService.recordRetirements(employeeIds);
+        leaveBalanceRepository.resetToZero(employeeIds, now);
     }
 
 
@@ -359,47 +534,37 @@ public class LeaveRequestService {
 
     private LeaveBalance initializeBalance(Employee employee, LeaveType leaveType) {
         LeaveBalance balance = new LeaveBalance(employee.getEmployeeId(), leaveType);
-        switch (leaveType) {
-            case PAID_LEAVE -> {
-                int base = employee.getPaidLeaveBaseDays();
-                BigDecimal total = BigDecimal.valueOf(base);
-                balance.setTotalDays(total);
-                balance.setRemainingDays(total);
-            }
-            case SUMMER -> {
-                // 夏季休暇は初期値として0日
-                balance.setTotalDays(BigDecimal.ZERO);
-                balance.setRemainingDays(BigDecimal.ZERO);
-            }
-            case WINTER -> {
-                // 冬季休暇は初期値として0日
-                balance.setTotalDays(BigDecimal.ZERO);
-                balance.setRemainingDays(BigDecimal.ZERO);
-            }
-            case SPECIAL -> {
-                // 特別休暇は初期値として0日
-                balance.setTotalDays(BigDecimal.ZERO);
-                balance.setRemainingDays(BigDecimal.ZERO);
-            }
-            default -> {
-                balance.setTotalDays(BigDecimal.ZERO);
-                balance.setRemainingDays(BigDecimal.ZERO);
-            }
-        }
+        BigDecimal total = initialTotalDays(employee, leaveType);
+        balance.setTotalDays(total);
+        balance.setRemainingDays(total);
         balance.setUsedDays(BigDecimal.ZERO);
         return leaveBalanceRepository.save(balance);
     }
 
+    /**
+     * 残数レコード作成時の初期日数
+     * 有休は従業員の基本付与日数、夏季・冬季・特別休暇は付与されるまで0日。
+     * 退職者・不明な従業員は常に0日。
+     */
+    private BigDecimal initialTotalDays(Employee employee, LeaveType leaveType) {
+        if (employee == null || employee.isRetired()) {
+            return BigDecimal.ZERO;
+        }
+        if (leaveType == LeaveType.PAID_LEAVE) {
+            return BigDecimal.valueOf(employee.getPaidLeaveBaseDays());
+        }
+        return BigDecimal.ZERO;
+    }
+
     private void ensureSufficientBalance(LeaveBalance balance,
                                          LeaveType leaveType,
                                          BigDecimal requestedDays,
                                          LocalDate startDate,
                                          LocalDate endDate) {
-        cleanupExpiredGrants(balance.getEmployeeId(), leaveType);
-
-        BigDecimal remaining = Optional.ofNullable(balance.getRemainingDays()).orElse(BigDecimal.ZERO);
-        BigDecimal available = buildBalanceView(balance.getEmployeeId(), leaveType, remaining).getAvailable();
-        if (available.compareTo(requestedDays) < 0) {
+        // 期限切れ付与は定期ジョブで残数に反映済みのため、ここでは現在の残数をそのまま使う
+        // 残数チェックと申請中日数の加算を1つの条件付きUPDATEで行う
+        int reserved = leaveBalanceRepository.reservePendingDays(balance.getEmployeeId(), leaveType, requestedDays);
+        if (reserved == 0) {
             throw new VacationException(VacationException.INVALID_REQUEST, "残日数が不足しています");
         }
 
@@ -411,17 +576,22 @@ public class LeaveRequestService {
         }
     }
 
-    private void cleanupExpiredGrants(Long employeeId, LeaveType leaveType) {
-        if (leaveType == LeaveType.PAID_LEAVE) {
-            refreshPaidLeaveBalanceInternal(employeeId);
+    public void refreshPaidLeaveBalance(Long employeeId) {
+        recalculateBalanceFromGrants(employeeId, LeaveType.PAID_LEAVE, LocalDate.now());
+    }
+
+    /**
+     * 付与履歴から残数を再計算する（台帳導入前の付与の失効反映用）
+     * 取得済み日数は初期日数（有休は基本付与日数）→ 付与日の古い付与の順に消化したものとみなし、
+     * 付与総数 = 初期日数 + 有効期限内の付与日数 + 期限切れ付与のうち消化済みの日数、残数 = 付与総数 - 取得済み。
+     * （期限切れ付与を丸ごと除くと、その付与から消化済みの日数を取得済みと二重に差し引くことになる）
+     * 退職者の残数は0のまま変更しない。
+     */
+    void recalculateBalanceFromGrants(Long employeeId, LeaveType leaveType, LocalDate today) {
+        Employee employee = employeeRepository.findByEmployeeId(employeeId).orElse(null);
+        if (employee == null || employee.isRetired()) {
             return;
         }
-        List<LeaveGrant> grants = leaveGrantRepository.findActiveGrants(employeeId, leaveType, LocalDate.now());
-        BigDecimal activeTotal = grants.stream()
-                .filter(g -> !g.isExpired(LocalDate.now()))
-                .map(LeaveGrant::getGrantedDays)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
         LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveType(employeeId, leaveType)
                 .orElse(null);
         if (balance == null) {
@@ -429,45 +599,33 @@ public class LeaveRequestService {
         }
 
         BigDecimal used = Optional.ofNullable(balance.getUsedDays()).orElse(BigDecimal.ZERO);
-        BigDecimal remaining = activeTotal.subtract(used);
-        if (remaining.signum() < 0) {
-            remaining = BigDecimal.ZERO;
+        BigDecimal total = initialTotalDays(employee, leaveType);
+        BigDecimal unallocated = used.subtract(total).max(BigDecimal.ZERO);
+        List<LeaveGrant> grants = new ArrayList<>(leaveGrantRepository.findByEmployeeIdAndLeaveType(employeeId, leaveType));
+        grants.sort(Comparator.comparing(LeaveGrant::getGrantedAt).thenComparing(LeaveGrant::getId));
+        for (LeaveGrant grant : grants) {
+            BigDecimal granted = grant.getGrantedDays();
+            BigDecimal consumed = granted.signum() > 0 ? unallocated.min(granted) : BigDecimal.ZERO;
+            unallocated = unallocated.subtract(consumed);
+            total = total.add(grant.isExpired(today) ? consumed : granted);
         }
-        balance.setTotalDays(activeTotal);
-        balance.setRemainingDays(remaining);
-        leaveBalanceRepository.save(balance);
-    }
-
-    public void refreshPaidLeaveBalance(Long employeeId) {
-        refreshPaidLeaveBalanceInternal(employeeId);
-    }
-
-    private void refreshPaidLeaveBalanceInternal(Long employeeId) {
-        Employee employee = employeeRepository.findByEmployeeId(employeeId)
-                .orElse(null);
-        if (employee == null) {
-            return;
-        }
-        LeaveBalance balance = leaveBalanceRepository
-                .findByEmployeeIdAndLeaveType(employeeId, LeaveType.PAID_LEAVE)
-                .orElseGet(() -> initializeBalance(employee, LeaveType.PAID_LEAVE));
-
-        int base = employee.getPaidLeaveBaseDays();
-        BigDecimal total = BigDecimal.valueOf(base);
-        BigDecimal used = Optional.ofNullable(balance.getUsedDays()).orElse(BigDecimal.ZERO);
         BigDecimal remaining = total.subtract(used);
         if (remaining.signum() < 0) {
             remaining = BigDecimal.ZERO;
         }
+        leaveLedgerService.open(List.of(employeeId), leaveType);
+        leaveLedgerService.recordAdjustment(employeeId, leaveType,
+                remaining.subtract(Optional.ofNullable(balance.getRemainingDays()).orElse(BigDecimal.ZERO)),
+                LeaveLedgerService.SOURCE_RECALCULATION);
         balance.setTotalDays(total);
         balance.setRemainingDays(remaining);
         leaveBalanceRepository.save(balance);
     }
 
-    private BigDecimal calculateRequestedDays(Long employeeId, LocalDate startDate, LocalDate endDate, LeaveTimeUnit timeUnit) {
+    BigDecimal calculateRequestedDays(Long employeeId, LocalDate startDate, LocalDate endDate, LeaveTimeUnit timeUnit) {
         if (timeUnit == LeaveTimeUnit.HALF_AM || timeUnit == LeaveTimeUnit.HALF_PM) {
             // 半休は単日で勤務日のみ許可
-            if (!isWorkingDay(employeeId, startDate)) {
+            if (countWorkingDays(employeeId, startDate, startDate) == 0) {
                 throw new VacationException(VacationException.INVALID_REQUEST, "休日に休暇申請はできません");
             }
             return HALF_DAY;
@@ -478,49 +636,62 @@ public class LeaveRequestService {
             throw new VacationException(VacationException.INVALID_DATE_RANGE, "申請期間の日付が不正です");
         }
 
-        int workingDays = 0;
-        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
-            boolean working = isWorkingDay(employeeId, d);
-            log.debug("[Leave]   date={}, working={}", d, working);
-            if (working) {
-                workingDays++;
-            }
-        }
-
+        int workingDays = countWorkingDays(employeeId, startDate, endDate);
+        log.debug("[Leave] requested days: employeeId={}, {}..{}, span={}, working={}",
+                employeeId, startDate, endDate, span, workingDays);
         if (workingDays == 0) {
             throw new VacationException(VacationException.INVALID_REQUEST, "休日に休暇申請はできません");
         }
         return BigDecimal.valueOf(workingDays);
     }
 
-    private boolean isWorkingDay(Long employeeId, LocalDate date) {
-        boolean holiday = businessDayCalculator != null && businessDayCalculator.isJapaneseHoliday(date);
-        Optional<WorkPatternChangeRequest> patternOpt = workPatternChangeRequestService != null
-                ? workPatternChangeRequestService.findApplicablePattern(employeeId, date)
-                : Optional.empty();
+    private int countWorkingDays(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        return resolveWorkingDates(employeeId, startDate, endDate).size();
+    }
 
-        if (patternOpt.isPresent()) {
-            WorkPatternChangeRequest pattern = patternOpt.get();
+    /**
+     * 期間内の勤務日を求める
+     * 勤務パターンは期間分を1クエリで取得し、祝日判定と合わせてメモリ上で判定する。
+     */
+    @Transactional(readOnly = true)
+    public List<LocalDate> resolveWorkingDates(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, WorkPatternChangeRequest> patterns = workPatternChangeRequestService != null
+                ? workPatternChangeRequestService.findApplicablePatterns(employeeId, startDate, endDate)
+                : Map.of();
+        return resolveWorkingDates(startDate, endDate, patterns);
+    }
+
+    /**
+     * 取得済みの勤務パターンから期間内の勤務日を求める（クエリは発行しない）
+     * @param patterns 日付 → 適用パターン（{@link WorkPatternChangeRequestService#findApplicablePatterns} の結果）
+     */
+    public List<LocalDate> resolveWorkingDates(LocalDate startDate, LocalDate endDate,
+                                               Map<LocalDate, WorkPatternChangeRequest> patterns) {
+        List<LocalDate> workingDates = new ArrayList<>();
+        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
+            if (isWorkingDay(d, patterns.get(d))) {
+                workingDates.add(d);
+            }
+        }
+        return workingDates;
+    }
+
+    private boolean isWorkingDay(LocalDate date, WorkPatternChangeRequest pattern) {
+        boolean holiday = businessDayCalculator != null && businessDayCalculator.isJapaneseHoliday(date);
+        if (pattern != null) {
             // 祝日かつ applyHoliday=false の場合は休日扱い（勤務日ではない）
             if (holiday && !Boolean.TRUE.equals(pattern.isApplyHoliday())) {
-                log.debug("[Leave] isWorkingDay: patternFound=true holiday=true applyHoliday=false -> working=false date={}", date);
                 return false;
             }
-            boolean applies = pattern.appliesTo(date, holiday);
-            log.debug("[Leave] isWorkingDay: patternFound=true holiday={} applies={} date={}", holiday, applies, date);
-            return applies;
+            return pattern.appliesTo(date, holiday);
         }
         // 勤務時間変更がない場合のフォールバック
         if (businessDayCalculator != null) {
-            boolean biz = businessDayCalculator.isBusinessDay(date);
-            log.debug("[Leave] isWorkingDay: patternFound=false businessDayCalculator=true businessDay={} date={}", biz, date);
-            return biz;
+            return businessDayCalculator.isBusinessDay(date);
         }
         // ユーティリティ未注入時でも最低限の土日判定を行う
         java.time.DayOfWeek dow = date.getDayOfWeek();
-        boolean fallback = dow != java.time.DayOfWeek.SATURDAY && dow != java.time.DayOfWeek.SUNDAY;
-        log.debug("[Leave] isWorkingDay: patternFound=false businessDayCalculator=false weekendFallback={} date={}", fallback, date);
-        return fallback;
+        return dow != java.time.DayOfWeek.SATURDAY && dow != java.time.DayOfWeek.SUNDAY;
     }
 
     private void approveRequest(LeaveRequest request, Long approverId) {
@@ -528,6 +699,7 @@ public class LeaveRequestService {
             throw new VacationException(VacationException.INVALID_STATUS_CHANGE, "承認できない状態です");
         }
         consumeBalance(request);
+        releasePendingDays(request);
         request.setStatus(LeaveStatus.APPROVED);
         request.setApproverId(approverId);
         request.setRejectionComment(null);
@@ -540,6 +712,7 @@ public class LeaveRequestService {
         if (request.getStatus() != LeaveStatus.PENDING) {
             throw new VacationException(VacationException.INVALID_STATUS_CHANGE, "却下できない状態です");
         }
+        releasePendingDays(request);
         request.setStatus(LeaveStatus.REJECTED);
         request.setApproverId(approverId);
         request.setRejectionComment(comment.trim());
@@ -548,29 +721,38 @@ public class LeaveRequestService {
     private void cancelRequestByAdmin(LeaveRequest request, Long approverId) {
         if (request.getStatus() == LeaveStatus.APPROVED) {
             restoreBalance(request);
+        } else if (request.getStatus() == LeaveStatus.PENDING) {
+            releasePendingDays(request);
         }
         request.setStatus(LeaveStatus.CANCELLED);
         request.setApproverId(approverId);
         request.setRejectionComment(null);
     }
 
+    /**
+     * 残数を条件付きUPDATEで減算する（読み取り→更新の競合で更新が失われないように）
+     */
     private void consumeBalance(LeaveRequest request) {
-        LeaveBalance balance = leaveBalanceRepository
-                .findByEmployeeIdAndLeaveType(request.getEmployeeId(), request.getLeaveType())
-                .orElseThrow(() -> new VacationException(VacationException.INVALID_REQUEST, "残数情報が見つかりません"));
-        balance.consume(request.getDays());
-        leaveBalanceRepository.save(balance);
+        leaveLedgerService.open(List.of(request.getEmployeeId()), request.getLeaveType());
+        int updated = leaveBalanceRepository.consumeDays(request.getEmployeeId(), request.getLeaveType(), request.getDays());
+        if (updated == 0) {
+            if (leaveBalanceRepository.findByEmployeeIdAndLeaveType(request.getEmployeeId(), request.getLeaveType()).isEmpty()) {
+                throw new VacationException(VacationException.INVALID_REQUEST, "残数情報が見つかりません");
+            }
+            throw new VacationException(VacationException.INVALID_REQUEST, "残日数が不足しています");
+        }
+        leaveLedgerService.recordConsumption(request);
     }
 
     private void restoreBalance(LeaveRequest request) {
-        LeaveBalance balance = leaveBalanceRepository
-                .findByEmployeeIdAndLeaveType(request.getEmployeeId(), request.getLeaveType())
-                .orElse(null);
-        if (balance == null) {
-            return;
+        leaveLedgerService.open(List.of(request.getEmployeeId()), request.getLeaveType());
+        if (leaveBalanceRepository.restoreDays(request.getEmployeeId(), request.getLeaveType(), request.getDays()) > 0) {
+            leaveLedgerService.recordRestoration(request);
         }
-        balance.restore(request.getDays());
-        leaveBalanceRepository.save(balance);
+    }
+
+    private void releasePendingDays(LeaveRequest request) {
+        leaveBalanceRepository.releasePendingDays(request.getEmployeeId(), request.getLeaveType(), request.getDays());
     }
 
     private void recordApprovalHistory(LeaveRequest request,
@@ -613,17 +795,6 @@ public class LeaveRequestService {
         }
     }
 
-    private LeaveBalanceView buildBalanceView(Long employeeId, LeaveType leaveType, BigDecimal remainingDays) {
-        BigDecimal base = Optional.ofNullable(remainingDays).orElse(BigDecimal.ZERO);
-        BigDecimal pending = getPendingDays(employeeId, leaveType);
-        return new LeaveBalanceView(base, pending);
-    }
-
-    private BigDecimal getPendingDays(Long employeeId, LeaveType leaveType) {
-        return Optional.ofNullable(leaveRequestRepository.sumPendingDays(employeeId, leaveType))
-                .orElse(BigDecimal.ZERO);
-    }
-
     @Transactional(readOnly = true)
     public long countByStatus(LeaveStatus status) {
         return leaveRequestRepository.countByStatus(status);
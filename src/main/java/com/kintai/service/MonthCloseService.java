@@ -0,0 +1,189 @@
+package com.kintai.service;
+
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AttendanceRecordRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全社の月次締め（勤怠の月次確定）サービス
+ * 対象月に未確定の勤怠記録がある従業員をID順にチャンクへ分け、チャンクごとに1回のUPDATEで確定する。
+ * チャンクごとにトランザクションを分け、途中で失敗しても確定済みのチャンクは保持する（再実行で残りを確定できる）。
+ */
+@Service
+public class MonthCloseService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthCloseService.class);
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Value("${kintai.attendance.month-close-chunk-size:500}")
+    private int chunkSize;
+
+    // 締め処理は直列に実行する
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "month-close");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 全従業員の対象月を確定する（同期実行）
+     */
+    public CloseJob closeMonth(YearMonth yearMonth) {
+        CloseJob job = registerJob(yearMonth);
+        run(job);
+        return job;
+    }
+
+    /**
+     * 全従業員の対象月を確定する（非同期実行）。進捗は {@link #findJob(String)} で参照する。
+     */
+    public CloseJob submitCloseMonth(YearMonth yearMonth) {
+        CloseJob job = registerJob(yearMonth);
+        executor.submit(() -> run(job));
+        return job;
+    }
+
+    public Optional<CloseJob> findJob(String jobId) {
+        return jobRegistry.find(jobId, CloseJob.class);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(CloseJob job) {
+        job.status = CloseJob.Status.RUNNING;
+        long startedAt = System.currentTimeMillis();
+        LocalDate from = job.yearMonth.atDay(1);
+        LocalDate to = job.yearMonth.atEndOfMonth();
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            long lastId = 0L;
+            while (true) {
+                List<Long> chunk = attendanceRecordRepository.findUnfixedEmployeeIds(from, to, lastId,
+                        PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                Integer fixed = tx.execute(status ->
+                        attendanceRecordRepository.fixRecords(chunk, from, to, LocalDateTime.now()));
+                job.fixedRecords.addAndGet(fixed != null ? fixed : 0);
+                job.processed.addAndGet(chunk.size());
+                lastId = chunk.get(chunk.size() - 1);
+                log.debug("[MonthClose] job={} progress {}/{}", job.jobId, job.processed.get(), job.total);
+            }
+            job.status = CloseJob.Status.COMPLETED;
+            log.info("[MonthClose] job={} month={} fixed {} records of {} employees in {} ms",
+                    job.jobId, job.yearMonth, job.fixedRecords.get(), job.processed.get(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            job.status = CloseJob.Status.FAILED;
+            job.message = e.getMessage();
+            log.error("[MonthClose] job={} failed after {} employees: {}", job.jobId, job.processed.get(), e.getMessage());
+            throw e;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private CloseJob registerJob(YearMonth yearMonth) {
+        if (yearMonth == null) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "対象年月を指定してください");
+        }
+        long total = attendanceRecordRepository.countUnfixedEmployees(yearMonth.atDay(1), yearMonth.atEndOfMonth());
+        return jobRegistry.register(new CloseJob(UUID.randomUUID().toString(), yearMonth, total));
+    }
+
+    /**
+     * 月次締めジョブの進捗
+     */
+    public static class CloseJob implements JobRegistry.Job {
+
+        public enum Status {
+            QUEUED,
+            RUNNING,
+            COMPLETED,
+            FAILED
+        }
+
+        private final String jobId;
+        private final YearMonth yearMonth;
+        private final long total;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicLong fixedRecords = new AtomicLong();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        CloseJob(String jobId, YearMonth yearMonth, long total) {
+            this.jobId = jobId;
+            this.yearMonth = yearMonth;
+            this.total = total;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public String getYearMonth() {
+            return yearMonth.toString();
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public int getProcessed() {
+            return processed.get();
+        }
+
+        public long getFixedRecords() {
+            return fixedRecords.get();
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.kintai.service;
+
+import com.kintai.entity.BatchCheckpoint;
+import com.kintai.entity.LeaveGrant;
+import com.kintai.entity.LeaveType;
+import com.kintai.exception.VacationException;
+import com.kintai.repository.BatchCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 入社記念日による年次有給休暇の自動付与
+ * 入社6か月後を初回付与日とし、以降1年ごとに勤続年数に応じた法定日数を付与する。
+ * 残数作成時の基本付与日数は初回付与の前渡しとみなし、初回付与では法定日数との差分のみを付与する。
+ * 対象者は入社日の月日（hire_month_day）の索引で抽出し、チャンク単位で付与履歴と残数をJDBCバッチで更新する。
+ * 処理済みの従業員IDをチェックポイントに記録し、中断しても続きから再開できる。
+ * 付与履歴は（従業員, 休暇種別, 付与日, 付与元）の一意制約で同日の二重付与を防ぐ。
+ */
+@Service
+public class PaidLeaveAnniversaryGrantService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaidLeaveAnniversaryGrantService.class);
+
+    static final String JOB_NAME = "paid-leave-anniversary-grant";
+
+    /** 初回付与までの月数 */
+    private static final int FIRST_GRANT_MONTHS = 6;
+
+    /** 付与の有効期間（年） */
+    private static final int VALIDITY_YEARS = 2;
+
+    /** 付与回数ごとの法定付与日数（6か月, 1年6か月, ... 6年6か月以上） */
+    private static final int[] STATUTORY_DAYS = {10, 11, 12, 14, 16, 18, 20};
+
+    private static final String SELECT_TARGETS =
+            "SELECT e.employee_id, e.hire_date, e.paid_leave_base_days FROM employees e " +
+            "WHERE e.hire_month_day BETWEEN ? AND ? " +
+            "AND e.employee_id > ? " +
+            "AND e.is_active = TRUE " +
+            "AND e.hire_date <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM leave_grants g WHERE g.employee_id = e.employee_id " +
+            "AND g.leave_type = 'PAID_LEAVE' AND g.granted_at = ? AND g.source = '" + LeaveGrant.SOURCE_ANNIVERSARY + "') " +
+            "ORDER BY e.employee_id";
+
+    private static final String INSERT_MISSING_BALANCES =
+            "INSERT INTO leave_balances (employee_id, leave_type, total_days, used_days, remaining_days, pending_days, updated_at) " +
+            "SELECT e.employee_id, 'PAID_LEAVE', e.paid_leave_base_days, 0, e.paid_leave_base_days, 0, :now FROM employees e " +
+            "WHERE e.employee_id IN (:employeeIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM leave_balances lb WHERE lb.employee_id = e.employee_id AND lb.leave_type = 'PAID_LEAVE')";
+
+    private static final String INSERT_GRANT =
+            "INSERT INTO leave_grants (employee_id, leave_type, granted_days, granted_at, expires_at, granted_by, source, created_at) " +
+            "VALUES (?, 'PAID_LEAVE', ?, ?, ?, NULL, '" + LeaveGrant.SOURCE_ANNIVERSARY + "', ?)";
+
+    private static final String ADD_TO_BALANCE =
+            "UPDATE leave_balances SET total_days = total_days + ?, remaining_days = remaining_days + ?, updated_at = ? " +
+            "WHERE employee_id = ? AND leave_type = 'PAID_LEAVE'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private BatchCheckpointRepository batchCheckpointRepository;
+
+    @Value("${kintai.leave.grant-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${kintai.leave.anniversary-catchup-days:7}")
+    private int catchupDays;
+
+    /**
+     * 本日分の記念日付与を実行する（毎日実行）
+     * 前回完了日の翌日から本日までを順に処理し、停止期間中の付与漏れを補う。
+     * @return 付与した従業員数
+     */
+    @Scheduled(cron = "${kintai.leave.anniversary-grant-cron:0 15 0 * * *}")
+    public int grantDueToday() {
+        return grantThrough(LocalDate.now());
+    }
+
+    /**
+     * チェックポイントから指定日までの記念日付与を実行する
+     */
+    public synchronized int grantThrough(LocalDate today) {
+        BatchCheckpoint checkpoint = batchCheckpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new BatchCheckpoint(JOB_NAME));
+
+        LocalDate from;
+        long resumeAfter = 0L;
+        if (checkpoint.getCheckpointDate() == null) {
+            from = today;
+        } else if (checkpoint.getLastKey() != null) {
+            // 処理途中で中断した日付は続きから再開する
+            from = checkpoint.getCheckpointDate();
+            resumeAfter = checkpoint.getLastKey();
+        } else {
+            from = checkpoint.getCheckpointDate().plusDays(1);
+        }
+        LocalDate earliest = today.minusDays(catchupDays);
+        if (from.isBefore(earliest)) {
+            from = earliest;
+            resumeAfter = 0L;
+        }
+
+        int granted = 0;
+        for (LocalDate date = from; !date.isAfter(today); date = date.plusDays(1)) {
+            granted += grantFor(date, resumeAfter, checkpoint);
+            resumeAfter = 0L;
+        }
+        return granted;
+    }
+
+    /**
+     * 指定日を付与日とする従業員へ付与する（本日以前の日付のみ）
+     * 同日付の自動付与が既にある従業員は対象外のため、再実行しても二重付与にはならない。
+     */
+    public synchronized int grantOn(LocalDate runDate) {
+        if (runDate == null || runDate.isAfter(LocalDate.now())) {
+            throw new VacationException(VacationException.INVALID_REQUEST, "付与日に未来の日付は指定できません");
+        }
+        return grantFor(runDate, 0L, null);
+    }
+
+    private int grantFor(LocalDate runDate, long resumeAfter, BatchCheckpoint checkpoint) {
+        long startedAt = System.currentTimeMillis();
+        // 入社日 + 6か月 + n年 が付与日となる入社月日を求める。
+        // 付与日が月末の場合、該当月に存在しない日付（29〜31日）の入社者も月末に付与する
+        YearMonth hireMonth = YearMonth.from(runDate).minusMonths(FIRST_GRANT_MONTHS);
+        int fromMonthDay = hireMonth.getMonthValue() * 100 + runDate.getDayOfMonth();
+        boolean monthEnd = runDate.getDayOfMonth() == runDate.lengthOfMonth();
+        int toMonthDay = monthEnd ? hireMonth.getMonthValue() * 100 + 31 : fromMonthDay;
+        Date latestHireDate = Date.valueOf(hireMonth.atEndOfMonth());
+        Date grantDate = Date.valueOf(runDate);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int granted = 0;
+        long lastId = resumeAfter;
+        while (true) {
+            final long after = lastId;
+            List<Target> chunk = jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement(SELECT_TARGETS);
+                ps.setInt(1, fromMonthDay);
+                ps.setInt(2, toMonthDay);
+                ps.setLong(3, after);
+                ps.setDate(4, latestHireDate);
+                ps.setDate(5, grantDate);
+                ps.setMaxRows(chunkSize);
+                return ps;
+            }, (rs, rowNum) -> new Target(rs.getLong(1), rs.getDate(2).toLocalDate(), rs.getInt(3)));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            long chunkLastId = chunk.get(chunk.size() - 1).employeeId();
+            try {
+                tx.executeWithoutResult(status -> {
+                    grantChunk(chunk, runDate);
+                    if (checkpoint != null) {
+                        checkpoint.setCheckpointDate(runDate);
+                        checkpoint.setLastKey(chunkLastId);
+                        batchCheckpointRepository.save(checkpoint);
+                    }
+                });
+            } catch (DuplicateKeyException e) {
+                // 別の実行（他のアプリケーションインスタンスなど）が同じ従業員へ先に付与した。
+                // チャンクはロールバック済みのため、付与済みの従業員を除いて同じ位置から抽出し直す
+                log.warn("[LeaveGrant] anniversary grants for {} collided with another run; retrying chunk after id {}",
+                        runDate, after);
+                continue;
+            }
+            granted += chunk.size();
+            lastId = chunkLastId;
+        }
+
+        if (checkpoint != null) {
+            checkpoint.setCheckpointDate(runDate);
+            checkpoint.setLastKey(null);
+            batchCheckpointRepository.save(checkpoint);
+        }
+        if (granted > 0) {
+            log.info("[LeaveGrant] anniversary grants for {}: {} employees in {} ms",
+                    runDate, granted, System.currentTimeMillis() - startedAt);
+        }
+        return granted;
+    }
+
+    private void grantChunk(List<Target> targets, LocalDate runDate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> employeeIds = targets.stream().map(Target::employeeId).collect(Collectors.toList());
+
+        // 残数レコードが未作成の従業員は基本付与日数で作成
+        namedParameterJdbcTemplate.update(INSERT_MISSING_BALANCES, new MapSqlParameterSource()
+                .addValue("employeeIds", employeeIds)
+                .addValue("now", now));
+
+        Date grantDate = Date.valueOf(runDate);
+        Date expiresDate = Date.valueOf(runDate.plusYears(VALIDITY_YEARS).minusDays(1));
+        jdbcTemplate.batchUpdate(INSERT_GRANT, targets, targets.size(), (ps, target) -> {
+            ps.setLong(1, target.employeeId());
+            ps.setBigDecimal(2, grantDays(target, runDate));
+            ps.setDate(3, grantDate);
+            ps.setDate(4, expiresDate);
+            ps.setTimestamp(5, now);
+        });
+        leaveLedgerService.open(employeeIds, LeaveType.PAID_LEAVE);
+        jdbcTemplate.batchUpdate(ADD_TO_BALANCE, targets, targets.size(), (ps, target) -> {
+            BigDecimal days = grantDays(target, runDate);
+            ps.setBigDecimal(1, days);
+            ps.setBigDecimal(2, days);
+            ps.setTimestamp(3, now);
+            ps.setLong(4, target.employeeId());
+        });
+        leaveLedgerService.recordBatchGrants(employeeIds, LeaveType.PAID_LEAVE, runDate, now.toLocalDateTime());
+    }
+
+    /**
+     * 付与する日数
+     * 初回付与（入社6か月後）は、残数作成時に前渡しした基本付与日数を差し引いた日数（0日未満にはしない）。
+     * 0日の場合も付与履歴は作成し、同日の再実行の対象から外す。
+     */
+    static BigDecimal grantDays(Target target, LocalDate grantDate) {
+        BigDecimal statutory = statutoryDays(target.hireDate(), grantDate);
+        if (grantCycles(target.hireDate(), grantDate) > 0) {
+            return statutory;
+        }
+        return statutory.subtract(BigDecimal.valueOf(target.baseDays())).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * 勤続年数に応じた法定付与日数（通常の労働者、出勤率8割以上を前提）
+     * @param hireDate 入社日
+     * @param grantDate 付与日
+     */
+    static BigDecimal statutoryDays(LocalDate hireDate, LocalDate grantDate) {
+        int index = (int) Math.min(grantCycles(hireDate, grantDate), STATUTORY_DAYS.length - 1);
+        return BigDecimal.valueOf(STATUTORY_DAYS[index]);
+    }
+
+    /**
+     * 初回付与から数えた付与回数（初回は0）
+     */
+    private static long grantCycles(LocalDate hireDate, LocalDate grantDate) {
+        long cycles = (ChronoUnit.MONTHS.between(YearMonth.from(hireDate), YearMonth.from(grantDate))
+                - FIRST_GRANT_MONTHS) / 12;
+        return Math.max(cycles, 0);
+    }
+
+    record Target(Long employeeId, LocalDate hireDate, int baseDays) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.kintai.service;
+
+import com.kintai.exception.AttendanceException;
+import com.kintai.util.TimeCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 給与計算向けの勤怠データ出力（CSV/TSV）
+ * 勤怠記録はエンティティを経由せず、前方向のみのJDBCカーソルで1行ずつ読みながら出力先へ直接書き込む。
+ * MySQLではストリーミング取得（fetchSize = Integer.MIN_VALUE）、その他のDBでは設定した件数ずつ取得するため、
+ * 件数によらずメモリ使用量は一定。
+ */
+@Service
+public class PayrollExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PayrollExportService.class);
+
+    /** Shift_JIS指定時に使う文字コード（機種依存文字を含むWindows-31J） */
+    private static final Charset SHIFT_JIS = Charset.forName("windows-31j");
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final String[] HEADER = {
+            "社員コード", "姓", "名", "勤務日", "出勤時刻", "退勤時刻",
+            "実働分", "残業分", "深夜分", "遅刻分", "早退分", "休憩分", "勤怠状況", "確定"
+    };
+
+    private static final String SELECT_ROWS =
+            "SELECT e.employee_code, e.last_name, e.first_name, ar.attendance_date, ar.clock_in_time, ar.clock_out_time, " +
+            "ar.break_minutes, ar.late_minutes, ar.early_leave_minutes, ar.overtime_minutes, ar.night_shift_minutes, " +
+            "ar.attendance_status, ar.attendance_fixed_flag " +
+            "FROM attendance_records ar JOIN employees e ON e.employee_id = ar.employee_id " +
+            "WHERE ar.attendance_date BETWEEN ? AND ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TimeCalculator timeCalculator;
+
+    @Value("${kintai.payroll-export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * 出力形式
+     */
+    public enum Format {
+        CSV(',', "text/csv", "csv"),
+        TSV('\t', "text/tab-separated-values", "tsv");
+
+        private final char separator;
+        private final String contentType;
+        private final String extension;
+
+        Format(char separator, String contentType, String extension) {
+            this.separator = separator;
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * 出力条件（書き出し開始前に {@link #prepare} で検証して作る）
+     */
+    public record ExportRequest(LocalDate from, LocalDate to, String employeeCodePrefix, boolean activeOnly,
+                                Format format, Charset charset) {
+    }
+
+    /**
+     * 出力条件を検証する
+     * @param format csv または tsv（未指定時は csv）
+     * @param encoding UTF-8 または Shift_JIS（未指定時は UTF-8）
+     */
+    public ExportRequest prepare(LocalDate from, LocalDate to, String employeeCodePrefix, boolean activeOnly,
+                                 String format, String encoding) {
+        if (from == null || to == null) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "出力期間を指定してください");
+        }
+        if (from.isAfter(to)) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "出力期間の開始日は終了日以前にしてください");
+        }
+        Format resolvedFormat;
+        try {
+            resolvedFormat = format == null || format.isBlank() ? Format.CSV : Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "出力形式は csv または tsv を指定してください");
+        }
+        Charset charset;
+        String normalized = encoding == null ? "" : encoding.trim().toUpperCase(Locale.ROOT).replace("_", "-");
+        switch (normalized) {
+            case "", "UTF-8", "UTF8" -> charset = StandardCharsets.UTF_8;
+            case "SHIFT-JIS", "SJIS", "MS932", "WINDOWS-31J", "CP932" -> charset = SHIFT_JIS;
+            default -> throw new AttendanceException(AttendanceException.INVALID_REQUEST,
+                    "文字コードは UTF-8 または Shift_JIS を指定してください");
+        }
+        String prefix = employeeCodePrefix == null || employeeCodePrefix.isBlank() ? null : employeeCodePrefix.trim();
+        return new ExportRequest(from, to, prefix, activeOnly, resolvedFormat, charset);
+    }
+
+    /**
+     * 勤怠データを出力先へ書き込む（出力先は閉じない）
+     * 行は社員ID・勤務日順。表現できない文字は文字コードの代替文字に置き換わる。
+     * @return 出力した行数（ヘッダーを除く）
+     */
+    public long export(ExportRequest request, OutputStream output) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, request.charset()), 64 * 1024);
+        char separator = request.format().separator;
+        String[] fields = new String[HEADER.length];
+        long[] rows = {0};
+        try {
+            writeLine(writer, HEADER, separator);
+
+            StringBuilder sql = new StringBuilder(SELECT_ROWS);
+            List<Object> params = new ArrayList<>(List.of(request.from(), request.to()));
+            if (request.employeeCodePrefix() != null) {
+                sql.append(" AND e.employee_code LIKE ? ESCAPE '!'");
+                params.add(escapeLike(request.employeeCodePrefix()) + "%");
+            }
+            if (request.activeOnly()) {
+                sql.append(" AND e.is_active = TRUE");
+            }
+            sql.append(" ORDER BY ar.employee_id, ar.attendance_date, ar.attendance_id");
+
+            jdbcTemplate.query(connection -> openCursor(connection, sql.toString(), params), (ResultSet rs) -> {
+                toFields(rs, fields);
+                try {
+                    writeLine(writer, fields, separator);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("[PayrollExport] {}..{} wrote {} rows ({}, {}) in {} ms", request.from(), request.to(), rows[0],
+                request.format(), request.charset().name(), System.currentTimeMillis() - startedAt);
+        return rows[0];
+    }
+
+    private PreparedStatement openCursor(Connection connection, String sql, List<Object> params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        // MySQL Connector/J は Integer.MIN_VALUE を指定したときだけ結果を1行ずつ受け取る（それ以外は全件をメモリに読み込む）
+        boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+        statement.setFetchSize(mysql ? Integer.MIN_VALUE : Math.max(1, fetchSize));
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+        return statement;
+    }
+
+    private void toFields(ResultSet rs, String[] fields) throws SQLException {
+        LocalDateTime clockIn = rs.getObject("clock_in_time", LocalDateTime.class);
+        LocalDateTime clockOut = rs.getObject("clock_out_time", LocalDateTime.class);
+        int breakMinutes = rs.getInt("break_minutes");
+        fields[0] = rs.getString("employee_code");
+        fields[1] = rs.getString("last_name");
+        fields[2] = rs.getString("first_name");
+        fields[3] = rs.getObject("attendance_date", LocalDate.class).toString();
+        fields[4] = clockIn != null ? clockIn.format(DATE_TIME) : "";
+        fields[5] = clockOut != null ? clockOut.format(DATE_TIME) : "";
+        fields[6] = Integer.toString(timeCalculator.calculateWorkingMinutes(clockIn, clockOut, breakMinutes));
+        fields[7] = Integer.toString(rs.getInt("overtime_minutes"));
+        fields[8] = Integer.toString(rs.getInt("night_shift_minutes"));
+        fields[9] = Integer.toString(rs.getInt("late_minutes"));
+        fields[10] = Integer.toString(rs.getInt("early_leave_minutes"));
+        fields[11] = Integer.toString(breakMinutes);
+        fields[12] = rs.getString("attendance_status");
+        fields[13] = rs.getBoolean("attendance_fixed_flag") ? "1" : "0";
+    }
+
+    private static void writeLine(Writer writer, String[] fields, char separator) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(separator);
+            }
+            writeField(writer, fields[i], separator);
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * CSVは区切り文字・引用符・改行を含む値を引用符で囲み、TSVはタブ・改行を空白に置き換える
+     */
+    private static void writeField(Writer writer, String value, char separator) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (separator == '\t') {
+            writer.write(value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+            return;
+        }
+        if (value.indexOf(separator) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,99 @@
+package com.kintai.service;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.html2pdf.resolver.font.DefaultFontProvider;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.layout.font.FontSet;
+import com.itextpdf.styledxmlparser.resolver.font.BasicFontProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * HTMLからPDFへの変換エンジン
+ * フォント（html2pdf同梱フォント・日本語フォント・設定したフォントディレクトリ）は起動時に一度だけ読み込んでフォントセットとして共有する。
+ * FontProvider は文書ごとの PdfFont を保持するため出力ごとに作り直すが、共有フォントセットから作るためフォントの再読み込みは発生しない。
+ * 出力は呼び出し元の OutputStream へ直接書き込み、PDF全体をメモリに保持しない。
+ */
+@Component
+public class PdfReportEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfReportEngine.class);
+
+    /** 日本語フォント（font-asian 同梱のCIDフォント）とテンプレートから参照する別名 */
+    static final String JAPANESE_FONT = "HeiseiKakuGo-W5";
+    static final String JAPANESE_ENCODING = "UniJIS-UCS2-H";
+    static final String JAPANESE_FAMILY = "kintai-ja";
+
+    private static final String WARM_UP_HTML =
+            "<html><head><meta charset='UTF-8'><style>body { font-family: '" + JAPANESE_FAMILY + "'; }</style></head>" +
+            "<body><table><tr><th>日付</th><td>出勤 09:00 Warm up</td></tr></table></body></html>";
+
+    private final FontSet fontSet;
+    private final String defaultFontFamily;
+    private final ConverterProperties baseProperties;
+
+    @Value("${kintai.report.warm-up:true}")
+    private boolean warmUp;
+
+    public PdfReportEngine(@Value("${kintai.report.font-dirs:}") List<String> fontDirs) {
+        long startedAt = System.currentTimeMillis();
+        DefaultFontProvider seed = new DefaultFontProvider(true, true, false);
+        this.fontSet = seed.getFontSet();
+        this.defaultFontFamily = seed.getDefaultFontFamily();
+        try {
+            fontSet.addFont(FontProgramFactory.createFont(JAPANESE_FONT), JAPANESE_ENCODING, JAPANESE_FAMILY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("日本語フォントを読み込めません: " + JAPANESE_FONT, e);
+        }
+        for (String dir : fontDirs) {
+            if (dir != null && !dir.isBlank() && Files.isDirectory(Path.of(dir.trim()))) {
+                int added = fontSet.addDirectory(dir.trim());
+                log.info("[PdfReport] loaded {} fonts from {}", added, dir.trim());
+            }
+        }
+        this.baseProperties = new ConverterProperties()
+                .setCharset(StandardCharsets.UTF_8.name())
+                .setCreateAcroForm(false)
+                .setImmediateFlush(true);
+        log.info("[PdfReport] font set ready ({} fonts) in {} ms", fontSet.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * 起動直後に小さな文書を一度変換し、初回リクエストでのクラス読み込み・CMap読み込みの遅延をなくす
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        try {
+            render(WARM_UP_HTML, OutputStream.nullOutputStream());
+            log.info("[PdfReport] warmed up in {} ms", System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            log.warn("[PdfReport] warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * HTMLをPDFに変換して出力先へ書き込む（出力先は閉じる）
+     */
+    public void render(String html, OutputStream output) {
+        ConverterProperties properties = new ConverterProperties(baseProperties)
+                .setFontProvider(new BasicFontProvider(fontSet, defaultFontFamily));
+        HtmlConverter.convertToPdf(html, output, properties);
+    }
+}
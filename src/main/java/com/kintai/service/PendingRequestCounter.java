@@ -0,0 +1,118 @@
+package com.kintai.service;
+
+import com.kintai.entity.AdjustmentRequest;
+import com.kintai.entity.HolidayRequest;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.WorkPatternChangeRequest;
+import com.kintai.event.LeaveRequestStatusChangedEvent;
+import com.kintai.event.RequestCategory;
+import com.kintai.event.RequestStatusChangedEvent;
+import com.kintai.repository.AdjustmentRequestRepository;
+import com.kintai.repository.HolidayRequestRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import com.kintai.repository.WorkPatternChangeRequestRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 承認待ち件数のメモリ内カウンター
+ * 起動時に countByStatus で初期化し、申請の作成・承認・却下・取消をコミット後のイベントで加減算する。
+ * イベントを経由しない更新（リポジトリ直接の削除など）によるずれは定期的な照合で補正する。
+ */
+@Component
+public class PendingRequestCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingRequestCounter.class);
+
+    static final String GAUGE_NAME = "kintai.requests.pending";
+
+    private final Map<RequestCategory, AtomicLong> counts = new EnumMap<>(RequestCategory.class);
+
+    @Autowired
+    private AdjustmentRequestRepository adjustmentRequestRepository;
+
+    @Autowired
+    private WorkPatternChangeRequestRepository workPatternChangeRequestRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private HolidayRequestRepository holidayRequestRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public PendingRequestCounter() {
+        for (RequestCategory category : RequestCategory.values()) {
+            counts.put(category, new AtomicLong());
+        }
+    }
+
+    @PostConstruct
+    void registerGauges() {
+        counts.forEach((category, count) -> Gauge.builder(GAUGE_NAME, count, AtomicLong::get)
+                .description("承認待ちの申請件数")
+                .tag("type", category.name().toLowerCase())
+                .register(meterRegistry));
+    }
+
+    public long get(RequestCategory category) {
+        return counts.get(category).get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onRequestStatusChanged(RequestStatusChangedEvent event) {
+        apply(event.category(), event.pendingDelta());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onLeaveRequestStatusChanged(LeaveRequestStatusChangedEvent event) {
+        int delta = (event.newStatus() == LeaveStatus.PENDING ? 1 : 0)
+                - (event.previousStatus() == LeaveStatus.PENDING ? 1 : 0);
+        apply(RequestCategory.LEAVE, delta);
+    }
+
+    /**
+     * DBの件数でカウンターを置き換える（起動時および定期実行）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${kintai.dashboard.pending-reconcile-cron:0 */5 * * * *}")
+    public void reconcile() {
+        reset(RequestCategory.ADJUSTMENT,
+                adjustmentRequestRepository.countByStatus(AdjustmentRequest.AdjustmentStatus.PENDING));
+        reset(RequestCategory.WORK_PATTERN,
+                workPatternChangeRequestRepository.countByStatus(WorkPatternChangeRequest.Status.PENDING));
+        reset(RequestCategory.LEAVE, leaveRequestRepository.countByStatus(LeaveStatus.PENDING));
+        reset(RequestCategory.HOLIDAY, holidayRequestRepository.countByStatus(HolidayRequest.Status.PENDING));
+    }
+
+    private void apply(RequestCategory category, int delta) {
+        if (delta != 0) {
+            counts.get(category).updateAndGet(value -> Math.max(0, value + delta));
+        }
+    }
+
+    private void reset(RequestCategory category, long actual) {
+        long previous = counts.get(category).getAndSet(actual);
+        if (previous != actual) {
+            log.debug("[PendingRequestCounter] {} reconciled: {} -> {}", category, previous, actual);
+        }
+    }
+}
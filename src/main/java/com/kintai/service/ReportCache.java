@@ -0,0 +1,349 @@
+package com.kintai.service;
+
+import com.kintai.event.AttendanceRecordChangedEvent;
+import com.kintai.event.EmployeeChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * 勤怠レポートPDFのキャッシュ
+ * キーは（従業員, 年月）で、エントリは作成時の勤怠データのバージョンを持つ。取得時にバージョンが一致しなければ使わない。
+ * メモリ上は合計バイト数の上限を超えると最も長く使われていないものから破棄し、ディスクの保存先を設定した場合は
+ * ディスクにも書き出して、メモリから外れたエントリや再起動後の照会に使う。
+ * 全記録が確定済みの月（sealed）はバージョン照合を省略してメモリから返す。勤怠記録・従業員の変更通知で破棄する。
+ */
+@Component
+public class ReportCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportCache.class);
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    public record Key(Long employeeId, YearMonth yearMonth) {
+    }
+
+    private record Entry(String version, boolean sealed, byte[] pdf) {
+    }
+
+    private final long maxBytes;
+    private final Path diskDir;
+    private final long diskMaxBytes;
+
+    // アクセス順（LRU）
+    private final LinkedHashMap<Key, Entry> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final Object diskSweepLock = new Object();
+
+    // 従業員単位（IDで分散）の世代。破棄のたびに進め、生成中に破棄が起きたレポートは格納しない（古いデータの格納を防ぐ）
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ReportCache(@Value("${kintai.report.cache.max-bytes:67108864}") long maxBytes,
+                       @Value("${kintai.report.cache.disk-dir:}") String diskDir,
+                       @Value("${kintai.report.cache.disk-max-bytes:1073741824}") long diskMaxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        this.diskMaxBytes = Math.max(0, diskMaxBytes);
+        this.diskDir = diskDir == null || diskDir.isBlank() ? null : Path.of(diskDir.trim());
+        if (this.diskDir != null) {
+            try {
+                Files.createDirectories(this.diskDir);
+                try (Stream<Path> files = Files.walk(this.diskDir)) {
+                    diskBytes.set(files.filter(Files::isRegularFile).mapToLong(ReportCache::sizeOf).sum());
+                }
+                log.info("[ReportCache] disk tier at {} ({} bytes in use)", this.diskDir, diskBytes.get());
+            } catch (IOException e) {
+                throw new IllegalStateException("レポートキャッシュの保存先を作成できません: " + this.diskDir, e);
+            }
+        }
+    }
+
+    /**
+     * 従業員の現在の世代（レポート生成前に取得し、格納時に渡す）
+     */
+    public long generation(Long employeeId) {
+        return generations.get(stripe(employeeId));
+    }
+
+    /**
+     * 全記録が確定済みの月のレポートをバージョン照合なしで取得する（メモリのみ）
+     */
+    public byte[] getSealed(Key key) {
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null && entry.sealed()) {
+                hits.incrementAndGet();
+                return entry.pdf();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 指定バージョンのレポートを取得する（メモリ → ディスクの順）。見つからなければ null。
+     */
+    public byte[] get(Key key, String version, boolean sealed) {
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (entry.version().equals(version)) {
+                    hits.incrementAndGet();
+                    return entry.pdf();
+                }
+                removeFromMemory(key);
+            }
+        }
+        byte[] pdf = readDisk(key, version);
+        if (pdf == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        diskHits.incrementAndGet();
+        putMemory(key, new Entry(version, sealed, pdf));
+        return pdf;
+    }
+
+    /**
+     * レポートを格納する
+     * @param startedGeneration 生成開始前に {@link #generation(Long)} で取得した値（以後に破棄があった場合は格納しない）
+     */
+    public void put(Key key, String version, boolean sealed, byte[] pdf, long startedGeneration) {
+        if (generation(key.employeeId()) != startedGeneration) {
+            return;
+        }
+        putMemory(key, new Entry(version, sealed, pdf));
+        writeDisk(key, version, pdf);
+        // 書き出し中に破棄された場合は書き出した分も取り消す
+        if (generation(key.employeeId()) != startedGeneration) {
+            evict(key.employeeId(), key.yearMonth());
+        }
+    }
+
+    /**
+     * 従業員・年月のレポートを破棄する
+     */
+    public void evict(Long employeeId, YearMonth yearMonth) {
+        generations.incrementAndGet(stripe(employeeId));
+        synchronized (memory) {
+            removeFromMemory(new Key(employeeId, yearMonth));
+        }
+        deleteDisk(employeeId, yearMonth.toString() + "_");
+    }
+
+    /**
+     * 従業員のレポートをすべて破棄する
+     */
+    public void evictEmployees(Collection<Long> employeeIds) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return;
+        }
+        for (Long employeeId : employeeIds) {
+            generations.incrementAndGet(stripe(employeeId));
+        }
+        synchronized (memory) {
+            memory.entrySet().removeIf(entry -> {
+                if (!employeeIds.contains(entry.getKey().employeeId())) {
+                    return false;
+                }
+                memoryBytes -= entry.getValue().pdf().length;
+                return true;
+            });
+        }
+        for (Long employeeId : employeeIds) {
+            deleteDisk(employeeId, "");
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceRecordChanged(AttendanceRecordChangedEvent event) {
+        if (event.employeeId() != null && event.attendanceDate() != null) {
+            evict(event.employeeId(), YearMonth.from(event.attendanceDate()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        evictEmployees(List.of(event.employeeId()));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (memory) {
+            stats.put("entries", memory.size());
+            stats.put("memoryBytes", memoryBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("diskEnabled", diskDir != null);
+        stats.put("diskBytes", diskBytes.get());
+        stats.put("hits", hits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void putMemory(Key key, Entry entry) {
+        // 上限の1/4を超える大きなレポートはメモリに載せない（他のエントリを一度に押し出さないように）
+        if (entry.pdf().length > maxBytes / 4) {
+            return;
+        }
+        synchronized (memory) {
+            removeFromMemory(key);
+            memory.put(key, entry);
+            memoryBytes += entry.pdf().length;
+            Iterator<Map.Entry<Key, Entry>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > maxBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().getValue().pdf().length;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void removeFromMemory(Key key) {
+        Entry removed = memory.remove(key);
+        if (removed != null) {
+            memoryBytes -= removed.pdf().length;
+        }
+    }
+
+    // ディスクは従業員ごとのディレクトリに {yyyy-MM}_{version}.pdf で保存する
+
+    private Path diskPath(Key key, String version) {
+        return diskDir.resolve(key.employeeId().toString()).resolve(key.yearMonth() + "_" + version + ".pdf");
+    }
+
+    private byte[] readDisk(Key key, String version) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path path = diskPath(key, version);
+        try {
+            byte[] pdf = Files.readAllBytes(path);
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            return pdf;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeDisk(Key key, String version, byte[] pdf) {
+        if (diskDir == null || pdf.length > diskMaxBytes / 4) {
+            return;
+        }
+        Path path = diskPath(key, version);
+        try {
+            // 同じ年月の古いバージョンは消してから書く
+            deleteDisk(key.employeeId(), key.yearMonth() + "_");
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), "report", ".tmp");
+            Files.write(temp, pdf);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(pdf.length) > diskMaxBytes) {
+                sweepDisk();
+            }
+        } catch (IOException e) {
+            log.warn("[ReportCache] failed to write {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void deleteDisk(Long employeeId, String namePrefix) {
+        if (diskDir == null) {
+            return;
+        }
+        Path dir = diskDir.resolve(employeeId.toString());
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, namePrefix + "*.pdf")) {
+            for (Path file : files) {
+                long size = sizeOf(file);
+                if (Files.deleteIfExists(file)) {
+                    diskBytes.addAndGet(-size);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[ReportCache] failed to delete {}{}: {}", dir, namePrefix, e.getMessage());
+        }
+    }
+
+    /**
+     * ディスク上限を超えた場合、最終参照の古いファイルから上限の9割まで削除する
+     */
+    private void sweepDisk() {
+        synchronized (diskSweepLock) {
+            if (diskBytes.get() <= diskMaxBytes) {
+                return;
+            }
+            List<Path> files = new ArrayList<>();
+            try (Stream<Path> walk = Files.walk(diskDir)) {
+                walk.filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".pdf")).forEach(files::add);
+            } catch (IOException e) {
+                log.warn("[ReportCache] failed to list {}: {}", diskDir, e.getMessage());
+                return;
+            }
+            files.sort(Comparator.comparingLong(ReportCache::lastModified));
+            long target = diskMaxBytes * 9 / 10;
+            for (Path file : files) {
+                if (diskBytes.get() <= target) {
+                    break;
+                }
+                long size = sizeOf(file);
+                try {
+                    if (Files.deleteIfExists(file)) {
+                        diskBytes.addAndGet(-size);
+                        evictions.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    log.warn("[ReportCache] failed to delete {}: {}", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static int stripe(Long employeeId) {
+        return Math.floorMod(employeeId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package com.kintai.service;
+
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.entity.AdminAccount;
+import com.kintai.entity.UserAccount;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 勤怠レポートの非同期生成ジョブ
+ * 生成は打刻などのリクエスト処理スレッドとは別の、スレッド数・待ち件数に上限のある専用の実行器で行う。
+ * 待ち行列は優先度順に取り出し、同じ優先度では依頼者ごとの待ち件数が少ないジョブを先にする（大量依頼による他の依頼者の待ちを防ぐ）。
+ * 生成結果は一時ディレクトリにファイルとして保存し、完了後の保持期間を過ぎるとジョブとともに破棄する（{@link JobRegistry}）。
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    /** 1回のジョブで指定できる最大従業員数 */
+    public static final int MAX_EMPLOYEES = 10000;
+
+    private static final String ANONYMOUS = "anonymous";
+
+    @Autowired
+    private AttendanceReportService attendanceReportService;
+
+    @Autowired
+    private AttendanceReportBundleService attendanceReportBundleService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${kintai.report.jobs.max-queued:200}")
+    private int maxQueued;
+
+    // 認証のない呼び出しを管理者として扱うか（認証なしで動かす開発・テスト環境のみ有効にする）
+    @Value("${kintai.report.jobs.allow-unauthenticated:false}")
+    private boolean allowUnauthenticated;
+
+    @Value("${kintai.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Path outputDir;
+    private final ThreadPoolExecutor executor;
+
+    // 実行開始前のジョブ数（待ち件数の上限確認用）
+    private final AtomicInteger queued = new AtomicInteger();
+    // 依頼者ごとの待ち件数（公平な取り出し順の計算用）
+    private final Map<String, Integer> queuedBySubmitter = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 統計は MeterRegistry に登録し、/api/reports/metrics もここから読む
+    private Gauge queueDepth;
+    private Counter submitted;
+    private Counter completed;
+    private Counter failed;
+    private Counter rejected;
+    private Timer waitTime;
+    private Timer renderTime;
+
+    /**
+     * 出力形式（PDFは従業員1名のみ、ZIPは従業員ごとのPDFをまとめたもの）
+     */
+    public enum Format {
+        PDF("application/pdf", "pdf"),
+        ZIP("application/zip", "zip");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * 優先度（待ち行列から先に取り出す順）
+     */
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    public ReportJobService(@Value("${kintai.report.jobs.threads:2}") int threads,
+                            @Value("${kintai.report.jobs.dir:}") String dir) {
+        this.outputDir = dir == null || dir.isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "kintai-report-jobs")
+                : Path.of(dir.trim());
+        try {
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            throw new IllegalStateException("レポートジョブの出力先を作成できません: " + outputDir, e);
+        }
+        int size = Math.max(1, threads);
+        AtomicInteger counter = new AtomicInteger();
+        // 待ち件数は投入時に枠を予約して上限を確認するため、キュー自体は上限なしの優先度付きキューとする
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    // 打刻などのリクエスト処理スレッドより優先度を下げる
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+    }
+
+    /**
+     * レポート生成ジョブを投入する
+     * @param employeeIds 対象従業員（1名の場合はPDF、複数名の場合はZIP）
+     * @param yearMonth 対象年月（yyyy-MM）
+     * @param format pdf または zip（未指定時は従業員数から決める）
+     * @param priority HIGH / NORMAL / LOW（未指定時は従業員1名なら HIGH、複数名なら LOW）
+     */
+    public ReportJob submit(Collection<Long> employeeIds, String yearMonth, String format, String priority) {
+        List<Long> targets = employeeIds == null ? List.of()
+                : new ArrayList<>(new TreeSet<>(employeeIds.stream().filter(id -> id != null && id > 0).toList()));
+        if (targets.isEmpty()) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "対象の従業員を指定してください");
+        }
+        if (targets.size() > MAX_EMPLOYEES) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST,
+                    "1回に出力できるのは" + MAX_EMPLOYEES + "名までです");
+        }
+        YearMonth month;
+        try {
+            month = YearMonth.parse(yearMonth == null ? "" : yearMonth.trim());
+        } catch (DateTimeParseException e) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "年月フォーマットが不正です。yyyy-MM形式で入力してください。");
+        }
+        Format resolvedFormat = parse(Format.class, format, targets.size() == 1 ? Format.PDF : Format.ZIP, "出力形式は pdf または zip を指定してください");
+        if (resolvedFormat == Format.PDF && targets.size() != 1) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "PDFは従業員1名のみ指定できます。複数名の場合は zip を指定してください");
+        }
+        Priority resolvedPriority = parse(Priority.class, priority, targets.size() == 1 ? Priority.HIGH : Priority.LOW,
+                "優先度は HIGH / NORMAL / LOW を指定してください");
+
+        Caller caller = currentCaller();
+        if (!caller.admin() && !(targets.size() == 1 && targets.get(0).equals(caller.employeeId()))) {
+            throw new AttendanceException(AttendanceException.ACCESS_DENIED, "他の従業員のレポートを出力する権限がありません");
+        }
+
+        if (!reserveQueueSlot()) {
+            rejected.increment();
+            throw new AttendanceException(AttendanceException.QUEUE_FULL, "レポート生成が混み合っています。しばらくしてから再度お試しください");
+        }
+
+        int rank = queuedBySubmitter.merge(caller.name(), 1, Integer::sum);
+        ReportJob job = jobRegistry.register(new ReportJob(UUID.randomUUID().toString(), caller.name(), targets, month,
+                resolvedFormat, resolvedPriority, rank, sequence.incrementAndGet()));
+        submitted.increment();
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            releaseQueueSlot(job);
+            fail(job, null, "レポート生成を受け付けられませんでした");
+            job.finishedAt = LocalDateTime.now();
+            throw new AttendanceException(AttendanceException.QUEUE_FULL, "レポート生成を受け付けられませんでした");
+        }
+        return job;
+    }
+
+    /**
+     * ジョブを参照する（依頼者本人または管理者のみ）
+     */
+    public Optional<ReportJob> findJob(String jobId) {
+        Caller caller = currentCaller();
+        ReportJob job = jobRegistry.find(jobId, ReportJob.class).orElse(null);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (!caller.admin() && !caller.name().equals(job.submitter)) {
+            throw new AttendanceException(AttendanceException.ACCESS_DENIED, "このジョブを参照する権限がありません");
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * 完了したジョブの生成結果を出力先へ書き込む（出力先は閉じない）
+     */
+    public void writeResult(ReportJob job, OutputStream output) throws IOException {
+        if (job.status != ReportJob.Status.COMPLETED) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, "レポートはまだ生成されていません");
+        }
+        Files.copy(job.output, output);
+    }
+
+    /**
+     * 待ち件数・待ち時間・生成時間などの統計（管理者のみ）
+     */
+    public Map<String, Object> metrics() {
+        if (!currentCaller().admin()) {
+            throw new AttendanceException(AttendanceException.ACCESS_DENIED, "統計を参照する権限がありません");
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", (int) queueDepth.value());
+        metrics.put("maxQueued", maxQueued);
+        metrics.put("running", executor.getActiveCount());
+        metrics.put("threads", executor.getMaximumPoolSize());
+        metrics.put("submitted", (long) submitted.count());
+        metrics.put("completed", (long) completed.count());
+        metrics.put("failed", (long) failed.count());
+        metrics.put("rejected", (long) rejected.count());
+        metrics.put("waitTime", snapshot(waitTime));
+        metrics.put("renderTime", snapshot(renderTime));
+        metrics.put("cache", reportCache.stats());
+        return metrics;
+    }
+
+    /**
+     * 保持期間を過ぎても出力先に残っている生成結果（再起動前のジョブなど登録のないもの）を削除する
+     * 登録中のジョブの生成結果は {@link JobRegistry} がジョブとともに破棄する。
+     */
+    @Scheduled(cron = "${kintai.jobs.purge-cron:0 */5 * * * *}")
+    public void purgeOrphanedResults() {
+        long threshold = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        try (Stream<Path> files = Files.list(outputDir)) {
+            files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        int dot = name.lastIndexOf('.');
+                        String jobId = dot > 0 ? name.substring(0, dot) : name;
+                        return jobRegistry.find(jobId, ReportJob.class).isEmpty() && modifiedBefore(file, threshold);
+                    })
+                    .forEach(ReportJobService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("[ReportJob] failed to list {}: {}", outputDir, e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        queueDepth = Gauge.builder("kintai.report.jobs.queued", queued, AtomicInteger::get)
+                .description("実行開始前のレポート生成ジョブ数")
+                .register(meterRegistry);
+        submitted = jobCounter("submitted");
+        completed = jobCounter("completed");
+        failed = jobCounter("failed");
+        rejected = jobCounter("rejected");
+        waitTime = Timer.builder("kintai.report.jobs.wait")
+                .description("レポート生成ジョブの待ち時間")
+                .register(meterRegistry);
+        renderTime = Timer.builder("kintai.report.jobs.render")
+                .description("レポート生成ジョブの生成時間")
+                .register(meterRegistry);
+    }
+
+    private Counter jobCounter(String result) {
+        return Counter.builder("kintai.report.jobs")
+                .description("レポート生成ジョブの件数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean reserveQueueSlot() {
+        int current;
+        do {
+            current = queued.get();
+            if (current >= maxQueued) {
+                return false;
+            }
+        } while (!queued.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void releaseQueueSlot(ReportJob job) {
+        queued.decrementAndGet();
+        queuedBySubmitter.computeIfPresent(job.submitter, (submitter, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void run(ReportJob job) {
+        releaseQueueSlot(job);
+        job.startedAt = LocalDateTime.now();
+        job.status = ReportJob.Status.RUNNING;
+        long startedAt = System.currentTimeMillis();
+        waitTime.record(startedAt - job.queuedAtMillis, TimeUnit.MILLISECONDS);
+        Path output = outputDir.resolve(job.jobId + "." + job.format.extension);
+        try {
+            if (job.format == Format.PDF) {
+                AttendanceReportService.PreparedReport report =
+                        attendanceReportService.prepareReport(job.employeeIds.get(0), job.yearMonth.toString());
+                try (OutputStream stream = Files.newOutputStream(output)) {
+                    attendanceReportService.writeReport(report, stream);
+                }
+                job.rendered.set(1);
+            } else {
+                List<EmployeeSummary> targets = new ArrayList<>(employeeRepository.findSummariesByIds(job.employeeIds));
+                if (targets.isEmpty()) {
+                    throw new IllegalArgumentException("従業員が見つかりません");
+                }
+                targets.sort(Comparator.comparing(EmployeeSummary::employeeCode, Comparator.nullsLast(Comparator.naturalOrder())));
+                try (OutputStream stream = Files.newOutputStream(output)) {
+                    job.rendered.set(attendanceReportBundleService.writeBundle(job.yearMonth, targets, stream));
+                }
+            }
+            job.output = output;
+            job.status = ReportJob.Status.COMPLETED;
+            completed.increment();
+        } catch (IllegalArgumentException | IOException | UncheckedIOException | AttendanceException e) {
+            fail(job, output, e.getMessage());
+        } catch (RuntimeException e) {
+            fail(job, output, "レポート生成中にエラーが発生しました: " + e.getMessage());
+            log.error("[ReportJob] job={} failed", job.jobId, e);
+        } finally {
+            long elapsed = System.currentTimeMillis() - startedAt;
+            renderTime.record(elapsed, TimeUnit.MILLISECONDS);
+            job.finishedAt = LocalDateTime.now();
+            log.info("[ReportJob] job={} {} {} employees={} status={} wait={} ms render={} ms",
+                    job.jobId, job.format, job.yearMonth, job.employeeIds.size(), job.status,
+                    startedAt - job.queuedAtMillis, elapsed);
+        }
+    }
+
+    private void fail(ReportJob job, Path output, String message) {
+        job.status = ReportJob.Status.FAILED;
+        job.message = message;
+        failed.increment();
+        if (output != null) {
+            deleteQuietly(output);
+        }
+    }
+
+    private static boolean modifiedBefore(Path file, long thresholdMillis) {
+        try {
+            return Files.isRegularFile(file) && Files.getLastModifiedTime(file).toMillis() < thresholdMillis;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("[ReportJob] failed to delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, E defaultValue, String message) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new AttendanceException(AttendanceException.INVALID_REQUEST, message);
+        }
+    }
+
+    private record Caller(String name, Long employeeId, boolean admin) {
+    }
+
+    /**
+     * 依頼者
+     * 認証されていない呼び出しは拒否する（kintai.report.jobs.allow-unauthenticated を有効にした開発・テスト環境のみ管理者として扱う）。
+     */
+    private Caller currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Object principal = authentication != null && authentication.isAuthenticated() ? authentication.getPrincipal() : null;
+        if (principal instanceof AdminAccount admin) {
+            return new Caller("admin:" + admin.getUsername(), null, true);
+        }
+        if (principal instanceof UserAccount user) {
+            return new Caller(user.getUsername(), user.getEmployeeId(), user.getRole() == UserAccount.UserRole.ADMIN);
+        }
+        if (allowUnauthenticated) {
+            return new Caller(ANONYMOUS, null, true);
+        }
+        throw new AttendanceException(AttendanceException.ACCESS_DENIED, "ログインが必要です");
+    }
+
+    private static Map<String, Object> snapshot(Timer timer) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", timer.count());
+        snapshot.put("avgMillis", (long) timer.mean(TimeUnit.MILLISECONDS));
+        snapshot.put("maxMillis", (long) timer.max(TimeUnit.MILLISECONDS));
+        snapshot.put("totalMillis", (long) timer.totalTime(TimeUnit.MILLISECONDS));
+        return snapshot;
+    }
+
+    /**
+     * レポート生成ジョブの状況
+     */
+    public final class ReportJob implements Runnable, Comparable<ReportJob>, JobRegistry.Job {
+
+        public enum Status {
+            QUEUED,
+            RUNNING,
+            COMPLETED,
+            FAILED
+        }
+
+        private final String jobId;
+        private final String submitter;
+        private final List<Long> employeeIds;
+        private final YearMonth yearMonth;
+        private final Format format;
+        private final Priority priority;
+        private final int submitterRank;
+        private final long sequence;
+        private final long queuedAtMillis = System.currentTimeMillis();
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private final AtomicInteger rendered = new AtomicInteger();
+        private volatile Status status = Status.QUEUED;
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile Path output;
+
+        ReportJob(String jobId, String submitter, List<Long> employeeIds, YearMonth yearMonth, Format format,
+                  Priority priority, int submitterRank, long sequence) {
+            this.jobId = jobId;
+            this.submitter = submitter;
+            this.employeeIds = employeeIds;
+            this.yearMonth = yearMonth;
+            this.format = format;
+            this.priority = priority;
+            this.submitterRank = submitterRank;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            ReportJobService.this.run(this);
+        }
+
+        /**
+         * 優先度 → 依頼者ごとの待ち順位 → 投入順
+         */
+        @Override
+        public int compareTo(ReportJob other) {
+            int byPriority = priority.compareTo(other.priority);
+            if (byPriority != 0) {
+                return byPriority;
+            }
+            int byRank = Integer.compare(submitterRank, other.submitterRank);
+            return byRank != 0 ? byRank : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public String getJobId() {
+            return jobId;
+        }
+
+        public String getYearMonth() {
+            return yearMonth.toString();
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public int getEmployeeCount() {
+            return employeeIds.size();
+        }
+
+        /** 生成したPDFの件数 */
+        public int getRendered() {
+            return rendered.get();
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public LocalDateTime getQueuedAt() {
+            return queuedAt;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        @Override
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        /** 生成結果のファイルを削除する */
+        @Override
+        public void discard() {
+            if (output != null) {
+                deleteQuietly(output);
+            }
+        }
+
+        /** ダウンロードURL（完了時のみ） */
+        public String getDownloadUrl() {
+            return status == Status.COMPLETED ? "/api/reports/jobs/" + jobId + "/download" : null;
+        }
+
+        public String getFileName() {
+            return String.format("attendance_%s_%s.%s",
+                    employeeIds.size() == 1 ? employeeIds.get(0).toString() : "reports", yearMonth, format.extension);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.kintai.service;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * レポート用HTMLテンプレート
+ * 読み込み時に固定部分と差し込み位置へ分解しておき、出力時は文字列の連結だけで済ませる（出力ごとの解析は行わない）。
+ * {{name}} はHTMLエスケープして差し込み、{{{name}}} はそのまま差し込む。
+ */
+final class ReportTemplate {
+
+    private final String[] literals;
+    private final String[] names;
+    private final boolean[] raw;
+    private final int estimatedLength;
+
+    private ReportTemplate(List<String> literals, List<String> names, List<Boolean> raw) {
+        this.literals = literals.toArray(new String[0]);
+        this.names = names.toArray(new String[0]);
+        this.raw = new boolean[raw.size()];
+        for (int i = 0; i < raw.size(); i++) {
+            this.raw[i] = raw.get(i);
+        }
+        this.estimatedLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * クラスパス上のテンプレートを読み込んで分解する
+     */
+    static ReportTemplate load(String path) {
+        try (InputStream input = new ClassPathResource(path).getInputStream()) {
+            return compile(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("テンプレートを読み込めません: " + path, e);
+        }
+    }
+
+    static ReportTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Boolean> raw = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int start = source.indexOf("{{", position);
+            if (start < 0) {
+                break;
+            }
+            boolean isRaw = source.startsWith("{{{", start);
+            String close = isRaw ? "}}}" : "}}";
+            int end = source.indexOf(close, start);
+            if (end < 0) {
+                throw new IllegalArgumentException("テンプレートの差し込み位置が閉じられていません: " + start);
+            }
+            literals.add(source.substring(position, start));
+            names.add(source.substring(start + (isRaw ? 3 : 2), end).trim());
+            raw.add(isRaw);
+            position = end + close.length();
+        }
+        literals.add(source.substring(position));
+        return new ReportTemplate(literals, names, raw);
+    }
+
+    /**
+     * 固定部分の文字数（出力バッファの初期サイズの目安）
+     */
+    int estimatedLength() {
+        return estimatedLength;
+    }
+
+    /**
+     * 値を差し込んで出力する（値がない差し込み位置は空文字）
+     */
+    void render(StringBuilder out, Map<String, String> values) {
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(names[i]);
+            if (value == null) {
+                continue;
+            }
+            if (raw[i]) {
+                out.append(value);
+            } else {
+                escape(out, value);
+            }
+        }
+        out.append(literals[literals.length - 1]);
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.kintai.entity.AttendanceRecord;
 import com.kintai.entity.AttendanceStatus;
 import com.kintai.entity.Employee;
 import com.kintai.entity.WorkPatternChangeRequest;
+import com.kintai.event.RequestCategory;
+import com.kintai.event.RequestStatusChangedEvent;
 import com.kintai.exception.AttendanceException;
 import com.kintai.repository.AttendanceRecordRepository;
 import com.kintai.repository.EmployeeRepository;
@@ -13,6 +15,7 @@ import com.kintai.repository.WorkPatternChangeRequestRepository;
 import com.kintai.util.BusinessDayCalculator;
 import com.kintai.util.TimeCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,7 +24,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -46,6 +51,9 @@ public class WorkPatternChangeRequestService {
     @Autowired
     private BusinessDayCalculator businessDayCalculator;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public WorkPatternChangeRequest createRequest(WorkPatternChangeRequestDto dto) {
         Long employeeId = dto.getEmployeeId();
         Employee employee = employeeRepository.findByEmployeeId(employeeId)
@@ -138,7 +146,9 @@ public class WorkPatternChangeRequestService {
             request.setReason(trimmed.isEmpty() ? null : trimmed);
         }
 
-        return repository.save(request);
+        WorkPatternChangeRequest saved = repository.save(request);
+        publishStatusChanged(saved, null);
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -213,6 +223,50 @@ public class WorkPatternChangeRequestService {
                 .findFirst();
     }
 
+    /**
+     * 期間内の各日に適用される勤務パターンを1クエリで解決する
+     * 日ごとの優先順位は {@link #findApplicablePattern(Long, LocalDate)} と同じ（開始日が新しいものを優先）。
+     * @return 日付 → 適用パターン（パターンのない日は含まない）
+     */
+    @Transactional(readOnly = true)
+    public Map<LocalDate, WorkPatternChangeRequest> findApplicablePatterns(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, WorkPatternChangeRequest> result = new HashMap<>();
+        if (employeeId == null || startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            return result;
+        }
+        for (WorkPatternChangeRequest pattern : repository.findApprovedRequestsOverlapping(employeeId, startDate, endDate)) {
+            putApplicableDates(result, pattern, startDate, endDate);
+        }
+        return result;
+    }
+
+    /**
+     * 期間内の各日に適用される全従業員の勤務パターンを1クエリで解決する（不在日インデックスの再構築用）
+     * @return 従業員ID → (日付 → 適用パターン)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Map<LocalDate, WorkPatternChangeRequest>> findAllApplicablePatterns(LocalDate startDate, LocalDate endDate) {
+        Map<Long, Map<LocalDate, WorkPatternChangeRequest>> result = new HashMap<>();
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            return result;
+        }
+        for (WorkPatternChangeRequest pattern : repository.findAllApprovedRequestsOverlapping(startDate, endDate)) {
+            putApplicableDates(result.computeIfAbsent(pattern.getEmployeeId(), key -> new HashMap<>()),
+                    pattern, startDate, endDate);
+        }
+        return result;
+    }
+
+    // 開始日の新しい順に渡されるため、先に登録したパターンを優先する
+    private static void putApplicableDates(Map<LocalDate, WorkPatternChangeRequest> dates, WorkPatternChangeRequest pattern,
+                                           LocalDate startDate, LocalDate endDate) {
+        LocalDate from = pattern.getStartDate().isAfter(startDate) ? pattern.getStartDate() : startDate;
+        LocalDate to = pattern.getEndDate().isBefore(endDate) ? pattern.getEndDate() : endDate;
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            dates.putIfAbsent(d, pattern);
+        }
+    }
+
     @Transactional(readOnly = true)
     public Optional<WorkPatternChangeRequest> findUpcomingApprovedPattern(Long employeeId, LocalDate date) {
         if (employeeId == null || date == null) {
@@ -256,7 +310,7 @@ public class WorkPatternChangeRequestService {
     }
 
     public WorkPatternChangeRequest approveRequest(Long requestId, Long approverEmployeeId) {
-        WorkPatternChangeRequest request = repository.findById(requestId)
+        WorkPatternChangeRequest request = repository.findByIdForUpdate(requestId)
                 .orElseThrow(() -> new AttendanceException(AttendanceException.REQUEST_NOT_FOUND, "勤務時間変更申請が見つかりません: " + requestId));
 
         if (request.getStatus() != WorkPatternChangeRequest.Status.PENDING) {
@@ -272,11 +326,12 @@ public class WorkPatternChangeRequestService {
 
         WorkPatternChangeRequest saved = repository.save(request);
         recalculateAttendanceForRequest(saved);
+        publishStatusChanged(saved, WorkPatternChangeRequest.Status.PENDING);
         return saved;
     }
 
     public WorkPatternChangeRequest rejectRequest(Long requestId, Long approverEmployeeId, String comment) {
-        WorkPatternChangeRequest request = repository.findById(requestId)
+        WorkPatternChangeRequest request = repository.findByIdForUpdate(requestId)
                 .orElseThrow(() -> new AttendanceException(AttendanceException.REQUEST_NOT_FOUND, "勤務時間変更申請が見つかりません: " + requestId));
 
         if (request.getStatus() != WorkPatternChangeRequest.Status.PENDING) {
@@ -293,7 +348,43 @@ public class WorkPatternChangeRequestService {
         request.setRejectedAt(LocalDateTime.now());
         request.setRejectionComment(trimmedComment);
 
-        return repository.save(request);
+        WorkPatternChangeRequest saved = repository.save(request);
+        publishStatusChanged(saved, WorkPatternChangeRequest.Status.PENDING);
+        return saved;
+    }
+
+    /**
+     * 申請中の勤務時間変更申請をまとめて承認・却下する（一括承認用、状態の確認は呼び出し側）
+     * @param requests 申請中の勤務時間変更申請（作成日時の古い順。後の申請の勤務パターンが優先される）
+     */
+    public void decideBatch(List<WorkPatternChangeRequest> requests, boolean approve, Long approverEmployeeId, String comment) {
+        LocalDateTime now = LocalDateTime.now();
+        for (WorkPatternChangeRequest request : requests) {
+            if (approve) {
+                request.setStatus(WorkPatternChangeRequest.Status.APPROVED);
+                request.setApprovedByEmployeeId(approverEmployeeId);
+                request.setApprovedAt(now);
+                request.setRejectionComment(null);
+                request.setRejectedAt(null);
+                request.setRejectedByEmployeeId(null);
+            } else {
+                request.setStatus(WorkPatternChangeRequest.Status.REJECTED);
+                request.setRejectedByEmployeeId(approverEmployeeId);
+                request.setRejectedAt(now);
+                request.setRejectionComment(comment.trim());
+            }
+        }
+        repository.saveAll(requests);
+        if (approve) {
+            requests.forEach(this::recalculateAttendanceForRequest);
+        }
+        requests.forEach(request -> publishStatusChanged(request, WorkPatternChangeRequest.Status.PENDING));
+    }
+
+    private void publishStatusChanged(WorkPatternChangeRequest request, WorkPatternChangeRequest.Status previous) {
+        eventPublisher.publishEvent(new RequestStatusChangedEvent(RequestCategory.WORK_PATTERN,
+                request.getRequestId(), request.getEmployeeId(),
+                previous != null ? previous.name() : null, request.getStatus().name()));
     }
 
     @Transactional(readOnly = true)
@@ -317,13 +408,20 @@ public class WorkPatternChangeRequestService {
             return;
         }
 
+        // 期間内の勤怠記録は1回で取得する（同日に複数ある場合は最新の1件）
+        Map<LocalDate, AttendanceRecord> existing = new HashMap<>();
+        for (AttendanceRecord record : attendanceRecordRepository.findByEmployeeIdAndAttendanceDateBetweenOrderByAttendanceDateDesc(
+                request.getEmployeeId(), request.getStartDate(), request.getEndDate())) {
+            existing.merge(record.getAttendanceDate(), record,
+                    (current, candidate) -> candidate.getAttendanceId() > current.getAttendanceId() ? candidate : current);
+        }
+
+        List<AttendanceRecord> changed = new ArrayList<>();
         for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
             boolean calendarHoliday = businessDayCalculator != null && businessDayCalculator.isJapaneseHoliday(date);
             boolean workingDay = request.appliesTo(date, calendarHoliday);
 
-            AttendanceRecord record = attendanceRecordRepository
-                    .findByEmployeeIdAndAttendanceDate(request.getEmployeeId(), date)
-                    .orElse(null);
+            AttendanceRecord record = existing.get(date);
 
             if (workingDay) {
                 if (record == null) {
@@ -339,9 +437,10 @@ public class WorkPatternChangeRequestService {
 
             if (record != null) {
                 timeCalculator.normalizeMetrics(record);
-                attendanceRecordRepository.save(record);
+                changed.add(record);
             }
         }
+        attendanceRecordRepository.saveAll(changed);
     }
 
     public AttendanceStatus resolveAttendanceStatus(int lateMinutes, int earlyLeaveMinutes, int overtimeMinutes, int nightShiftMinutes) {
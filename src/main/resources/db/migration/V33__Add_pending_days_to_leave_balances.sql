@@ -0,0 +1,12 @@
+-- 申請中日数を残数テーブルに保持（残数照会時の集計を不要にする）
+ALTER TABLE leave_balances
+    ADD COLUMN pending_days DECIMAL(6,2) NOT NULL DEFAULT 0 AFTER remaining_days;
+
+-- 既存の申請中データから初期値を設定
+UPDATE leave_balances lb
+    JOIN (SELECT employee_id, leave_type, SUM(days) AS pending
+          FROM leave_requests
+          WHERE status = 'PENDING'
+          GROUP BY employee_id, leave_type) lr
+        ON lr.employee_id = lb.employee_id AND lr.leave_type = lb.leave_type
+SET lb.pending_days = lr.pending;
@@ -0,0 +1,10 @@
+-- 期限切れ付与の定期反映ジョブ用（有効期限で範囲検索する）
+CREATE INDEX idx_leave_grants_expires_at ON leave_grants(expires_at, employee_id);
+
+-- バッチ処理のチェックポイント
+CREATE TABLE batch_checkpoints (
+    job_name VARCHAR(64) PRIMARY KEY,
+    checkpoint_date DATE NULL,
+    last_key BIGINT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
@@ -0,0 +1,17 @@
+-- 入社記念日による有休自動付与の対象抽出用（月日で索引検索する）
+ALTER TABLE employees
+ADD COLUMN hire_month_day SMALLINT NULL AFTER hire_date;
+
+UPDATE employees
+SET hire_month_day = MONTH(hire_date) * 100 + DAY(hire_date)
+WHERE hire_date IS NOT NULL;
+
+CREATE INDEX idx_employees_hire_month_day ON employees(hire_month_day, employee_id);
+
+-- 付与元（自動付与の冪等性の判定用。手動付与は NULL）
+ALTER TABLE leave_grants
+    ADD COLUMN source VARCHAR(32) NULL AFTER granted_by;
+
+-- 同じ付与元・付与日の付与は1件のみ（同時実行による二重付与の防止）
+ALTER TABLE leave_grants
+    ADD CONSTRAINT uk_leave_grants_source UNIQUE (employee_id, leave_type, granted_at, source);
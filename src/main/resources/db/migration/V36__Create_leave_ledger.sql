@@ -0,0 +1,33 @@
+-- 休暇台帳（追記のみ）
+CREATE TABLE leave_ledger_entries (
+    entry_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    employee_id BIGINT NOT NULL,
+    leave_type VARCHAR(32) NOT NULL,
+    entry_type VARCHAR(16) NOT NULL,
+    days DECIMAL(6,2) NOT NULL,
+    entry_date DATE NOT NULL,
+    grant_id BIGINT NULL,
+    source_type VARCHAR(32) NULL,
+    source_id BIGINT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_leave_ledger_employee_type (employee_id, leave_type, entry_id),
+    INDEX idx_leave_ledger_grant (grant_id),
+    INDEX idx_leave_ledger_source (source_type, source_id)
+);
+
+-- 休暇台帳の残数スナップショット
+CREATE TABLE leave_ledger_snapshots (
+    snapshot_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    employee_id BIGINT NOT NULL,
+    leave_type VARCHAR(32) NOT NULL,
+    snapshot_date DATE NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    balance DECIMAL(8,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_leave_ledger_snapshots_employee_type (employee_id, leave_type, last_entry_id)
+);
+
+-- 既存の残数を台帳の開始残数とする
+INSERT INTO leave_ledger_snapshots (employee_id, leave_type, snapshot_date, last_entry_id, balance, created_at)
+SELECT employee_id, leave_type, CURRENT_DATE, 0, remaining_days, CURRENT_TIMESTAMP
+FROM leave_balances;
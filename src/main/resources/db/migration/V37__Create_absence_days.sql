@@ -0,0 +1,17 @@
+-- 不在日インデックス（承認済み休暇・カスタム休日を1日1行に展開）
+CREATE TABLE absence_days (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    employee_id BIGINT NOT NULL,
+    absence_date DATE NOT NULL,
+    absence_type VARCHAR(32) NOT NULL,
+    time_unit VARCHAR(16) NOT NULL DEFAULT 'FULL_DAY',
+    source_type VARCHAR(32) NOT NULL,
+    source_id BIGINT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_absence_days_date_employee (absence_date, employee_id),
+    INDEX idx_absence_days_employee_date (employee_id, absence_date),
+    INDEX idx_absence_days_source (source_type, source_id)
+);
+
+
+-- 既存の承認済み休暇・カスタム休日はアプリケーション起動時に勤務日で展開して取り込む
@@ -0,0 +1,5 @@
+-- 承認キュー（ステータス別・作成日時の降順のカーソルページング）用インデックス
+CREATE INDEX idx_leave_requests_status_created ON leave_requests (status, created_at, id);
+CREATE INDEX idx_adjustment_requests_status_created ON adjustment_requests (status, created_at, adjustment_request_id);
+CREATE INDEX idx_holiday_requests_status_created ON holiday_requests (status, created_at, id);
+CREATE INDEX idx_work_pattern_change_requests_status_created ON work_pattern_change_requests (status, created_at, request_id);
@@ -0,0 +1,11 @@
+-- 同じ記帳位置のスナップショットは1件のみ（同時に台帳を開始した場合の開始スナップショットの重複防止）
+DELETE s1 FROM leave_ledger_snapshots s1
+JOIN leave_ledger_snapshots s2
+  ON s1.employee_id = s2.employee_id
+ AND s1.leave_type = s2.leave_type
+ AND s1.last_entry_id = s2.last_entry_id
+ AND s1.snapshot_id > s2.snapshot_id;
+
+ALTER TABLE leave_ledger_snapshots
+    DROP INDEX idx_leave_ledger_snapshots_employee_type,
+    ADD CONSTRAINT uk_leave_ledger_snapshots_entry UNIQUE (employee_id, leave_type, last_entry_id);
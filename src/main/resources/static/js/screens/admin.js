@@ -561,6 +561,39 @@ class AdminScreen {
         this.initializeDashboardElements();
         this.bindDashboardEvents();
         this.refreshDashboardSummary();
+        this.connectDashboardStream();
+    }
+
+    /**
+     * 承認待ち件数の更新をSSEで受信する（EventSourceが切断時の再接続を行う）
+     * 受信できない環境では手動更新のみとなる。
+     */
+    connectDashboardStream() {
+        if (this.dashboardEventSource || typeof window.EventSource !== 'function') {
+            return;
+        }
+        const source = new EventSource('/api/admin/dashboard/events', { withCredentials: true });
+        source.addEventListener('counts', (event) => {
+            try {
+                const summary = this.normalizeDashboardSummary(JSON.parse(event.data));
+                if (summary) {
+                    this.updateDashboardSummary(summary);
+                }
+            } catch (error) {
+                console.warn('ダッシュボード更新イベントの解析に失敗しました:', error);
+            }
+        });
+        // 送信が追いつかず通知が破棄された場合は集計APIから取り直す
+        source.addEventListener('resync', () => this.refreshDashboardSummary());
+        window.addEventListener('pagehide', () => this.disconnectDashboardStream(), { once: true });
+        this.dashboardEventSource = source;
+    }
+
+    disconnectDashboardStream() {
+        if (this.dashboardEventSource) {
+            this.dashboardEventSource.close();
+            this.dashboardEventSource = null;
+        }
     }
 
     initializeDashboardElements() {
@@ -2260,14 +2293,17 @@ class AdminScreen {
                 return;
             }
 
-            // レポート生成APIを呼び出し
-            const data = await fetchWithAuth.handleApiCall(
+            // レポート生成APIを呼び出し（非同期ジョブとして受け付けられるため、完了まで状況を確認する）
+            let data = await fetchWithAuth.handleApiCall(
                 () => fetchWithAuth.post('/api/reports/generate', {
                     employeeId: parseInt(employeeId),
                     yearMonth: month
                 }),
                 'レポート生成に失敗しました'
             );
+            if (data.success && data.jobId && !data.pdfUrl) {
+                data = await this.waitForReportJob(data.jobId);
+            }
 
             if (data.success && data.pdfUrl) {
                 const filename = `attendance_${employeeId}_${month}.pdf`;
@@ -2281,6 +2317,28 @@ class AdminScreen {
         }
     }
 
+    /**
+     * レポート生成ジョブの完了を待つ（1秒間隔で最大2分）
+     * @param {string} jobId - ジョブID
+     * @returns {Promise<Object>} 完了時は pdfUrl を含む状況、失敗・タイムアウト時は success=false
+     */
+    async waitForReportJob(jobId) {
+        for (let attempt = 0; attempt < 120; attempt++) {
+            await new Promise(resolve => setTimeout(resolve, 1000));
+            const job = await fetchWithAuth.handleApiCall(
+                () => fetchWithAuth.get(`/api/reports/jobs/${encodeURIComponent(jobId)}`),
+                'レポート生成状況の確認に失敗しました'
+            );
+            if (job.status === 'COMPLETED') {
+                return { success: true, pdfUrl: job.pdfUrl };
+            }
+            if (job.status === 'FAILED') {
+                return { success: false, message: job.message || 'レポート生成に失敗しました' };
+            }
+        }
+        return { success: false, message: 'レポート生成がタイムアウトしました。しばらくしてから再度お試しください' };
+    }
+
     /**
      * 休暇管理データ読み込み
      * @param {boolean} silent - サイレント更新（ローディングメッセージを表示しない）
@@ -0,0 +1,48 @@
+package com.kintai.controller;
+
+import com.kintai.entity.Employee;
+import com.kintai.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void reportBundleUsesDedicatedAsyncTimeout() throws Exception {
+        employeeRepository.save(new Employee("EMP-ADB-001"));
+
+        MvcResult result = mockMvc.perform(get("/api/admin/attendance/report-bundle")
+                        .param("yearMonth", "2031-03")
+                        .param("employeeCodePrefix", "EMP-ADB-"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // 既定の非同期タイムアウトではなく kintai.report.bundle-timeout-ms が適用される
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(1_800_000L);
+    }
+
+    @Test
+    void reportBundleRejectsInvalidMonth() throws Exception {
+        mockMvc.perform(get("/api/admin/attendance/report-bundle").param("yearMonth", "2031/03"))
+                .andExpect(status().isBadRequest());
+    }
+}
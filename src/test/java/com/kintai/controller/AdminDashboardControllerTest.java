@@ -0,0 +1,60 @@
+package com.kintai.controller;
+
+import com.kintai.event.RequestCategory;
+import com.kintai.event.RequestStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * 管理者ダッシュボードのSSE配信テスト
+ * イベントはコミット後に配信されるため、トランザクション外で発行する。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminDashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void eventStreamPushesCountsAndRequestChanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/admin/dashboard/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(awaitContent(result, "event:counts")).contains("holidayPending");
+
+        eventPublisher.publishEvent(new RequestStatusChangedEvent(RequestCategory.HOLIDAY, 990001L, 1L, null, "PENDING"));
+        try {
+            String content = awaitContent(result, "\"requestId\":990001");
+            assertThat(content).contains("event:request").contains("\"pendingDelta\":1");
+        } finally {
+            eventPublisher.publishEvent(new RequestStatusChangedEvent(RequestCategory.HOLIDAY, 990001L, 1L, "PENDING", "REJECTED"));
+        }
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        }
+        return content;
+    }
+}
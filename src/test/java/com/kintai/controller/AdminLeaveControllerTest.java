@@ -103,6 +103,45 @@ class AdminLeaveControllerTest {
         assertThat(remaining.get(LeaveType.SUMMER).getPending()).isEqualByComparingTo("0");
     }
 
+    @Test
+    void grantToAllActiveEmployeesUsesBatchPipeline() throws Exception {
+        Employee retired = new Employee("EMP-ADMIN-RETIRED");
+        retired.setIsActive(false);
+        retired = employeeRepository.save(retired);
+        long activeCount = employeeRepository.findAll().stream()
+                .filter(e -> Boolean.TRUE.equals(e.getIsActive()))
+                .count();
+
+        Map<String, Object> payload = Map.of(
+                "leaveType", "WINTER",
+                "grantedDays", 2.5,
+                "grantedDate", LocalDate.now().toString(),
+                "expiresAt", LocalDate.now().plusMonths(2).toString(),
+                "scope", "ALL"
+        );
+
+        String response = mockMvc.perform(post("/api/admin/leave/grants")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(payload)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.distributedCount").value((int) activeCount))
+                .andReturn().getResponse().getContentAsString();
+
+        String jobId = objectMapper.readTree(response).get("jobId").asText();
+        mockMvc.perform(get("/api/admin/leave/grants/jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.data.processed").value((int) activeCount));
+
+        var summaries = leaveRequestService.getRemainingLeaveSummaries(
+                List.of(employee.getEmployeeId(), employee2.getEmployeeId(), retired.getEmployeeId()));
+        assertThat(summaries.get(employee.getEmployeeId()).get(LeaveType.WINTER).getRemaining()).isEqualByComparingTo("2.5");
+        assertThat(summaries.get(employee2.getEmployeeId()).get(LeaveType.WINTER).getRemaining()).isEqualByComparingTo("2.5");
+        assertThat(summaries.get(retired.getEmployeeId()).get(LeaveType.WINTER).getRemaining()).isEqualByComparingTo("0");
+        assertThat(leaveRequestService.getActiveGrants(employee.getEmployeeId(), LeaveType.WINTER)).hasSize(1);
+    }
+
     @Test
     void pendingRequestsEndpointReturnsCreatedLeave() throws Exception {
         LocalDate start = nextBusinessDay(3);
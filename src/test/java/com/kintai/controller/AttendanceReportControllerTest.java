@@ -0,0 +1,108 @@
+package com.kintai.controller;
+
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.Employee;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.service.PdfReportEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 勤怠レポートPDF出力のテスト
+ * 生成はステータスを確定させる前に終えるため、生成に失敗した場合は200ではなく500を返す。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class AttendanceReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private AttendanceReportController attendanceReportController;
+
+    @SpyBean
+    private PdfReportEngine pdfReportEngine;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(new Employee("EMP-RPC-001"));
+        LocalDate date = LocalDate.of(2031, 5, 1);
+        AttendanceRecord record = new AttendanceRecord(employee.getEmployeeId(), date);
+        record.setClockInTime(date.atTime(9, 0));
+        record.setClockOutTime(date.atTime(18, 0));
+        attendanceRecordRepository.save(record);
+    }
+
+    @Test
+    void returnsGeneratedPdfWithContentLength() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/attendance/report/{employeeId}/{yearMonth}",
+                        employee.getEmployeeId(), "2031-05"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Content-Length"))
+                .andReturn();
+        byte[] pdf = result.getResponse().getContentAsByteArray();
+        assertThat(new String(pdf, 0, 4, StandardCharsets.ISO_8859_1)).isEqualTo("%PDF");
+        assertThat(result.getResponse().getHeader("Content-Length")).isEqualTo(String.valueOf(pdf.length));
+    }
+
+    @Test
+    void returnsServerErrorWhenRenderingFails() throws Exception {
+        doThrow(new IllegalStateException("フォントの読み込みに失敗しました"))
+                .when(pdfReportEngine).render(anyString(), any());
+
+        mockMvc.perform(get("/api/attendance/report/{employeeId}/{yearMonth}", employee.getEmployeeId(), "2031-05"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void returnsServerErrorWhenPdfExceedsBufferLimit() throws Exception {
+        ReflectionTestUtils.setField(attendanceReportController, "maxPdfBytes", 100);
+        try {
+            mockMvc.perform(get("/api/attendance/report/{employeeId}/{yearMonth}", employee.getEmployeeId(), "2031-05"))
+                    .andExpect(status().isInternalServerError());
+        } finally {
+            ReflectionTestUtils.setField(attendanceReportController, "maxPdfBytes", 16 * 1024 * 1024);
+        }
+    }
+
+    @Test
+    void returnsNotFoundForUnknownEmployee() throws Exception {
+        mockMvc.perform(get("/api/attendance/report/{employeeId}/{yearMonth}", 99999999L, "2031-05"))
+                .andExpect(status().isNotFound());
+    }
+}
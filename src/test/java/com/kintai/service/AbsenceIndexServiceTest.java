@@ -0,0 +1,132 @@
+package com.kintai.service;
+
+import com.kintai.dto.LeaveRequestDto;
+import com.kintai.entity.AbsenceDay;
+import com.kintai.entity.Employee;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.LeaveType;
+import com.kintai.exception.VacationException;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.util.BusinessDayCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class AbsenceIndexServiceTest {
+
+    private final BusinessDayCalculator businessDayCalculator = new BusinessDayCalculator();
+
+    @Autowired
+    private AbsenceIndexService absenceIndexService;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private CustomHolidayService customHolidayService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private Employee employee;
+    private Employee teammate;
+    private Employee approver;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(new Employee("EMP-ABSENCE-001"));
+        teammate = employeeRepository.save(new Employee("EMP-ABSENCE-002"));
+        approver = employeeRepository.save(new Employee("EMP-ABSENCE-ADMIN"));
+        leaveRequestService.initializeBalances(employee);
+    }
+
+    @Test
+    void approvedLeaveIsIndexedOnWorkingDaysAndRemovedOnCancel() {
+        LocalDate start = nextWorkingDay(LocalDate.now());
+        LocalDate end = start.plusDays(6);
+        LeaveRequestDto dto = leaveRequestService.createLeaveRequest(employee.getEmployeeId(), LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.FULL_DAY, start, end, "不在照会テスト");
+        Long requestId = ((LeaveRequestDto.LeaveData) dto.getData()).getLeaveRequestId();
+        List<Long> team = List.of(employee.getEmployeeId(), teammate.getEmployeeId());
+
+        // 申請中は不在として扱わない
+        assertThat(absenceIndexService.findAbsences(team, start, end)).isEmpty();
+
+        leaveRequestService.updateStatus(requestId, LeaveStatus.APPROVED, approver.getEmployeeId(), null);
+        List<AbsenceDay> absences = absenceIndexService.findAbsences(team, start, end);
+        assertThat(absences).extracting(AbsenceDay::getAbsenceDate)
+                .containsExactlyElementsOf(leaveRequestService.resolveWorkingDates(employee.getEmployeeId(), start, end))
+                .allMatch(businessDayCalculator::isBusinessDay);
+        assertThat(absences).extracting(AbsenceDay::getEmployeeId).containsOnly(employee.getEmployeeId());
+
+        leaveRequestService.cancelRequest(requestId, employee.getEmployeeId());
+        assertThat(absenceIndexService.findAbsences(team, start, end)).isEmpty();
+    }
+
+    @Test
+    void customHolidaysAreIndexedUntilRemoved() {
+        LocalDate date = nextWorkingDay(LocalDate.now());
+        customHolidayService.createCompensatoryHoliday(teammate.getEmployeeId(), date, "代休テスト", null, approver.getEmployeeId());
+
+        assertThat(absenceIndexService.findAbsences(List.of(teammate.getEmployeeId()), date, date))
+                .singleElement()
+                .satisfies(absence -> {
+                    assertThat(absence.getAbsenceType()).isEqualTo("代休");
+                    assertThat(absence.getSourceType()).isEqualTo(AbsenceDay.SOURCE_CUSTOM_HOLIDAY);
+                });
+
+        customHolidayService.removeCustomHoliday(teammate.getEmployeeId(), date);
+        assertThat(absenceIndexService.findAbsences(List.of(teammate.getEmployeeId()), date, date)).isEmpty();
+    }
+
+    @Test
+    void rebuildRecreatesSameAbsencesAsIncrementalIndexing() {
+        LocalDate start = nextWorkingDay(LocalDate.now());
+        LocalDate end = start.plusDays(6);
+        LeaveRequestDto dto = leaveRequestService.createLeaveRequest(employee.getEmployeeId(), LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.FULL_DAY, start, end, "再構築テスト");
+        Long requestId = ((LeaveRequestDto.LeaveData) dto.getData()).getLeaveRequestId();
+        leaveRequestService.updateStatus(requestId, LeaveStatus.APPROVED, approver.getEmployeeId(), null);
+        customHolidayService.createCompensatoryHoliday(teammate.getEmployeeId(), start, "代休テスト", null, approver.getEmployeeId());
+        List<Long> team = List.of(employee.getEmployeeId(), teammate.getEmployeeId());
+        List<String> before = describe(absenceIndexService.findAbsences(team, start, end));
+        assertThat(before).isNotEmpty();
+
+        assertThat(absenceIndexService.rebuild()).isGreaterThanOrEqualTo(before.size());
+
+        assertThat(describe(absenceIndexService.findAbsences(team, start, end))).containsExactlyInAnyOrderElementsOf(before);
+    }
+
+    @Test
+    void rejectsOversizedRange() {
+        LocalDate from = LocalDate.now();
+        assertThatThrownBy(() -> absenceIndexService.findAbsences(null, from, from.plusDays(AbsenceIndexService.MAX_RANGE_DAYS)))
+                .isInstanceOf(VacationException.class);
+    }
+
+    private static List<String> describe(List<AbsenceDay> absences) {
+        return absences.stream()
+                .map(absence -> absence.getEmployeeId() + "/" + absence.getAbsenceDate() + "/" + absence.getAbsenceType()
+                        + "/" + absence.getSourceType() + "/" + absence.getSourceId())
+                .toList();
+    }
+
+    private LocalDate nextWorkingDay(LocalDate from) {
+        LocalDate date = from.plusDays(1);
+        while (!businessDayCalculator.isBusinessDay(date)) {
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+}
@@ -8,13 +8,18 @@ import com.kintai.entity.LeaveStatus;
 import com.kintai.entity.LeaveTimeUnit;
 import com.kintai.entity.LeaveType;
 import com.kintai.entity.WorkPatternChangeRequest;
+import com.kintai.event.RequestCategory;
+import com.kintai.event.RequestStatusChangedEvent;
 import com.kintai.repository.AdjustmentRequestRepository;
 import com.kintai.repository.HolidayRequestRepository;
 import com.kintai.repository.LeaveRequestRepository;
 import com.kintai.repository.WorkPatternChangeRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -46,6 +51,15 @@ class AdminDashboardServiceTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PendingRequestCounter pendingRequestCounter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void getSummaryReturnsPendingCounts() {
         AdjustmentRequest adjustmentRequest = new AdjustmentRequest(1L,
@@ -88,6 +102,8 @@ class AdminDashboardServiceTest {
         holidayRequest.setReason("test");
         holidayRequestRepository.save(holidayRequest);
 
+        // リポジトリへの直接保存はイベントを経由しないため、照合でカウンターへ反映する
+        pendingRequestCounter.reconcile();
         var summary = adminDashboardService.getSummary();
 
         // JSONにシリアライズした際のフィールド名を確認（フロント連携用）
@@ -101,4 +117,18 @@ class AdminDashboardServiceTest {
         assertThat(summary.leavePending()).isEqualTo(1L);
         assertThat(summary.holidayPending()).isEqualTo(1L);
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void statusChangeEventsUpdateCountersAndGauges() {
+        long before = pendingRequestCounter.get(RequestCategory.HOLIDAY);
+
+        eventPublisher.publishEvent(new RequestStatusChangedEvent(RequestCategory.HOLIDAY, 1L, 1L, null, "PENDING"));
+        assertThat(adminDashboardService.getSummary().holidayPending()).isEqualTo(before + 1);
+        assertThat(meterRegistry.get("kintai.requests.pending").tag("type", "holiday").gauge().value())
+                .isEqualTo((double) (before + 1));
+
+        eventPublisher.publishEvent(new RequestStatusChangedEvent(RequestCategory.HOLIDAY, 1L, 1L, "PENDING", "APPROVED"));
+        assertThat(adminDashboardService.getSummary().holidayPending()).isEqualTo(before);
+    }
 }
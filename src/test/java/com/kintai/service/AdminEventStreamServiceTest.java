@@ -0,0 +1,68 @@
+package com.kintai.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 管理者画面向けSSE配信の接続数上限テスト
+ */
+@SpringBootTest(properties = "kintai.admin-events.max-connections=2")
+@AutoConfigureMockMvc
+class AdminEventStreamServiceTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AdminEventStreamService adminEventStreamService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void concurrentSubscribersNeverExceedLimitAndExtraConnectionsAreRejected() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<SseEmitter>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return adminEventStreamService.subscribe();
+                }));
+            }
+            start.countDown();
+            int accepted = 0;
+            for (Future<Optional<SseEmitter>> result : results) {
+                if (result.get().isPresent()) {
+                    accepted++;
+                }
+            }
+            assertThat(accepted).isEqualTo(2);
+            assertThat(adminEventStreamService.getConnectionCount()).isEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 上限に達している間の接続は503で拒否する
+        mockMvc.perform(get("/api/admin/dashboard/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable());
+        assertThat(adminEventStreamService.getConnectionCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,154 @@
+package com.kintai.service;
+
+import com.kintai.dto.ApprovalQueueItem;
+import com.kintai.dto.ApprovalQueuePage;
+import com.kintai.entity.AdjustmentRequest;
+import com.kintai.entity.Employee;
+import com.kintai.entity.HolidayRequest;
+import com.kintai.entity.LeaveRequest;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.LeaveType;
+import com.kintai.event.RequestCategory;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AdjustmentRequestRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.HolidayRequestRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class ApprovalQueueServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 4, 1, 9, 0);
+
+    @Autowired
+    private ApprovalQueueService approvalQueueService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private HolidayRequestRepository holidayRequestRepository;
+
+    @Autowired
+    private AdjustmentRequestRepository adjustmentRequestRepository;
+
+    private Employee employee;
+    private String latestLeave;
+    private String sameTimeHoliday;
+    private String sameTimeAdjustment;
+    private String olderLeave;
+    private String oldestHoliday;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(new Employee("EMP-Q-001"));
+        latestLeave = key(leave(LocalDate.of(2030, 5, 10), BASE.plusHours(3)));
+        // 作成日時が同じ申請は種別の降順（休日出勤→勤怠修正）で並ぶ
+        sameTimeHoliday = key(holiday(LocalDate.of(2030, 4, 20), BASE.plusHours(2)));
+        sameTimeAdjustment = key(adjustment(LocalDate.of(2030, 3, 31), BASE.plusHours(2)));
+        olderLeave = key(leave(LocalDate.of(2030, 4, 15), BASE.plusHours(1)));
+        oldestHoliday = key(holiday(LocalDate.of(2030, 3, 1), BASE));
+    }
+
+    @Test
+    void pagesAcrossCategoriesWithoutGapsOrDuplicates() {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ApprovalQueuePage page = approvalQueueService.findQueue(null, "PENDING", employee.getEmployeeId(),
+                    null, null, cursor, 2);
+            page.items().forEach(item -> seen.add(key(item)));
+            cursor = page.nextCursor();
+            assertThat(page.hasMore()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactly(latestLeave, sameTimeHoliday, sameTimeAdjustment, olderLeave, oldestHoliday);
+    }
+
+    @Test
+    void filtersByCategoryAndPeriod() {
+        ApprovalQueuePage leaves = approvalQueueService.findQueue(Set.of(RequestCategory.LEAVE), null,
+                employee.getEmployeeId(), null, null, null, 50);
+        assertThat(leaves.items()).extracting(this::key).containsExactly(latestLeave, olderLeave);
+        assertThat(leaves.items().get(0).type()).isEqualTo("PAID_LEAVE");
+
+        ApprovalQueuePage april = approvalQueueService.findQueue(null, "PENDING", employee.getEmployeeId(),
+                LocalDate.of(2030, 4, 1), LocalDate.of(2030, 4, 30), null, 50);
+        assertThat(april.items()).extracting(this::key).containsExactly(sameTimeHoliday, olderLeave);
+        assertThat(april.hasMore()).isFalse();
+
+        // 勤務パターン変更申請に存在しないステータスでもエラーにせず、その種別を対象外とする
+        ApprovalQueuePage cancelled = approvalQueueService.findQueue(null, "CANCELLED", employee.getEmployeeId(),
+                null, null, null, 50);
+        assertThat(cancelled.items()).isEmpty();
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> approvalQueueService.findQueue(null, "PENDING", null, null, null, "not-a-cursor", 10))
+                .isInstanceOf(AttendanceException.class)
+                .extracting("errorCode").isEqualTo(AttendanceException.INVALID_REQUEST);
+    }
+
+    private LeaveRequest leave(LocalDate date, LocalDateTime createdAt) {
+        LeaveRequest request = new LeaveRequest(employee.getEmployeeId(), LeaveType.PAID_LEAVE, LeaveTimeUnit.FULL_DAY,
+                date, date, BigDecimal.ONE, "私用");
+        request.setCreatedAt(createdAt);
+        return leaveRequestRepository.save(request);
+    }
+
+    private HolidayRequest holiday(LocalDate date, LocalDateTime createdAt) {
+        HolidayRequest request = new HolidayRequest();
+        request.setEmployeeId(employee.getEmployeeId());
+        request.setRequestType(HolidayRequest.RequestType.HOLIDAY_WORK);
+        request.setWorkDate(date);
+        request.setCreatedAt(createdAt);
+        return holidayRequestRepository.save(request);
+    }
+
+    private AdjustmentRequest adjustment(LocalDate date, LocalDateTime createdAt) {
+        AdjustmentRequest request = adjustmentRequestRepository.save(new AdjustmentRequest(employee.getEmployeeId(), date,
+                date.atTime(9, 0), date.atTime(18, 0), "打刻漏れ"));
+        // 作成日時は登録時に現在時刻で上書きされるため、登録後に設定する
+        request.setCreatedAt(createdAt);
+        return adjustmentRequestRepository.saveAndFlush(request);
+    }
+
+    private String key(LeaveRequest request) {
+        return RequestCategory.LEAVE + ":" + request.getId();
+    }
+
+    private String key(HolidayRequest request) {
+        return RequestCategory.HOLIDAY + ":" + request.getId();
+    }
+
+    private String key(AdjustmentRequest request) {
+        return RequestCategory.ADJUSTMENT + ":" + request.getAdjustmentRequestId();
+    }
+
+    private String key(ApprovalQueueItem item) {
+        return item.category() + ":" + item.requestId();
+    }
+}
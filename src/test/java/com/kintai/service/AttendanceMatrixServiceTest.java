@@ -0,0 +1,112 @@
+package com.kintai.service;
+
+import com.kintai.dto.AttendanceMatrix;
+import com.kintai.entity.AbsenceDay;
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.AttendanceStatus;
+import com.kintai.entity.Employee;
+import com.kintai.entity.HolidayRequest;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.repository.AbsenceDayRepository;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.HolidayRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class AttendanceMatrixServiceTest {
+
+    // 2024年7月: 1日(月)、6日(土)・7日(日)、15日(海の日)
+    private static final YearMonth MONTH = YearMonth.of(2024, 7);
+
+    @Autowired
+    private AttendanceMatrixService attendanceMatrixService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private AbsenceDayRepository absenceDayRepository;
+
+    @Autowired
+    private HolidayRequestRepository holidayRequestRepository;
+
+    private Employee veteran;
+    private Employee newcomer;
+
+    @BeforeEach
+    void setUp() {
+        veteran = new Employee("EMP-MX-001");
+        veteran.setHireDate(LocalDate.of(2020, 4, 1));
+        veteran = employeeRepository.save(veteran);
+        newcomer = new Employee("EMP-MX-002");
+        newcomer.setHireDate(MONTH.atDay(15));
+        newcomer = employeeRepository.save(newcomer);
+    }
+
+    @Test
+    void encodesEachDayFromRecordsLeaveAndCalendar() {
+        saveRecord(veteran, 1, 9, 0, AttendanceStatus.NORMAL, 0);
+        saveRecord(veteran, 2, 9, 30, AttendanceStatus.LATE, 30);
+        saveRecord(veteran, 6, 9, 0, AttendanceStatus.NORMAL, 0);
+        absenceDayRepository.save(new AbsenceDay(veteran.getEmployeeId(), MONTH.atDay(3), "PAID_LEAVE",
+                LeaveTimeUnit.FULL_DAY, AbsenceDay.SOURCE_LEAVE_REQUEST, 990001L));
+
+        HolidayRequest transfer = new HolidayRequest();
+        transfer.setEmployeeId(newcomer.getEmployeeId());
+        transfer.setRequestType(HolidayRequest.RequestType.TRANSFER);
+        transfer.setWorkDate(MONTH.atDay(20));
+        transfer.setTransferHolidayDate(MONTH.atDay(17));
+        transfer.setStatus(HolidayRequest.Status.APPROVED);
+        holidayRequestRepository.save(transfer);
+
+        AttendanceMatrix matrix = attendanceMatrixService.buildMatrix(MONTH, true, "EMP-MX-");
+
+        assertThat(matrix.days()).isEqualTo(31);
+        assertThat(matrix.calendar()).hasSize(31);
+        assertThat(matrix.calendar().charAt(0)).isEqualTo('W');
+        assertThat(matrix.calendar().charAt(5)).isEqualTo('H');
+        assertThat(matrix.calendar().charAt(14)).isEqualTo('H');
+        assertThat(matrix.rows()).extracting(AttendanceMatrix.Row::employeeCode)
+                .containsExactly("EMP-MX-001", "EMP-MX-002");
+
+        AttendanceMatrix.Row first = matrix.rows().get(0);
+        assertThat(first.codes()).hasSize(31).startsWith("NLPAAXH");
+        assertThat(first.codes().charAt(14)).isEqualTo(AttendanceMatrixService.HOLIDAY);
+        assertThat(first.workingMinutes()[0]).isEqualTo(480);
+        assertThat(first.totals().workDays()).isEqualTo(3);
+        assertThat(first.totals().leaveDays()).isEqualTo(1);
+        assertThat(first.totals().lateCount()).isEqualTo(1);
+
+        AttendanceMatrix.Row second = matrix.rows().get(1);
+        assertThat(second.codes().substring(0, 14)).isEqualTo(".".repeat(14));
+        assertThat(second.codes().charAt(15)).isEqualTo(AttendanceMatrixService.ABSENT);
+        // 振替: 17日(水)が休日、20日(土)が出勤日
+        assertThat(second.codes().charAt(16)).isEqualTo(AttendanceMatrixService.HOLIDAY);
+        assertThat(second.codes().charAt(19)).isEqualTo(AttendanceMatrixService.ABSENT);
+    }
+
+    private void saveRecord(Employee employee, int day, int hour, int minute, AttendanceStatus status, int lateMinutes) {
+        LocalDate date = MONTH.atDay(day);
+        AttendanceRecord record = new AttendanceRecord(employee.getEmployeeId(), date);
+        record.setClockInTime(date.atTime(hour, minute));
+        record.setClockOutTime(date.atTime(18, 0));
+        record.setBreakMinutes(60);
+        record.setLateMinutes(lateMinutes);
+        record.setAttendanceStatus(status);
+        attendanceRecordRepository.save(record);
+    }
+}
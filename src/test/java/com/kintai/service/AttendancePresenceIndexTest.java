@@ -0,0 +1,155 @@
+package com.kintai.service;
+
+import com.kintai.dto.PresenceEntry;
+import com.kintai.dto.PresenceSummary;
+import com.kintai.entity.AbsenceDay;
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.Employee;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.event.AttendanceRecordChangedEvent;
+import com.kintai.repository.AbsenceDayRepository;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.util.TimeCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 在席状況インデックスのテスト
+ * インデックスはコミット後のイベントで更新されるため、クラス単位のロールバックは行わず後始末で削除する。
+ */
+@SpringBootTest
+class AttendancePresenceIndexTest {
+
+    @Autowired
+    private AttendancePresenceIndex attendancePresenceIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private AbsenceDayRepository absenceDayRepository;
+
+    @Autowired
+    private TimeCalculator timeCalculator;
+
+    private final List<AbsenceDay> absenceDays = new ArrayList<>();
+    private LocalDate today;
+    private Employee worker;
+    private Employee onLeave;
+    private Employee absent;
+
+    @BeforeEach
+    void setUp() {
+        today = timeCalculator.getCurrentTokyoTime().toLocalDate();
+        worker = employeeRepository.save(new Employee("EMP-PRS-001"));
+        onLeave = employeeRepository.save(new Employee("EMP-PRS-002"));
+        absent = employeeRepository.save(new Employee("EMP-PRS-003"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Employee employee : List.of(worker, onLeave, absent)) {
+            attendanceRecordRepository.deleteAll(
+                    attendanceRecordRepository.findByEmployeeIdOrderByAttendanceDateDesc(employee.getEmployeeId()));
+        }
+        absenceDayRepository.deleteAll(absenceDays);
+        employeeRepository.deleteAll(List.of(worker, onLeave, absent));
+        attendancePresenceIndex.rebuild();
+    }
+
+    @Test
+    void clockEventsMoveEmployeeBetweenStatusesAndTrackLateness() {
+        assertThat(entry(worker).status()).isEqualTo(PresenceEntry.Status.NOT_CLOCKED_IN);
+
+        eventPublisher.publishEvent(new AttendanceRecordChangedEvent(worker.getEmployeeId(), today,
+                today.atTime(10, 30), null));
+        PresenceEntry working = entry(worker);
+        assertThat(working.status()).isEqualTo(PresenceEntry.Status.WORKING);
+        assertThat(working.late()).isTrue();
+        assertThat(ids(attendancePresenceIndex.list(PresenceEntry.Status.WORKING, true))).contains(worker.getEmployeeId());
+
+        eventPublisher.publishEvent(new AttendanceRecordChangedEvent(worker.getEmployeeId(), today,
+                today.atTime(10, 30), today.atTime(19, 0)));
+        assertThat(entry(worker).status()).isEqualTo(PresenceEntry.Status.FINISHED);
+        assertThat(ids(attendancePresenceIndex.list(PresenceEntry.Status.WORKING, false))).doesNotContain(worker.getEmployeeId());
+
+        // 打刻修正で出勤時刻が始業前になれば遅刻から外れる
+        eventPublisher.publishEvent(new AttendanceRecordChangedEvent(worker.getEmployeeId(), today,
+                today.atTime(8, 55), today.atTime(19, 0)));
+        assertThat(entry(worker).late()).isFalse();
+        assertThat(ids(attendancePresenceIndex.list(null, true))).doesNotContain(worker.getEmployeeId());
+
+        // 当日以外の変更は無視する
+        eventPublisher.publishEvent(new AttendanceRecordChangedEvent(absent.getEmployeeId(), today.minusDays(1),
+                today.minusDays(1).atTime(9, 0), null));
+        assertThat(entry(absent).status()).isEqualTo(PresenceEntry.Status.NOT_CLOCKED_IN);
+    }
+
+    @Test
+    void savedAttendanceRecordsReachIndexThroughEntityListener() {
+        // サービスを経由せずリポジトリで保存しても、エンティティのリスナーから変更が届く
+        AttendanceRecord record = new AttendanceRecord(worker.getEmployeeId(), today);
+        record.setClockInTime(today.atTime(8, 50));
+        record = attendanceRecordRepository.save(record);
+        assertThat(entry(worker).status()).isEqualTo(PresenceEntry.Status.WORKING);
+
+        record.setClockOutTime(today.atTime(18, 0));
+        record = attendanceRecordRepository.save(record);
+        assertThat(entry(worker).status()).isEqualTo(PresenceEntry.Status.FINISHED);
+
+        // 削除は打刻ではないため状態を変えない
+        attendanceRecordRepository.delete(record);
+        assertThat(entry(worker).status()).isEqualTo(PresenceEntry.Status.FINISHED);
+    }
+
+    @Test
+    void rebuildLoadsTodayFromDatabase() {
+        AttendanceRecord record = new AttendanceRecord(worker.getEmployeeId(), today);
+        record.setClockInTime(today.atTime(8, 50));
+        attendanceRecordRepository.save(record);
+        absenceDays.add(absenceDayRepository.save(new AbsenceDay(onLeave.getEmployeeId(), today, "PAID_LEAVE",
+                LeaveTimeUnit.FULL_DAY, AbsenceDay.SOURCE_LEAVE_REQUEST, 990001L)));
+
+        attendancePresenceIndex.rebuild();
+
+        assertThat(entry(worker).status()).isEqualTo(PresenceEntry.Status.WORKING);
+        assertThat(entry(worker).late()).isFalse();
+        assertThat(entry(onLeave).status()).isEqualTo(PresenceEntry.Status.ON_LEAVE);
+        assertThat(entry(onLeave).absenceType()).isEqualTo("PAID_LEAVE");
+        assertThat(entry(absent).status()).isEqualTo(PresenceEntry.Status.NOT_CLOCKED_IN);
+
+        PresenceSummary summary = attendancePresenceIndex.getSummary();
+        assertThat(summary.date()).isEqualTo(today);
+        assertThat(summary.working() + summary.finished() + summary.onLeave() + summary.dayOff() + summary.notClockedIn())
+                .isEqualTo(summary.total());
+        assertThat(attendancePresenceIndex.list(PresenceEntry.Status.ON_LEAVE, false)).hasSize(summary.onLeave());
+    }
+
+    private PresenceEntry entry(Employee employee) {
+        return attendancePresenceIndex.list(null, false).stream()
+                .filter(entry -> entry.employeeId().equals(employee.getEmployeeId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<Long> ids(List<PresenceEntry> entries) {
+        return entries.stream().map(PresenceEntry::employeeId).toList();
+    }
+}
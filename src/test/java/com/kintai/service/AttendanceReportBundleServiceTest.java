@@ -0,0 +1,144 @@
+package com.kintai.service;
+
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.Employee;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@Transactional
+class AttendanceReportBundleServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2031, 3);
+
+    @Autowired
+    private AttendanceReportBundleService attendanceReportBundleService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @SpyBean
+    private PdfReportEngine pdfReportEngine;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(attendanceReportBundleService, "pageSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(attendanceReportBundleService, "pageSize", 100);
+    }
+
+    @Test
+    void writesOnePdfPerTargetEmployeeAcrossPages() throws IOException {
+        for (int i = 1; i <= 5; i++) {
+            Employee employee = employeeRepository.save(new Employee("EMP-BD-00" + i));
+            LocalDate date = MONTH.atDay(i);
+            AttendanceRecord record = new AttendanceRecord(employee.getEmployeeId(), date);
+            record.setClockInTime(date.atTime(9, 0));
+            record.setClockOutTime(date.atTime(18, 0));
+            attendanceRecordRepository.save(record);
+        }
+        Employee retiredBefore = new Employee("EMP-BD-009");
+        retiredBefore.setIsActive(false);
+        retiredBefore.setRetirementDate(LocalDate.of(2031, 2, 28));
+        employeeRepository.save(retiredBefore);
+
+        List<EmployeeSummary> targets = attendanceReportBundleService.findTargets(MONTH, false, "EMP-BD-");
+        assertThat(targets).extracting(EmployeeSummary::employeeCode)
+                .containsExactly("EMP-BD-001", "EMP-BD-002", "EMP-BD-003", "EMP-BD-004", "EMP-BD-005");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int written = attendanceReportBundleService.writeBundle(MONTH, targets, output);
+
+        assertThat(written).isEqualTo(5);
+        Map<String, byte[]> entries = readZip(output.toByteArray());
+        assertThat(entries.keySet()).containsExactlyInAnyOrderElementsOf(targets.stream()
+                .map(summary -> "attendance_" + summary.employeeId() + "_2031-03.pdf")
+                .toList());
+        assertThat(entries.values()).allSatisfy(pdf ->
+                assertThat(new String(pdf, 0, 4, StandardCharsets.ISO_8859_1)).isEqualTo("%PDF"));
+    }
+
+    @Test
+    void recordsRenderFailuresInErrorEntryAndKeepsZipValid() throws IOException {
+        Employee ok = employeeRepository.save(new Employee("EMP-BE-001"));
+        Employee broken = employeeRepository.save(new Employee("EMP-BE-002"));
+        doAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).contains("EMP-BE-002")) {
+                throw new IllegalStateException("フォントを読み込めません");
+            }
+            return invocation.callRealMethod();
+        }).when(pdfReportEngine).render(anyString(), any());
+
+        List<EmployeeSummary> targets = attendanceReportBundleService.findTargets(MONTH, true, "EMP-BE-");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int written = attendanceReportBundleService.writeBundle(MONTH, targets, output);
+
+        assertThat(written).isEqualTo(1);
+        Map<String, byte[]> entries = readZip(output.toByteArray());
+        assertThat(entries).containsOnlyKeys("attendance_" + ok.getEmployeeId() + "_2031-03.pdf",
+                AttendanceReportBundleService.ERROR_ENTRY);
+        assertThat(new String(entries.get(AttendanceReportBundleService.ERROR_ENTRY), StandardCharsets.UTF_8))
+                .startsWith("EMP-BE-002\t" + broken.getEmployeeId() + "\t")
+                .contains("PDF生成に失敗しました");
+    }
+
+    @Test
+    void abortsBundleWhenRenderingThrowsError() {
+        employeeRepository.save(new Employee("EMP-BF-001"));
+        employeeRepository.save(new Employee("EMP-BF-002"));
+        doAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).contains("EMP-BF-002")) {
+                throw new ExceptionInInitializerError("フォントの初期化に失敗しました");
+            }
+            return invocation.callRealMethod();
+        }).when(pdfReportEngine).render(anyString(), any());
+
+        List<EmployeeSummary> targets = attendanceReportBundleService.findTargets(MONTH, true, "EMP-BF-");
+        assertThatThrownBy(() -> attendanceReportBundleService.writeBundle(MONTH, targets, new ByteArrayOutputStream()))
+                .isInstanceOf(ExceptionInInitializerError.class);
+    }
+
+    private Map<String, byte[]> readZip(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream input = new ZipInputStream(new ByteArrayInputStream(zip), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = input.getNextEntry()) != null) {
+                entries.put(entry.getName(), input.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
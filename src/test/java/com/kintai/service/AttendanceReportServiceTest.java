@@ -0,0 +1,126 @@
+package com.kintai.service;
+
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.AttendanceStatus;
+import com.kintai.entity.Employee;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class AttendanceReportServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceReportServiceTest.class);
+
+    private static final int BENCHMARK_ITERATIONS = 10;
+
+    @Autowired
+    private AttendanceReportService attendanceReportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(new Employee("EMP-RP-<01>"));
+        for (int day = 1; day <= 20; day++) {
+            LocalDate date = LocalDate.of(2031, 3, day);
+            AttendanceRecord record = new AttendanceRecord(employee.getEmployeeId(), date);
+            record.setClockInTime(date.atTime(9, 0));
+            record.setClockOutTime(date.atTime(19, 30));
+            record.setOvertimeMinutes(90);
+            record.setAttendanceStatus(AttendanceStatus.OVERTIME);
+            attendanceRecordRepository.save(record);
+        }
+    }
+
+    @Test
+    void rendersJapaneseTextAndEscapesValues() throws IOException {
+        String html = attendanceReportService.buildReportHtml(employee.getEmployeeId(), "2031-03");
+        assertThat(html).contains("EMP-RP-&lt;01&gt;").doesNotContain("{{");
+
+        byte[] pdf = attendanceReportService.generateAttendanceReportPdf(employee.getEmployeeId(), "2031-03");
+
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            String text = PdfTextExtractor.getTextFromPage(document.getPage(1));
+            assertThat(text).contains("勤怠レポート", "2031年3月", "EMP-RP-<01>", "2031/03/20", "1時間30分");
+        }
+    }
+
+    @Test
+    void reusesCachedPdfUntilAttendanceDataChanges() {
+        byte[] first = attendanceReportService.generateAttendanceReportPdf(employee.getEmployeeId(), "2031-03");
+
+        AttendanceReportService.PreparedReport cached = attendanceReportService.prepareReport(employee.getEmployeeId(), "2031-03");
+        assertThat(cached.isCached()).isTrue();
+        assertThat(cached.getCachedPdf()).isEqualTo(first);
+
+        AttendanceRecord record = attendanceRecordRepository.findByEmployeeAndMonth(employee.getEmployeeId(), 2031, 3).get(0);
+        record.setOvertimeMinutes(30);
+        attendanceRecordRepository.saveAndFlush(record);
+
+        assertThat(attendanceReportService.prepareReport(employee.getEmployeeId(), "2031-03").isCached()).isFalse();
+    }
+
+    /**
+     * 起動時に用意した変換設定を使い回すエンジンは、毎回既定設定で変換する従来の方法よりも1件あたりの割り当て量が少ない
+     * （生成時間は環境による揺れが大きいため記録のみ）
+     */
+    @Test
+    void engineAllocatesLessPerReportThanDefaultConverter() {
+        String html = attendanceReportService.buildReportHtml(employee.getEmployeeId(), "2031-03");
+
+        long[] engine = measure(output -> attendanceReportService.writePdf(html, output));
+        long[] defaults = measure(output -> HtmlConverter.convertToPdf(html, output));
+
+        log.info("[PdfReport benchmark] engine: {} ms/report, {} KB/report; default converter: {} ms/report, {} KB/report",
+                engine[0], engine[1] / 1024, defaults[0], defaults[1] / 1024);
+        assertThat(engine[1]).isPositive().isLessThan(defaults[1]);
+    }
+
+    /**
+     * @return {平均ミリ秒, 平均割り当てバイト数}（初回は計測から除外する）
+     */
+    private long[] measure(Consumer<OutputStream> render) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        render.accept(new ByteArrayOutputStream());
+
+        long startedAt = System.nanoTime();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            render.accept(output);
+            assertThat(output.size()).isPositive();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        return new long[]{elapsedMillis / BENCHMARK_ITERATIONS, allocated / BENCHMARK_ITERATIONS};
+    }
+}
@@ -0,0 +1,182 @@
+package com.kintai.service;
+
+import com.kintai.dto.BulkDecisionResult;
+import com.kintai.dto.BulkDecisionTarget;
+import com.kintai.dto.LeaveBalanceView;
+import com.kintai.dto.LeaveRequestDto;
+import com.kintai.entity.AdjustmentRequest;
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.Employee;
+import com.kintai.entity.HolidayRequest;
+import com.kintai.entity.LeaveBalance;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.LeaveType;
+import com.kintai.event.RequestCategory;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AdjustmentRequestRepository;
+import com.kintai.repository.ApprovalRepository;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.HolidayRequestRepository;
+import com.kintai.repository.LeaveBalanceRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import com.kintai.util.BusinessDayCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class BulkApprovalServiceTest {
+
+    @Autowired
+    private BulkApprovalService bulkApprovalService;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private AdjustmentRequestRepository adjustmentRequestRepository;
+
+    @Autowired
+    private HolidayRequestRepository holidayRequestRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private ApprovalRepository approvalRepository;
+
+    @Autowired
+    private BusinessDayCalculator businessDayCalculator;
+
+    private Employee employee;
+    private Employee other;
+    private Employee approver;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(new Employee("EMP-B-001"));
+        other = employeeRepository.save(new Employee("EMP-B-002"));
+        approver = employeeRepository.save(new Employee("EMP-B-ADMIN"));
+    }
+
+    @Test
+    void approvesMixedRequestsAndReportsPerItemResults() {
+        Long firstLeave = createPaidLeave(employee, nextWorkingDay(1));
+        Long secondLeave = createPaidLeave(employee, nextWorkingDay(2));
+        LocalDate targetDate = LocalDate.now().minusDays(1);
+        AdjustmentRequest adjustment = adjustmentRequestRepository.save(new AdjustmentRequest(other.getEmployeeId(),
+                targetDate, targetDate.atTime(9, 0), targetDate.atTime(18, 0), "打刻漏れ"));
+        HolidayRequest holiday = new HolidayRequest();
+        holiday.setEmployeeId(other.getEmployeeId());
+        holiday.setRequestType(HolidayRequest.RequestType.HOLIDAY_WORK);
+        holiday.setWorkDate(LocalDate.now().plusDays(10));
+        holiday = holidayRequestRepository.save(holiday);
+        long approvalsBefore = approvalRepository.count();
+
+        List<BulkDecisionResult> results = bulkApprovalService.decide(List.of(
+                new BulkDecisionTarget(RequestCategory.LEAVE, firstLeave),
+                new BulkDecisionTarget(RequestCategory.LEAVE, secondLeave),
+                new BulkDecisionTarget(RequestCategory.ADJUSTMENT, adjustment.getAdjustmentRequestId()),
+                new BulkDecisionTarget(RequestCategory.HOLIDAY, holiday.getId()),
+                new BulkDecisionTarget(RequestCategory.LEAVE, firstLeave),
+                new BulkDecisionTarget(RequestCategory.WORK_PATTERN, 99999999L)
+        ), true, approver.getEmployeeId(), null);
+
+        assertThat(results).hasSize(5);
+        assertThat(results.subList(0, 4)).allMatch(BulkDecisionResult::success);
+        assertThat(results.get(4).success()).isFalse();
+        assertThat(results.get(4).errorCode()).isEqualTo(AttendanceException.REQUEST_NOT_FOUND);
+
+        assertThat(leaveRequestRepository.findById(firstLeave).orElseThrow().getStatus()).isEqualTo(LeaveStatus.APPROVED);
+        LeaveBalanceView view = leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId()).get(LeaveType.PAID_LEAVE);
+        assertThat(view.getRemaining()).isEqualByComparingTo("8");
+        assertThat(view.getPending()).isEqualByComparingTo("0");
+
+        AttendanceRecord record = attendanceRecordRepository
+                .findByEmployeeIdAndAttendanceDate(other.getEmployeeId(), targetDate).orElseThrow();
+        assertThat(record.getClockInTime()).isEqualTo(targetDate.atTime(9, 0));
+        assertThat(holidayRequestRepository.findById(holiday.getId()).orElseThrow().getStatus())
+                .isEqualTo(HolidayRequest.Status.APPROVED);
+        // 承認履歴は個別承認と同じく休暇申請のみ記録する
+        assertThat(approvalRepository.count() - approvalsBefore).isEqualTo(2);
+
+        // 処理済みの申請を再度指定すると状態エラー
+        BulkDecisionResult again = bulkApprovalService.decide(
+                List.of(new BulkDecisionTarget(RequestCategory.LEAVE, firstLeave)), true, approver.getEmployeeId(), null).get(0);
+        assertThat(again.success()).isFalse();
+        assertThat(again.errorCode()).isEqualTo(BulkApprovalService.INVALID_STATUS);
+    }
+
+    @Test
+    void consumesOlderRequestsFirstWhenBalanceIsShort() {
+        Long older = createPaidLeave(employee, nextWorkingDay(1));
+        Long newer = createPaidLeave(employee, nextWorkingDay(2));
+        LeaveBalance balance = leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.PAID_LEAVE).orElseThrow();
+        balance.setRemainingDays(BigDecimal.ONE);
+        leaveBalanceRepository.saveAndFlush(balance);
+
+        List<BulkDecisionResult> results = bulkApprovalService.decide(List.of(
+                new BulkDecisionTarget(RequestCategory.LEAVE, newer),
+                new BulkDecisionTarget(RequestCategory.LEAVE, older)
+        ), true, approver.getEmployeeId(), null);
+
+        assertThat(results.get(0).success()).isFalse();
+        assertThat(results.get(0).message()).contains("残日数が不足しています");
+        assertThat(results.get(1).success()).isTrue();
+        assertThat(leaveRequestRepository.findById(newer).orElseThrow().getStatus()).isEqualTo(LeaveStatus.PENDING);
+    }
+
+    @Test
+    void rejectRequiresComment() {
+        Long leave = createPaidLeave(employee, nextWorkingDay(1));
+        List<BulkDecisionTarget> targets = List.of(new BulkDecisionTarget(RequestCategory.LEAVE, leave));
+
+        assertThatThrownBy(() -> bulkApprovalService.decide(targets, false, approver.getEmployeeId(), " "))
+                .isInstanceOf(AttendanceException.class);
+
+        assertThat(bulkApprovalService.decide(targets, false, approver.getEmployeeId(), "業務都合").get(0).success()).isTrue();
+        assertThat(leaveRequestRepository.findById(leave).orElseThrow().getRejectionComment()).isEqualTo("業務都合");
+        LeaveBalanceView view = leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId()).get(LeaveType.PAID_LEAVE);
+        assertThat(view.getPending()).isEqualByComparingTo("0");
+    }
+
+    private Long createPaidLeave(Employee target, LocalDate date) {
+        LeaveRequestDto dto = leaveRequestService.createLeaveRequest(target.getEmployeeId(), LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.FULL_DAY, date, date, "年休取得");
+        return ((LeaveRequestDto.LeaveData) dto.getData()).getLeaveRequestId();
+    }
+
+    private LocalDate nextWorkingDay(int plusDays) {
+        LocalDate date = LocalDate.now();
+        int remaining = plusDays;
+        while (remaining > 0) {
+            date = date.plusDays(1);
+            if (businessDayCalculator.isBusinessDay(date)) {
+                remaining--;
+            }
+        }
+        return date;
+    }
+}
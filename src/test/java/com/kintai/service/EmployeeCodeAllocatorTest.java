@@ -0,0 +1,109 @@
+package com.kintai.service;
+
+import com.kintai.entity.Employee;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.IdSequenceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 社員コード採番のテスト
+ * ブロック予約は独立トランザクションでコミットされるため、クラス単位のロールバックは行わず後始末で削除する。
+ */
+@SpringBootTest
+class EmployeeCodeAllocatorTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 25;
+
+    @Autowired
+    private EmployeeCodeAllocator employeeCodeAllocator;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final List<Employee> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        resetSequence();
+        ReflectionTestUtils.setField(employeeCodeAllocator, "blockSize", 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAll(created);
+        resetSequence();
+        ReflectionTestUtils.setField(employeeCodeAllocator, "blockSize", 20);
+    }
+
+    @Test
+    void startsAfterHighestExistingCodeAndSkipsCodesInUse() {
+        created.add(employeeRepository.save(new Employee("EMP9500")));
+        assertThat(employeeCodeAllocator.peekNextNumber()).isEqualTo(9501L);
+
+        // 予約済みの番号が手動登録で使われた場合は読み飛ばす
+        assertThat(employeeCodeAllocator.allocate()).isEqualTo("EMP9501");
+        created.add(employeeRepository.save(new Employee("EMP9502")));
+        assertThat(employeeCodeAllocator.peekNextNumber()).isEqualTo(9502L);
+        assertThat(employeeCodeAllocator.allocate()).isEqualTo("EMP9503");
+        assertThat(idSequenceRepository.findById(EmployeeCodeAllocator.SEQUENCE_NAME).orElseThrow().getNextValue())
+                .isEqualTo(9506L);
+    }
+
+    @Test
+    void concurrentAllocationsAreUnique() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Callable<List<String>> task = () -> {
+                    start.await();
+                    List<String> codes = new ArrayList<>();
+                    for (int j = 0; j < PER_THREAD; j++) {
+                        codes.add(employeeCodeAllocator.allocate());
+                    }
+                    return codes;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            Set<String> codes = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                codes.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(codes).hasSize(THREADS * PER_THREAD);
+            assertThat(codes).allMatch(code -> code.matches("EMP\\d{3,}"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void resetSequence() {
+        idSequenceRepository.deleteById(EmployeeCodeAllocator.SEQUENCE_NAME);
+        ReflectionTestUtils.setField(employeeCodeAllocator, "next", 0L);
+        ReflectionTestUtils.setField(employeeCodeAllocator, "end", 0L);
+    }
+}
@@ -0,0 +1,189 @@
+package com.kintai.service;
+
+import com.kintai.entity.AbsenceDay;
+import com.kintai.entity.AdjustmentRequest;
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.Employee;
+import com.kintai.entity.LeaveBalance;
+import com.kintai.entity.LeaveLedgerEntry;
+import com.kintai.entity.LeaveLedgerEntryType;
+import com.kintai.entity.LeaveRequest;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.LeaveType;
+import com.kintai.entity.UserAccount;
+import com.kintai.event.RequestCategory;
+import com.kintai.repository.AbsenceDayRepository;
+import com.kintai.repository.AdjustmentRequestRepository;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.LeaveBalanceRepository;
+import com.kintai.repository.LeaveLedgerEntryRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import com.kintai.repository.UserAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class EmployeeMaintenanceServiceTest {
+
+    private static final LocalDate RETIREMENT_DATE = LocalDate.of(2031, 3, 31);
+
+    @Autowired
+    private EmployeeMaintenanceService employeeMaintenanceService;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private LeaveLedgerEntryRepository leaveLedgerEntryRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private AdjustmentRequestRepository adjustmentRequestRepository;
+
+    @Autowired
+    private AbsenceDayRepository absenceDayRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private PendingRequestCounter pendingRequestCounter;
+
+    private final List<Employee> employees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            Employee employee = new Employee("EMP-MT-00" + i);
+            employee.setHireDate(LocalDate.of(2020, 4, 1));
+            employees.add(employeeRepository.save(employee));
+        }
+        ReflectionTestUtils.setField(employeeMaintenanceService, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(employeeMaintenanceService, "chunkSize", 500);
+    }
+
+    @Test
+    void retiresEmployeesInChunksAndResetsAllBalances() {
+        Employee withBalances = employees.get(0);
+        Employee withoutBalances = employees.get(1);
+        Employee untouched = employees.get(2);
+        leaveRequestService.initializeBalances(withBalances);
+        leaveRequestService.initializeBalances(untouched);
+        userAccountRepository.save(new UserAccount("mt-retire-1", "x", UserAccount.UserRole.EMPLOYEE,
+                withBalances.getEmployeeId()));
+
+        EmployeeMaintenanceService.RetirementJob job = employeeMaintenanceService.retire(
+                List.of(withBalances.getEmployeeId(), withoutBalances.getEmployeeId(), withBalances.getEmployeeId(),
+                        999999L),
+                RETIREMENT_DATE);
+
+        assertThat(job.getStatus()).isEqualTo(EmployeeMaintenanceService.RetirementJob.Status.COMPLETED);
+        assertThat(job.getTotal()).isEqualTo(3);
+        assertThat(job.getProcessed()).isEqualTo(3);
+        assertThat(job.getRetired()).isEqualTo(2);
+
+        for (Employee employee : List.of(withBalances, withoutBalances)) {
+            Employee reloaded = employeeRepository.findById(employee.getEmployeeId()).orElseThrow();
+            assertThat(reloaded.getIsActive()).isFalse();
+            assertThat(reloaded.getRetirementDate()).isEqualTo(RETIREMENT_DATE);
+            List<LeaveBalance> balances = leaveBalanceRepository.findByEmployeeId(employee.getEmployeeId());
+            assertThat(balances).hasSize(LeaveType.values().length);
+            assertThat(balances).allSatisfy(balance -> {
+                assertThat(balance.getTotalDays()).isEqualByComparingTo(BigDecimal.ZERO);
+                assertThat(balance.getRemainingDays()).isEqualByComparingTo(BigDecimal.ZERO);
+            });
+        }
+        assertThat(userAccountRepository.findByUsername("mt-retire-1").orElseThrow().isEnabled()).isFalse();
+
+        List<LeaveLedgerEntry> entries = leaveLedgerEntryRepository.findBySourceTypeAndSourceIdAndEntryType(
+                "RETIREMENT", withBalances.getEmployeeId(), LeaveLedgerEntryType.ADJUST);
+        assertThat(entries).singleElement().satisfies(entry -> {
+            assertThat(entry.getLeaveType()).isEqualTo(LeaveType.PAID_LEAVE);
+            assertThat(entry.getDays()).isEqualByComparingTo(new BigDecimal("-10"));
+        });
+
+        // 再実行しても退職済みの従業員の退職日は上書きせず、退職件数にも含めない
+        EmployeeMaintenanceService.RetirementJob rerun = employeeMaintenanceService.retire(
+                List.of(withBalances.getEmployeeId(), withoutBalances.getEmployeeId()), RETIREMENT_DATE.plusDays(1));
+        assertThat(rerun.getRetired()).isZero();
+        assertThat(employeeRepository.findById(withBalances.getEmployeeId()).orElseThrow().getRetirementDate())
+                .isEqualTo(RETIREMENT_DATE);
+
+        assertThat(employeeRepository.findById(untouched.getEmployeeId()).orElseThrow().getIsActive()).isTrue();
+        assertThat(leaveBalanceRepository.findByEmployeeIdAndLeaveType(untouched.getEmployeeId(), LeaveType.PAID_LEAVE)
+                .orElseThrow().getRemainingDays()).isEqualByComparingTo(BigDecimal.TEN);
+    }
+
+    @Test
+    void purgesAttendanceDataOfTargetEmployeesOnly() {
+        Employee target = employees.get(0);
+        Employee other = employees.get(1);
+        for (Employee employee : List.of(target, other)) {
+            attendanceRecordRepository.save(new AttendanceRecord(employee.getEmployeeId(), LocalDate.of(2031, 3, 2)));
+            attendanceRecordRepository.save(new AttendanceRecord(employee.getEmployeeId(), LocalDate.of(2031, 3, 3)));
+            adjustmentRequestRepository.save(new AdjustmentRequest(employee.getEmployeeId(), LocalDate.of(2031, 3, 2),
+                    LocalDate.of(2031, 3, 2).atTime(9, 0), LocalDate.of(2031, 3, 2).atTime(18, 0), "修正"));
+            absenceDayRepository.save(new AbsenceDay(employee.getEmployeeId(), LocalDate.of(2031, 3, 4), "PAID_LEAVE",
+                    LeaveTimeUnit.FULL_DAY, AbsenceDay.SOURCE_LEAVE_REQUEST, employee.getEmployeeId()));
+        }
+        absenceDayRepository.save(new AbsenceDay(target.getEmployeeId(), LocalDate.of(2031, 3, 5), "公休",
+                LeaveTimeUnit.FULL_DAY, AbsenceDay.SOURCE_CUSTOM_HOLIDAY, 1L));
+        leaveRequestService.initializeBalances(target);
+        leaveRequestRepository.save(new LeaveRequest(target.getEmployeeId(), LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.FULL_DAY, LocalDate.of(2031, 3, 6), LocalDate.of(2031, 3, 7), new BigDecimal("2"), "私用"));
+        LeaveBalance paidLeave = leaveBalanceRepository.findByEmployeeIdAndLeaveType(target.getEmployeeId(),
+                LeaveType.PAID_LEAVE).orElseThrow();
+        paidLeave.setPendingDays(new BigDecimal("2"));
+        leaveBalanceRepository.save(paidLeave);
+
+        int deleted = employeeMaintenanceService.purgeAttendanceData(List.of(target.getEmployeeId()));
+
+        assertThat(deleted).isEqualTo(4);
+        assertThat(attendanceRecordRepository.findByEmployeeIdOrderByAttendanceDateDesc(target.getEmployeeId())).isEmpty();
+        assertThat(adjustmentRequestRepository.findByEmployeeIdOrderByCreatedAtDesc(target.getEmployeeId())).isEmpty();
+        assertThat(attendanceRecordRepository.findByEmployeeIdOrderByAttendanceDateDesc(other.getEmployeeId())).hasSize(2);
+        assertThat(adjustmentRequestRepository.findByEmployeeIdOrderByCreatedAtDesc(other.getEmployeeId())).hasSize(1);
+
+        // 削除した休暇申請の不在日は消え、カスタム休日と他の従業員の不在日は残る
+        LocalDate from = LocalDate.of(2031, 3, 1);
+        LocalDate to = LocalDate.of(2031, 3, 31);
+        assertThat(absenceDayRepository.findOverlapping(List.of(target.getEmployeeId()), from, to))
+                .extracting(AbsenceDay::getSourceType).containsExactly(AbsenceDay.SOURCE_CUSTOM_HOLIDAY);
+        assertThat(absenceDayRepository.findOverlapping(List.of(other.getEmployeeId()), from, to)).hasSize(1);
+        // 削除した申請中の休暇の日数は申請中日数から外れる
+        assertThat(leaveBalanceRepository.findByEmployeeIdAndLeaveType(target.getEmployeeId(), LeaveType.PAID_LEAVE)
+                .orElseThrow().getPendingDays()).isEqualByComparingTo(BigDecimal.ZERO);
+        // 承認待ち件数は削除後のDBの件数と一致する
+        assertThat(pendingRequestCounter.get(RequestCategory.ADJUSTMENT))
+                .isEqualTo(adjustmentRequestRepository.countByStatus(AdjustmentRequest.AdjustmentStatus.PENDING));
+    }
+}
@@ -0,0 +1,126 @@
+package com.kintai.service;
+
+import com.kintai.dto.EmployeeImportResult;
+import com.kintai.entity.Employee;
+import com.kintai.entity.LeaveBalance;
+import com.kintai.entity.LeaveType;
+import com.kintai.entity.UserAccount;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.LeaveBalanceRepository;
+import com.kintai.repository.UserAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 社員一括登録のテスト
+ * チャンクごとに独立したトランザクションでコミットされるため、クラス単位のロールバックは行わず後始末で削除する。
+ */
+@SpringBootTest
+class EmployeeOnboardingServiceTest {
+
+    @Autowired
+    private EmployeeOnboardingService employeeOnboardingService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (Long employeeId : created) {
+            userAccountRepository.findByEmployeeId(employeeId).ifPresent(userAccountRepository::delete);
+            leaveBalanceRepository.deleteAll(leaveBalanceRepository.findByEmployeeId(employeeId));
+            employeeRepository.deleteById(employeeId);
+        }
+        ReflectionTestUtils.setField(employeeOnboardingService, "chunkSize", 500);
+    }
+
+    @Test
+    void importsCsvRowsAcrossChunksAndReportsInvalidRows() {
+        ReflectionTestUtils.setField(employeeOnboardingService, "chunkSize", 2);
+        String csv = "\uFEFF姓,名,生年月日,入社日,パスワード\n" +
+                "一括,太郎,1990-05-01,2025-04-01,pass1234\n" +
+                "\"一括,\"\"二\"\"\",花子,,2025-04-01,pass5678\n" +
+                "\n" +
+                "一括,三郎,,2025/04/01,pass0000\n" +
+                "一括,四郎,,2025-04-01,abc\n" +
+                "一括,五郎,,2025-04-02,pass9999\n";
+
+        List<EmployeeImportResult> results = employeeOnboardingService.importEmployees(
+                employeeOnboardingService.readCsv(stream(csv)));
+        results.stream().filter(EmployeeImportResult::success).forEach(result -> created.add(result.employeeId()));
+
+        assertThat(results).extracting(EmployeeImportResult::rowNumber).containsExactly(1, 2, 3, 4, 5);
+        assertThat(results).extracting(EmployeeImportResult::success).containsExactly(true, true, false, false, true);
+        assertThat(results.get(2).errorCode()).isEqualTo("INVALID_REQUEST");
+        assertThat(results.get(2).message()).contains("入社日");
+        assertThat(results.get(3).message()).contains("パスワード");
+
+        EmployeeImportResult first = results.get(0);
+        Employee employee = employeeRepository.findById(first.employeeId()).orElseThrow();
+        assertThat(employee.getEmployeeCode()).isEqualTo(first.employeeCode());
+        assertThat(employee.getBirthday()).isEqualTo(LocalDate.of(1990, 5, 1));
+        assertThat(employee.getHireMonthDay()).isEqualTo(401);
+        assertThat(employeeRepository.findById(results.get(1).employeeId()).orElseThrow().getLastName())
+                .isEqualTo("一括,\"二\"");
+
+        UserAccount account = userAccountRepository.findByUsername(first.username()).orElseThrow();
+        assertThat(account.getEmployeeId()).isEqualTo(first.employeeId());
+        assertThat(account.getRole()).isEqualTo(UserAccount.UserRole.EMPLOYEE);
+        assertThat(passwordEncoder.matches("pass1234", account.getPassword())).isTrue();
+
+        List<LeaveBalance> balances = leaveBalanceRepository.findByEmployeeId(first.employeeId());
+        assertThat(balances).hasSize(LeaveType.values().length);
+        assertThat(balances).filteredOn(balance -> balance.getLeaveType() == LeaveType.PAID_LEAVE)
+                .singleElement()
+                .satisfies(balance -> assertThat(balance.getRemainingDays()).isEqualByComparingTo(BigDecimal.TEN));
+
+        assertThat(employeeSearchIndex.search(first.employeeCode(), false, 10))
+                .anySatisfy(summary -> assertThat(summary.employeeId()).isEqualTo(first.employeeId()));
+    }
+
+    @Test
+    void importsJsonArray() {
+        String json = "[{\"lastName\": \"一括\", \"firstName\": \"六子\", \"hireDate\": \"2025-10-01\", \"password\": \"secret\"}," +
+                " {\"lastName\": \"一括\", \"firstName\": \"七子\", \"password\": \"secret\"}]";
+
+        List<EmployeeImportResult> results = employeeOnboardingService.importEmployees(
+                employeeOnboardingService.readJson(stream(json)));
+        results.stream().filter(EmployeeImportResult::success).forEach(result -> created.add(result.employeeId()));
+
+        assertThat(results).extracting(EmployeeImportResult::success).containsExactly(true, false);
+        assertThat(results.get(0).username()).isEqualTo("emp" + Long.parseLong(results.get(0).employeeCode().substring(3)));
+        assertThat(results.get(1).message()).isEqualTo("入社日は必須です");
+    }
+
+    private static InputStream stream(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.kintai.service;
+
+import com.kintai.dto.EmployeeSummary;
+import com.kintai.entity.Employee;
+import com.kintai.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 社員検索インデックスのテスト
+ * インデックスはコミット後に更新されるため、クラス単位のロールバックは行わず後始末で削除する。
+ */
+@SpringBootTest
+class EmployeeSearchIndexTest {
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final List<Employee> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        created.add(save("IDX901", "山田", "太郎", "やまだ", "たろう"));
+        created.add(save("IDX902", "小山", "花子", "こやま", "はなこ"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAll(created);
+    }
+
+    @Test
+    void matchesCodeKanjiAndKanaWithPrefixFirst() {
+        assertThat(codes(employeeSearchIndex.search("idx90", false, 10))).containsExactly("IDX901", "IDX902");
+        // カタカナ・半角カナでもふりがなに一致し、前方一致（やまだ）が部分一致（こやま）より先に並ぶ
+        assertThat(codes(employeeSearchIndex.search("ヤマ", false, 10))).containsExactly("IDX901", "IDX902");
+        assertThat(codes(employeeSearchIndex.search("ﾔﾏﾀﾞ", false, 10))).containsExactly("IDX901");
+        assertThat(codes(employeeSearchIndex.search("山", false, 10))).containsExactly("IDX901", "IDX902");
+        assertThat(codes(employeeSearchIndex.search("花子", false, 10))).containsExactly("IDX902");
+        assertThat(employeeSearchIndex.search("山田花子", false, 10)).isEmpty();
+    }
+
+    @Test
+    void followsUpdatesRetirementAndDeletion() {
+        Employee employee = created.get(0);
+        employee.setLastName("佐藤");
+        employee.setLastKana("さとう");
+        employee.setIsActive(false);
+        employeeRepository.save(employee);
+
+        assertThat(codes(employeeSearchIndex.search("山田", false, 10))).isEmpty();
+        assertThat(codes(employeeSearchIndex.search("さとう", false, 10))).containsExactly("IDX901");
+        assertThat(codes(employeeSearchIndex.search("さとう", true, 10))).isEmpty();
+
+        employeeRepository.delete(created.remove(1));
+        assertThat(codes(employeeSearchIndex.search("はなこ", false, 10))).isEmpty();
+    }
+
+    private Employee save(String code, String lastName, String firstName, String lastKana, String firstKana) {
+        Employee employee = new Employee(code);
+        employee.setLastName(lastName);
+        employee.setFirstName(firstName);
+        employee.setLastKana(lastKana);
+        employee.setFirstKana(firstKana);
+        return employeeRepository.save(employee);
+    }
+
+    private List<String> codes(List<EmployeeSummary> result) {
+        return result.stream().map(EmployeeSummary::employeeCode).toList();
+    }
+}
@@ -0,0 +1,255 @@
+package com.kintai.service;
+
+import com.kintai.dto.BulkDecisionTarget;
+import com.kintai.dto.LeaveRequestDto;
+import com.kintai.entity.Employee;
+import com.kintai.entity.LeaveBalance;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.LeaveType;
+import com.kintai.event.RequestCategory;
+import com.kintai.exception.VacationException;
+import com.kintai.repository.ApprovalRepository;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.LeaveBalanceRepository;
+import com.kintai.repository.LeaveGrantRepository;
+import com.kintai.repository.LeaveLedgerEntryRepository;
+import com.kintai.repository.LeaveLedgerSnapshotRepository;
+import com.kintai.repository.LeaveRequestRepository;
+import com.kintai.util.BusinessDayCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 残数更新の同時実行テスト
+ * 各処理を別トランザクションで並行実行するため、クラス単位のロールバックは行わず後始末で削除する。
+ */
+@SpringBootTest
+class LeaveBalanceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    private final BusinessDayCalculator businessDayCalculator = new BusinessDayCalculator();
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private BulkApprovalService bulkApprovalService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveGrantRepository leaveGrantRepository;
+
+    @Autowired
+    private ApprovalRepository approvalRepository;
+
+    @Autowired
+    private LeaveLedgerEntryRepository leaveLedgerEntryRepository;
+
+    @Autowired
+    private LeaveLedgerSnapshotRepository leaveLedgerSnapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Employee employee;
+    private Employee approver;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(new Employee("EMP-CONC-001"));
+        approver = employeeRepository.save(new Employee("EMP-CONC-ADMIN"));
+        leaveRequestService.initializeBalances(employee);
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Long> requestIds = leaveRequestRepository.findAll().stream()
+                .filter(request -> employee.getEmployeeId().equals(request.getEmployeeId()))
+                .map(request -> request.getId())
+                .toList();
+        approvalRepository.findAll().stream()
+                .filter(approval -> "LEAVE_REQUEST".equals(approval.getTargetType()) && requestIds.contains(approval.getTargetId()))
+                .forEach(approvalRepository::delete);
+        leaveRequestRepository.deleteAllById(requestIds);
+        leaveLedgerEntryRepository.deleteAll(leaveLedgerEntryRepository.findAll().stream()
+                .filter(entry -> employee.getEmployeeId().equals(entry.getEmployeeId()))
+                .toList());
+        leaveLedgerSnapshotRepository.deleteAll(leaveLedgerSnapshotRepository.findAll().stream()
+                .filter(snapshot -> employee.getEmployeeId().equals(snapshot.getEmployeeId()))
+                .toList());
+        leaveGrantRepository.deleteAll(leaveGrantRepository.findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.PAID_LEAVE));
+        leaveBalanceRepository.deleteAll(leaveBalanceRepository.findByEmployeeId(employee.getEmployeeId()));
+        employeeRepository.deleteAll(List.of(employee, approver));
+    }
+
+    @Test
+    void concurrentApprovalsDoNotLoseBalanceUpdates() throws Exception {
+        List<Long> requestIds = new ArrayList<>();
+        LocalDate date = LocalDate.now();
+        for (int i = 0; i < THREADS; i++) {
+            date = nextWorkingDay(date);
+            LeaveRequestDto dto = leaveRequestService.createLeaveRequest(
+                    employee.getEmployeeId(), LeaveType.PAID_LEAVE, LeaveTimeUnit.FULL_DAY, date, date, "同時承認");
+            requestIds.add(((LeaveRequestDto.LeaveData) dto.getData()).getLeaveRequestId());
+        }
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Long requestId : requestIds) {
+            tasks.add(() -> {
+                leaveRequestService.updateStatus(requestId, LeaveStatus.APPROVED, approver.getEmployeeId(), null);
+                return true;
+            });
+        }
+        assertThat(runConcurrently(tasks)).containsOnly(true);
+
+        LeaveBalance balance = leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.PAID_LEAVE).orElseThrow();
+        assertThat(balance.getUsedDays()).isEqualByComparingTo(BigDecimal.valueOf(THREADS));
+        assertThat(balance.getRemainingDays()).isEqualByComparingTo(BigDecimal.valueOf(10 - THREADS));
+        assertThat(balance.getPendingDays()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void singleAndBulkApprovalsOfSameRequestConsumeBalanceOnce() throws Exception {
+        LocalDate date = nextWorkingDay(LocalDate.now());
+        LeaveRequestDto dto = leaveRequestService.createLeaveRequest(
+                employee.getEmployeeId(), LeaveType.PAID_LEAVE, LeaveTimeUnit.FULL_DAY, date, date, "同時承認");
+        Long requestId = ((LeaveRequestDto.LeaveData) dto.getData()).getLeaveRequestId();
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            if (i % 2 == 0) {
+                tasks.add(() -> {
+                    leaveRequestService.updateStatus(requestId, LeaveStatus.APPROVED, approver.getEmployeeId(), null);
+                    return true;
+                });
+            } else {
+                tasks.add(() -> bulkApprovalService.decide(List.of(new BulkDecisionTarget(RequestCategory.LEAVE, requestId)),
+                        true, approver.getEmployeeId(), null).get(0).success());
+            }
+        }
+        List<Boolean> results = runConcurrently(tasks);
+
+        // 状態遷移できたのは1件のみで、残数の消化と承認履歴も1回分だけ記録される
+        assertThat(results.stream().filter(Boolean::booleanValue).count()).isEqualTo(1);
+        LeaveBalance balance = leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.PAID_LEAVE).orElseThrow();
+        assertThat(balance.getUsedDays()).isEqualByComparingTo("1");
+        assertThat(balance.getRemainingDays()).isEqualByComparingTo("9");
+        assertThat(balance.getPendingDays()).isEqualByComparingTo("0");
+        assertThat(approvalRepository.findAll()).filteredOn(approval -> requestId.equals(approval.getTargetId())
+                && "LEAVE_REQUEST".equals(approval.getTargetType())).hasSize(1);
+    }
+
+    @Test
+    void concurrentConsumptionNeverOverdrawsBalance() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS * 2; i++) {
+            tasks.add(() -> {
+                Integer updated = tx.execute(status -> leaveBalanceRepository.consumeDays(
+                        employee.getEmployeeId(), LeaveType.PAID_LEAVE, BigDecimal.ONE));
+                return updated != null && updated == 1;
+            });
+        }
+        List<Boolean> results = runConcurrently(tasks);
+
+        // 残数10日に対して16件の1日消化: 成功は10件のみで、残数は負にならない
+        assertThat(results.stream().filter(Boolean::booleanValue).count()).isEqualTo(10);
+        LeaveBalance balance = leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.PAID_LEAVE).orElseThrow();
+        assertThat(balance.getRemainingDays()).isEqualByComparingTo("0");
+        assertThat(balance.getUsedDays()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void concurrentGrantsAndConsumptionsAreAllApplied() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            if (i % 2 == 0) {
+                tasks.add(() -> {
+                    tx.executeWithoutResult(status -> leaveRequestService.applyGrant(employee.getEmployeeId(),
+                            LeaveType.PAID_LEAVE, BigDecimal.ONE, LocalDate.now(), null, approver.getEmployeeId()));
+                    return true;
+                });
+            } else {
+                tasks.add(() -> {
+                    Integer updated = tx.execute(status -> leaveBalanceRepository.consumeDays(
+                            employee.getEmployeeId(), LeaveType.PAID_LEAVE, BigDecimal.ONE));
+                    return updated != null && updated == 1;
+                });
+            }
+        }
+        assertThat(runConcurrently(tasks)).containsOnly(true);
+
+        // 付与4日・消化4日: どちらの更新も失われない
+        LeaveBalance balance = leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.PAID_LEAVE).orElseThrow();
+        assertThat(balance.getTotalDays()).isEqualByComparingTo(BigDecimal.valueOf(10 + THREADS / 2));
+        assertThat(balance.getUsedDays()).isEqualByComparingTo(BigDecimal.valueOf(THREADS / 2));
+        assertThat(balance.getRemainingDays()).isEqualByComparingTo("10");
+    }
+
+    private List<Boolean> runConcurrently(List<Callable<Boolean>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Callable<Boolean> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return task.call();
+                    } catch (VacationException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LocalDate nextWorkingDay(LocalDate from) {
+        LocalDate date = from.plusDays(1);
+        while (!businessDayCalculator.isBusinessDay(date)) {
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+}
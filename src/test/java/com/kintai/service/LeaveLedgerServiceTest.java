@@ -0,0 +1,196 @@
+package com.kintai.service;
+
+import com.kintai.dto.LeaveRequestDto;
+import com.kintai.entity.Employee;
+import com.kintai.entity.LeaveLedgerEntry;
+import com.kintai.entity.LeaveLedgerEntryType;
+import com.kintai.entity.LeaveLedgerSnapshot;
+import com.kintai.entity.LeaveStatus;
+import com.kintai.entity.LeaveTimeUnit;
+import com.kintai.entity.LeaveType;
+import com.kintai.repository.EmployeeRepository;
+import com.kintai.repository.LeaveLedgerSnapshotRepository;
+import com.kintai.util.BusinessDayCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class LeaveLedgerServiceTest {
+
+    private final BusinessDayCalculator businessDayCalculator = new BusinessDayCalculator();
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private LeaveBalanceMaintenanceService leaveBalanceMaintenanceService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private LeaveLedgerSnapshotRepository leaveLedgerSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Employee employee;
+    private Employee approver;
+
+    @BeforeEach
+    void setUp() {
+        Employee created = new Employee("EMP-LEDGER-001");
+        created.setPaidLeaveBaseDays(1);
+        employee = employeeRepository.save(created);
+        approver = employeeRepository.save(new Employee("EMP-LEDGER-ADMIN"));
+        leaveRequestService.initializeBalances(employee);
+    }
+
+    @Test
+    void consumptionTakesBaseDaysThenOldestGrantAndOnlyUnconsumedDaysExpire() {
+        LocalDate today = LocalDate.now();
+        LocalDate leaveDate = nextWorkingDay(today);
+        // 基本付与日数1日、古い付与（休暇日で失効）2日、新しい付与3日
+        leaveRequestService.applyGrant(employee.getEmployeeId(), LeaveType.PAID_LEAVE, new BigDecimal("2"),
+                today.minusDays(30), leaveDate, approver.getEmployeeId());
+        leaveRequestService.applyGrant(employee.getEmployeeId(), LeaveType.PAID_LEAVE, new BigDecimal("3"),
+                today, today.plusYears(1), approver.getEmployeeId());
+
+        LocalDate end = leaveDate;
+        for (int i = 0; i < 3; i++) {
+            end = nextWorkingDay(end);
+        }
+        LeaveRequestDto dto = leaveRequestService.createLeaveRequest(employee.getEmployeeId(), LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.FULL_DAY, leaveDate, end, "台帳テスト");
+        Long requestId = ((LeaveRequestDto.LeaveData) dto.getData()).getLeaveRequestId();
+        leaveRequestService.updateStatus(requestId, LeaveStatus.APPROVED, approver.getEmployeeId(), null);
+
+        // 取得4日は基本付与日数1日 → 古い付与2日 → 新しい付与1日の順に配分される
+        List<LeaveLedgerEntry> consumed = leaveLedgerService.recentEntries(employee.getEmployeeId(), LeaveType.PAID_LEAVE, 10)
+                .stream()
+                .filter(entry -> entry.getEntryType() == LeaveLedgerEntryType.CONSUME)
+                .sorted(Comparator.comparing(LeaveLedgerEntry::getEntryId))
+                .toList();
+        assertThat(consumed).extracting(entry -> entry.getDays().stripTrailingZeros().toPlainString())
+                .containsExactly("-1", "-2", "-1");
+        assertThat(consumed.get(0).getGrantId()).isNull();
+        assertThat(consumed.get(1).getGrantId()).isNotNull();
+
+        // 古い付与は消化済みのため、失効しても残数は減らない（1 + 2 + 3 - 4 = 2）
+        leaveBalanceMaintenanceService.sweepExpiredGrants(leaveDate.plusDays(1));
+        assertThat(remainingPaidLeave()).isEqualByComparingTo("2");
+        assertThat(leaveLedgerService.balanceAt(employee.getEmployeeId(), LeaveType.PAID_LEAVE, today))
+                .hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("2"));
+        assertThat(leaveLedgerService.balanceAt(employee.getEmployeeId(), LeaveType.PAID_LEAVE, today.minusDays(1)))
+                .isEmpty();
+
+        // 取消すると消化した残数・付与へ戻り、失効済みの付与へ戻した2日はその場で失効する（2 + 4 - 2 = 4）
+        leaveRequestService.updateStatus(requestId, LeaveStatus.CANCELLED, approver.getEmployeeId(), null);
+        assertThat(remainingPaidLeave()).isEqualByComparingTo("4");
+    }
+
+    @Test
+    void openingSnapshotIsCreatedOncePerBalance() {
+        leaveLedgerService.open(List.of(employee.getEmployeeId()), LeaveType.PAID_LEAVE);
+        leaveLedgerService.open(List.of(employee.getEmployeeId()), LeaveType.PAID_LEAVE);
+
+        assertThat(leaveLedgerSnapshotRepository.findAll())
+                .filteredOn(snapshot -> employee.getEmployeeId().equals(snapshot.getEmployeeId())
+                        && snapshot.getLeaveType() == LeaveType.PAID_LEAVE)
+                .singleElement()
+                .satisfies(snapshot -> assertThat(snapshot.getBalance()).isEqualByComparingTo("1"));
+        // 一意制約により、同じ位置の開始スナップショットは重複して作成できない
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO leave_ledger_snapshots (employee_id, leave_type, snapshot_date, last_entry_id, balance, created_at) " +
+                "VALUES (?, 'PAID_LEAVE', CURRENT_DATE, 0, 1, CURRENT_TIMESTAMP)", employee.getEmployeeId()))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void snapshotsKeepPointInTimeBalance() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 3; i++) {
+            leaveRequestService.applyGrant(employee.getEmployeeId(), LeaveType.PAID_LEAVE, BigDecimal.ONE,
+                    today, null, approver.getEmployeeId());
+        }
+        assertThat(leaveLedgerService.compactSnapshots(3, LocalDateTime.now().plusSeconds(1))).isGreaterThanOrEqualTo(1);
+        leaveRequestService.applyGrant(employee.getEmployeeId(), LeaveType.PAID_LEAVE, new BigDecimal("0.5"),
+                today, null, approver.getEmployeeId());
+
+        assertThat(leaveLedgerService.balanceAt(employee.getEmployeeId(), LeaveType.PAID_LEAVE, today))
+                .hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("4.5"));
+        assertThat(remainingPaidLeave()).isEqualByComparingTo("4.5");
+    }
+
+    @Test
+    void snapshotsSkipEntriesThatMayStillBeUncommitted() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 3; i++) {
+            leaveRequestService.applyGrant(employee.getEmployeeId(), LeaveType.PAID_LEAVE, BigDecimal.ONE,
+                    today, null, approver.getEmployeeId());
+        }
+        List<Long> grantEntryIds = leaveLedgerService.recentEntries(employee.getEmployeeId(), LeaveType.PAID_LEAVE, 10)
+                .stream()
+                .filter(entry -> entry.getEntryType() == LeaveLedgerEntryType.GRANT)
+                .map(LeaveLedgerEntry::getEntryId)
+                .sorted()
+                .toList();
+        assertThat(grantEntryIds).hasSize(3);
+        // 最も小さいIDの記帳だけが新しい（後からコミットされた記帳に相当する）
+        jdbcTemplate.update("UPDATE leave_ledger_entries SET created_at = ? WHERE employee_id = ?",
+                LocalDateTime.now().minusHours(1), employee.getEmployeeId());
+        jdbcTemplate.update("UPDATE leave_ledger_entries SET created_at = ? WHERE entry_id = ?",
+                LocalDateTime.now(), grantEntryIds.get(0));
+
+        leaveLedgerService.compactSnapshots(1, LocalDateTime.now().minusMinutes(10));
+
+        // 新しい記帳より後ろのIDまでスナップショットに含めない
+        assertThat(leaveLedgerSnapshotRepository.findAll())
+                .filteredOn(snapshot -> employee.getEmployeeId().equals(snapshot.getEmployeeId()))
+                .allSatisfy(snapshot -> assertThat(snapshot.getLastEntryId()).isLessThan(grantEntryIds.get(0)));
+        assertThat(leaveLedgerService.balanceAt(employee.getEmployeeId(), LeaveType.PAID_LEAVE, today))
+                .hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("4"));
+
+        // 経過時間を過ぎれば、すべての記帳をスナップショットに含める
+        jdbcTemplate.update("UPDATE leave_ledger_entries SET created_at = ? WHERE entry_id = ?",
+                LocalDateTime.now().minusHours(1), grantEntryIds.get(0));
+        assertThat(leaveLedgerService.compactSnapshots(1, LocalDateTime.now().minusMinutes(10))).isPositive();
+        assertThat(leaveLedgerSnapshotRepository.findAll())
+                .filteredOn(snapshot -> employee.getEmployeeId().equals(snapshot.getEmployeeId()))
+                .extracting(LeaveLedgerSnapshot::getLastEntryId)
+                .contains(grantEntryIds.get(2));
+        assertThat(leaveLedgerService.balanceAt(employee.getEmployeeId(), LeaveType.PAID_LEAVE, today))
+                .hasValueSatisfying(balance -> assertThat(balance).isEqualByComparingTo("4"));
+    }
+
+    private BigDecimal remainingPaidLeave() {
+        return leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId())
+                .get(LeaveType.PAID_LEAVE).getRemaining();
+    }
+
+    private LocalDate nextWorkingDay(LocalDate from) {
+        LocalDate date = from.plusDays(1);
+        while (!businessDayCalculator.isBusinessDay(date)) {
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+}
@@ -4,6 +4,7 @@ import com.kintai.dto.LeaveBalanceView;
 import com.kintai.dto.LeaveRequestDto;
 import com.kintai.entity.Employee;
 import com.kintai.entity.LeaveBalance;
+import com.kintai.entity.LeaveGrant;
 import com.kintai.entity.LeaveRequest;
 import com.kintai.entity.LeaveStatus;
 import com.kintai.entity.LeaveTimeUnit;
@@ -11,7 +12,11 @@ import com.kintai.entity.LeaveType;
 import com.kintai.exception.VacationException;
 import com.kintai.repository.EmployeeRepository;
 import com.kintai.repository.LeaveBalanceRepository;
+import com.kintai.repository.LeaveGrantRepository;
 import com.kintai.repository.LeaveRequestRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,6 +47,18 @@ class LeaveRequestServiceTest {
     @Autowired
     private LeaveBalanceRepository leaveBalanceRepository;
 
+    @Autowired
+    private LeaveGrantRepository leaveGrantRepository;
+
+    @Autowired
+    private LeaveBalanceMaintenanceService leaveBalanceMaintenanceService;
+
+    @Autowired
+    private PaidLeaveAnniversaryGrantService paidLeaveAnniversaryGrantService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Autowired
     private com.kintai.util.BusinessDayCalculator businessDayCalculator;
 
@@ -291,6 +309,208 @@ class LeaveRequestServiceTest {
         assertThat(balance.getRemainingDays()).isEqualByComparingTo("10");
     }
 
+    @Test
+    void remainingSummaryDoesNotCreateBalanceRecords() {
+        Map<LeaveType, LeaveBalanceView> summary = leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId());
+
+        assertThat(summary).hasSize(LeaveType.values().length);
+        assertThat(summary.get(LeaveType.PAID_LEAVE).getRemaining()).isEqualByComparingTo("10");
+        assertThat(summary.get(LeaveType.SUMMER).getRemaining()).isEqualByComparingTo("0");
+        assertThat(leaveBalanceRepository.findByEmployeeId(employee.getEmployeeId())).isEmpty();
+    }
+
+    @Test
+    void remainingSummariesAggregatesMultipleEmployees() {
+        leaveRequestService.initializeBalances(employee);
+        LocalDate target = nextWorkingDay(2);
+        leaveRequestService.createLeaveRequest(
+                employee.getEmployeeId(),
+                LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.FULL_DAY,
+                target,
+                target,
+                "集計テスト");
+
+        Map<Long, Map<LeaveType, LeaveBalanceView>> summaries = leaveRequestService.getRemainingLeaveSummaries(
+                java.util.List.of(employee.getEmployeeId(), approver.getEmployeeId()));
+
+        assertThat(summaries).containsOnlyKeys(employee.getEmployeeId(), approver.getEmployeeId());
+        LeaveBalanceView paid = summaries.get(employee.getEmployeeId()).get(LeaveType.PAID_LEAVE);
+        assertThat(paid.getRemaining()).isEqualByComparingTo("10");
+        assertThat(paid.getPending()).isEqualByComparingTo("1");
+        assertThat(paid.getAvailable()).isEqualByComparingTo("9");
+        assertThat(summaries.get(approver.getEmployeeId()).get(LeaveType.PAID_LEAVE).getPending()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void pendingDaysAreTrackedOnBalanceAcrossTransitions() {
+        LocalDate first = nextWorkingDay(1);
+        LeaveRequestDto created = leaveRequestService.createLeaveRequest(
+                employee.getEmployeeId(),
+                LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.FULL_DAY,
+                first,
+                first,
+                "申請中テスト");
+        LocalDate second = nextWorkingDay(2);
+        LeaveRequestDto other = leaveRequestService.createLeaveRequest(
+                employee.getEmployeeId(),
+                LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.HALF_PM,
+                second,
+                second,
+                "午後休");
+        assertThat(leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId())
+                .get(LeaveType.PAID_LEAVE).getPending()).isEqualByComparingTo("1.5");
+
+        Long rejectedId = ((LeaveRequestDto.LeaveData) created.getData()).getLeaveRequestId();
+        leaveRequestService.updateStatus(rejectedId, LeaveStatus.REJECTED, approver.getEmployeeId(), "業務都合");
+        assertThat(leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId())
+                .get(LeaveType.PAID_LEAVE).getPending()).isEqualByComparingTo("0.5");
+
+        Long cancelledId = ((LeaveRequestDto.LeaveData) other.getData()).getLeaveRequestId();
+        leaveRequestService.cancelRequest(cancelledId, employee.getEmployeeId());
+        LeaveBalanceView view = leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId()).get(LeaveType.PAID_LEAVE);
+        assertThat(view.getPending()).isEqualByComparingTo("0");
+        assertThat(view.getRemaining()).isEqualByComparingTo("10");
+    }
+
+    @Test
+    void pendingDaysVerificationRepairsDrift() {
+        LocalDate target = nextWorkingDay(3);
+        leaveRequestService.createLeaveRequest(
+                employee.getEmployeeId(),
+                LeaveType.PAID_LEAVE,
+                LeaveTimeUnit.FULL_DAY,
+                target,
+                target,
+                "整合性テスト");
+        leaveBalanceRepository.releasePendingDays(employee.getEmployeeId(), LeaveType.PAID_LEAVE, new BigDecimal("5"));
+
+        assertThat(leaveBalanceMaintenanceService.verifyPendingDays()).isEqualTo(1);
+        assertThat(leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId())
+                .get(LeaveType.PAID_LEAVE).getPending()).isEqualByComparingTo("1");
+        assertThat(leaveBalanceMaintenanceService.verifyPendingDays()).isZero();
+    }
+
+    @Test
+    void expirySweepRemovesExpiredGrantFromBalance() {
+        LocalDate today = LocalDate.now();
+        leaveRequestService.applyGrant(
+                employee.getEmployeeId(),
+                LeaveType.SUMMER,
+                new BigDecimal("3"),
+                today.minusDays(30),
+                today.plusDays(1),
+                approver.getEmployeeId());
+        assertThat(leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId())
+                .get(LeaveType.SUMMER).getRemaining()).isEqualByComparingTo("3");
+
+        // 有効期限の翌々日に実行すると期限切れ分が残数から除かれる
+        assertThat(leaveBalanceMaintenanceService.sweepExpiredGrants(today.plusDays(2))).isEqualTo(1);
+        LeaveBalance balance = leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.SUMMER).orElseThrow();
+        assertThat(balance.getTotalDays()).isEqualByComparingTo("0");
+        assertThat(balance.getRemainingDays()).isEqualByComparingTo("0");
+        assertThat(leaveRequestService.getRemainingLeaveSummary(employee.getEmployeeId())
+                .get(LeaveType.SUMMER).getRemaining()).isEqualByComparingTo("0");
+
+        // 同じ基準日で再実行しても結果は変わらない（冪等）
+        leaveBalanceMaintenanceService.sweepExpiredGrants(today.plusDays(2));
+        assertThat(leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.SUMMER).orElseThrow()
+                .getRemainingDays()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void expirySweepKeepsDaysConsumedFromPartlyUsedLegacyGrant() {
+        LocalDate today = LocalDate.now();
+        // 台帳導入前の付与（台帳に記帳のない付与履歴）: 期限切れ予定の3日と有効な5日から2日取得済み
+        leaveGrantRepository.save(new LeaveGrant(employee.getEmployeeId(), LeaveType.SUMMER,
+                new BigDecimal("3"), today.minusDays(30), today.plusDays(1), approver.getEmployeeId()));
+        leaveGrantRepository.save(new LeaveGrant(employee.getEmployeeId(), LeaveType.SUMMER,
+                new BigDecimal("5"), today.minusDays(10), today.plusDays(100), approver.getEmployeeId()));
+        LeaveBalance legacy = new LeaveBalance(employee.getEmployeeId(), LeaveType.SUMMER);
+        legacy.setTotalDays(new BigDecimal("8"));
+        legacy.setUsedDays(new BigDecimal("2"));
+        legacy.setRemainingDays(new BigDecimal("6"));
+        leaveBalanceRepository.save(legacy);
+
+        // 取得済み2日は古い付与から消化済みのため、失効するのは未消化の1日のみ
+        assertThat(leaveBalanceMaintenanceService.sweepExpiredGrants(today.plusDays(2))).isEqualTo(1);
+        LeaveBalance balance = leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.SUMMER).orElseThrow();
+        assertThat(balance.getTotalDays()).isEqualByComparingTo("7");
+        assertThat(balance.getUsedDays()).isEqualByComparingTo("2");
+        assertThat(balance.getRemainingDays()).isEqualByComparingTo("5");
+
+        leaveBalanceMaintenanceService.sweepExpiredGrants(today.plusDays(2));
+        assertThat(leaveBalanceRepository
+                .findByEmployeeIdAndLeaveType(employee.getEmployeeId(), LeaveType.SUMMER).orElseThrow()
+                .getRemainingDays()).isEqualByComparingTo("5");
+    }
+
+    @Test
+    void anniversaryGrantAddsStatutoryDaysByTenure() {
+        Employee veteran = new Employee("EMP-L-HIRE1");
+        veteran.setHireDate(LocalDate.of(2019, 4, 1));
+        veteran = employeeRepository.save(veteran);
+        Employee monthEnd = new Employee("EMP-L-HIRE2");
+        monthEnd.setHireDate(LocalDate.of(2025, 8, 31));
+        monthEnd = employeeRepository.save(monthEnd);
+        leaveRequestService.initializeBalances(veteran);
+        leaveRequestService.initializeBalances(monthEnd);
+
+        // 入社6年6か月（7回目の付与）: 20日
+        paidLeaveAnniversaryGrantService.grantOn(LocalDate.of(2025, 10, 1));
+        // 8/31入社の初回付与は2月末日: 法定10日のうち基本付与日数（10日）は入社時に前渡し済み
+        paidLeaveAnniversaryGrantService.grantOn(LocalDate.of(2026, 2, 28));
+        // 同日の再実行では二重付与しない
+        paidLeaveAnniversaryGrantService.grantOn(LocalDate.of(2025, 10, 1));
+        paidLeaveAnniversaryGrantService.grantOn(LocalDate.of(2026, 2, 28));
+        // 付与者なしの別の付与が同日にあっても自動付与の対象からは外れない
+        leaveGrantRepository.saveAndFlush(new LeaveGrant(veteran.getEmployeeId(), LeaveType.PAID_LEAVE,
+                BigDecimal.ZERO, LocalDate.of(2026, 10, 1), null, null));
+        // 入社7年6か月（8回目の付与）: 20日
+        paidLeaveAnniversaryGrantService.grantOn(LocalDate.of(2026, 10, 1));
+        assertThatThrownBy(() -> paidLeaveAnniversaryGrantService.grantOn(LocalDate.now().plusDays(1)))
+                .isInstanceOf(VacationException.class);
+
+        var summaries = leaveRequestService.getRemainingLeaveSummaries(
+                List.of(veteran.getEmployeeId(), monthEnd.getEmployeeId()));
+        assertThat(summaries.get(veteran.getEmployeeId()).get(LeaveType.PAID_LEAVE).getRemaining())
+                .isEqualByComparingTo("50");
+        assertThat(summaries.get(monthEnd.getEmployeeId()).get(LeaveType.PAID_LEAVE).getRemaining())
+                .isEqualByComparingTo("10");
+        assertThat(PaidLeaveAnniversaryGrantService.statutoryDays(LocalDate.of(2024, 4, 1), LocalDate.of(2025, 10, 1)))
+                .isEqualByComparingTo("11");
+    }
+
+    @Test
+    void requestedDaysCalculationUsesConstantQueryCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            LocalDate start = LocalDate.of(2025, 4, 1);
+
+            statistics.clear();
+            assertThat(leaveRequestService.calculateRequestedDays(
+                    employee.getEmployeeId(), start, start, LeaveTimeUnit.FULL_DAY)).isEqualByComparingTo("1");
+            long singleDayQueries = statistics.getPrepareStatementCount();
+
+            // 2025/4/1〜4/30: 土日8日、昭和の日1日を除く21日
+            statistics.clear();
+            assertThat(leaveRequestService.calculateRequestedDays(
+                    employee.getEmployeeId(), start, start.plusDays(29), LeaveTimeUnit.FULL_DAY)).isEqualByComparingTo("21");
+            long monthQueries = statistics.getPrepareStatementCount();
+
+            assertThat(singleDayQueries).isEqualTo(1);
+            assertThat(monthQueries).isEqualTo(singleDayQueries);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
     private LocalDate nextWorkingDay(int plusDays) {
         LocalDate date = LocalDate.now();
         int remaining = plusDays;
@@ -0,0 +1,99 @@
+package com.kintai.service;
+
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.Employee;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MonthCloseServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2031, 3);
+
+    @Autowired
+    private MonthCloseService monthCloseService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    private final List<Employee> employees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 3; i++) {
+            employees.add(employeeRepository.save(new Employee("EMP-MC-00" + i)));
+        }
+        ReflectionTestUtils.setField(monthCloseService, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(monthCloseService, "chunkSize", 500);
+    }
+
+    @Test
+    void closesAllEmployeesInChunksAndLeavesOtherMonthsOpen() {
+        for (Employee employee : employees) {
+            save(employee, MONTH.atDay(3), false);
+            save(employee, MONTH.atEndOfMonth(), false);
+        }
+        AttendanceRecord alreadyFixed = save(employees.get(0), MONTH.atDay(10), true);
+        AttendanceRecord nextMonth = save(employees.get(1), MONTH.plusMonths(1).atDay(1), false);
+
+        MonthCloseService.CloseJob job = monthCloseService.closeMonth(MONTH);
+
+        assertThat(job.getStatus()).isEqualTo(MonthCloseService.CloseJob.Status.COMPLETED);
+        assertThat(job.getTotal()).isEqualTo(3);
+        assertThat(job.getProcessed()).isEqualTo(3);
+        assertThat(job.getFixedRecords()).isEqualTo(6);
+        assertThat(attendanceRecordRepository.countUnfixedEmployees(MONTH.atDay(1), MONTH.atEndOfMonth())).isZero();
+        assertThat(attendanceRecordRepository.findById(alreadyFixed.getAttendanceId()).orElseThrow().getVersion())
+                .isEqualTo(alreadyFixed.getVersion());
+        assertThat(attendanceRecordRepository.findById(nextMonth.getAttendanceId()).orElseThrow().getAttendanceFixedFlag())
+                .isFalse();
+        assertThat(monthCloseService.findJob(job.getJobId())).isPresent();
+    }
+
+    @Test
+    void approveAttendanceFixesOneEmployeeMonthWithVersionBump() {
+        Employee employee = employees.get(0);
+        AttendanceRecord record = save(employee, MONTH.atDay(5), false);
+        Long versionBefore = record.getVersion();
+
+        assertThat(adminService.approveAttendance(employee.getEmployeeId(), "2031-03")).isTrue();
+        AttendanceRecord fixed = attendanceRecordRepository.findById(record.getAttendanceId()).orElseThrow();
+        assertThat(fixed.getAttendanceFixedFlag()).isTrue();
+        assertThat(fixed.getVersion()).isEqualTo(versionBefore + 1);
+
+        // 確定済みの月の再承認は成功扱い、勤怠記録がない月は失敗
+        assertThat(adminService.approveAttendance(employee.getEmployeeId(), "2031-03")).isTrue();
+        assertThat(adminService.approveAttendance(employee.getEmployeeId(), "2031-05")).isFalse();
+    }
+
+    private AttendanceRecord save(Employee employee, LocalDate date, boolean fixed) {
+        AttendanceRecord record = new AttendanceRecord(employee.getEmployeeId(), date);
+        record.setAttendanceFixedFlag(fixed);
+        return attendanceRecordRepository.saveAndFlush(record);
+    }
+}
@@ -0,0 +1,102 @@
+package com.kintai.service;
+
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.AttendanceStatus;
+import com.kintai.entity.Employee;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class PayrollExportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2031, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2031, 3, 31);
+
+    @Autowired
+    private PayrollExportService payrollExportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @BeforeEach
+    void setUp() {
+        Employee first = new Employee("EMP-PY-001");
+        first.setLastName("山田");
+        first.setFirstName("太郎, Jr.");
+        first = employeeRepository.save(first);
+        Employee other = employeeRepository.save(new Employee("EMP-QZ-001"));
+
+        save(first.getEmployeeId(), LocalDate.of(2031, 3, 3), 9, 20);
+        save(first.getEmployeeId(), LocalDate.of(2031, 3, 4), 9, 18);
+        save(first.getEmployeeId(), LocalDate.of(2031, 4, 1), 9, 18);
+        save(other.getEmployeeId(), LocalDate.of(2031, 3, 3), 9, 18);
+        attendanceRecordRepository.flush();
+    }
+
+    @Test
+    void exportsCsvRowsInPeriodForPrefix() throws IOException {
+        PayrollExportService.ExportRequest request = payrollExportService.prepare(FROM, TO, "EMP-PY-", false, "csv", "UTF-8");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = payrollExportService.export(request, output);
+
+        assertThat(rows).isEqualTo(2);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("社員コード,姓,名,勤務日,出勤時刻,退勤時刻,実働分,残業分");
+        assertThat(lines[1]).isEqualTo(
+                "EMP-PY-001,山田,\"太郎, Jr.\",2031-03-03,2031-03-03 09:00,2031-03-03 20:00,600,120,0,0,0,60,OVERTIME,0");
+        assertThat(lines[2]).startsWith("EMP-PY-001,山田,\"太郎, Jr.\",2031-03-04,");
+    }
+
+    @Test
+    void exportsTsvInShiftJis() throws IOException {
+        PayrollExportService.ExportRequest request = payrollExportService.prepare(FROM, TO, "EMP-PY-", false, "tsv", "Shift_JIS");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        payrollExportService.export(request, output);
+
+        String text = output.toString(Charset.forName("windows-31j"));
+        assertThat(text).startsWith("社員コード\t姓\t名\t勤務日");
+        assertThat(text).contains("EMP-PY-001\t山田\t太郎, Jr.\t2031-03-03\t");
+    }
+
+    @Test
+    void rejectsUnknownFormatAndReversedPeriod() {
+        assertThatThrownBy(() -> payrollExportService.prepare(FROM, TO, null, false, "xlsx", "UTF-8"))
+                .isInstanceOf(AttendanceException.class);
+        assertThatThrownBy(() -> payrollExportService.prepare(TO, FROM, null, false, "csv", "UTF-8"))
+                .isInstanceOf(AttendanceException.class);
+        assertThatThrownBy(() -> payrollExportService.prepare(FROM, TO, null, false, "csv", "EUC-JP"))
+                .isInstanceOf(AttendanceException.class);
+    }
+
+    private void save(Long employeeId, LocalDate date, int clockIn, int clockOut) {
+        AttendanceRecord record = new AttendanceRecord(employeeId, date);
+        record.setClockInTime(date.atTime(clockIn, 0));
+        record.setClockOutTime(date.atTime(clockOut, 0));
+        record.setBreakMinutes(60);
+        record.setOvertimeMinutes(Math.max(0, (clockOut - clockIn - 9) * 60));
+        record.setAttendanceStatus(clockOut - clockIn > 9 ? AttendanceStatus.OVERTIME : AttendanceStatus.NORMAL);
+        attendanceRecordRepository.save(record);
+    }
+}
@@ -0,0 +1,82 @@
+package com.kintai.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportCacheTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2031, 3);
+
+    @TempDir
+    Path diskDir;
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverByteBudget() {
+        ReportCache cache = new ReportCache(400, "", 0);
+        ReportCache.Key first = new ReportCache.Key(1L, MONTH);
+        ReportCache.Key second = new ReportCache.Key(2L, MONTH);
+        ReportCache.Key third = new ReportCache.Key(3L, MONTH);
+
+        cache.put(first, "v1", false, new byte[100], cache.generation(1L));
+        cache.put(second, "v1", false, new byte[100], cache.generation(2L));
+        cache.put(third, "v1", false, new byte[100], cache.generation(3L));
+        // first を参照して最近使ったものにする
+        assertThat(cache.get(first, "v1", false)).isNotNull();
+        cache.put(new ReportCache.Key(4L, MONTH), "v1", false, new byte[100], cache.generation(4L));
+        cache.put(new ReportCache.Key(5L, MONTH), "v1", false, new byte[100], cache.generation(5L));
+
+        assertThat(cache.get(first, "v1", false)).isNotNull();
+        assertThat(cache.get(second, "v1", false)).isNull();
+        assertThat(cache.stats()).containsEntry("memoryBytes", 400L).containsEntry("entries", 4);
+    }
+
+    @Test
+    void ignoresStaleVersionsAndPutsRacingWithEviction() {
+        ReportCache cache = new ReportCache(10_000, "", 0);
+        ReportCache.Key key = new ReportCache.Key(1L, MONTH);
+
+        cache.put(key, "1-0-10-1", false, new byte[10], cache.generation(1L));
+        assertThat(cache.get(key, "2-0-11-1", false)).isNull();
+        assertThat(cache.getSealed(key)).isNull();
+
+        long generation = cache.generation(1L);
+        cache.evict(1L, MONTH);
+        cache.put(key, "2-0-11-0", true, new byte[10], generation);
+        assertThat(cache.getSealed(key)).isNull();
+
+        cache.put(key, "2-0-11-0", true, new byte[10], cache.generation(1L));
+        assertThat(cache.getSealed(key)).hasSize(10);
+        cache.evictEmployees(List.of(1L));
+        assertThat(cache.getSealed(key)).isNull();
+    }
+
+    @Test
+    void servesEntriesFromDiskAfterMemoryEvictionAndRestart() {
+        ReportCache cache = new ReportCache(200, diskDir.toString(), 10_000);
+        ReportCache.Key first = new ReportCache.Key(1L, MONTH);
+        byte[] pdf = {'%', 'P', 'D', 'F'};
+
+        cache.put(first, "v1", true, pdf, cache.generation(1L));
+        cache.put(first, "v2", true, pdf, cache.generation(1L));
+        for (long id = 2; id <= 6; id++) {
+            cache.put(new ReportCache.Key(id, MONTH), "v1", false, new byte[50], cache.generation(id));
+        }
+        assertThat(cache.getSealed(first)).isNull();
+        assertThat(cache.get(first, "v2", true)).containsExactly(pdf);
+        assertThat(cache.getSealed(first)).containsExactly(pdf);
+
+        ReportCache restarted = new ReportCache(200, diskDir.toString(), 10_000);
+        assertThat(restarted.get(first, "v1", true)).isNull();
+        assertThat(restarted.get(first, "v2", true)).containsExactly(pdf);
+        assertThat(restarted.stats()).containsEntry("diskBytes", 4L + 5 * 50L);
+
+        restarted.evict(1L, MONTH);
+        assertThat(restarted.get(first, "v2", true)).isNull();
+    }
+}
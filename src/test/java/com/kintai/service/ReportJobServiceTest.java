@@ -0,0 +1,271 @@
+package com.kintai.service;
+
+import com.kintai.entity.AttendanceRecord;
+import com.kintai.entity.Employee;
+import com.kintai.exception.AttendanceException;
+import com.kintai.repository.AttendanceRecordRepository;
+import com.kintai.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/**
+ * レポート生成ジョブのテスト
+ * ジョブは専用スレッドで実行され、テストのトランザクションの内容は見えないため、コミットしたデータを後始末で削除する。
+ */
+@SpringBootTest
+class ReportJobServiceTest {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private AttendanceReportService attendanceReportService;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (Long employeeId : created) {
+            attendanceRecordRepository.deleteAll(attendanceRecordRepository.findByEmployeeIdOrderByAttendanceDateDesc(employeeId));
+            employeeRepository.deleteById(employeeId);
+        }
+    }
+
+    @Test
+    void runsSubmittedJobAndRecordsMetrics() throws Exception {
+        Employee employee = employeeRepository.save(new Employee("EMP-JB-001"));
+        created.add(employee.getEmployeeId());
+        AttendanceRecord record = new AttendanceRecord(employee.getEmployeeId(), LocalDate.of(2031, 3, 3));
+        record.setClockInTime(LocalDate.of(2031, 3, 3).atTime(9, 0));
+        record.setClockOutTime(LocalDate.of(2031, 3, 3).atTime(18, 0));
+        attendanceRecordRepository.save(record);
+
+        ReportJobService.ReportJob job = reportJobService.submit(List.of(employee.getEmployeeId()), "2031-03", null, null);
+        assertThat(job.getFormat()).isEqualTo(ReportJobService.Format.PDF);
+        assertThat(job.getPriority()).isEqualTo(ReportJobService.Priority.HIGH);
+
+        ReportJobService.ReportJob finished = awaitFinished(job.getJobId());
+        assertThat(finished.getStatus()).isEqualTo(ReportJobService.ReportJob.Status.COMPLETED);
+        assertThat(finished.getDownloadUrl()).isEqualTo("/api/reports/jobs/" + job.getJobId() + "/download");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        reportJobService.writeResult(finished, output);
+        assertThat(new String(output.toByteArray(), 0, 4, StandardCharsets.ISO_8859_1)).isEqualTo("%PDF");
+
+        Map<String, Object> metrics = reportJobService.metrics();
+        assertThat((Long) metrics.get("completed")).isPositive();
+        assertThat(metrics).containsKeys("queueDepth", "waitTime", "renderTime", "cache");
+        // 統計は MeterRegistry に登録した値と同じ
+        assertThat(meterRegistry.get("kintai.report.jobs.render").timer().count())
+                .isEqualTo(((Map<?, ?>) metrics.get("renderTime")).get("count"));
+        assertThat(meterRegistry.get("kintai.report.jobs").tag("result", "completed").counter().count())
+                .isEqualTo(((Long) metrics.get("completed")).doubleValue());
+        assertThat(meterRegistry.get("kintai.report.jobs.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void failsJobForUnknownEmployeeAndRejectsInvalidRequests() throws Exception {
+        ReportJobService.ReportJob job = reportJobService.submit(List.of(99999999L), "2031-03", "pdf", null);
+        ReportJobService.ReportJob finished = awaitFinished(job.getJobId());
+        assertThat(finished.getStatus()).isEqualTo(ReportJobService.ReportJob.Status.FAILED);
+        assertThat(finished.getDownloadUrl()).isNull();
+        assertThatThrownBy(() -> reportJobService.writeResult(finished, new ByteArrayOutputStream()))
+                .isInstanceOf(AttendanceException.class);
+
+        assertThatThrownBy(() -> reportJobService.submit(List.of(1L, 2L), "2031-03", "pdf", null))
+                .isInstanceOf(AttendanceException.class);
+        assertThatThrownBy(() -> reportJobService.submit(List.of(1L), "2031/03", null, null))
+                .isInstanceOf(AttendanceException.class);
+        assertThatThrownBy(() -> reportJobService.submit(List.of(), "2031-03", null, null))
+                .isInstanceOf(AttendanceException.class);
+    }
+
+    @Test
+    void rejectsUnauthenticatedCallersUnlessExplicitlyAllowed() {
+        ReflectionTestUtils.setField(reportJobService, "allowUnauthenticated", false);
+        try {
+            assertThatThrownBy(() -> reportJobService.submit(List.of(1L), "2031-03", null, null))
+                    .isInstanceOf(AttendanceException.class)
+                    .extracting(e -> ((AttendanceException) e).getErrorCode())
+                    .isEqualTo(AttendanceException.ACCESS_DENIED);
+
+            SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+                    AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+            assertThatThrownBy(() -> reportJobService.submit(List.of(1L), "2031-03", null, null))
+                    .isInstanceOf(AttendanceException.class)
+                    .extracting(e -> ((AttendanceException) e).getErrorCode())
+                    .isEqualTo(AttendanceException.ACCESS_DENIED);
+            assertThatThrownBy(() -> reportJobService.findJob("unknown"))
+                    .isInstanceOf(AttendanceException.class);
+            assertThatThrownBy(() -> reportJobService.metrics())
+                    .isInstanceOf(AttendanceException.class);
+        } finally {
+            SecurityContextHolder.clearContext();
+            ReflectionTestUtils.setField(reportJobService, "allowUnauthenticated", true);
+        }
+    }
+
+    @Test
+    void concurrentSubmissionsNeverExceedMaxQueued() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(30, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(attendanceReportService).prepareReport(anyLong(), anyString());
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<String> jobIds = new ArrayList<>();
+        try {
+            // 生成スレッド（2本）を塞いでから、待ち件数の上限を超える投入を同時に行う
+            jobIds.add(reportJobService.submit(List.of(99999998L), "2031-03", "pdf", null).getJobId());
+            jobIds.add(reportJobService.submit(List.of(99999999L), "2031-03", "pdf", null).getJobId());
+            assertThat(started.await(30, TimeUnit.SECONDS)).isTrue();
+            ReflectionTestUtils.setField(reportJobService, "maxQueued", 4);
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long employeeId = 99990000L + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return reportJobService.submit(List.of(employeeId), "2031-03", "pdf", null).getJobId();
+                    } catch (AttendanceException e) {
+                        assertThat(e.getErrorCode()).isEqualTo(AttendanceException.QUEUE_FULL);
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                String jobId = result.get();
+                if (jobId != null) {
+                    jobIds.add(jobId);
+                }
+            }
+            assertThat(jobIds).hasSize(2 + 4);
+            assertThat(reportJobService.metrics().get("queueDepth")).isEqualTo(4);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            ReflectionTestUtils.setField(reportJobService, "maxQueued", 200);
+        }
+        for (String jobId : jobIds) {
+            awaitFinished(jobId);
+        }
+        reset(attendanceReportService);
+        assertThat(reportJobService.metrics().get("queueDepth")).isEqualTo(0);
+    }
+
+    @Test
+    void purgesExpiredJobsWithTheirResultFiles() throws Exception {
+        Employee employee = employeeRepository.save(new Employee("EMP-JB-002"));
+        created.add(employee.getEmployeeId());
+
+        ReportJobService.ReportJob finished = awaitFinished(
+                reportJobService.submit(List.of(employee.getEmployeeId()), "2031-03", null, null).getJobId());
+        assertThat(finished.getStatus()).isEqualTo(ReportJobService.ReportJob.Status.COMPLETED);
+        Path output = (Path) ReflectionTestUtils.getField(finished, "output");
+        assertThat(output).exists();
+
+        // 新しいジョブの投入がなくても、保持期間を過ぎたジョブは生成結果とともに破棄される
+        assertThat(jobRegistry.purgeFinishedBefore(LocalDateTime.now().plusMinutes(1))).isPositive();
+        assertThat(reportJobService.findJob(finished.getJobId())).isEmpty();
+        assertThat(output).doesNotExist();
+
+        // 登録のない古い生成結果（再起動前のジョブなど）も削除する
+        Path outputDir = (Path) ReflectionTestUtils.getField(reportJobService, "outputDir");
+        Path orphan = Files.writeString(outputDir.resolve("orphan-job.pdf"), "%PDF");
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+        Path recent = Files.writeString(outputDir.resolve("recent-job.pdf"), "%PDF");
+        try {
+            reportJobService.purgeOrphanedResults();
+            assertThat(orphan).doesNotExist();
+            assertThat(recent).exists();
+        } finally {
+            Files.deleteIfExists(orphan);
+            Files.deleteIfExists(recent);
+        }
+    }
+
+    @Test
+    void ordersQueueByPriorityThenSubmitterRank() {
+        YearMonth month = YearMonth.of(2031, 3);
+        ReportJobService.ReportJob bulk1 = job("bulk-1", "a", ReportJobService.Priority.LOW, 1, 1);
+        ReportJobService.ReportJob bulk2 = job("bulk-2", "a", ReportJobService.Priority.LOW, 2, 2);
+        ReportJobService.ReportJob bulk3 = job("bulk-3", "a", ReportJobService.Priority.LOW, 3, 3);
+        ReportJobService.ReportJob other = job("other", "b", ReportJobService.Priority.LOW, 1, 4);
+        ReportJobService.ReportJob interactive = job("interactive", "c", ReportJobService.Priority.HIGH, 1, 5);
+
+        List<ReportJobService.ReportJob> queue = new ArrayList<>(List.of(bulk1, bulk2, bulk3, other, interactive));
+        queue.sort(null);
+
+        assertThat(queue).extracting(ReportJobService.ReportJob::getJobId)
+                .containsExactly("interactive", "bulk-1", "other", "bulk-2", "bulk-3");
+    }
+
+    private ReportJobService.ReportJob job(String jobId, String submitter, ReportJobService.Priority priority,
+                                           int rank, long sequence) {
+        return reportJobService.new ReportJob(jobId, submitter, List.of(1L), YearMonth.of(2031, 3),
+                ReportJobService.Format.PDF, priority, rank, sequence);
+    }
+
+    private ReportJobService.ReportJob awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 600; i++) {
+            ReportJobService.ReportJob job = reportJobService.findJob(jobId).orElseThrow();
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("ジョブが完了しません: " + jobId);
+    }
+}